@@ -0,0 +1,124 @@
+package org.godsendjoseph.pet_app.analytics;
+
+/**
+ * Number and total of expenses in each bucket of a HistogramBuckets.
+ * Filled from a GROUP BY on the bucket expression, so only one row per
+ * non-empty bucket is ever read, however many expenses are in the range.
+ */
+public final class AmountHistogram implements Mergeable<AmountHistogram> {
+
+    private final HistogramBuckets buckets;
+    private final long[] counts;
+    private final double[] sums;
+
+    public AmountHistogram(HistogramBuckets buckets) {
+        this.buckets = buckets;
+        this.counts = new long[buckets.size()];
+        this.sums = new double[buckets.size()];
+    }
+
+    /**
+     * Histogram without any expenses
+     */
+    public static AmountHistogram empty() {
+        return new AmountHistogram(HistogramBuckets.fixedWidth(1, 1));
+    }
+
+    /**
+     * Add the expenses of a bucket; buckets out of range are ignored
+     * @param bucket Index of the bucket
+     * @param count Number of expenses
+     * @param sum Total of their amounts
+     */
+    public void add(int bucket, long count, double sum) {
+        if (bucket < 0 || bucket >= counts.length) {
+            return;
+        }
+        counts[bucket] += count;
+        sums[bucket] += sum;
+    }
+
+    /**
+     * Add a single amount, e.g. when filling the histogram in memory
+     */
+    public void addAmount(double amount) {
+        add(buckets.bucketOf(amount), 1, amount);
+    }
+
+    @Override
+    public void merge(AmountHistogram other) {
+        if (other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms have different buckets");
+        }
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] += other.counts[bucket];
+            sums[bucket] += other.sums[bucket];
+        }
+    }
+
+    // Getters
+    public HistogramBuckets getBuckets() {
+        return buckets;
+    }
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    public double getSum(int bucket) {
+        return sums[bucket];
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Largest single bucket count, for scaling a chart
+     */
+    public long getMaxCount() {
+        long max = 0;
+        for (long count : counts) {
+            if (count > max) {
+                max = count;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Index of the first bucket with expenses, or -1 if there are none
+     */
+    public int getFirstNonEmpty() {
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] > 0) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the last bucket with expenses, or -1 if there are none
+     */
+    public int getLastNonEmpty() {
+        for (int bucket = counts.length - 1; bucket >= 0; bucket--) {
+            if (counts[bucket] > 0) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isEmpty() {
+        return getFirstNonEmpty() < 0;
+    }
+}
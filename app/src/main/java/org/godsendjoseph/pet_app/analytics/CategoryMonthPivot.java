@@ -0,0 +1,137 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Dense category x month matrix of expense totals.
+ * Rows are the categories that have expenses, in ascending ID order, and
+ * columns are consecutive months. All cells live in one flat row-major array,
+ * so a lookup is a single index computation and a 30 x 24 matrix is one
+ * allocation of 720 doubles instead of nested maps.
+ */
+public final class CategoryMonthPivot {
+
+    private final int[] categoryIds;
+    private final int firstMonth;
+    private final int monthCount;
+    private final double[] totals;
+    private final double maxTotal;
+
+    private CategoryMonthPivot(int[] categoryIds, int firstMonth, int monthCount, double[] totals) {
+        this.categoryIds = categoryIds;
+        this.firstMonth = firstMonth;
+        this.monthCount = monthCount;
+        this.totals = totals;
+
+        double max = 0;
+        for (double total : totals) {
+            if (total > max) {
+                max = total;
+            }
+        }
+        this.maxTotal = max;
+    }
+
+    public int getCategoryCount() {
+        return categoryIds.length;
+    }
+
+    public int getMonthCount() {
+        return monthCount;
+    }
+
+    public int getCategoryId(int row) {
+        return categoryIds[row];
+    }
+
+    /**
+     * Get the month of a column as year * 12 + (month - 1)
+     */
+    public int getMonthIndex(int column) {
+        return firstMonth + column;
+    }
+
+    /**
+     * Get the row of a category
+     * @return Row, or -1 if the category has no expenses in the range
+     */
+    public int getRowOf(int categoryId) {
+        int row = Arrays.binarySearch(categoryIds, categoryId);
+        return row >= 0 ? row : -1;
+    }
+
+    public double getTotal(int row, int column) {
+        return totals[row * monthCount + column];
+    }
+
+    /**
+     * Largest single cell, for scaling a heatmap
+     */
+    public double getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Builder fed with the rows of a GROUP BY category, month query
+     */
+    public static class Builder {
+        private final int firstMonth;
+        private final int monthCount;
+
+        // Cells in query order until build() knows the set of categories
+        private int size;
+        private int[] cellCategories = new int[64];
+        private int[] cellMonths = new int[64];
+        private double[] cellTotals = new double[64];
+
+        /**
+         * @param firstMonth First month of the range as year * 12 + (month - 1)
+         * @param lastMonth Last month of the range, inclusive
+         */
+        public Builder(int firstMonth, int lastMonth) {
+            this.firstMonth = firstMonth;
+            this.monthCount = (firstMonth < 0 || lastMonth < firstMonth) ? 0 : lastMonth - firstMonth + 1;
+        }
+
+        /**
+         * Add the total of one category in one month; months outside the range are ignored
+         */
+        public Builder add(int categoryId, int monthIndex, double total) {
+            if (monthIndex < firstMonth || monthIndex >= firstMonth + monthCount) {
+                return this;
+            }
+
+            if (size == cellTotals.length) {
+                cellCategories = Arrays.copyOf(cellCategories, size * 2);
+                cellMonths = Arrays.copyOf(cellMonths, size * 2);
+                cellTotals = Arrays.copyOf(cellTotals, size * 2);
+            }
+            cellCategories[size] = categoryId;
+            cellMonths[size] = monthIndex;
+            cellTotals[size] = total;
+            size++;
+            return this;
+        }
+
+        public CategoryMonthPivot build() {
+            // Distinct categories in ascending order
+            int[] sorted = Arrays.copyOf(cellCategories, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            int[] categoryIds = Arrays.copyOf(sorted, distinct);
+
+            double[] totals = new double[categoryIds.length * monthCount];
+            for (int cell = 0; cell < size; cell++) {
+                int row = Arrays.binarySearch(categoryIds, cellCategories[cell]);
+                totals[row * monthCount + cellMonths[cell] - firstMonth] += cellTotals[cell];
+            }
+
+            return new CategoryMonthPivot(categoryIds, firstMonth, monthCount, totals);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.godsendjoseph.pet_app.analytics;
+
+/**
+ * Daily and cumulative spend over consecutive days.
+ * There is one point per day of the range, days without expenses included,
+ * so a chart can index the arrays by day without gaps.
+ */
+public final class CumulativeSeries {
+
+    private final int firstDay;
+    private final double[] dailyTotals;
+    private final double[] cumulativeTotals;
+
+    private CumulativeSeries(int firstDay, double[] dailyTotals, double[] cumulativeTotals) {
+        this.firstDay = firstDay;
+        this.dailyTotals = dailyTotals;
+        this.cumulativeTotals = cumulativeTotals;
+    }
+
+    /**
+     * Series without any days
+     */
+    public static CumulativeSeries empty() {
+        return new CumulativeSeries(0, new double[0], new double[0]);
+    }
+
+    public int size() {
+        return dailyTotals.length;
+    }
+
+    /**
+     * Get the epoch day of a point
+     */
+    public int getEpochDay(int index) {
+        return firstDay + index;
+    }
+
+    public double getDailyTotal(int index) {
+        return dailyTotals[index];
+    }
+
+    /**
+     * Get the total spent from the first day up to and including a day
+     */
+    public double getCumulativeTotal(int index) {
+        return cumulativeTotals[index];
+    }
+
+    /**
+     * Total of the whole range, which is also the largest cumulative value
+     */
+    public double getTotal() {
+        return cumulativeTotals.length > 0 ? cumulativeTotals[cumulativeTotals.length - 1] : 0;
+    }
+
+    /**
+     * Builder fed with one row per day that has expenses, in ascending day order
+     */
+    public static class Builder {
+        private final int firstDay;
+        private final double[] dailyTotals;
+        private final double[] cumulativeTotals;
+
+        // Next day whose cumulative total has not been filled in yet
+        private int filled;
+
+        /**
+         * @param firstDay First epoch day of the range
+         * @param lastDay Last epoch day of the range, inclusive
+         */
+        public Builder(int firstDay, int lastDay) {
+            int days = lastDay >= firstDay ? lastDay - firstDay + 1 : 0;
+            this.firstDay = firstDay;
+            this.dailyTotals = new double[days];
+            this.cumulativeTotals = new double[days];
+        }
+
+        /**
+         * Add the totals of one day; days out of range or out of order are ignored
+         * @param epochDay Day of the row
+         * @param dailyTotal Spent on that day
+         * @param cumulativeTotal Spent from the first day up to and including that day
+         */
+        public Builder add(int epochDay, double dailyTotal, double cumulativeTotal) {
+            int index = epochDay - firstDay;
+            if (index < filled || index >= dailyTotals.length) {
+                return this;
+            }
+
+            // Days without expenses carry the previous running total forward
+            carryForward(index);
+            dailyTotals[index] = dailyTotal;
+            cumulativeTotals[index] = cumulativeTotal;
+            filled = index + 1;
+            return this;
+        }
+
+        public CumulativeSeries build() {
+            carryForward(dailyTotals.length);
+            return new CumulativeSeries(firstDay, dailyTotals, cumulativeTotals);
+        }
+
+        private void carryForward(int until) {
+            double running = filled > 0 ? cumulativeTotals[filled - 1] : 0;
+            for (int index = filled; index < until; index++) {
+                cumulativeTotals[index] = running;
+            }
+        }
+    }
+}
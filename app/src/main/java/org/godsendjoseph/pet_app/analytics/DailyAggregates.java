@@ -0,0 +1,98 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+/**
+ * One ExpenseAggregator per day of an ExpenseColumns snapshot.
+ * Mergeable, so the days of a large snapshot can be aggregated in parallel
+ * over row ranges; a day split across two ranges is merged back together.
+ */
+public final class DailyAggregates implements Mergeable<DailyAggregates> {
+
+    // Epoch day to the aggregate of that day
+    private final IntObjectMap<ExpenseAggregator> days = new IntObjectMap<>();
+
+    /**
+     * Aggregate every row of a snapshot by day, in parallel when it is large
+     * @param columns Expense rows
+     * @return Aggregates by epoch day
+     */
+    public static DailyAggregates of(ExpenseColumns columns) {
+        return ParallelAggregation.aggregate(columns.size(), over(columns));
+    }
+
+    /**
+     * How to accumulate a range of rows of a snapshot
+     */
+    public static ParallelAggregation.RangeAccumulator<DailyAggregates> over(final ExpenseColumns columns) {
+        return new ParallelAggregation.RangeAccumulator<DailyAggregates>() {
+            @Override
+            public DailyAggregates create() {
+                return new DailyAggregates();
+            }
+
+            @Override
+            public void accumulate(DailyAggregates accumulator, int from, int to) {
+                IntObjectMap<ExpenseAggregator> days = accumulator.days;
+                double[] amounts = columns.amounts;
+                int[] epochDays = columns.epochDays;
+                int[] categoryIds = columns.categoryIds;
+                int[] locationIds = columns.locationIds;
+                int[] titleIds = columns.titleIds;
+                String[] locations = columns.locations;
+                String[] titles = columns.titles;
+
+                // Rows are usually ordered by date, so look each day up once per run
+                int currentDay = EpochDayUtils.INVALID;
+                int monthIndex = -1;
+                ExpenseAggregator day = null;
+
+                for (int row = from; row < to; row++) {
+                    int epochDay = epochDays[row];
+                    if (epochDay != currentDay || day == null) {
+                        currentDay = epochDay;
+                        monthIndex = EpochDayUtils.monthIndex(epochDay);
+                        day = days.get(epochDay);
+                        if (day == null) {
+                            day = new ExpenseAggregator();
+                            days.put(epochDay, day);
+                        }
+                    }
+
+                    int locationId = locationIds[row];
+                    int titleId = titleIds[row];
+                    day.add(categoryIds[row], amounts[row], monthIndex,
+                            locationId == ExpenseColumns.NO_LOCATION ? null : locations[locationId],
+                            titleId == ExpenseColumns.NO_TITLE ? null : titles[titleId]);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void merge(DailyAggregates other) {
+        IntObjectMap<ExpenseAggregator> otherDays = other.days;
+        for (int slot = 0; slot < otherDays.slotCount(); slot++) {
+            if (!otherDays.isUsed(slot)) {
+                continue;
+            }
+
+            int epochDay = otherDays.keyAt(slot);
+            ExpenseAggregator day = days.get(epochDay);
+            if (day == null) {
+                // Copied, so later merges into this one leave the other unchanged
+                day = new ExpenseAggregator();
+                days.put(epochDay, day);
+            }
+            day.merge(otherDays.valueAt(slot));
+        }
+    }
+
+    /**
+     * Get the days, keyed by epoch day
+     */
+    public IntObjectMap<ExpenseAggregator> getDays() {
+        return days;
+    }
+}
@@ -0,0 +1,56 @@
+package org.godsendjoseph.pet_app.analytics;
+
+/**
+ * Expense totals by day of the week and hour of the day.
+ * The 7 x 24 cells live in one flat row-major array, one row per day from
+ * Monday to Sunday.
+ */
+public final class DayHourMatrix implements Mergeable<DayHourMatrix> {
+
+    public static final int DAYS = 7;
+    public static final int HOURS = 24;
+
+    private final double[] totals = new double[DAYS * HOURS];
+
+    /**
+     * Add an amount to a cell; cells out of range are ignored
+     * @param dayOfWeek 0 for Monday through 6 for Sunday
+     * @param hour Hour of the day, 0 to 23
+     * @param amount Amount to add
+     */
+    public void add(int dayOfWeek, int hour, double amount) {
+        if (dayOfWeek < 0 || dayOfWeek >= DAYS || hour < 0 || hour >= HOURS) {
+            return;
+        }
+        totals[dayOfWeek * HOURS + hour] += amount;
+    }
+
+    @Override
+    public void merge(DayHourMatrix other) {
+        for (int cell = 0; cell < totals.length; cell++) {
+            totals[cell] += other.totals[cell];
+        }
+    }
+
+    public double getTotal(int dayOfWeek, int hour) {
+        return totals[dayOfWeek * HOURS + hour];
+    }
+
+    /**
+     * Largest single cell, for scaling a heatmap
+     */
+    public double getMaxTotal() {
+        double max = 0;
+        for (double total : totals) {
+            if (total > max) {
+                max = total;
+            }
+        }
+        return max;
+    }
+
+    // Add to a cell by flat index, for DayHourRollup
+    void addCell(int cell, double amount) {
+        totals[cell] += amount;
+    }
+}
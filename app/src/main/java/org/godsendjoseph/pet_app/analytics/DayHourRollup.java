@@ -0,0 +1,142 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Hourly expense totals per day, queryable as a day of week x hour matrix
+ * over any date range.
+ *
+ * Each day only ever fills the row of its own day of the week, so the days
+ * are kept in seven sorted lists with running totals of their 24 hours. A
+ * range is then two binary searches and 24 subtractions per day of the week,
+ * whatever its length. The running totals are rebuilt lazily on the first
+ * query after a change, in O(days x 24).
+ */
+public final class DayHourRollup {
+
+    // Epoch day to the totals of its 24 hours
+    private final IntObjectMap<double[]> days = new IntObjectMap<>();
+
+    // Per day of the week: its days in ascending order, and the running
+    // totals of their hours, (days + 1) x 24 with a leading row of zeros
+    private final int[][] weekdayDays = new int[DayHourMatrix.DAYS][];
+    private final double[][] weekdayRunningTotals = new double[DayHourMatrix.DAYS][];
+    private boolean dirty = true;
+
+    /**
+     * Roll up every row of a snapshot by day and hour
+     * @param columns Expense rows
+     * @return Rollup of the snapshot
+     */
+    public static DayHourRollup of(ExpenseColumns columns) {
+        DayHourRollup rollup = new DayHourRollup();
+        double[] amounts = columns.amounts;
+        int[] epochDays = columns.epochDays;
+        int[] minutes = columns.minutes;
+        for (int row = 0; row < columns.size(); row++) {
+            rollup.add(epochDays[row], minutes[row], amounts[row]);
+        }
+        return rollup;
+    }
+
+    /**
+     * Add an amount spent at a time; malformed days and times are ignored
+     * @param epochDay Day of the expense
+     * @param minuteOfDay Minute of the day of the expense
+     * @param amount Amount to add; negative to remove an expense
+     */
+    public void add(int epochDay, int minuteOfDay, double amount) {
+        if (epochDay == EpochDayUtils.INVALID || minuteOfDay < 0 || minuteOfDay >= 24 * 60) {
+            return;
+        }
+
+        double[] hours = days.get(epochDay);
+        if (hours == null) {
+            hours = new double[DayHourMatrix.HOURS];
+            days.put(epochDay, hours);
+        }
+        hours[minuteOfDay / 60] += amount;
+        dirty = true;
+    }
+
+    /**
+     * Add the totals of a range of days into a matrix
+     * @param startDay First epoch day, inclusive
+     * @param endDay Last epoch day, inclusive
+     * @param into Matrix that receives the totals
+     */
+    public void query(int startDay, int endDay, DayHourMatrix into) {
+        if (startDay > endDay) {
+            return;
+        }
+        if (dirty) {
+            rebuildRunningTotals();
+        }
+
+        for (int weekday = 0; weekday < DayHourMatrix.DAYS; weekday++) {
+            int[] sortedDays = weekdayDays[weekday];
+            double[] running = weekdayRunningTotals[weekday];
+
+            // Running totals before the first day in range and after the last one
+            int from = lowerBound(sortedDays, startDay) * DayHourMatrix.HOURS;
+            int to = lowerBound(sortedDays, endDay + 1) * DayHourMatrix.HOURS;
+            if (from == to) {
+                continue;
+            }
+
+            int row = weekday * DayHourMatrix.HOURS;
+            for (int hour = 0; hour < DayHourMatrix.HOURS; hour++) {
+                // Removals can leave rounding noise just below zero
+                into.addCell(row + hour, Math.max(0, running[to + hour] - running[from + hour]));
+            }
+        }
+    }
+
+    private void rebuildRunningTotals() {
+        int[] keys = days.keys();
+        Arrays.sort(keys);
+
+        int[] counts = new int[DayHourMatrix.DAYS];
+        for (int day : keys) {
+            counts[EpochDayUtils.dayOfWeek(day)]++;
+        }
+        for (int weekday = 0; weekday < DayHourMatrix.DAYS; weekday++) {
+            weekdayDays[weekday] = new int[counts[weekday]];
+            weekdayRunningTotals[weekday] = new double[(counts[weekday] + 1) * DayHourMatrix.HOURS];
+            counts[weekday] = 0;
+        }
+
+        for (int day : keys) {
+            int weekday = EpochDayUtils.dayOfWeek(day);
+            int index = counts[weekday]++;
+            weekdayDays[weekday][index] = day;
+
+            double[] hours = days.get(day);
+            double[] running = weekdayRunningTotals[weekday];
+            int previous = index * DayHourMatrix.HOURS;
+            int current = previous + DayHourMatrix.HOURS;
+            for (int hour = 0; hour < DayHourMatrix.HOURS; hour++) {
+                running[current + hour] = running[previous + hour] + hours[hour];
+            }
+        }
+        dirty = false;
+    }
+
+    // Index of the first element >= value
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,620 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import android.content.Context;
+
+import org.godsendjoseph.pet_app.database.DatabaseChangeNotifier;
+import org.godsendjoseph.pet_app.database.DatabaseHelper;
+import org.godsendjoseph.pet_app.database.ExpenseChange;
+import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.database.ExpenseWriteQueue;
+import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory expense aggregates, kept per user, per month and per day.
+ *
+ * A user's aggregates are built from SQLite on first use, then kept up to date
+ * with the deltas of every insert, update and delete committed through
+ * ExpenseWriteQueue. Reads merge the month aggregates of the months the range
+ * fully covers, plus the day aggregates of the partial months at either end,
+ * so a range costs at most 62 day merges plus one per month, times the groups,
+ * rather than a pass over every expense.
+ *
+ * Day aggregates are only kept for the current month and the RECENT_MONTHS
+ * before it, which is where nearly every range starts and ends; a partial month
+ * further back is read from SQLite. Memory therefore grows with the number of
+ * months that have expenses rather than the number of days.
+ *
+ * A build or reload only counts if no commit overlapped it, checked with the
+ * queue's commit sequence, and deltas already included in a build are skipped.
+ * Any other change to the expenses table (deleting a category or a user)
+ * invalidates the user's aggregates, which are rebuilt lazily on the next read.
+ */
+public class ExpenseAggregateStore {
+
+    // Bounds of a month's days as "yyyy-MM" + suffix; every day of the month sorts between them
+    private static final String FIRST_DAY_SUFFIX = "-00";
+    private static final String LAST_DAY_SUFFIX = "-99";
+
+    // Months before the current one whose day aggregates are kept
+    private static final int RECENT_MONTHS = 3;
+
+    // Singleton instance
+    private static ExpenseAggregateStore instance;
+
+    private final ExpenseDAO expenseDAO;
+    private final ExpenseWriteQueue writeQueue;
+    private final DatabaseChangeNotifier changeNotifier;
+
+    // Held while reading from the database, so concurrent readers build only once
+    private final Object buildLock = new Object();
+
+    // Guarded by this
+    private final IntObjectMap<UserAggregates> users = new IntObjectMap<>();
+
+    /**
+     * Get the singleton instance of ExpenseAggregateStore
+     * @param context Application context
+     * @return ExpenseAggregateStore instance
+     */
+    public static synchronized ExpenseAggregateStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ExpenseAggregateStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Private constructor to enforce singleton pattern
+    private ExpenseAggregateStore(Context context) {
+        expenseDAO = new ExpenseDAO(context);
+        writeQueue = ExpenseWriteQueue.getInstance(context);
+        changeNotifier = DatabaseChangeNotifier.getInstance();
+
+        writeQueue.addListener(new ExpenseWriteQueue.OnExpenseWriteListener() {
+            @Override
+            public void onExpenseQueued(ExpenseChange change) {
+                // Only committed changes are counted
+            }
+
+            @Override
+            public void onExpenseCommitted(ExpenseChange change) {
+                applyChange(change);
+            }
+
+            @Override
+            public void onExpenseWriteFailed(ExpenseChange change) {
+                // Nothing was written, so there is nothing to undo
+            }
+        });
+    }
+
+    /**
+     * Aggregate a user's expenses in a date range.
+     * Must not be called on the main thread; may read from the database.
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return A new aggregator owned by the caller
+     */
+    public ExpenseAggregator aggregate(int userId, String startDate, String endDate) {
+        return read(userId, startDate, endDate);
+    }
+
+    /**
+     * Aggregate all of a user's expenses.
+     * Must not be called on the main thread; may read from the database.
+     * @param userId ID of the user
+     * @return A new aggregator owned by the caller
+     */
+    public ExpenseAggregator aggregateAll(int userId) {
+        return read(userId, null, null);
+    }
+
+    /**
+     * Total a user's expenses by day of the week and hour in a date range.
+     * Served from the in-memory rollup in time independent of the length of the
+     * range when the user's aggregates are loaded and current; otherwise SQLite
+     * groups the rows. Must not be called on the main thread.
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return A new matrix owned by the caller
+     */
+    public DayHourMatrix aggregateDayHours(int userId, String startDate, String endDate) {
+        // Queued writes reach the rollup as deltas once they are committed
+        writeQueue.flushAndWait();
+
+        synchronized (this) {
+            long version = changeNotifier.getVersionIgnoring(writeQueue, DatabaseHelper.TABLE_EXPENSES);
+            UserAggregates user = users.get(userId);
+            if (user != null && user.version == version) {
+                // Sums stay exact under removals, so stale days do not matter here
+                DayHourMatrix matrix = new DayHourMatrix();
+                user.hours.query(EpochDayUtils.fromDate(startDate), EpochDayUtils.fromDate(endDate), matrix);
+                return matrix;
+            }
+        }
+
+        return expenseDAO.getDayHourMatrix(userId, startDate, endDate);
+    }
+
+    /**
+     * Drop every cached aggregate, e.g. after the database has been deleted
+     */
+    public synchronized void invalidateAll() {
+        users.clear();
+    }
+
+    /**
+     * Read an aggregate, reading whatever memory cannot answer from the database first
+     * @param startDate Start date, or null for all time
+     * @param endDate End date, or null for all time
+     */
+    private ExpenseAggregator read(int userId, String startDate, String endDate) {
+        // Queued writes reach the store as deltas once they are committed
+        writeQueue.flushAndWait();
+
+        while (true) {
+            long version;
+            long commits;
+            UserAggregates user;
+            Reloads reloads = null;
+
+            synchronized (this) {
+                version = changeNotifier.getVersionIgnoring(writeQueue, DatabaseHelper.TABLE_EXPENSES);
+                commits = writeQueue.getStableCommitSequence();
+
+                user = users.get(userId);
+                if (user != null && user.version == version) {
+                    user.keepDaysFrom(recentMonth());
+                    reloads = user.getReloads(startDate, endDate);
+                    if (reloads.isEmpty()) {
+                        return user.aggregate(startDate, endDate, reloads);
+                    }
+                }
+            }
+
+            if (commits < 0) {
+                // A commit is in progress; wait until its deltas have been applied
+                writeQueue.flushAndWait();
+                continue;
+            }
+
+            // One rebuild at a time; concurrent readers find it done when they get here
+            synchronized (buildLock) {
+                if (reloads == null) {
+                    if (!isBuilt(userId, version)) {
+                        rebuildUser(userId, version, commits);
+                    }
+                    continue;
+                }
+
+                ExpenseAggregator result = reload(userId, user, commits, reloads, startDate, endDate);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+    }
+
+    // Whether another reader built the user's aggregates at this version
+    private synchronized boolean isBuilt(int userId, long version) {
+        UserAggregates user = users.get(userId);
+        return user != null && user.version == version;
+    }
+
+    /**
+     * Build a user's aggregates from the database.
+     * The result is discarded if a commit overlapped the read, as it may or may
+     * not already be included; the caller simply tries again.
+     */
+    private void rebuildUser(int userId, long version, long commits) {
+        // Read once, then aggregate by day over row ranges in parallel
+        ExpenseColumns columns = expenseDAO.getExpenseColumns(userId);
+        UserAggregates user = new UserAggregates(version, commits, DayHourRollup.of(columns));
+        IntObjectMap<ExpenseAggregator> daily = DailyAggregates.of(columns).getDays();
+        for (int slot = 0; slot < daily.slotCount(); slot++) {
+            if (daily.isUsed(slot)) {
+                user.days.put(EpochDayUtils.toDate(daily.keyAt(slot)), daily.valueAt(slot));
+            }
+        }
+        user.rebuildMonths();
+        user.rebuildAllTime();
+        user.keepDaysFrom(recentMonth());
+
+        synchronized (this) {
+            if (writeQueue.getStableCommitSequence() == commits) {
+                users.put(userId, user);
+            }
+        }
+    }
+
+    /**
+     * Read what a range needs from the database, then answer it from memory.
+     * Stale days and months are re-read and kept; partial months whose days are
+     * not kept are read for this range only.
+     * @return The aggregate, or null if the aggregates changed meanwhile and the
+     *         read has to start again
+     */
+    private ExpenseAggregator reload(int userId, UserAggregates user, long commits, Reloads reloads,
+                                     String startDate, String endDate) {
+        for (String date : reloads.days) {
+            ExpenseAggregator day = new ExpenseAggregator();
+            expenseDAO.aggregateExpensesByDateRange(userId, date, date, day);
+            reloads.loaded.put(date, day);
+        }
+        for (String month : reloads.months) {
+            ExpenseAggregator sum = new ExpenseAggregator();
+            expenseDAO.aggregateExpensesByDateRange(userId, month + FIRST_DAY_SUFFIX, month + LAST_DAY_SUFFIX,
+                    sum);
+            reloads.loaded.put(month, sum);
+        }
+        for (String[] range : reloads.ranges) {
+            expenseDAO.aggregateExpensesByDateRange(userId, range[0], range[1], reloads.partial);
+        }
+
+        synchronized (this) {
+            long version = changeNotifier.getVersionIgnoring(writeQueue, DatabaseHelper.TABLE_EXPENSES);
+            if (users.get(userId) != user || user.version != version
+                    || !user.recentMonth.equals(reloads.recentMonth)
+                    || writeQueue.getStableCommitSequence() != commits) {
+                return null;
+            }
+
+            for (String date : reloads.days) {
+                ExpenseAggregator day = reloads.loaded.get(date);
+                if (day.getCount() > 0) {
+                    user.days.put(date, day);
+                } else {
+                    user.days.remove(date);
+                }
+                user.staleDays.remove(date);
+                // Rebuilt from its days, now exact, when it is next read
+                String month = monthOf(date);
+                if (user.months.containsKey(month)) {
+                    user.staleMonths.add(month);
+                }
+            }
+            for (String month : reloads.months) {
+                ExpenseAggregator sum = reloads.loaded.get(month);
+                if (sum.getCount() > 0) {
+                    user.months.put(month, sum);
+                } else {
+                    user.months.remove(month);
+                }
+                user.staleMonths.remove(month);
+            }
+
+            return user.aggregate(startDate, endDate, reloads);
+        }
+    }
+
+    /**
+     * Apply a committed change as a delta
+     */
+    private synchronized void applyChange(ExpenseChange change) {
+        Expense previous = change.getPreviousExpense();
+        Expense expense = change.getExpense();
+        if (change.getType() != ExpenseChange.TYPE_INSERT && previous == null) {
+            // The row did not exist, so nothing changed
+            return;
+        }
+
+        // An update keeps the row's owner
+        int userId = previous != null ? previous.getUserId() : expense.getUserId();
+        UserAggregates user = users.get(userId);
+        if (user == null || change.getCommitSequence() <= user.builtThrough) {
+            // Not loaded yet, or already read from the database when it was built
+            return;
+        }
+
+        if (previous != null) {
+            removeExpense(user, previous);
+        }
+        if (expense != null) {
+            addExpense(user, expense);
+        }
+    }
+
+    private void addExpense(UserAggregates user, Expense expense) {
+        String monthKey = monthOf(expense.getDate());
+        int monthIndex = ExpenseAggregator.monthIndex(expense.getDate());
+
+        if (user.keepsDays(monthKey)) {
+            ExpenseAggregator day = user.days.get(expense.getDate());
+            if (day == null) {
+                day = new ExpenseAggregator();
+                user.days.put(expense.getDate(), day);
+            }
+            day.add(expense.getCategoryId(), expense.getAmount(), monthIndex, expense.getLocation(),
+                    expense.getTitle());
+        }
+
+        ExpenseAggregator month = user.months.get(monthKey);
+        if (month == null) {
+            month = new ExpenseAggregator();
+            user.months.put(monthKey, month);
+        }
+        month.add(expense.getCategoryId(), expense.getAmount(), monthIndex, expense.getLocation(),
+                expense.getTitle());
+        user.allTime.add(expense.getCategoryId(), expense.getAmount(), monthIndex, expense.getLocation(),
+                expense.getTitle());
+        user.hours.add(EpochDayUtils.fromDate(expense.getDate()), EpochDayUtils.minuteOfDay(expense.getTime()),
+                expense.getAmount());
+    }
+
+    private void removeExpense(UserAggregates user, Expense expense) {
+        int monthIndex = ExpenseAggregator.monthIndex(expense.getDate());
+        user.allTime.remove(expense.getCategoryId(), expense.getAmount(), monthIndex);
+        user.hours.add(EpochDayUtils.fromDate(expense.getDate()), EpochDayUtils.minuteOfDay(expense.getTime()),
+                -expense.getAmount());
+
+        String monthKey = monthOf(expense.getDate());
+        ExpenseAggregator month = user.months.get(monthKey);
+        if (month != null) {
+            month.remove(expense.getCategoryId(), expense.getAmount(), monthIndex);
+            if (month.getCount() == 0) {
+                user.months.remove(monthKey);
+                user.staleMonths.remove(monthKey);
+            } else if (!month.isExact()) {
+                user.staleMonths.add(monthKey);
+            }
+        }
+
+        ExpenseAggregator day = user.days.get(expense.getDate());
+        if (day == null) {
+            return;
+        }
+
+        day.remove(expense.getCategoryId(), expense.getAmount(), monthIndex);
+        if (day.getCount() == 0) {
+            user.days.remove(expense.getDate());
+            user.staleDays.remove(expense.getDate());
+        } else if (!day.isExact()) {
+            user.staleDays.add(expense.getDate());
+        }
+    }
+
+    // Month key ("yyyy-MM") of a date ("yyyy-MM-dd")
+    private static String monthOf(String date) {
+        return date.length() > 7 ? date.substring(0, 7) : date;
+    }
+
+    // First month ("yyyy-MM") whose day aggregates are kept
+    private static String recentMonth() {
+        int[] today = EpochDayUtils.toCivil(EpochDayUtils.today());
+        int month = today[0] * 12 + today[1] - 1 - RECENT_MONTHS;
+        return monthOf(EpochDayUtils.toDate(EpochDayUtils.fromCivil(month / 12, month % 12 + 1, 1)));
+    }
+
+    // Whether a range covers the whole of a month
+    private static boolean coversMonth(String month, String startDate, String endDate) {
+        String lastDay = EpochDayUtils.toDate(EpochDayUtils.lastDayOfMonth(
+                EpochDayUtils.fromDate(month + "-01")));
+        return startDate.compareTo(month + "-01") <= 0 && endDate.compareTo(lastDay) >= 0;
+    }
+
+    /**
+     * What a read needs from the database before memory can answer it
+     */
+    private static class Reloads {
+        // First month with kept days when the reloads were worked out
+        final String recentMonth;
+
+        // Stale days ("yyyy-MM-dd") and months ("yyyy-MM") to re-read and keep
+        final List<String> days = new ArrayList<>();
+        final List<String> months = new ArrayList<>();
+        final Map<String, ExpenseAggregator> loaded = new HashMap<>();
+
+        // Date ranges of partial months without kept days, read for this range only
+        final List<String[]> ranges = new ArrayList<>();
+        final ExpenseAggregator partial = new ExpenseAggregator();
+
+        Reloads(String recentMonth) {
+            this.recentMonth = recentMonth;
+        }
+
+        boolean isEmpty() {
+            return days.isEmpty() && months.isEmpty() && ranges.isEmpty();
+        }
+    }
+
+    /**
+     * Aggregates of a single user
+     */
+    private static class UserAggregates {
+        // Expenses table version (ignoring the write queue) the aggregates were built from
+        final long version;
+
+        // Commit sequence the build read up to; deltas at or below it are already included
+        final long builtThrough;
+
+        // First month ("yyyy-MM") whose days are kept
+        String recentMonth = "";
+
+        // Date ("yyyy-MM-dd") to the aggregate of that day, from recentMonth on; dates sort chronologically
+        final TreeMap<String, ExpenseAggregator> days = new TreeMap<>();
+
+        // Days whose maximum and quantiles have to be re-read from the database
+        final Set<String> staleDays = new HashSet<>();
+
+        // Month ("yyyy-MM") to the sum of its days, so long ranges merge months
+        final TreeMap<String, ExpenseAggregator> months = new TreeMap<>();
+
+        // Months whose maximum and quantiles are out of date: rebuilt from their
+        // days if they are kept, otherwise re-read from the database
+        final Set<String> staleMonths = new HashSet<>();
+
+        // Sum of all months, kept alongside them so all-time reads are O(groups)
+        ExpenseAggregator allTime = new ExpenseAggregator();
+
+        // Hourly totals by day, for day of week x hour reads over any range
+        final DayHourRollup hours;
+
+        UserAggregates(long version, long builtThrough, DayHourRollup hours) {
+            this.version = version;
+            this.builtThrough = builtThrough;
+            this.hours = hours;
+        }
+
+        boolean keepsDays(String month) {
+            return month.compareTo(recentMonth) >= 0;
+        }
+
+        // Drop the days of months that are no longer recent
+        void keepDaysFrom(String month) {
+            if (month.compareTo(recentMonth) <= 0) {
+                return;
+            }
+            recentMonth = month;
+            days.headMap(month + FIRST_DAY_SUFFIX).clear();
+            Iterator<String> iterator = staleDays.iterator();
+            while (iterator.hasNext()) {
+                if (!keepsDays(monthOf(iterator.next()))) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        /**
+         * Work out what a read of the range needs from the database: stale days,
+         * stale months without kept days, and partial months without kept days
+         */
+        Reloads getReloads(String startDate, String endDate) {
+            Reloads reloads = new Reloads(recentMonth);
+
+            if (startDate == null) {
+                if (!allTime.isExact()) {
+                    // Rebuilt from every month, so every month has to be exact
+                    reloads.days.addAll(staleDays);
+                    for (String month : staleMonths) {
+                        if (!keepsDays(month)) {
+                            reloads.months.add(month);
+                        }
+                    }
+                }
+                return reloads;
+            }
+
+            if (startDate.compareTo(endDate) > 0) {
+                return reloads;
+            }
+
+            for (String date : staleDays) {
+                if (date.compareTo(startDate) >= 0 && date.compareTo(endDate) <= 0) {
+                    reloads.days.add(date);
+                }
+            }
+            for (String month : staleMonths) {
+                if (!keepsDays(month) && coversMonth(month, startDate, endDate)) {
+                    reloads.months.add(month);
+                }
+            }
+
+            String startMonth = monthOf(startDate);
+            String endMonth = monthOf(endDate);
+            if (!keepsDays(startMonth) && !coversMonth(startMonth, startDate, endDate)) {
+                reloads.ranges.add(new String[]{startDate,
+                        startMonth.equals(endMonth) ? endDate : startMonth + LAST_DAY_SUFFIX});
+            }
+            if (!endMonth.equals(startMonth) && !keepsDays(endMonth)
+                    && !coversMonth(endMonth, startDate, endDate)) {
+                reloads.ranges.add(new String[]{endMonth + FIRST_DAY_SUFFIX, endDate});
+            }
+            return reloads;
+        }
+
+        /**
+         * Aggregate a range once getReloads' days and months have been reloaded
+         * @param reloads Holds the partial months read from the database
+         */
+        ExpenseAggregator aggregate(String startDate, String endDate, Reloads reloads) {
+            ExpenseAggregator result = new ExpenseAggregator();
+
+            if (startDate == null) {
+                if (!allTime.isExact()) {
+                    rebuildAllTime();
+                }
+                result.merge(allTime);
+                return result;
+            }
+
+            if (startDate.compareTo(endDate) > 0) {
+                return result;
+            }
+
+            // Whole months from their aggregates, partial ones by day or from the database
+            String startMonth = monthOf(startDate);
+            String endMonth = monthOf(endDate);
+            for (Map.Entry<String, ExpenseAggregator> entry
+                    : months.subMap(startMonth, true, endMonth, true).entrySet()) {
+                if (coversMonth(entry.getKey(), startDate, endDate)) {
+                    result.merge(exactMonth(entry));
+                }
+            }
+            if (keepsDays(startMonth) && !coversMonth(startMonth, startDate, endDate)) {
+                mergeDays(startDate, startMonth.equals(endMonth) ? endDate : startMonth + LAST_DAY_SUFFIX,
+                        result);
+            }
+            if (!endMonth.equals(startMonth) && keepsDays(endMonth)
+                    && !coversMonth(endMonth, startDate, endDate)) {
+                mergeDays(endMonth + FIRST_DAY_SUFFIX, endDate, result);
+            }
+            result.merge(reloads.partial);
+            return result;
+        }
+
+        // A month's aggregate, rebuilt from its days first if it is stale and they are kept
+        private ExpenseAggregator exactMonth(Map.Entry<String, ExpenseAggregator> entry) {
+            if (keepsDays(entry.getKey()) && staleMonths.remove(entry.getKey())) {
+                entry.setValue(sumDays(entry.getKey()));
+            }
+            return entry.getValue();
+        }
+
+        private void mergeDays(String startDate, String endDate, ExpenseAggregator result) {
+            for (ExpenseAggregator day : days.subMap(startDate, true, endDate, true).values()) {
+                result.merge(day);
+            }
+        }
+
+        private ExpenseAggregator sumDays(String month) {
+            ExpenseAggregator sum = new ExpenseAggregator();
+            mergeDays(month + FIRST_DAY_SUFFIX, month + LAST_DAY_SUFFIX, sum);
+            return sum;
+        }
+
+        // Before the days are trimmed, while every day is still kept
+        void rebuildMonths() {
+            months.clear();
+            staleMonths.clear();
+            for (Map.Entry<String, ExpenseAggregator> entry : days.entrySet()) {
+                String month = monthOf(entry.getKey());
+                ExpenseAggregator sum = months.get(month);
+                if (sum == null) {
+                    sum = new ExpenseAggregator();
+                    months.put(month, sum);
+                }
+                sum.merge(entry.getValue());
+            }
+        }
+
+        // Stale months without kept days must have been re-read first
+        void rebuildAllTime() {
+            allTime = new ExpenseAggregator();
+            for (Map.Entry<String, ExpenseAggregator> entry : months.entrySet()) {
+                allTime.merge(exactMonth(entry));
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.models.SpendQuantiles;
+import org.godsendjoseph.pet_app.utils.collections.IntDoubleMap;
+import org.godsendjoseph.pet_app.utils.collections.IntLongMap;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming aggregation of expenses.
+ * Rows are added one at a time, typically straight from a cursor, and the
+ * total, maximum and per-category and per-month groups are all updated in
+ * the same pass, along with a quantile sketch of the amounts per category and
+ * per month and heavy-hitter sketches of the top locations and titles, which
+ * keep memory bounded however many distinct strings there are. Summaries are
+ * built once at the end.
+ *
+ * Aggregators can also be merged, and expenses removed again, so partial
+ * aggregates can be kept up to date by ExpenseAggregateStore. Removal keeps
+ * the totals exact but not the maximum or the sketches; see isExact().
+ */
+public class ExpenseAggregator implements Mergeable<ExpenseAggregator> {
+
+    // Colors used for the month, location and title summaries
+    private static final String MONTH_COLOR = "#3F51B5";
+    private static final String LOCATION_COLOR = "#FF9800";
+    private static final String TITLE_COLOR = "#009688";
+
+    private double total;
+    private int count;
+    private double maxAmount;
+
+    // False once an expense is removed that the maximum or the sketches may still include
+    private boolean exact = true;
+
+    // Int-keyed groups use primitive maps, so adding to an existing group never allocates
+    private final IntGroups categoryGroups = new IntGroups();
+    private final IntGroups monthGroups = new IntGroups();
+
+    // Top locations and titles by amount
+    private HeavyHitters locationHitters = new HeavyHitters();
+    private HeavyHitters titleHitters = new HeavyHitters();
+
+    // Amount distributions, for the median and upper percentiles
+    private final IntObjectMap<QuantileSketch> categorySketches = new IntObjectMap<>();
+    private final IntObjectMap<QuantileSketch> monthSketches = new IntObjectMap<>();
+
+    /**
+     * Add one expense to the aggregate
+     * @param categoryId Category ID of the expense, 0 if it has none
+     * @param amount Amount of the expense
+     * @param monthIndex Month of the expense as year * 12 + (month - 1), see monthIndex(String)
+     * @param location Location of the expense, may be null or empty
+     * @param title Title of the expense, may be null or empty
+     */
+    public void add(int categoryId, double amount, int monthIndex, String location, String title) {
+        total += amount;
+        count++;
+        if (amount > maxAmount) {
+            maxAmount = amount;
+        }
+
+        categoryGroups.add(categoryId, amount);
+        sketch(categorySketches, categoryId).add(amount);
+        if (monthIndex >= 0) {
+            monthGroups.add(monthIndex, amount);
+            sketch(monthSketches, monthIndex).add(amount);
+        }
+        if (location != null && !location.isEmpty()) {
+            locationHitters.add(location, amount);
+        }
+        if (title != null && !title.isEmpty()) {
+            titleHitters.add(title, amount);
+        }
+    }
+
+    /**
+     * Remove an expense added earlier.
+     * Neither the maximum nor the sketches can be recovered without the
+     * remaining rows, so any removal marks the aggregate inexact; see isExact().
+     */
+    public void remove(int categoryId, double amount, int monthIndex) {
+        count--;
+        if (count <= 0) {
+            // Start clean instead of carrying rounding errors
+            count = 0;
+            total = 0;
+            maxAmount = 0;
+            exact = true;
+            categoryGroups.clear();
+            monthGroups.clear();
+            categorySketches.clear();
+            monthSketches.clear();
+            locationHitters = new HeavyHitters();
+            titleHitters = new HeavyHitters();
+            return;
+        }
+
+        total -= amount;
+        exact = false;
+
+        categoryGroups.remove(categoryId, amount);
+        if (monthIndex >= 0) {
+            monthGroups.remove(monthIndex, amount);
+        }
+    }
+
+    @Override
+    public void merge(ExpenseAggregator other) {
+        total += other.total;
+        count += other.count;
+        if (other.maxAmount > maxAmount) {
+            maxAmount = other.maxAmount;
+        }
+        exact = exact && other.exact;
+
+        categoryGroups.merge(other.categoryGroups);
+        monthGroups.merge(other.monthGroups);
+        locationHitters.merge(other.locationHitters);
+        titleHitters.merge(other.titleHitters);
+        mergeSketches(categorySketches, other.categorySketches);
+        mergeSketches(monthSketches, other.monthSketches);
+    }
+
+    private static QuantileSketch sketch(IntObjectMap<QuantileSketch> sketches, int key) {
+        QuantileSketch sketch = sketches.get(key);
+        if (sketch == null) {
+            sketch = new QuantileSketch();
+            sketches.put(key, sketch);
+        }
+        return sketch;
+    }
+
+    private static void mergeSketches(IntObjectMap<QuantileSketch> sketches,
+                                      IntObjectMap<QuantileSketch> otherSketches) {
+        for (int slot = 0; slot < otherSketches.slotCount(); slot++) {
+            if (otherSketches.isUsed(slot)) {
+                // Always merge into a sketch of our own, the other aggregator keeps changing
+                sketch(sketches, otherSketches.keyAt(slot)).merge(otherSketches.valueAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Convert a "yyyy-MM-dd" date to a month index without allocating
+     * @param date Date string
+     * @return year * 12 + (month - 1), or -1 if the date is malformed
+     */
+    public static int monthIndex(String date) {
+        if (date == null || date.length() < 7 || date.charAt(4) != '-') {
+            return -1;
+        }
+
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = date.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            year = year * 10 + digit;
+        }
+
+        int tens = date.charAt(5) - '0';
+        int units = date.charAt(6) - '0';
+        if (tens < 0 || tens > 1 || units < 0 || units > 9) {
+            return -1;
+        }
+        int month = tens * 10 + units;
+        if (month < 1 || month > 12) {
+            return -1;
+        }
+
+        return year * 12 + month - 1;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMaxAmount() {
+        return maxAmount;
+    }
+
+    /**
+     * Whether getMaxAmount() and the quantiles describe exactly the expenses
+     * added; false after a removal, when they may still include removed amounts
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Get the total of one month
+     * @param monthIndex Month index, see monthIndex(String)
+     */
+    public double getMonthTotal(int monthIndex) {
+        return monthGroups.amounts.get(monthIndex);
+    }
+
+    /**
+     * Get the total of one category
+     * @param categoryId Category ID, 0 for expenses without a category
+     */
+    public double getCategoryTotal(int categoryId) {
+        return categoryGroups.amounts.get(categoryId);
+    }
+
+    /**
+     * Build the per-category summary, largest first.
+     * Expenses whose category is not in the list are counted in the total only.
+     * @param categories Categories of the user, for names and colors
+     */
+    public List<ExpenseSummary> getCategorySummary(List<Category> categories) {
+        List<ExpenseSummary> summary = new ArrayList<>();
+
+        for (Category category : categories) {
+            if (categoryGroups.contains(category.getId())) {
+                summary.add(toSummary(category.getName(), category.getColor(),
+                        categoryGroups.amounts.get(category.getId()), categoryGroups.counts.get(category.getId())));
+            }
+        }
+
+        sortByAmount(summary);
+        return summary;
+    }
+
+    /**
+     * Build the per-month summary in calendar order, labelled "MMM yyyy"
+     */
+    public List<ExpenseSummary> getMonthSummary() {
+        int[] months = monthGroups.amounts.keys();
+        Arrays.sort(months);
+
+        // Labels are formatted once per month, not once per expense
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yyyy", Locale.getDefault());
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+
+        List<ExpenseSummary> summary = new ArrayList<>(months.length);
+        for (int monthIndex : months) {
+            calendar.set(monthIndex / 12, monthIndex % 12, 1);
+            summary.add(toSummary(monthFormat.format(calendar.getTime()), MONTH_COLOR,
+                    monthGroups.amounts.get(monthIndex), monthGroups.counts.get(monthIndex)));
+        }
+        return summary;
+    }
+
+    /**
+     * Build the per-category spend quantiles, in the order of the categories.
+     * Expenses whose category is not in the list are left out.
+     * @param categories Categories of the user, for names and colors
+     */
+    public List<SpendQuantiles> getCategoryQuantiles(List<Category> categories) {
+        List<SpendQuantiles> quantiles = new ArrayList<>();
+
+        for (Category category : categories) {
+            QuantileSketch sketch = categorySketches.get(category.getId());
+            if (sketch != null && sketch.getCount() > 0) {
+                quantiles.add(toQuantiles(category.getName(), category.getColor(), sketch));
+            }
+        }
+        return quantiles;
+    }
+
+    /**
+     * Build the per-month spend quantiles in calendar order, labelled "MMM yyyy"
+     */
+    public List<SpendQuantiles> getMonthQuantiles() {
+        int[] months = monthSketches.keys();
+        Arrays.sort(months);
+
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yyyy", Locale.getDefault());
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+
+        List<SpendQuantiles> quantiles = new ArrayList<>(months.length);
+        for (int monthIndex : months) {
+            QuantileSketch sketch = monthSketches.get(monthIndex);
+            if (sketch.getCount() > 0) {
+                calendar.set(monthIndex / 12, monthIndex % 12, 1);
+                quantiles.add(toQuantiles(monthFormat.format(calendar.getTime()), MONTH_COLOR, sketch));
+            }
+        }
+        return quantiles;
+    }
+
+    /**
+     * Build the top locations by amount, largest first
+     * @param limit Maximum number of locations
+     */
+    public List<ExpenseSummary> getTopLocations(int limit) {
+        return toSummary(locationHitters.getTop(limit), LOCATION_COLOR);
+    }
+
+    /**
+     * Build the top titles by amount, largest first
+     * @param limit Maximum number of titles
+     */
+    public List<ExpenseSummary> getTopTitles(int limit) {
+        return toSummary(titleHitters.getTop(limit), TITLE_COLOR);
+    }
+
+    /**
+     * Find the name of the category with the highest total
+     * @param categories Categories of the user
+     * @return Category name, or an empty string if nothing was spent
+     */
+    public String getMostExpensiveCategory(List<Category> categories) {
+        String mostExpensiveCategory = "";
+        double highestCategoryTotal = 0;
+
+        for (Category category : categories) {
+            double categoryTotal = categoryGroups.amounts.get(category.getId());
+            if (categoryTotal > highestCategoryTotal) {
+                highestCategoryTotal = categoryTotal;
+                mostExpensiveCategory = category.getName();
+            }
+        }
+        return mostExpensiveCategory;
+    }
+
+    private ExpenseSummary toSummary(String name, String color, double amount, long count) {
+        double percentage = (total > 0) ? (amount / total) * 100 : 0;
+        return new ExpenseSummary(name, amount, percentage, color, (int) count);
+    }
+
+    private List<ExpenseSummary> toSummary(List<HeavyHitters.Entry> entries, String color) {
+        List<ExpenseSummary> summary = new ArrayList<>(entries.size());
+        for (HeavyHitters.Entry entry : entries) {
+            summary.add(toSummary(entry.getKey(), color, entry.getAmount(), entry.getCount()));
+        }
+        return summary;
+    }
+
+    private static SpendQuantiles toQuantiles(String name, String color, QuantileSketch sketch) {
+        double[] values = sketch.getQuantiles(0.5, 0.75, 0.9, 0.99);
+        return new SpendQuantiles(name, color, (int) sketch.getCount(),
+                values[0], values[1], values[2], values[3]);
+    }
+
+    private static void sortByAmount(List<ExpenseSummary> summary) {
+        Collections.sort(summary, new Comparator<ExpenseSummary>() {
+            @Override
+            public int compare(ExpenseSummary first, ExpenseSummary second) {
+                return Double.compare(second.getAmount(), first.getAmount());
+            }
+        });
+    }
+
+    // Running totals and counts of int-keyed groups
+    private static class IntGroups {
+        final IntDoubleMap amounts = new IntDoubleMap();
+        final IntLongMap counts = new IntLongMap();
+
+        void clear() {
+            amounts.clear();
+            counts.clear();
+        }
+
+        boolean contains(int key) {
+            return counts.containsKey(key);
+        }
+
+        void add(int key, double amount) {
+            amounts.addTo(key, amount);
+            counts.addTo(key, 1);
+        }
+
+        void remove(int key, double amount) {
+            if (!counts.containsKey(key)) {
+                return;
+            }
+            if (counts.addTo(key, -1) <= 0) {
+                amounts.remove(key);
+                counts.remove(key);
+            } else {
+                amounts.addTo(key, -amount);
+            }
+        }
+
+        void merge(IntGroups other) {
+            for (int slot = 0; slot < other.counts.slotCount(); slot++) {
+                if (other.counts.isUsed(slot)) {
+                    int key = other.counts.keyAt(slot);
+                    counts.addTo(key, other.counts.valueAt(slot));
+                    amounts.addTo(key, other.amounts.get(key));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar snapshot of expense rows for analytics.
+ * Each field is a parallel primitive array, so a pass over the rows reads a
+ * few contiguous arrays instead of chasing the Strings of one Expense object
+ * per row. Dates are epoch days, times are minutes of the day, and locations
+ * and titles are dictionary encoded so each distinct string is kept once.
+ *
+ * Built once from a cursor scan; row ranges can be aggregated independently,
+ * which is what ParallelAggregation partitions over.
+ */
+public final class ExpenseColumns {
+
+    // Marks a row without a location or title
+    public static final int NO_LOCATION = -1;
+    public static final int NO_TITLE = -1;
+
+    final int size;
+    final double[] amounts;
+    final int[] epochDays;
+    final int[] minutes;
+    final int[] categoryIds;
+    final int[] locationIds;
+    final int[] titleIds;
+
+    // Dictionaries, indexed by location and title ID
+    final String[] locations;
+    final String[] titles;
+
+    private ExpenseColumns(Builder builder) {
+        size = builder.size;
+        amounts = builder.amounts;
+        epochDays = builder.epochDays;
+        minutes = builder.minutes;
+        categoryIds = builder.categoryIds;
+        locationIds = builder.locationIds;
+        titleIds = builder.titleIds;
+        locations = builder.locations;
+        titles = builder.titles;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getAmount(int row) {
+        return amounts[row];
+    }
+
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    public int getMinute(int row) {
+        return minutes[row];
+    }
+
+    public int getCategoryId(int row) {
+        return categoryIds[row];
+    }
+
+    /**
+     * Get the location of a row
+     * @return Location, or null if the row has none
+     */
+    public String getLocation(int row) {
+        int locationId = locationIds[row];
+        return locationId == NO_LOCATION ? null : locations[locationId];
+    }
+
+    /**
+     * Get the title of a row
+     * @return Title, or null if the row has none
+     */
+    public String getTitle(int row) {
+        int titleId = titleIds[row];
+        return titleId == NO_TITLE ? null : titles[titleId];
+    }
+
+    /**
+     * Approximate heap size of the snapshot: arrays plus the dictionaries
+     */
+    public long estimateSizeBytes() {
+        // Six arrays of size + header, plus the dictionaries' Strings
+        long bytes = 6L * 16 + (long) amounts.length * 8 + 5L * epochDays.length * 4;
+        for (String location : locations) {
+            bytes += 40 + location.length() * 2L;
+        }
+        for (String title : titles) {
+            bytes += 40 + title.length() * 2L;
+        }
+        return bytes;
+    }
+
+    /**
+     * Builder that appends rows, typically straight from a cursor
+     */
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private int size;
+        private double[] amounts;
+        private int[] epochDays;
+        private int[] minutes;
+        private int[] categoryIds;
+        private int[] locationIds;
+        private int[] titleIds;
+
+        private final Map<String, Integer> locationDictionary = new HashMap<>();
+        private final Map<String, Integer> titleDictionary = new HashMap<>();
+
+        // Filled in by build()
+        private String[] locations;
+        private String[] titles;
+
+        public Builder() {
+            this(INITIAL_CAPACITY);
+        }
+
+        /**
+         * @param expectedRows Number of rows to hold without growing, e.g. the cursor count
+         */
+        public Builder(int expectedRows) {
+            int capacity = Math.max(expectedRows, 1);
+            amounts = new double[capacity];
+            epochDays = new int[capacity];
+            minutes = new int[capacity];
+            categoryIds = new int[capacity];
+            locationIds = new int[capacity];
+            titleIds = new int[capacity];
+        }
+
+        /**
+         * Append one expense
+         * @param categoryId Category ID, 0 if it has none
+         * @param amount Amount of the expense
+         * @param epochDay Date of the expense as days since 1970-01-01
+         * @param minute Time of the expense as minutes since midnight
+         * @param location Location, may be null or empty
+         * @param title Title, may be null or empty
+         */
+        public Builder add(int categoryId, double amount, int epochDay, int minute, String location,
+                           String title) {
+            if (size == amounts.length) {
+                int capacity = size * 2;
+                amounts = Arrays.copyOf(amounts, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                minutes = Arrays.copyOf(minutes, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+                locationIds = Arrays.copyOf(locationIds, capacity);
+                titleIds = Arrays.copyOf(titleIds, capacity);
+            }
+
+            amounts[size] = amount;
+            epochDays[size] = epochDay;
+            minutes[size] = minute;
+            categoryIds[size] = categoryId;
+            locationIds[size] = (location == null || location.isEmpty())
+                    ? NO_LOCATION : encode(locationDictionary, location);
+            titleIds[size] = (title == null || title.isEmpty())
+                    ? NO_TITLE : encode(titleDictionary, title);
+            size++;
+            return this;
+        }
+
+        private static int encode(Map<String, Integer> dictionary, String value) {
+            Integer id = dictionary.get(value);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.put(value, id);
+            }
+            return id;
+        }
+
+        private static String[] decode(Map<String, Integer> dictionary) {
+            String[] values = new String[dictionary.size()];
+            for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+                values[entry.getValue()] = entry.getKey();
+            }
+            return values;
+        }
+
+        public ExpenseColumns build() {
+            // Trim the growth slack so the snapshot holds exactly its rows
+            if (size < amounts.length) {
+                amounts = Arrays.copyOf(amounts, size);
+                epochDays = Arrays.copyOf(epochDays, size);
+                minutes = Arrays.copyOf(minutes, size);
+                categoryIds = Arrays.copyOf(categoryIds, size);
+                locationIds = Arrays.copyOf(locationIds, size);
+                titleIds = Arrays.copyOf(titleIds, size);
+            }
+
+            locations = decode(locationDictionary);
+            titles = decode(titleDictionary);
+
+            return new ExpenseColumns(this);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving sketch of the keys with the largest total amount.
+ * At most capacity counters are kept, however many distinct keys are added.
+ * A key that is not tracked when the sketch is full takes over the counter
+ * with the smallest amount and inherits that amount as its error, so for
+ * every tracked key amount - error <= true total <= amount, and no untracked
+ * key has a true total above the smallest tracked amount. Until the sketch
+ * is full every total is exact.
+ *
+ * Sketches of separate partitions merge into a sketch of the union; a key
+ * missing from a full partition is charged that partition's smallest amount
+ * as error.
+ */
+public final class HeavyHitters implements Mergeable<HeavyHitters> {
+
+    // Counters kept by default; enough for a top 10 well clear of the error
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private double total;
+
+    public HeavyHitters() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximum number of keys tracked
+     */
+    public HeavyHitters(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add an amount to a key
+     */
+    public void add(String key, double amount) {
+        total += amount;
+
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter(key);
+            } else {
+                // Evict the lightest key; the newcomer may have had up to its amount before
+                counter = lightest();
+                counters.remove(counter.key);
+                counter.key = key;
+                counter.error = counter.amount;
+                counter.count = 0;
+            }
+            counters.put(key, counter);
+        }
+
+        counter.amount += amount;
+        counter.count++;
+    }
+
+    @Override
+    public void merge(HeavyHitters other) {
+        // Upper bounds for keys a full sketch no longer tracks
+        double missing = isFull() ? lightest().amount : 0;
+        double otherMissing = other.isFull() ? other.lightest().amount : 0;
+
+        if (otherMissing > 0) {
+            for (Counter counter : counters.values()) {
+                if (!other.counters.containsKey(counter.key)) {
+                    counter.amount += otherMissing;
+                    counter.error += otherMissing;
+                }
+            }
+        }
+
+        for (Counter otherCounter : other.counters.values()) {
+            Counter counter = counters.get(otherCounter.key);
+            if (counter == null) {
+                counter = new Counter(otherCounter.key);
+                counter.amount = missing;
+                counter.error = missing;
+                counters.put(counter.key, counter);
+            }
+            counter.amount += otherCounter.amount;
+            counter.error += otherCounter.error;
+            counter.count += otherCounter.count;
+        }
+        total += other.total;
+
+        // Keep only the heaviest counters
+        if (counters.size() > capacity) {
+            List<Counter> sorted = sortedCounters();
+            for (int i = capacity; i < sorted.size(); i++) {
+                counters.remove(sorted.get(i).key);
+            }
+        }
+    }
+
+    /**
+     * Total amount added, tracked or not
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * Whether every key added is still tracked, so all amounts are exact
+     */
+    public boolean isExact() {
+        for (Counter counter : counters.values()) {
+            if (counter.error > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the heaviest keys, largest amount first
+     * @param limit Maximum number of keys to return
+     */
+    public List<Entry> getTop(int limit) {
+        List<Counter> sorted = sortedCounters();
+        int size = Math.min(limit, sorted.size());
+
+        List<Entry> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Counter counter = sorted.get(i);
+            top.add(new Entry(counter.key, counter.amount, counter.error, counter.count));
+        }
+        return top;
+    }
+
+    private boolean isFull() {
+        return counters.size() >= capacity;
+    }
+
+    // Linear scan; capacity is small and evictions only happen once the sketch is full
+    private Counter lightest() {
+        Counter lightest = null;
+        for (Counter counter : counters.values()) {
+            if (lightest == null || counter.amount < lightest.amount) {
+                lightest = counter;
+            }
+        }
+        return lightest;
+    }
+
+    private List<Counter> sortedCounters() {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        Collections.sort(sorted, new Comparator<Counter>() {
+            @Override
+            public int compare(Counter first, Counter second) {
+                return Double.compare(second.amount, first.amount);
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * One tracked key with its estimated total
+     */
+    public static final class Entry {
+        private final String key;
+        private final double amount;
+        private final double error;
+        private final int count;
+
+        Entry(String key, double amount, double error, int count) {
+            this.key = key;
+            this.amount = amount;
+            this.error = error;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Estimated total, at most getError() above the true total
+         */
+        public double getAmount() {
+            return amount;
+        }
+
+        public double getError() {
+            return error;
+        }
+
+        /**
+         * Number of expenses counted since the key was last tracked, a lower bound
+         */
+        public int getCount() {
+            return count;
+        }
+    }
+
+    // Mutable counter; reused for the newcomer when a key is evicted
+    private static class Counter {
+        String key;
+        double amount;
+        double error;
+        int count;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Bucket boundaries of an amount histogram.
+ *
+ * Bucket i holds amounts from boundary i - 1 (inclusive) up to boundary i
+ * (exclusive); the first bucket also holds everything below the first
+ * boundary and the last everything from the last boundary up. The same
+ * assignment is available as a SQL expression, so SQLite can group the rows
+ * and only the buckets are read back.
+ */
+public final class HistogramBuckets {
+
+    // Steps of a log scale within each power of ten
+    private static final double[] LOG_STEPS = {1, 2, 5};
+
+    private final double[] boundaries;
+
+    // Fixed-width buckets are assigned arithmetically instead of by comparison
+    private final double width;
+
+    private HistogramBuckets(double[] boundaries, double width) {
+        this.boundaries = boundaries;
+        this.width = width;
+    }
+
+    /**
+     * Buckets of equal width starting at 0
+     * @param width Width of each bucket, greater than 0
+     * @param count Number of buckets; the last one is open-ended
+     */
+    public static HistogramBuckets fixedWidth(double width, int count) {
+        if (width <= 0 || count < 1) {
+            throw new IllegalArgumentException("Invalid buckets: width " + width + ", count " + count);
+        }
+
+        double[] boundaries = new double[count - 1];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = width * (i + 1);
+        }
+        return new HistogramBuckets(boundaries, width);
+    }
+
+    /**
+     * Log-scale buckets on a 1-2-5 series, e.g. under 1, 1-2, 2-5, 5-10, 10-20...
+     * @param min Lowest boundary, greater than 0
+     * @param max Amounts from the first boundary at or above max share the last bucket
+     */
+    public static HistogramBuckets logScale(double min, double max) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("Invalid buckets: min " + min + ", max " + max);
+        }
+
+        double[] boundaries = new double[8];
+        int count = 0;
+        double decade = Math.pow(10, Math.floor(Math.log10(min)));
+        while (count == 0 || boundaries[count - 1] < max) {
+            for (double step : LOG_STEPS) {
+                double boundary = step * decade;
+                if (boundary < min * (1 - 1e-9) || (count > 0 && boundaries[count - 1] >= max)) {
+                    continue;
+                }
+                if (count == boundaries.length) {
+                    boundaries = Arrays.copyOf(boundaries, count * 2);
+                }
+                boundaries[count++] = boundary;
+            }
+            decade *= 10;
+        }
+        return new HistogramBuckets(Arrays.copyOf(boundaries, count), 0);
+    }
+
+    public int size() {
+        return boundaries.length + 1;
+    }
+
+    /**
+     * Lower bound of a bucket, or negative infinity for the first
+     */
+    public double getLowerBound(int index) {
+        return index == 0 ? Double.NEGATIVE_INFINITY : boundaries[index - 1];
+    }
+
+    /**
+     * Upper bound of a bucket, exclusive, or positive infinity for the last
+     */
+    public double getUpperBound(int index) {
+        return index == boundaries.length ? Double.POSITIVE_INFINITY : boundaries[index];
+    }
+
+    /**
+     * Get the bucket of an amount, exactly as bucketExpression() assigns it
+     */
+    public int bucketOf(double amount) {
+        if (width > 0) {
+            if (amount < 0) {
+                return 0;
+            }
+            return (int) Math.min((long) (amount / width), boundaries.length);
+        }
+
+        int index = 0;
+        while (index < boundaries.length && amount >= boundaries[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Build the SQL expression assigning a column's value to its bucket index
+     * @param column Column or expression holding the amount
+     */
+    public String bucketExpression(String column) {
+        if (width > 0) {
+            return "CASE WHEN " + column + " < 0 THEN 0"
+                    + " ELSE MIN(CAST(" + column + " / " + literal(width) + " AS INTEGER), " + boundaries.length + ")"
+                    + " END";
+        }
+
+        StringBuilder expression = new StringBuilder("CASE");
+        for (int i = 0; i < boundaries.length; i++) {
+            expression.append(" WHEN ").append(column).append(" < ").append(literal(boundaries[i]))
+                    .append(" THEN ").append(i);
+        }
+        return expression.append(" ELSE ").append(boundaries.length).append(" END").toString();
+    }
+
+    /**
+     * Short label of a bucket, e.g. "<1", "20", "1k" or "5k+"
+     */
+    public String getLabel(int index) {
+        if (index == 0) {
+            return boundaries.length == 0 ? "All" : "<" + compact(boundaries[0]);
+        }
+        String label = compact(boundaries[index - 1]);
+        return index == boundaries.length ? label + "+" : label;
+    }
+
+    private static String compact(double value) {
+        if (value >= 1000000) {
+            return trim(value / 1000000) + "M";
+        }
+        if (value >= 1000) {
+            return trim(value / 1000) + "k";
+        }
+        return trim(value);
+    }
+
+    private static String trim(double value) {
+        if (value == Math.rint(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.US, "%.2f", value).replaceAll("0+$", "");
+    }
+
+    // Locale-independent numeric literal for SQL
+    private static String literal(double value) {
+        return Double.toString(value);
+    }
+}
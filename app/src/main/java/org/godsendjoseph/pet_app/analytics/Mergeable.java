@@ -0,0 +1,16 @@
+package org.godsendjoseph.pet_app.analytics;
+
+/**
+ * An accumulator that can absorb another accumulator of the same kind.
+ * Partial results computed over separate row ranges are merged into one, so
+ * merging must give the same result as accumulating all rows in one pass.
+ * @param <T> Type of the accumulator
+ */
+public interface Mergeable<T> {
+
+    /**
+     * Add everything another accumulator has seen to this one
+     * @param other Accumulator to merge in; left unchanged
+     */
+    void merge(T other);
+}
@@ -0,0 +1,100 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join aggregation over row ranges.
+ * The rows are split in halves until a range is below the threshold; each
+ * range is accumulated on its own and the partial results are merged on the
+ * way back up. Inputs too small to gain from splitting run sequentially on
+ * the calling thread.
+ */
+public final class ParallelAggregation {
+
+    // Rows below which a range is accumulated instead of split further
+    public static final int DEFAULT_THRESHOLD = 16384;
+
+    /**
+     * How to accumulate a range of rows
+     * @param <A> Type of the accumulator
+     */
+    public interface RangeAccumulator<A extends Mergeable<A>> {
+        // Create an empty accumulator
+        A create();
+
+        // Add the rows from (inclusive) to to (exclusive) to the accumulator
+        void accumulate(A accumulator, int from, int to);
+    }
+
+    // Static helper class, not meant to be instantiated
+    private ParallelAggregation() {
+    }
+
+    /**
+     * Aggregate rows on the common fork/join pool
+     * @param rowCount Number of rows
+     * @param rangeAccumulator How to accumulate a range of rows
+     * @return The merged accumulator
+     */
+    public static <A extends Mergeable<A>> A aggregate(int rowCount, RangeAccumulator<A> rangeAccumulator) {
+        return aggregate(rowCount, rangeAccumulator, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Aggregate rows on a given pool
+     * @param rowCount Number of rows
+     * @param rangeAccumulator How to accumulate a range of rows
+     * @param pool Pool to run on
+     * @param threshold Rows below which a range is not split
+     * @return The merged accumulator
+     */
+    public static <A extends Mergeable<A>> A aggregate(int rowCount, RangeAccumulator<A> rangeAccumulator,
+                                                     ForkJoinPool pool, int threshold) {
+        // Sequential fallback: one range, no task overhead
+        if (rowCount < threshold * 2 || pool.getParallelism() < 2) {
+            A accumulator = rangeAccumulator.create();
+            rangeAccumulator.accumulate(accumulator, 0, rowCount);
+            return accumulator;
+        }
+
+        return pool.invoke(new RangeTask<>(rangeAccumulator, 0, rowCount, threshold));
+    }
+
+    private static class RangeTask<A extends Mergeable<A>> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAccumulator<A> rangeAccumulator;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        RangeTask(RangeAccumulator<A> rangeAccumulator, int from, int to, int threshold) {
+            this.rangeAccumulator = rangeAccumulator;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= threshold) {
+                A accumulator = rangeAccumulator.create();
+                rangeAccumulator.accumulate(accumulator, from, to);
+                return accumulator;
+            }
+
+            int middle = (from + to) >>> 1;
+            RangeTask<A> left = new RangeTask<>(rangeAccumulator, from, middle, threshold);
+            RangeTask<A> right = new RangeTask<>(rangeAccumulator, middle, to, threshold);
+
+            // Run the right half here while the left half may be stolen
+            left.fork();
+            A result = right.compute();
+            A leftResult = left.join();
+
+            leftResult.merge(result);
+            return leftResult;
+        }
+    }
+}
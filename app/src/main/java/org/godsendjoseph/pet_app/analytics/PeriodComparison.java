@@ -0,0 +1,114 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.models.CategoryComparison;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntDoubleMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Category totals of a current and a baseline period, side by side.
+ * Filled from one query that splits its rows between the two periods, so a
+ * comparison costs a single pass over the expenses of both ranges.
+ */
+public final class PeriodComparison {
+
+    private final IntDoubleMap currentTotals = new IntDoubleMap();
+    private final IntDoubleMap baselineTotals = new IntDoubleMap();
+    private double currentTotal;
+    private double baselineTotal;
+
+    /**
+     * The range of the same length that ends the day before a range starts
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return Start and end date of the baseline, or null if a date is malformed
+     */
+    public static String[] previousPeriod(String startDate, String endDate) {
+        int start = EpochDayUtils.fromDate(startDate);
+        int end = EpochDayUtils.fromDate(endDate);
+        if (start == EpochDayUtils.INVALID || end == EpochDayUtils.INVALID || end < start) {
+            return null;
+        }
+
+        int length = end - start + 1;
+        return new String[]{EpochDayUtils.toDate(start - length), EpochDayUtils.toDate(start - 1)};
+    }
+
+    /**
+     * The same range one year earlier; 29 February becomes 28 February
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return Start and end date of the baseline, or null if a date is malformed
+     */
+    public static String[] sameRangeLastYear(String startDate, String endDate) {
+        int start = EpochDayUtils.fromDate(startDate);
+        int end = EpochDayUtils.fromDate(endDate);
+        if (start == EpochDayUtils.INVALID || end == EpochDayUtils.INVALID || end < start) {
+            return null;
+        }
+        return new String[]{EpochDayUtils.toDate(yearEarlier(start)), EpochDayUtils.toDate(yearEarlier(end))};
+    }
+
+    private static int yearEarlier(int epochDay) {
+        int[] civil = EpochDayUtils.toCivil(epochDay);
+        int day = (civil[1] == 2 && civil[2] == 29) ? 28 : civil[2];
+        return EpochDayUtils.fromCivil(civil[0] - 1, civil[1], day);
+    }
+
+    /**
+     * Add the totals of one category
+     * @param categoryId ID of the category, 0 for none
+     * @param current Total in the current period
+     * @param baseline Total in the baseline period
+     */
+    public void add(int categoryId, double current, double baseline) {
+        currentTotals.addTo(categoryId, current);
+        baselineTotals.addTo(categoryId, baseline);
+        currentTotal += current;
+        baselineTotal += baseline;
+    }
+
+    public double getCurrentTotal() {
+        return currentTotal;
+    }
+
+    public double getBaselineTotal() {
+        return baselineTotal;
+    }
+
+    /**
+     * Compare both periods across all categories
+     * @param label Label of the overall row
+     */
+    public CategoryComparison getTotalComparison(String label) {
+        return new CategoryComparison(label, null, currentTotal, baselineTotal);
+    }
+
+    /**
+     * Compare both periods per category, largest change first.
+     * Categories with no spend in either period, or not in the list, are left out.
+     * @param categories Categories of the user, for names and colors
+     */
+    public List<CategoryComparison> getCategoryComparisons(List<Category> categories) {
+        List<CategoryComparison> comparisons = new ArrayList<>();
+        for (Category category : categories) {
+            if (currentTotals.containsKey(category.getId())) {
+                comparisons.add(new CategoryComparison(category.getName(), category.getColor(),
+                        currentTotals.get(category.getId()), baselineTotals.get(category.getId())));
+            }
+        }
+
+        Collections.sort(comparisons, new Comparator<CategoryComparison>() {
+            @Override
+            public int compare(CategoryComparison first, CategoryComparison second) {
+                return Double.compare(Math.abs(second.getDelta()), Math.abs(first.getDelta()));
+            }
+        });
+        return comparisons;
+    }
+}
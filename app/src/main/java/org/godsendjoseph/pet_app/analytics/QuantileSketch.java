@@ -0,0 +1,308 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * KLL quantile sketch over doubles.
+ * Values are kept in levels; a value at level h stands for 2^h inputs. When a
+ * level fills up it is sorted and every other value is promoted to the next
+ * level, so memory stays around 3k values however many are added, and the
+ * rank error of a quantile is about 1.7 / k (1% for the default k).
+ *
+ * All levels share one buffer, level 0 leftmost and free space in front of
+ * it, so once the buffer has grown to its working size adding a value never
+ * allocates. Sketches of separate partitions merge into a sketch of the
+ * union, so day or range sketches can be combined. Values cannot be removed.
+ */
+public final class QuantileSketch implements Mergeable<QuantileSketch> {
+
+    // Default accuracy parameter, the capacity of the top level
+    public static final int DEFAULT_K = 200;
+
+    // Lower levels shrink by this factor, down to MIN_CAPACITY
+    private static final double CAPACITY_FACTOR = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+
+    // Enough for k * 2^31 values; past that the top level just grows
+    private static final int MAX_LEVELS = 32;
+
+    private final int k;
+
+    // Level h occupies items[levelStarts[h]] up to items[levelStarts[h + 1]]
+    private double[] items = new double[MIN_CAPACITY];
+    private final int[] levelStarts = new int[MAX_LEVELS + 1];
+    private final int[] capacities = new int[MAX_LEVELS];
+    private int levelCount = 1;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    // State of the xorshift generator choosing which half of a level is promoted
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k Accuracy parameter; larger is more accurate and uses more memory
+     */
+    public QuantileSketch(int k) {
+        this.k = k;
+        levelStarts[0] = items.length;
+        levelStarts[1] = items.length;
+        updateCapacities();
+    }
+
+    /**
+     * Add one value
+     */
+    public void add(double value) {
+        if (count == 0 || value < min) {
+            min = value;
+        }
+        if (count == 0 || value > max) {
+            max = value;
+        }
+        count++;
+
+        if (levelStarts[0] == 0) {
+            grow(1);
+        }
+        items[--levelStarts[0]] = value;
+        if (levelSize(0) >= capacities[0]) {
+            compress();
+        }
+    }
+
+    @Override
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+
+        while (levelCount < other.levelCount) {
+            addLevel();
+        }
+        int otherSize = other.levelStarts[other.levelCount] - other.levelStarts[0];
+        if (levelStarts[0] < otherSize) {
+            grow(otherSize);
+        }
+
+        // Insert each level of the other sketch in front of the same level here
+        for (int level = 0; level < other.levelCount; level++) {
+            int size = other.levelSize(level);
+            int start = levelStarts[0];
+            System.arraycopy(items, start, items, start - size, levelStarts[level] - start);
+            for (int lower = 0; lower <= level; lower++) {
+                levelStarts[lower] -= size;
+            }
+            System.arraycopy(other.items, other.levelStarts[level], items, levelStarts[level], size);
+        }
+
+        if (count == 0 || other.min < min) {
+            min = other.min;
+        }
+        if (count == 0 || other.max > max) {
+            max = other.max;
+        }
+        count += other.count;
+        compress();
+    }
+
+    /**
+     * Number of values added
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimate a quantile
+     * @param fraction Quantile between 0 and 1, e.g. 0.5 for the median
+     * @return Estimated value, or NaN if the sketch is empty
+     */
+    public double getQuantile(double fraction) {
+        return getQuantiles(fraction)[0];
+    }
+
+    /**
+     * Estimate several quantiles in one pass over the retained values
+     * @param fractions Quantiles between 0 and 1
+     * @return Estimated values in the same order, NaN if the sketch is empty
+     */
+    public double[] getQuantiles(double... fractions) {
+        double[] result = new double[fractions.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+
+        // Sort a copy of each level, then walk all levels in value order
+        int base = levelStarts[0];
+        double[] sorted = Arrays.copyOfRange(items, base, levelStarts[levelCount]);
+        int[] positions = new int[levelCount];
+        long totalWeight = 0;
+        for (int level = 0; level < levelCount; level++) {
+            positions[level] = levelStarts[level] - base;
+            Arrays.sort(sorted, positions[level], levelStarts[level + 1] - base);
+            totalWeight += (long) levelSize(level) << level;
+        }
+
+        // Fractions are answered in ascending order during a single walk
+        Integer[] order = new Integer[fractions.length];
+        for (int q = 0; q < fractions.length; q++) {
+            order[q] = q;
+        }
+        final double[] sortFractions = fractions;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Double.compare(sortFractions[first], sortFractions[second]);
+            }
+        });
+
+        long cumulativeWeight = 0;
+        double current = min;
+        int next = 0;
+        while (next < order.length) {
+            int q = order[next];
+            if (cumulativeWeight >= fractions[q] * totalWeight) {
+                result[q] = fractions[q] <= 0 ? min : current;
+                next++;
+                continue;
+            }
+
+            // Take the smallest remaining value across the levels
+            int smallestLevel = -1;
+            for (int level = 0; level < levelCount; level++) {
+                if (positions[level] < levelStarts[level + 1] - base && (smallestLevel < 0
+                        || sorted[positions[level]] < sorted[positions[smallestLevel]])) {
+                    smallestLevel = level;
+                }
+            }
+            if (smallestLevel < 0) {
+                // Rounding left the target just above the total weight
+                result[q] = max;
+                next++;
+                continue;
+            }
+
+            current = sorted[positions[smallestLevel]++];
+            cumulativeWeight += 1L << smallestLevel;
+        }
+        return result;
+    }
+
+    private int levelSize(int level) {
+        return levelStarts[level + 1] - levelStarts[level];
+    }
+
+    // The top level holds k values and each level below it fewer
+    private void updateCapacities() {
+        for (int level = 0; level < levelCount; level++) {
+            int depth = levelCount - 1 - level;
+            capacities[level] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_FACTOR, depth)));
+        }
+    }
+
+    // Compact from the bottom up, so values promoted out of a full level are
+    // compacted again if they fill the level above
+    private void compress() {
+        for (int level = 0; level < levelCount; level++) {
+            if (levelSize(level) >= capacities[level]) {
+                compact(level);
+            }
+        }
+    }
+
+    /**
+     * Sort a level and promote every other value to the level above.
+     * With an odd count the smallest value stays behind. The promoted values
+     * are moved next to the level above, which then simply starts earlier,
+     * and the levels below shift right into the space freed.
+     */
+    private void compact(int level) {
+        if (level + 1 >= levelCount) {
+            if (levelCount == MAX_LEVELS) {
+                return;
+            }
+            addLevel();
+        }
+
+        int start = levelStarts[level];
+        int end = levelStarts[level + 1];
+        sort(items, start, end);
+
+        int kept = (end - start) % 2;
+        int pairs = (end - start) / 2;
+        int offset = nextRandomBit();
+
+        // Backwards, so no value is overwritten before it is read
+        for (int pair = pairs - 1; pair >= 0; pair--) {
+            items[start + kept + pairs + pair] = items[start + kept + pair * 2 + offset];
+        }
+
+        int first = levelStarts[0];
+        System.arraycopy(items, first, items, first + pairs, start + kept - first);
+        for (int lower = 0; lower <= level; lower++) {
+            levelStarts[lower] += pairs;
+        }
+        levelStarts[level + 1] = end - pairs;
+    }
+
+    // Gaps for sort(), largest first
+    private static final int[] SHELL_GAPS = {701, 301, 132, 57, 23, 10, 4, 1};
+
+    /**
+     * Shell sort of a range. Levels hold a few hundred values, where this is
+     * about as fast as Arrays.sort, and unlike Arrays.sort it never allocates;
+     * that one allocates a run buffer for the nearly sorted ranges compaction
+     * produces.
+     */
+    private static void sort(double[] values, int from, int to) {
+        for (int gap : SHELL_GAPS) {
+            for (int i = from + gap; i < to; i++) {
+                double value = values[i];
+                int j = i;
+                while (j - gap >= from && values[j - gap] > value) {
+                    values[j] = values[j - gap];
+                    j -= gap;
+                }
+                values[j] = value;
+            }
+        }
+    }
+
+    // Make room for at least the given number of values in front of level 0
+    private void grow(int needed) {
+        int used = levelStarts[levelCount] - levelStarts[0];
+        int length = items.length * 2;
+        while (length - used < needed) {
+            length *= 2;
+        }
+
+        double[] grown = new double[length];
+        int shift = length - items.length;
+        System.arraycopy(items, levelStarts[0], grown, levelStarts[0] + shift, used);
+        for (int level = 0; level <= levelCount; level++) {
+            levelStarts[level] += shift;
+        }
+        items = grown;
+    }
+
+    // Add an empty level at the top, at the end of the buffer
+    private void addLevel() {
+        levelStarts[levelCount + 1] = levelStarts[levelCount];
+        levelCount++;
+        updateCapacities();
+    }
+
+    private int nextRandomBit() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+}
@@ -0,0 +1,118 @@
+package org.godsendjoseph.pet_app.analytics;
+
+/**
+ * Streaming mean and variance of expense amounts (Welford's algorithm).
+ * Adding or removing an amount is O(1) and numerically stable, and the state
+ * is three numbers, so it can be stored in a table row and updated as each
+ * expense is written.
+ */
+public class RunningStats {
+
+    // An amount is unusual this many standard deviations above the mean...
+    static final double Z_THRESHOLD = 3.0;
+
+    // ...and at least this many times the mean, so steady groups are not
+    // flagged for small changes
+    static final double MIN_RATIO = 1.5;
+
+    // Amounts needed before anything is flagged
+    static final int MIN_SAMPLES = 5;
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    /**
+     * Statistics of no amounts
+     */
+    public RunningStats() {
+    }
+
+    /**
+     * Restore saved statistics
+     * @param count Number of amounts
+     * @param mean Mean of the amounts
+     * @param m2 Sum of squared differences from the mean
+     */
+    public RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public void add(double amount) {
+        count++;
+        double delta = amount - mean;
+        mean += delta / count;
+        m2 += delta * (amount - mean);
+    }
+
+    /**
+     * Add all amounts of other statistics, e.g. when two groups are combined.
+     * Uses the pairwise update of Chan et al., so the result is the same as
+     * adding the amounts one by one.
+     */
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        count = total;
+    }
+
+    /**
+     * Remove an amount that was added earlier, e.g. when an expense is deleted
+     */
+    public void remove(double amount) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+
+        double meanWith = mean;
+        count--;
+        mean = (meanWith * (count + 1) - amount) / count;
+        m2 = Math.max(0, m2 - (amount - mean) * (amount - meanWith));
+    }
+
+    /**
+     * Whether an amount is unusually large for these statistics.
+     * Checked before the amount itself is added.
+     */
+    public boolean isUnusuallyLarge(double amount) {
+        if (count < MIN_SAMPLES || amount <= mean * MIN_RATIO) {
+            return false;
+        }
+        return amount > mean + Z_THRESHOLD * getStandardDeviation();
+    }
+
+    // Getters
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getM2() {
+        return m2;
+    }
+
+    /**
+     * Sample variance, 0 with fewer than two amounts
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
@@ -0,0 +1,163 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.models.SpendForecast;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+
+/**
+ * Exponentially smoothed daily spend of one category (or of all of them).
+ *
+ * Each calendar day is one observation: the total spent on it, zero for days
+ * without expenses. The smoothed level and variance cover the days before the
+ * latest day seen, whose total is still accumulating. Every update is O(1):
+ * a run of empty days is closed in one step, and an amount added to or removed
+ * from an earlier day shifts the level by the weight that day now has.
+ *
+ * The state is a handful of numbers, so it can be stored in a table row and
+ * updated as expenses are written instead of replaying history.
+ */
+public class SmoothedDailySpend {
+
+    // Smoothing factor, equivalent to a 14 day moving average
+    static final double ALPHA = 2.0 / (14 + 1);
+
+    // z-score of the 90% confidence band
+    private static final double Z_90 = 1.645;
+
+    private int lastDay;
+    private double dayTotal;
+    private double level;
+    private double variance;
+    private int observations;
+
+    /**
+     * State without any expenses
+     */
+    public SmoothedDailySpend() {
+        this(EpochDayUtils.INVALID, 0, 0, 0, 0);
+    }
+
+    /**
+     * Restore a saved state
+     * @param lastDay Latest epoch day seen, or EpochDayUtils.INVALID
+     * @param dayTotal Spent so far on the latest day
+     * @param level Smoothed daily spend of the days before it
+     * @param variance Smoothed variance of those days
+     * @param observations Number of days the level is based on
+     */
+    public SmoothedDailySpend(int lastDay, double dayTotal, double level, double variance, int observations) {
+        this.lastDay = lastDay;
+        this.dayTotal = dayTotal;
+        this.level = level;
+        this.variance = variance;
+        this.observations = observations;
+    }
+
+    /**
+     * Add an amount spent on a day; a negative amount removes it again
+     * @param epochDay Day of the expense
+     * @param amount Amount of the expense
+     */
+    public void add(int epochDay, double amount) {
+        if (epochDay == EpochDayUtils.INVALID) {
+            return;
+        }
+
+        if (lastDay == EpochDayUtils.INVALID) {
+            lastDay = epochDay;
+            dayTotal = amount;
+        } else if (epochDay == lastDay) {
+            dayTotal += amount;
+        } else if (epochDay > lastDay) {
+            close(dayTotal);
+            closeEmptyDays(epochDay - lastDay - 1);
+            lastDay = epochDay;
+            dayTotal = amount;
+        } else if (observations > 0) {
+            // The day was closed, and has been decayed once for each day closed after it
+            int age = lastDay - 1 - epochDay;
+            level += ALPHA * Math.pow(1 - ALPHA, age) * amount;
+        }
+    }
+
+    // Fold one finished day into the level and variance
+    private void close(double total) {
+        if (observations == 0) {
+            level = total;
+            variance = 0;
+        } else {
+            double diff = total - level;
+            level += ALPHA * diff;
+            variance = (1 - ALPHA) * (variance + ALPHA * diff * diff);
+        }
+        observations++;
+    }
+
+    /**
+     * Fold a run of days without expenses in closed form.
+     * After k zero days the level is L(1-a)^k and the variance is
+     * (1-a)^k (V + L^2 (1 - (1-a)^k)).
+     */
+    private void closeEmptyDays(int days) {
+        if (days <= 0) {
+            return;
+        }
+        double decay = Math.pow(1 - ALPHA, days);
+        variance = decay * (variance + level * level * (1 - decay));
+        level *= decay;
+        observations += days;
+    }
+
+    /**
+     * Project the total at the end of a period, e.g. a month
+     * @param label Label of the forecast
+     * @param color Color of the forecast, may be null
+     * @param today Current epoch day
+     * @param lastDayOfPeriod Last epoch day of the period
+     * @param periodToDate Amount already spent in the period
+     * @return Projected total with a 90% band, never below what has been spent
+     */
+    public SpendForecast forecast(String label, String color, int today, int lastDayOfPeriod,
+                                  double periodToDate) {
+        // Advance a copy to today, so reading does not change the state
+        SmoothedDailySpend current = new SmoothedDailySpend(lastDay, dayTotal, level, variance, observations);
+        if (lastDay != EpochDayUtils.INVALID && lastDay < today) {
+            current.add(today, 0);
+        }
+
+        double expected = 0;
+        double band = 0;
+        if (current.observations > 0) {
+            double dailyLevel = Math.max(0, current.level);
+            int remainingDays = Math.max(0, lastDayOfPeriod - today);
+
+            // Today counts for whatever is left of its usual spend
+            double restOfToday = current.lastDay == today ? Math.max(0, dailyLevel - current.dayTotal) : dailyLevel;
+            expected = restOfToday + dailyLevel * remainingDays;
+            band = Z_90 * Math.sqrt(Math.max(0, current.variance) * (remainingDays + 1));
+        }
+
+        return new SpendForecast(label, color, periodToDate, periodToDate + expected,
+                periodToDate + Math.max(0, expected - band), periodToDate + expected + band);
+    }
+
+    // Getters
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    public double getDayTotal() {
+        return dayTotal;
+    }
+
+    public double getLevel() {
+        return level;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public int getObservations() {
+        return observations;
+    }
+}
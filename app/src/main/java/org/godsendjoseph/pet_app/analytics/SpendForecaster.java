@@ -0,0 +1,81 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import android.content.Context;
+
+import org.godsendjoseph.pet_app.database.SpendForecastDAO;
+import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.models.SpendForecast;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Month-end spend forecasts.
+ *
+ * Combines what has been spent so far this month, from ExpenseAggregateStore,
+ * with the smoothed daily spend that ExpenseWriteQueue keeps in the
+ * spend_forecasts table as expenses are written. Reading a forecast is one
+ * small query whatever the length of the user's history.
+ */
+public class SpendForecaster {
+
+    private final ExpenseAggregateStore aggregateStore;
+    private final SpendForecastDAO forecastDAO;
+
+    public SpendForecaster(Context context) {
+        aggregateStore = ExpenseAggregateStore.getInstance(context);
+        forecastDAO = new SpendForecastDAO(context);
+    }
+
+    /**
+     * Forecast the end of the current month.
+     * Must not be called on the main thread.
+     * @param userId ID of the user
+     * @param categories Categories of the user, for names and colors
+     * @param totalLabel Label of the forecast for all categories
+     * @return Forecast of the total first, then one per category with spend, largest first
+     */
+    public List<SpendForecast> forecastMonthEnd(int userId, List<Category> categories, String totalLabel) {
+        int today = EpochDayUtils.today();
+        int[] civil = EpochDayUtils.toCivil(today);
+        int firstDay = EpochDayUtils.fromCivil(civil[0], civil[1], 1);
+        int lastDay = EpochDayUtils.lastDayOfMonth(today);
+
+        // Flushes queued writes, so the states read below include them
+        ExpenseAggregator month = aggregateStore.aggregate(userId,
+                EpochDayUtils.toDate(firstDay), EpochDayUtils.toDate(lastDay));
+        IntObjectMap<SmoothedDailySpend> states = forecastDAO.getForecastStates(userId);
+
+        List<SpendForecast> forecasts = new ArrayList<>();
+        for (Category category : categories) {
+            SmoothedDailySpend state = states.get(category.getId());
+            double spent = month.getCategoryTotal(category.getId());
+            if (state == null && spent == 0) {
+                continue;
+            }
+            if (state == null) {
+                state = new SmoothedDailySpend();
+            }
+            forecasts.add(state.forecast(category.getName(), category.getColor(), today, lastDay, spent));
+        }
+
+        Collections.sort(forecasts, new Comparator<SpendForecast>() {
+            @Override
+            public int compare(SpendForecast first, SpendForecast second) {
+                return Double.compare(second.getProjectedAmount(), first.getProjectedAmount());
+            }
+        });
+
+        SmoothedDailySpend total = states.get(SpendForecastDAO.TOTAL_KEY);
+        if (total == null) {
+            total = new SmoothedDailySpend();
+        }
+        forecasts.add(0, total.forecast(totalLabel, null, today, lastDay, month.getTotal()));
+
+        return forecasts;
+    }
+}
@@ -3,6 +3,7 @@ package org.godsendjoseph.pet_app.database;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
@@ -20,10 +21,14 @@ public class CategoryDAO {
 
     private SQLiteDatabase database;
     private DatabaseHelper dbHelper;
+    private DatabaseChangeNotifier changeNotifier;
+    private ExpenseWriteQueue writeQueue;
 
     // Constructor
     public CategoryDAO(Context context) {
         dbHelper = DatabaseHelper.getInstance(context);
+        changeNotifier = DatabaseChangeNotifier.getInstance();
+        writeQueue = ExpenseWriteQueue.getInstance(context);
     }
 
     // Open database connection
@@ -33,9 +38,8 @@ public class CategoryDAO {
 
     // Close database connection
     public void close() {
-        if (database != null && database.isOpen()) {
-            database.close();
-        }
+        // The connection is shared through DatabaseHelper and stays open so the
+        // write-behind queue is never left holding a closed database mid-commit
     }
 
     /**
@@ -56,6 +60,9 @@ public class CategoryDAO {
             values.put(DatabaseHelper.COLUMN_USER_ID, category.getUserId());
 
             categoryId = database.insert(DatabaseHelper.TABLE_CATEGORIES, null, values);
+            if (categoryId != -1) {
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_CATEGORIES);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error inserting category: " + e.getMessage());
         } finally {
@@ -85,6 +92,9 @@ public class CategoryDAO {
             String[] whereArgs = {String.valueOf(category.getId())};
 
             rowsAffected = database.update(DatabaseHelper.TABLE_CATEGORIES, values, whereClause, whereArgs);
+            if (rowsAffected > 0) {
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_CATEGORIES);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error updating category: " + e.getMessage());
         } finally {
@@ -103,6 +113,8 @@ public class CategoryDAO {
         int rowsAffected = 0;
 
         try {
+            // Queued expenses may still use the category, so commit them first
+            writeQueue.flushAndWait();
             open();
 
             // Only allow deletion of user-created categories (where user_id is not null)
@@ -110,7 +122,27 @@ public class CategoryDAO {
                     DatabaseHelper.COLUMN_USER_ID + " IS NOT NULL";
             String[] whereArgs = {String.valueOf(categoryId)};
 
-            rowsAffected = database.delete(DatabaseHelper.TABLE_CATEGORIES, whereClause, whereArgs);
+            // Expenses in the category become uncategorized (ON DELETE SET NULL)
+            // without passing through ExpenseWriteQueue, so their derived rows are
+            // moved here, in the same transaction as the delete
+            database.beginTransaction();
+            try {
+                if (DatabaseUtils.queryNumEntries(database, DatabaseHelper.TABLE_CATEGORIES,
+                        whereClause, whereArgs) > 0) {
+                    SpendForecastDAO.moveToUncategorized(database, categoryId);
+                    ExpenseStatsDAO.moveToUncategorized(database, categoryId);
+                    rowsAffected = database.delete(DatabaseHelper.TABLE_CATEGORIES, whereClause, whereArgs);
+                }
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+
+            if (rowsAffected > 0) {
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_CATEGORIES);
+                // Expenses in the category lose their category_id (ON DELETE SET NULL)
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_EXPENSES);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error deleting category: " + e.getMessage());
         } finally {
@@ -0,0 +1,132 @@
+package org.godsendjoseph.pet_app.database;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes table-level change events for the expense tracker database.
+ * DAOs report every successful insert, update and delete here. Each table keeps a
+ * version counter, so callers can tell whether anything they depend on changed
+ * since their last query without running it again.
+ *
+ * Writers may tag their changes with a source. Callers that already applied a
+ * source's changes in memory can leave them out of the version they compare.
+ */
+public class DatabaseChangeNotifier {
+
+    /**
+     * Interface for receiving table change events.
+     * Called on the thread that performed the write.
+     */
+    public interface OnTableChangedListener {
+        void onTableChanged(String table);
+    }
+
+    // Singleton instance
+    private static DatabaseChangeNotifier instance;
+
+    // Guarded by this
+    private final Map<String, Long> tableVersions = new HashMap<>();
+    private final Map<Object, Map<String, Long>> sourceVersions = new HashMap<>();
+
+    private final List<OnTableChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Get the singleton instance of DatabaseChangeNotifier
+     * @return DatabaseChangeNotifier instance
+     */
+    public static synchronized DatabaseChangeNotifier getInstance() {
+        if (instance == null) {
+            instance = new DatabaseChangeNotifier();
+        }
+        return instance;
+    }
+
+    // Private constructor to enforce singleton pattern
+    private DatabaseChangeNotifier() {
+    }
+
+    /**
+     * Get the combined version of one or more tables.
+     * The value only ever grows, and changes whenever any of the tables change.
+     * @param tables Names of the tables
+     * @return Sum of the tables' change counters
+     */
+    public synchronized long getVersion(String... tables) {
+        return sum(tableVersions, tables);
+    }
+
+    /**
+     * Get the combined version of one or more tables, leaving out changes
+     * made by one source
+     * @param ignoredSource Source whose changes are not counted
+     * @param tables Names of the tables
+     * @return Sum of the tables' change counters, minus the source's changes
+     */
+    public synchronized long getVersionIgnoring(Object ignoredSource, String... tables) {
+        long version = sum(tableVersions, tables);
+        Map<String, Long> ignoredVersions = sourceVersions.get(ignoredSource);
+        if (ignoredVersions != null) {
+            version -= sum(ignoredVersions, tables);
+        }
+        return version;
+    }
+
+    /**
+     * Record a change to a table and notify listeners
+     * @param table Name of the table that changed
+     */
+    public void notifyTableChanged(String table) {
+        notifyTableChanged(table, null);
+    }
+
+    /**
+     * Record a change to a table made by a specific source and notify listeners
+     * @param table Name of the table that changed
+     * @param source Object that made the change, or null
+     */
+    public void notifyTableChanged(String table, Object source) {
+        synchronized (this) {
+            increment(tableVersions, table);
+
+            if (source != null) {
+                Map<String, Long> versions = sourceVersions.get(source);
+                if (versions == null) {
+                    versions = new HashMap<>();
+                    sourceVersions.put(source, versions);
+                }
+                increment(versions, table);
+            }
+        }
+
+        for (OnTableChangedListener listener : listeners) {
+            listener.onTableChanged(table);
+        }
+    }
+
+    public void addListener(OnTableChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OnTableChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static long sum(Map<String, Long> versions, String[] tables) {
+        long version = 0;
+        for (String table : tables) {
+            Long tableVersion = versions.get(table);
+            if (tableVersion != null) {
+                version += tableVersion;
+            }
+        }
+        return version;
+    }
+
+    private static void increment(Map<String, Long> versions, String table) {
+        Long version = versions.get(table);
+        versions.put(table, version == null ? 1 : version + 1);
+    }
+}
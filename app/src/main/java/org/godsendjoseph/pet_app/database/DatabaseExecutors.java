@@ -0,0 +1,41 @@
+package org.godsendjoseph.pet_app.database;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared background executors for database work.
+ * The read pool is sized to match SQLite's connection pool in write-ahead
+ * logging mode, so independent queries can run side by side.
+ */
+public final class DatabaseExecutors {
+
+    // Number of concurrent readers
+    private static final int READ_POOL_SIZE = 4;
+
+    private static ExecutorService readExecutor;
+
+    // Static helper class, not meant to be instantiated
+    private DatabaseExecutors() {
+    }
+
+    /**
+     * Get the executor for read queries
+     * @return Executor backed by READ_POOL_SIZE threads
+     */
+    public static synchronized ExecutorService getReadExecutor() {
+        if (readExecutor == null) {
+            readExecutor = Executors.newFixedThreadPool(READ_POOL_SIZE, new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    return new Thread(runnable, "db-read-" + threadCount.incrementAndGet());
+                }
+            });
+        }
+        return readExecutor;
+    }
+}
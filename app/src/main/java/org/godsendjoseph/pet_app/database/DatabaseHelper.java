@@ -13,13 +13,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "DatabaseHelper";
 
     // Database Information
-    private static final String DATABASE_NAME = "expense_tracker.db";
-    private static final int DATABASE_VERSION = 1;
+    static final String DATABASE_NAME = "expense_tracker.db";
+    private static final int DATABASE_VERSION = 3;
 
     // Table Names
     public static final String TABLE_USERS = "users";
     public static final String TABLE_EXPENSES = "expenses";
     public static final String TABLE_CATEGORIES = "categories";
+    public static final String TABLE_SPEND_FORECASTS = "spend_forecasts";
+    public static final String TABLE_EXPENSE_STATS = "expense_stats";
 
     // Common Column Names
     public static final String COLUMN_ID = "id";
@@ -40,12 +42,27 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_LOCATION = "location";
     public static final String COLUMN_CATEGORY_ID = "category_id";
     public static final String COLUMN_NOTES = "notes";
+    public static final String COLUMN_ANOMALY_FLAGS = "anomaly_flags";
 
     // Categories Table Columns
     public static final String COLUMN_NAME = "name";
     public static final String COLUMN_DESCRIPTION = "description";
     public static final String COLUMN_COLOR = "color";
 
+    // Spend Forecasts Table Columns
+    public static final String COLUMN_LAST_DAY = "last_day";
+    public static final String COLUMN_DAY_TOTAL = "day_total";
+    public static final String COLUMN_LEVEL = "level";
+    public static final String COLUMN_VARIANCE = "variance";
+    public static final String COLUMN_OBSERVATIONS = "observations";
+
+    // Expense Stats Table Columns
+    public static final String COLUMN_DIMENSION = "dimension";
+    public static final String COLUMN_GROUP_KEY = "group_key";
+    public static final String COLUMN_COUNT = "count";
+    public static final String COLUMN_MEAN = "mean";
+    public static final String COLUMN_M2 = "m2";
+
     // Create Table Statements
     // Users table create statement
     private static final String CREATE_TABLE_USERS = "CREATE TABLE " + TABLE_USERS + "("
@@ -69,6 +86,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             + COLUMN_CATEGORY_ID + " INTEGER, "
             + COLUMN_NOTES + " TEXT, "
             + COLUMN_CREATED_AT + " DATETIME DEFAULT CURRENT_TIMESTAMP, "
+            + COLUMN_ANOMALY_FLAGS + " INTEGER NOT NULL DEFAULT 0, "
             + "FOREIGN KEY (" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + ") ON DELETE CASCADE, "
             + "FOREIGN KEY (" + COLUMN_CATEGORY_ID + ") REFERENCES " + TABLE_CATEGORIES + "(" + COLUMN_ID + ") ON DELETE SET NULL"
             + ")";
@@ -84,6 +102,37 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             + "FOREIGN KEY (" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + ") ON DELETE CASCADE"
             + ")";
 
+    // Spend forecasts table create statement.
+    // One row of smoothed daily spend per user and category, see SmoothedDailySpend
+    private static final String CREATE_TABLE_SPEND_FORECASTS = "CREATE TABLE " + TABLE_SPEND_FORECASTS + "("
+            + COLUMN_USER_ID + " INTEGER NOT NULL, "
+            + COLUMN_CATEGORY_ID + " INTEGER NOT NULL, "
+            + COLUMN_LAST_DAY + " INTEGER NOT NULL, "
+            + COLUMN_DAY_TOTAL + " REAL NOT NULL, "
+            + COLUMN_LEVEL + " REAL NOT NULL, "
+            + COLUMN_VARIANCE + " REAL NOT NULL, "
+            + COLUMN_OBSERVATIONS + " INTEGER NOT NULL, "
+            + "PRIMARY KEY (" + COLUMN_USER_ID + ", " + COLUMN_CATEGORY_ID + "), "
+            + "FOREIGN KEY (" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + ") ON DELETE CASCADE"
+            + ")";
+
+    // Expense stats table create statement.
+    // Running amount statistics per user and category or location, see RunningStats
+    private static final String CREATE_TABLE_EXPENSE_STATS = "CREATE TABLE " + TABLE_EXPENSE_STATS + "("
+            + COLUMN_USER_ID + " INTEGER NOT NULL, "
+            + COLUMN_DIMENSION + " INTEGER NOT NULL, "
+            + COLUMN_GROUP_KEY + " TEXT NOT NULL, "
+            + COLUMN_COUNT + " INTEGER NOT NULL, "
+            + COLUMN_MEAN + " REAL NOT NULL, "
+            + COLUMN_M2 + " REAL NOT NULL, "
+            + "PRIMARY KEY (" + COLUMN_USER_ID + ", " + COLUMN_DIMENSION + ", " + COLUMN_GROUP_KEY + "), "
+            + "FOREIGN KEY (" + COLUMN_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COLUMN_ID + ") ON DELETE CASCADE"
+            + ")";
+
+    // Partial index over flagged expenses only, so listing them does not scan the table
+    private static final String CREATE_INDEX_UNUSUAL_EXPENSES = "CREATE INDEX idx_expenses_unusual ON "
+            + TABLE_EXPENSES + "(" + COLUMN_USER_ID + ", " + COLUMN_DATE + ") WHERE " + COLUMN_ANOMALY_FLAGS + " != 0";
+
     // Singleton instance
     private static DatabaseHelper instance;
 
@@ -98,6 +147,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     // Private constructor to enforce singleton pattern
     private DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+
+        // Write-ahead logging lets readers on DatabaseExecutors run in parallel
+        // with each other and with the write-behind queue
+        setWriteAheadLoggingEnabled(true);
     }
 
     @Override
@@ -106,6 +159,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_TABLE_USERS);
         db.execSQL(CREATE_TABLE_CATEGORIES);
         db.execSQL(CREATE_TABLE_EXPENSES);
+        db.execSQL(CREATE_TABLE_SPEND_FORECASTS);
+        db.execSQL(CREATE_TABLE_EXPENSE_STATS);
+        db.execSQL(CREATE_INDEX_UNUSUAL_EXPENSES);
 
         // Insert default categories
         insertDefaultCategories(db);
@@ -115,13 +171,18 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         Log.w(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
 
-        // Drop tables on upgrade
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_EXPENSES);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CATEGORIES);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-
-        // Recreate tables
-        onCreate(db);
+        // Migrate step by step so existing expenses are kept
+        if (oldVersion < 2) {
+            db.execSQL(CREATE_TABLE_SPEND_FORECASTS);
+            seedSpendForecasts(db);
+        }
+        if (oldVersion < 3) {
+            db.execSQL("ALTER TABLE " + TABLE_EXPENSES + " ADD COLUMN "
+                    + COLUMN_ANOMALY_FLAGS + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL(CREATE_TABLE_EXPENSE_STATS);
+            db.execSQL(CREATE_INDEX_UNUSUAL_EXPENSES);
+            seedExpenseStats(db);
+        }
     }
 
     @Override
@@ -131,6 +192,72 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.setForeignKeyConstraintsEnabled(true);
     }
 
+    /**
+     * Give existing users a starting forecast, once, from their last 28 days.
+     * From then on the rows are updated as expenses are written.
+     */
+    private void seedSpendForecasts(SQLiteDatabase db) {
+        String today = "date('now', 'localtime')";
+        String past = "CASE WHEN " + COLUMN_DATE + " < " + today + " THEN spent ELSE 0 END";
+        String mean = "(SUM(" + past + ") / 28.0)";
+
+        // Per category, then the total of all categories under its own key
+        String[] keys = {"COALESCE(" + COLUMN_CATEGORY_ID + ", 0)", String.valueOf(SpendForecastDAO.TOTAL_KEY)};
+        for (String key : keys) {
+            String daily = "SELECT " + COLUMN_USER_ID + ", " + key + " AS key, " + COLUMN_DATE + ", "
+                    + "SUM(" + COLUMN_AMOUNT + ") AS spent"
+                    + " FROM " + TABLE_EXPENSES
+                    + " WHERE " + COLUMN_DATE + " BETWEEN date('now', 'localtime', '-28 days') AND " + today
+                    + " GROUP BY " + COLUMN_USER_ID + ", key, " + COLUMN_DATE;
+            db.execSQL("INSERT INTO " + TABLE_SPEND_FORECASTS + " ("
+                    + COLUMN_USER_ID + ", "
+                    + COLUMN_CATEGORY_ID + ", "
+                    + COLUMN_LAST_DAY + ", "
+                    + COLUMN_DAY_TOTAL + ", "
+                    + COLUMN_LEVEL + ", "
+                    + COLUMN_VARIANCE + ", "
+                    + COLUMN_OBSERVATIONS
+                    + ") SELECT " + COLUMN_USER_ID + ", key, "
+                    + "CAST(julianday(" + today + ") - 2440587.5 AS INTEGER), "
+                    + "SUM(CASE WHEN " + COLUMN_DATE + " = " + today + " THEN spent ELSE 0 END), "
+                    + mean + ", "
+                    + "MAX(0, SUM((" + past + ") * (" + past + ")) / 28.0 - " + mean + " * " + mean + "), "
+                    + "28"
+                    + " FROM (" + daily + ")"
+                    + " GROUP BY " + COLUMN_USER_ID + ", key");
+        }
+    }
+
+    /**
+     * Build the amount statistics of existing expenses, once; existing expenses
+     * are not flagged. From then on the rows are updated as expenses are written.
+     */
+    private void seedExpenseStats(SQLiteDatabase db) {
+        String[][] groups = {
+                {String.valueOf(ExpenseStatsDAO.DIMENSION_CATEGORY),
+                        "CAST(COALESCE(" + COLUMN_CATEGORY_ID + ", 0) AS TEXT)", "1"},
+                {String.valueOf(ExpenseStatsDAO.DIMENSION_LOCATION),
+                        "lower(trim(" + COLUMN_LOCATION + "))", "trim(" + COLUMN_LOCATION + ") != ''"}
+        };
+
+        for (String[] group : groups) {
+            db.execSQL("INSERT INTO " + TABLE_EXPENSE_STATS + " ("
+                    + COLUMN_USER_ID + ", "
+                    + COLUMN_DIMENSION + ", "
+                    + COLUMN_GROUP_KEY + ", "
+                    + COLUMN_COUNT + ", "
+                    + COLUMN_MEAN + ", "
+                    + COLUMN_M2
+                    + ") SELECT " + COLUMN_USER_ID + ", " + group[0] + ", " + group[1] + ", "
+                    + "COUNT(*), AVG(" + COLUMN_AMOUNT + "), "
+                    + "MAX(0, SUM(" + COLUMN_AMOUNT + " * " + COLUMN_AMOUNT + ") - "
+                    + "SUM(" + COLUMN_AMOUNT + ") * AVG(" + COLUMN_AMOUNT + "))"
+                    + " FROM " + TABLE_EXPENSES
+                    + " WHERE " + group[2]
+                    + " GROUP BY " + COLUMN_USER_ID + ", " + group[1]);
+        }
+    }
+
     /**
      * Insert default expense categories into the database
      */
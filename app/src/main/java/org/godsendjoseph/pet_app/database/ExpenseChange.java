@@ -0,0 +1,115 @@
+package org.godsendjoseph.pet_app.database;
+
+import org.godsendjoseph.pet_app.models.Expense;
+
+/**
+ * A single change to the expenses table made through ExpenseWriteQueue.
+ * Carries a private copy of the expense, so listeners can apply the change to
+ * their in-memory data before it is committed.
+ */
+public final class ExpenseChange {
+
+    // Change types
+    public static final int TYPE_INSERT = 0;
+    public static final int TYPE_UPDATE = 1;
+    public static final int TYPE_DELETE = 2;
+
+    private final long sequence;
+    private final int type;
+    private final int expenseId;
+    private final Expense expense;
+
+    // Row as it was before an update or delete; set by the queue when committing
+    private volatile Expense previousExpense;
+
+    // Anomaly flags of the written expense; set by the queue when committing
+    private volatile int anomalyFlags;
+
+    // Number of the transaction that wrote the change; set by the queue when committing
+    private volatile long commitSequence;
+
+    ExpenseChange(long sequence, int type, int expenseId, Expense expense) {
+        this.sequence = sequence;
+        this.type = type;
+        this.expenseId = expenseId;
+        this.expense = expense != null ? copyOf(expense) : null;
+    }
+
+    /**
+     * Get the position of this change in the queue's ordering
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the change type (TYPE_INSERT, TYPE_UPDATE or TYPE_DELETE)
+     */
+    public int getType() {
+        return type;
+    }
+
+    public int getExpenseId() {
+        return expenseId;
+    }
+
+    /**
+     * Get a copy of the expense after the change, or null for deletes.
+     * Once committed, the copy carries the anomaly flags worked out for it.
+     */
+    public Expense getExpense() {
+        if (expense == null) {
+            return null;
+        }
+        Expense copy = copyOf(expense);
+        copy.setAnomalyFlags(anomalyFlags);
+        return copy;
+    }
+
+    /**
+     * Get a copy of the row as it was before this change was committed.
+     * Only known once the change is committed; null for inserts, and for
+     * updates or deletes of a row that did not exist.
+     */
+    public Expense getPreviousExpense() {
+        Expense previous = previousExpense;
+        return previous != null ? copyOf(previous) : null;
+    }
+
+    void setPreviousExpense(Expense previousExpense) {
+        this.previousExpense = previousExpense;
+    }
+
+    /**
+     * Get the anomaly flags of the written expense, see Expense.FLAG_UNUSUAL_FOR_CATEGORY.
+     * Only known once the change is committed; 0 for deletes.
+     */
+    public int getAnomalyFlags() {
+        return anomalyFlags;
+    }
+
+    void setAnomalyFlags(int anomalyFlags) {
+        this.anomalyFlags = anomalyFlags;
+    }
+
+    /**
+     * Get the number of the transaction that wrote this change, see
+     * ExpenseWriteQueue.getStableCommitSequence. 0 until it is committed, and for
+     * a replayed change that an earlier run had already written.
+     */
+    public long getCommitSequence() {
+        return commitSequence;
+    }
+
+    void setCommitSequence(long commitSequence) {
+        this.commitSequence = commitSequence;
+    }
+
+    private static Expense copyOf(Expense expense) {
+        Expense copy = new Expense(expense.getId(), expense.getUserId(), expense.getTitle(), expense.getAmount(),
+                expense.getDate(), expense.getTime(), expense.getLocation(), expense.getCategoryId(),
+                expense.getNotes(), expense.getCreatedAt());
+        copy.setAnomalyFlags(expense.getAnomalyFlags());
+        return copy;
+    }
+}
@@ -6,10 +6,22 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
+import org.godsendjoseph.pet_app.analytics.AmountHistogram;
+import org.godsendjoseph.pet_app.analytics.CategoryMonthPivot;
+import org.godsendjoseph.pet_app.analytics.CumulativeSeries;
+import org.godsendjoseph.pet_app.analytics.DayHourMatrix;
+import org.godsendjoseph.pet_app.analytics.ExpenseAggregator;
+import org.godsendjoseph.pet_app.analytics.ExpenseColumns;
+import org.godsendjoseph.pet_app.analytics.HistogramBuckets;
+import org.godsendjoseph.pet_app.analytics.PeriodComparison;
 import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntDoubleMap;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Expense-related database operations.
@@ -18,112 +30,33 @@ import java.util.List;
 public class ExpenseDAO {
     private static final String TAG = "ExpenseDAO";
 
+    // Month of the date column as year * 12 + (month - 1), computed by SQLite
+    private static final String MONTH_INDEX = "(CAST(substr(" + DatabaseHelper.COLUMN_DATE +
+            ", 1, 4) AS INTEGER) * 12 + CAST(substr(" + DatabaseHelper.COLUMN_DATE + ", 6, 2) AS INTEGER) - 1)";
+
+    // Whether SQLite supports window functions; null until first checked
+    private static volatile Boolean windowFunctionsSupported;
+
     private SQLiteDatabase database;
     private DatabaseHelper dbHelper;
+    private ExpenseWriteQueue writeQueue;
 
     // Constructor
     public ExpenseDAO(Context context) {
         dbHelper = DatabaseHelper.getInstance(context);
+        writeQueue = ExpenseWriteQueue.getInstance(context);
     }
 
-    // Open database connection
+    // Open database connection. Queued writes are not committed here; see
+    // ExpenseWriteQueue for how readers wait for them
     public void open() {
         database = dbHelper.getWritableDatabase();
     }
 
     // Close database connection
     public void close() {
-        if (database != null && database.isOpen()) {
-            database.close();
-        }
-    }
-
-    /**
-     * Insert a new expense into the database
-     * @param expense Expense object to insert
-     * @return ID of the newly inserted expense, or -1 if insertion failed
-     */
-    public long insertExpense(Expense expense) {
-        long expenseId = -1;
-
-        try {
-            open();
-
-            ContentValues values = new ContentValues();
-            values.put(DatabaseHelper.COLUMN_USER_ID, expense.getUserId());
-            values.put(DatabaseHelper.COLUMN_TITLE, expense.getTitle());
-            values.put(DatabaseHelper.COLUMN_AMOUNT, expense.getAmount());
-            values.put(DatabaseHelper.COLUMN_DATE, expense.getDate());
-            values.put(DatabaseHelper.COLUMN_TIME, expense.getTime());
-            values.put(DatabaseHelper.COLUMN_LOCATION, expense.getLocation());
-            values.put(DatabaseHelper.COLUMN_CATEGORY_ID, expense.getCategoryId());
-            values.put(DatabaseHelper.COLUMN_NOTES, expense.getNotes());
-
-            expenseId = database.insert(DatabaseHelper.TABLE_EXPENSES, null, values);
-        } catch (Exception e) {
-            Log.e(TAG, "Error inserting expense: " + e.getMessage());
-        } finally {
-            close();
-        }
-
-        return expenseId;
-    }
-
-    /**
-     * Update an existing expense in the database
-     * @param expense Expense object with updated values
-     * @return Number of rows affected (should be 1 if successful)
-     */
-    public int updateExpense(Expense expense) {
-        int rowsAffected = 0;
-
-        try {
-            open();
-
-            ContentValues values = new ContentValues();
-            values.put(DatabaseHelper.COLUMN_TITLE, expense.getTitle());
-            values.put(DatabaseHelper.COLUMN_AMOUNT, expense.getAmount());
-            values.put(DatabaseHelper.COLUMN_DATE, expense.getDate());
-            values.put(DatabaseHelper.COLUMN_TIME, expense.getTime());
-            values.put(DatabaseHelper.COLUMN_LOCATION, expense.getLocation());
-            values.put(DatabaseHelper.COLUMN_CATEGORY_ID, expense.getCategoryId());
-            values.put(DatabaseHelper.COLUMN_NOTES, expense.getNotes());
-
-            String whereClause = DatabaseHelper.COLUMN_ID + " = ?";
-            String[] whereArgs = {String.valueOf(expense.getId())};
-
-            rowsAffected = database.update(DatabaseHelper.TABLE_EXPENSES, values, whereClause, whereArgs);
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating expense: " + e.getMessage());
-        } finally {
-            close();
-        }
-
-        return rowsAffected;
-    }
-
-    /**
-     * Delete an expense from the database
-     * @param expenseId ID of the expense to delete
-     * @return Number of rows affected (should be 1 if successful)
-     */
-    public int deleteExpense(int expenseId) {
-        int rowsAffected = 0;
-
-        try {
-            open();
-
-            String whereClause = DatabaseHelper.COLUMN_ID + " = ?";
-            String[] whereArgs = {String.valueOf(expenseId)};
-
-            rowsAffected = database.delete(DatabaseHelper.TABLE_EXPENSES, whereClause, whereArgs);
-        } catch (Exception e) {
-            Log.e(TAG, "Error deleting expense: " + e.getMessage());
-        } finally {
-            close();
-        }
-
-        return rowsAffected;
+        // The connection is shared through DatabaseHelper and stays open so the
+        // write-behind queue is never left holding a closed database mid-commit
     }
 
     /**
@@ -132,6 +65,12 @@ public class ExpenseDAO {
      * @return Expense object if found, null otherwise
      */
     public Expense getExpenseById(int expenseId) {
+        // A queued change is newer than the row, and must not be committed by a read
+        ExpenseChange queued = writeQueue.getQueuedChange(expenseId);
+        if (queued != null) {
+            return queued.getExpense();
+        }
+
         Expense expense = null;
 
         try {
@@ -147,7 +86,8 @@ public class ExpenseDAO {
                     DatabaseHelper.COLUMN_LOCATION,
                     DatabaseHelper.COLUMN_CATEGORY_ID,
                     DatabaseHelper.COLUMN_NOTES,
-                    DatabaseHelper.COLUMN_CREATED_AT
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
             };
 
             String selection = DatabaseHelper.COLUMN_ID + " = ?";
@@ -197,7 +137,8 @@ public class ExpenseDAO {
                     DatabaseHelper.COLUMN_LOCATION,
                     DatabaseHelper.COLUMN_CATEGORY_ID,
                     DatabaseHelper.COLUMN_NOTES,
-                    DatabaseHelper.COLUMN_CREATED_AT
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
             };
 
             String selection = DatabaseHelper.COLUMN_USER_ID + " = ?";
@@ -252,7 +193,8 @@ public class ExpenseDAO {
                     DatabaseHelper.COLUMN_LOCATION,
                     DatabaseHelper.COLUMN_CATEGORY_ID,
                     DatabaseHelper.COLUMN_NOTES,
-                    DatabaseHelper.COLUMN_CREATED_AT
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
             };
 
             String selection = DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
@@ -309,7 +251,8 @@ public class ExpenseDAO {
                     DatabaseHelper.COLUMN_LOCATION,
                     DatabaseHelper.COLUMN_CATEGORY_ID,
                     DatabaseHelper.COLUMN_NOTES,
-                    DatabaseHelper.COLUMN_CREATED_AT
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
             };
 
             String selection = DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
@@ -365,7 +308,8 @@ public class ExpenseDAO {
                     DatabaseHelper.COLUMN_LOCATION,
                     DatabaseHelper.COLUMN_CATEGORY_ID,
                     DatabaseHelper.COLUMN_NOTES,
-                    DatabaseHelper.COLUMN_CREATED_AT
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
             };
 
             String selection = DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
@@ -399,6 +343,64 @@ public class ExpenseDAO {
         return expenses;
     }
 
+    /**
+     * Get the expenses of a user that were flagged as unusually large for their
+     * category or location when they were saved
+     * @param userId ID of the user
+     * @return List of flagged expenses, newest first
+     */
+    public List<Expense> getUnusualExpenses(int userId) {
+        List<Expense> expenses = new ArrayList<>();
+
+        try {
+            open();
+
+            String[] columns = {
+                    DatabaseHelper.COLUMN_ID,
+                    DatabaseHelper.COLUMN_USER_ID,
+                    DatabaseHelper.COLUMN_TITLE,
+                    DatabaseHelper.COLUMN_AMOUNT,
+                    DatabaseHelper.COLUMN_DATE,
+                    DatabaseHelper.COLUMN_TIME,
+                    DatabaseHelper.COLUMN_LOCATION,
+                    DatabaseHelper.COLUMN_CATEGORY_ID,
+                    DatabaseHelper.COLUMN_NOTES,
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
+            };
+
+            // Matches the partial index on flagged expenses
+            String selection = DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS + " != 0";
+            String[] selectionArgs = {String.valueOf(userId)};
+            String orderBy = DatabaseHelper.COLUMN_DATE + " DESC, " + DatabaseHelper.COLUMN_TIME + " DESC";
+
+            Cursor cursor = database.query(
+                    DatabaseHelper.TABLE_EXPENSES,
+                    columns,
+                    selection,
+                    selectionArgs,
+                    null,
+                    null,
+                    orderBy
+            );
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    Expense expense = cursorToExpense(cursor);
+                    expenses.add(expense);
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting unusual expenses: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return expenses;
+    }
+
     /**
      * Get total expenses for a user
      * @param userId ID of the user
@@ -463,12 +465,550 @@ public class ExpenseDAO {
         return total;
     }
 
+    /**
+     * Get total expenses for a user within a date range
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return Total amount of expenses within the date range
+     */
+    public double getTotalExpensesByDateRange(int userId, String startDate, String endDate) {
+        double total = 0;
+
+        try {
+            open();
+
+            String query = "SELECT SUM(" + DatabaseHelper.COLUMN_AMOUNT + ") FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ?";
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null && cursor.moveToFirst()) {
+                total = cursor.getDouble(0);
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting total expenses by date range: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return total;
+    }
+
+    /**
+     * Get expense totals for a user grouped by category in a single query
+     * @param userId ID of the user
+     * @return Map of category ID to total amount; uncategorized expenses use key 0
+     */
+    public IntDoubleMap getTotalsByCategory(int userId) {
+        IntDoubleMap totals = new IntDoubleMap();
+
+        try {
+            open();
+
+            String query = "SELECT " + DatabaseHelper.COLUMN_CATEGORY_ID + ", SUM(" +
+                    DatabaseHelper.COLUMN_AMOUNT + ") FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? GROUP BY " +
+                    DatabaseHelper.COLUMN_CATEGORY_ID;
+            String[] selectionArgs = {String.valueOf(userId)};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    int categoryId = cursor.isNull(0) ? 0 : cursor.getInt(0);
+                    totals.put(categoryId, cursor.getDouble(1));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting totals by category: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return totals;
+    }
+
+    /**
+     * Get expense totals for a user grouped by month in a single query
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return Map of month ("yyyy-MM") to total amount
+     */
+    public Map<String, Double> getTotalsByMonth(int userId, String startDate, String endDate) {
+        Map<String, Double> totals = new HashMap<>();
+
+        try {
+            open();
+
+            String query = "SELECT substr(" + DatabaseHelper.COLUMN_DATE + ", 1, 7), SUM(" +
+                    DatabaseHelper.COLUMN_AMOUNT + ") FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ? GROUP BY 1";
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    totals.put(cursor.getString(0), cursor.getDouble(1));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting totals by month: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return totals;
+    }
+
+    /**
+     * Get a user's category x month totals in a date range from a single GROUP BY
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return Dense matrix with one column per month of the range
+     */
+    public CategoryMonthPivot getCategoryMonthPivot(int userId, String startDate, String endDate) {
+        CategoryMonthPivot.Builder builder = new CategoryMonthPivot.Builder(
+                ExpenseAggregator.monthIndex(startDate), ExpenseAggregator.monthIndex(endDate));
+
+        try {
+            open();
+
+            String query = "SELECT " + DatabaseHelper.COLUMN_CATEGORY_ID + ", " +
+                    MONTH_INDEX + " AS month, SUM(" + DatabaseHelper.COLUMN_AMOUNT + ") FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ? GROUP BY " +
+                    DatabaseHelper.COLUMN_CATEGORY_ID + ", month";
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    int categoryId = cursor.isNull(0) ? 0 : cursor.getInt(0);
+                    builder.add(categoryId, cursor.getInt(1), cursor.getDouble(2));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting category month pivot: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Get a user's daily and cumulative spend over a date range.
+     * Daily totals are grouped by SQLite. Where its version has window functions
+     * it also computes the running total with SUM() OVER; otherwise the ordered
+     * daily rows are summed in a single pass here.
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return One point per day of the range
+     */
+    public CumulativeSeries getCumulativeSeries(int userId, String startDate, String endDate) {
+        int firstDay = EpochDayUtils.fromDate(startDate);
+        int lastDay = EpochDayUtils.fromDate(endDate);
+        if (firstDay == EpochDayUtils.INVALID || lastDay == EpochDayUtils.INVALID) {
+            return CumulativeSeries.empty();
+        }
+        CumulativeSeries.Builder builder = new CumulativeSeries.Builder(firstDay, lastDay);
+
+        try {
+            open();
+
+            boolean windowFunctions = supportsWindowFunctions();
+            String dailyTotals = "SELECT " + DatabaseHelper.COLUMN_DATE + ", SUM(" +
+                    DatabaseHelper.COLUMN_AMOUNT + ") AS daily FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ? GROUP BY " +
+                    DatabaseHelper.COLUMN_DATE;
+            String query = windowFunctions
+                    ? "SELECT " + DatabaseHelper.COLUMN_DATE + ", daily, SUM(daily) OVER (ORDER BY " +
+                    DatabaseHelper.COLUMN_DATE + ") FROM (" + dailyTotals + ") ORDER BY " + DatabaseHelper.COLUMN_DATE
+                    : dailyTotals + " ORDER BY " + DatabaseHelper.COLUMN_DATE;
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                double running = 0;
+                while (cursor.moveToNext()) {
+                    double daily = cursor.getDouble(1);
+                    running = windowFunctions ? cursor.getDouble(2) : running + daily;
+
+                    int epochDay = EpochDayUtils.fromDate(cursor.getString(0));
+                    if (epochDay != EpochDayUtils.INVALID) {
+                        builder.add(epochDay, daily, running);
+                    }
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting cumulative series: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Whether the device's SQLite has window functions, added in 3.25.0.
+     * Checked once; older Android releases ship older versions.
+     */
+    private boolean supportsWindowFunctions() {
+        if (windowFunctionsSupported == null) {
+            boolean supported = false;
+            Cursor cursor = database.rawQuery("SELECT sqlite_version()", null);
+            if (cursor != null) {
+                if (cursor.moveToFirst()) {
+                    supported = isAtLeast(cursor.getString(0), 3, 25);
+                }
+                cursor.close();
+            }
+            windowFunctionsSupported = supported;
+        }
+        return windowFunctionsSupported;
+    }
+
+    // Compare a "major.minor.patch" version against major.minor
+    static boolean isAtLeast(String version, int major, int minor) {
+        try {
+            String[] parts = version.split("\\.");
+            int actualMajor = Integer.parseInt(parts[0]);
+            int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get a user's category totals in a current and a baseline period from a single GROUP BY.
+     * Each row is assigned to its period with a CASE, so both periods are read in one pass.
+     * @param userId ID of the user
+     * @param startDate Start date of the current period in format "yyyy-MM-dd"
+     * @param endDate End date of the current period
+     * @param baselineStartDate Start date of the baseline period
+     * @param baselineEndDate End date of the baseline period
+     * @return Totals of both periods per category
+     */
+    public PeriodComparison getPeriodComparison(int userId, String startDate, String endDate,
+                                                String baselineStartDate, String baselineEndDate) {
+        PeriodComparison comparison = new PeriodComparison();
+
+        try {
+            open();
+
+            String inCurrent = DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ?";
+            String inBaseline = DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ?";
+            String query = "SELECT " + DatabaseHelper.COLUMN_CATEGORY_ID + ", " +
+                    "SUM(CASE WHEN " + inCurrent + " THEN " + DatabaseHelper.COLUMN_AMOUNT + " ELSE 0 END), " +
+                    "SUM(CASE WHEN " + inBaseline + " THEN " + DatabaseHelper.COLUMN_AMOUNT + " ELSE 0 END) FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND (" + inCurrent + " OR " + inBaseline + ") GROUP BY " +
+                    DatabaseHelper.COLUMN_CATEGORY_ID;
+            String[] selectionArgs = {startDate, endDate, baselineStartDate, baselineEndDate,
+                    String.valueOf(userId), startDate, endDate, baselineStartDate, baselineEndDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    int categoryId = cursor.isNull(0) ? 0 : cursor.getInt(0);
+                    comparison.add(categoryId, cursor.getDouble(1), cursor.getDouble(2));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting period comparison: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return comparison;
+    }
+
+    /**
+     * Get a user's totals by day of the week and hour in a date range.
+     * SQLite groups the rows itself, so at most 7 x 24 rows are read back.
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @return Totals with Monday as the first row
+     */
+    public DayHourMatrix getDayHourMatrix(int userId, String startDate, String endDate) {
+        DayHourMatrix matrix = new DayHourMatrix();
+
+        try {
+            open();
+
+            // strftime('%w') counts from Sunday; shift it so Monday is 0
+            String query = "SELECT (CAST(strftime('%w', " + DatabaseHelper.COLUMN_DATE + ") AS INTEGER) + 6) % 7 AS weekday, " +
+                    "CAST(substr(" + DatabaseHelper.COLUMN_TIME + ", 1, 2) AS INTEGER) AS hour, " +
+                    "SUM(" + DatabaseHelper.COLUMN_AMOUNT + ") FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ? AND " +
+                    // Same "HH:mm" check as EpochDayUtils.minuteOfDay, so malformed
+                    // times are dropped here too rather than counted as hour 0
+                    "(" + DatabaseHelper.COLUMN_TIME + " GLOB '[01][0-9]:[0-5][0-9]*' OR " +
+                    DatabaseHelper.COLUMN_TIME + " GLOB '2[0-3]:[0-5][0-9]*') GROUP BY weekday, hour";
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    // strftime() is NULL for malformed dates
+                    if (cursor.isNull(0)) {
+                        continue;
+                    }
+                    matrix.add(cursor.getInt(0), cursor.getInt(1), cursor.getDouble(2));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting day hour matrix: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Get the distribution of a user's expense amounts in a date range.
+     * SQLite assigns each row to its bucket and groups them, so one row per
+     * non-empty bucket is read back and no expenses are loaded.
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @param buckets Buckets to count the amounts in
+     * @return Count and total of the expenses in each bucket
+     */
+    public AmountHistogram getAmountHistogram(int userId, String startDate, String endDate,
+                                              HistogramBuckets buckets) {
+        AmountHistogram histogram = new AmountHistogram(buckets);
+
+        try {
+            open();
+
+            String query = "SELECT " + buckets.bucketExpression(DatabaseHelper.COLUMN_AMOUNT) + " AS bucket, " +
+                    "COUNT(*), SUM(" + DatabaseHelper.COLUMN_AMOUNT + ") FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ? GROUP BY bucket";
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    histogram.add(cursor.getInt(0), cursor.getLong(1), cursor.getDouble(2));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting amount histogram: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Stream a user's expenses in a date range into an aggregator.
+     * Only the columns the aggregator needs are read, and no Expense objects
+     * are created; the month is computed by SQLite as an integer index.
+     * @param userId ID of the user
+     * @param startDate Start date in format "yyyy-MM-dd"
+     * @param endDate End date in format "yyyy-MM-dd"
+     * @param aggregator Aggregator that receives every row
+     */
+    public void aggregateExpensesByDateRange(int userId, String startDate, String endDate,
+                                             ExpenseAggregator aggregator) {
+        try {
+            open();
+
+            String query = "SELECT " + DatabaseHelper.COLUMN_CATEGORY_ID + ", " +
+                    DatabaseHelper.COLUMN_AMOUNT + ", " +
+                    MONTH_INDEX + ", " +
+                    DatabaseHelper.COLUMN_LOCATION + ", " +
+                    DatabaseHelper.COLUMN_TITLE + " FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? AND " +
+                    DatabaseHelper.COLUMN_DATE + " BETWEEN ? AND ?";
+            String[] selectionArgs = {String.valueOf(userId), startDate, endDate};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    int categoryId = cursor.isNull(0) ? 0 : cursor.getInt(0);
+                    aggregator.add(categoryId, cursor.getDouble(1), cursor.getInt(2),
+                            cursor.isNull(3) ? null : cursor.getString(3),
+                            cursor.isNull(4) ? null : cursor.getString(4));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error aggregating expenses: " + e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Read a columnar snapshot of a user's expenses for aggregation.
+     * SQLite converts dates to epoch days and times to minutes, so apart from the
+     * location and title no String is read per row.
+     * @param userId ID of the user
+     * @return Column snapshot of the user's expenses, ordered by date
+     */
+    public ExpenseColumns getExpenseColumns(int userId) {
+        ExpenseColumns.Builder builder = null;
+
+        try {
+            open();
+
+            String query = "SELECT " + DatabaseHelper.COLUMN_CATEGORY_ID + ", " +
+                    DatabaseHelper.COLUMN_AMOUNT + ", " +
+                    "CAST(julianday(" + DatabaseHelper.COLUMN_DATE + ") - 2440587.5 AS INTEGER), " +
+                    "CAST(substr(" + DatabaseHelper.COLUMN_TIME + ", 1, 2) AS INTEGER) * 60 + " +
+                    "CAST(substr(" + DatabaseHelper.COLUMN_TIME + ", 4, 2) AS INTEGER), " +
+                    DatabaseHelper.COLUMN_LOCATION + ", " +
+                    DatabaseHelper.COLUMN_TITLE + " FROM " +
+                    DatabaseHelper.TABLE_EXPENSES + " WHERE " +
+                    DatabaseHelper.COLUMN_USER_ID + " = ? ORDER BY " +
+                    DatabaseHelper.COLUMN_DATE;
+            String[] selectionArgs = {String.valueOf(userId)};
+
+            Cursor cursor = database.rawQuery(query, selectionArgs);
+
+            if (cursor != null) {
+                builder = new ExpenseColumns.Builder(cursor.getCount());
+                while (cursor.moveToNext()) {
+                    // julianday() is NULL for malformed dates
+                    if (cursor.isNull(2)) {
+                        continue;
+                    }
+
+                    int categoryId = cursor.isNull(0) ? 0 : cursor.getInt(0);
+                    builder.add(categoryId, cursor.getDouble(1), cursor.getInt(2), cursor.getInt(3),
+                            cursor.isNull(4) ? null : cursor.getString(4),
+                            cursor.isNull(5) ? null : cursor.getString(5));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading expense columns: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return (builder != null ? builder : new ExpenseColumns.Builder()).build();
+    }
+
+    /**
+     * Get the most recent expenses for a user
+     * @param userId ID of the user
+     * @param limit Maximum number of expenses to return
+     * @return List of the newest expenses, newest first
+     */
+    public List<Expense> getRecentExpenses(int userId, int limit) {
+        List<Expense> expenses = new ArrayList<>();
+
+        try {
+            open();
+
+            String[] columns = {
+                    DatabaseHelper.COLUMN_ID,
+                    DatabaseHelper.COLUMN_USER_ID,
+                    DatabaseHelper.COLUMN_TITLE,
+                    DatabaseHelper.COLUMN_AMOUNT,
+                    DatabaseHelper.COLUMN_DATE,
+                    DatabaseHelper.COLUMN_TIME,
+                    DatabaseHelper.COLUMN_LOCATION,
+                    DatabaseHelper.COLUMN_CATEGORY_ID,
+                    DatabaseHelper.COLUMN_NOTES,
+                    DatabaseHelper.COLUMN_CREATED_AT,
+                    DatabaseHelper.COLUMN_ANOMALY_FLAGS
+            };
+
+            String selection = DatabaseHelper.COLUMN_USER_ID + " = ?";
+            String[] selectionArgs = {String.valueOf(userId)};
+            String orderBy = DatabaseHelper.COLUMN_DATE + " DESC, " + DatabaseHelper.COLUMN_TIME + " DESC";
+
+            Cursor cursor = database.query(
+                    DatabaseHelper.TABLE_EXPENSES,
+                    columns,
+                    selection,
+                    selectionArgs,
+                    null,
+                    null,
+                    orderBy,
+                    String.valueOf(limit)
+            );
+
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    Expense expense = cursorToExpense(cursor);
+                    expenses.add(expense);
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting recent expenses: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return expenses;
+    }
+
+    /**
+     * Build the editable column values of an expense
+     * @param expense Expense object to convert
+     * @return ContentValues for an insert or update of the expenses table
+     */
+    static ContentValues toContentValues(Expense expense) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_TITLE, expense.getTitle());
+        values.put(DatabaseHelper.COLUMN_AMOUNT, expense.getAmount());
+        values.put(DatabaseHelper.COLUMN_DATE, expense.getDate());
+        values.put(DatabaseHelper.COLUMN_TIME, expense.getTime());
+        values.put(DatabaseHelper.COLUMN_LOCATION, expense.getLocation());
+        values.put(DatabaseHelper.COLUMN_CATEGORY_ID, expense.getCategoryId());
+        values.put(DatabaseHelper.COLUMN_NOTES, expense.getNotes());
+        return values;
+    }
+
     /**
      * Convert cursor to Expense object
      * @param cursor Database cursor positioned at the row to convert
      * @return Expense object populated from cursor data
      */
-    private Expense cursorToExpense(Cursor cursor) {
+    static Expense cursorToExpense(Cursor cursor) {
         Expense expense = new Expense();
 
         expense.setId(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID)));
@@ -481,6 +1021,7 @@ public class ExpenseDAO {
         expense.setCategoryId(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_CATEGORY_ID)));
         expense.setNotes(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NOTES)));
         expense.setCreatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_CREATED_AT)));
+        expense.setAnomalyFlags(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ANOMALY_FLAGS)));
 
         return expense;
     }
@@ -0,0 +1,192 @@
+package org.godsendjoseph.pet_app.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.godsendjoseph.pet_app.analytics.RunningStats;
+import org.godsendjoseph.pet_app.models.Expense;
+
+/**
+ * Data Access Object for the persisted amount statistics used to flag unusual
+ * expenses. Holds one RunningStats per user and category, and one per user and
+ * location.
+ *
+ * Every committed change updates the statistics of the groups it touches and
+ * flags the written expense against the statistics of the other expenses in
+ * its groups, so detection never rescans history.
+ */
+public class ExpenseStatsDAO {
+
+    // Grouping of a statistics row
+    public static final int DIMENSION_CATEGORY = 0;
+    public static final int DIMENSION_LOCATION = 1;
+
+    // Category group key of expenses without a category
+    private static final String UNCATEGORIZED_KEY = "0";
+
+    private static final String KEY_WHERE = DatabaseHelper.COLUMN_USER_ID + " = ? AND "
+            + DatabaseHelper.COLUMN_DIMENSION + " = ? AND "
+            + DatabaseHelper.COLUMN_GROUP_KEY + " = ?";
+
+    private ExpenseStatsDAO() {
+        // Only used by ExpenseWriteQueue inside its commit transaction
+    }
+
+    /**
+     * Apply an expense change to the statistics of its user, and store the
+     * anomaly flags of the written expense on its row and on the change.
+     * @param database Database inside the commit transaction
+     * @param change Change that has just been applied
+     */
+    static void applyChange(SQLiteDatabase database, ExpenseChange change) {
+        Expense previous = change.getPreviousExpense();
+        if (change.getType() != ExpenseChange.TYPE_INSERT && previous == null) {
+            // The row did not exist, so nothing changed
+            return;
+        }
+
+        // Take the old row out first, so an edited expense is not compared with itself
+        if (previous != null) {
+            update(database, previous.getUserId(), DIMENSION_CATEGORY, categoryKey(previous),
+                    -previous.getAmount());
+            update(database, previous.getUserId(), DIMENSION_LOCATION, locationKey(previous.getLocation()),
+                    -previous.getAmount());
+        }
+
+        Expense expense = change.getExpense();
+        if (expense == null) {
+            return;
+        }
+        if (previous != null) {
+            expense.setUserId(previous.getUserId());
+        }
+
+        int flags = 0;
+        if (update(database, expense.getUserId(), DIMENSION_CATEGORY, categoryKey(expense),
+                expense.getAmount())) {
+            flags |= Expense.FLAG_UNUSUAL_FOR_CATEGORY;
+        }
+        if (update(database, expense.getUserId(), DIMENSION_LOCATION, locationKey(expense.getLocation()),
+                expense.getAmount())) {
+            flags |= Expense.FLAG_UNUSUAL_FOR_LOCATION;
+        }
+
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_ANOMALY_FLAGS, flags);
+        database.update(DatabaseHelper.TABLE_EXPENSES, values, DatabaseHelper.COLUMN_ID + " = ?",
+                new String[]{String.valueOf(change.getExpenseId())});
+        change.setAnomalyFlags(flags);
+    }
+
+    /**
+     * Merge the statistics of a category that is being deleted into the
+     * uncategorized group of its user, as its expenses lose their category with
+     * it. Called by CategoryDAO inside the delete transaction.
+     * @param database Database inside the delete transaction
+     * @param categoryId ID of the category being deleted
+     */
+    static void moveToUncategorized(SQLiteDatabase database, int categoryId) {
+        String where = DatabaseHelper.COLUMN_DIMENSION + " = ? AND " + DatabaseHelper.COLUMN_GROUP_KEY + " = ?";
+        String[] whereArgs = {String.valueOf(DIMENSION_CATEGORY), String.valueOf(categoryId)};
+
+        Cursor cursor = database.query(DatabaseHelper.TABLE_EXPENSE_STATS, null, where, whereArgs,
+                null, null, null);
+        while (cursor.moveToNext()) {
+            int userId = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_USER_ID));
+            RunningStats stats = read(database, userId, DIMENSION_CATEGORY, UNCATEGORIZED_KEY);
+            stats.merge(cursorToStats(cursor));
+            write(database, userId, DIMENSION_CATEGORY, UNCATEGORIZED_KEY, stats);
+        }
+        cursor.close();
+
+        database.delete(DatabaseHelper.TABLE_EXPENSE_STATS, where, whereArgs);
+    }
+
+    /**
+     * Add an amount to the statistics of one group, or remove it when negative.
+     * Reads and rewrites a single row by primary key.
+     * @return Whether an added amount is unusually large for the group as it was
+     */
+    private static boolean update(SQLiteDatabase database, int userId, int dimension, String key,
+                                  double amount) {
+        if (key == null) {
+            return false;
+        }
+
+        RunningStats stats = read(database, userId, dimension, key);
+
+        boolean unusual = false;
+        if (amount < 0) {
+            stats.remove(-amount);
+        } else {
+            unusual = stats.isUnusuallyLarge(amount);
+            stats.add(amount);
+        }
+
+        write(database, userId, dimension, key, stats);
+        return unusual;
+    }
+
+    // The stored statistics of one group, or empty ones if there are none yet
+    private static RunningStats read(SQLiteDatabase database, int userId, int dimension, String key) {
+        String[] whereArgs = {String.valueOf(userId), String.valueOf(dimension), key};
+        RunningStats stats = new RunningStats();
+        Cursor cursor = database.query(DatabaseHelper.TABLE_EXPENSE_STATS, null, KEY_WHERE, whereArgs,
+                null, null, null);
+        if (cursor.moveToFirst()) {
+            stats = cursorToStats(cursor);
+        }
+        cursor.close();
+        return stats;
+    }
+
+    private static RunningStats cursorToStats(Cursor cursor) {
+        return new RunningStats(
+                cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_COUNT)),
+                cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MEAN)),
+                cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_M2)));
+    }
+
+    private static void write(SQLiteDatabase database, int userId, int dimension, String key,
+                              RunningStats stats) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_USER_ID, userId);
+        values.put(DatabaseHelper.COLUMN_DIMENSION, dimension);
+        values.put(DatabaseHelper.COLUMN_GROUP_KEY, key);
+        values.put(DatabaseHelper.COLUMN_COUNT, stats.getCount());
+        values.put(DatabaseHelper.COLUMN_MEAN, stats.getMean());
+        values.put(DatabaseHelper.COLUMN_M2, stats.getM2());
+        database.insertWithOnConflict(DatabaseHelper.TABLE_EXPENSE_STATS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    // Group key of an expense's category, 0 for uncategorized
+    private static String categoryKey(Expense expense) {
+        return String.valueOf(expense.getCategoryId());
+    }
+
+    /**
+     * Group key of a location: trimmed and with ASCII letters lowercased, the
+     * same as SQLite's lower(trim(location)) used to seed the table
+     * @return The key, or null if there is no location
+     */
+    static String locationKey(String location) {
+        if (location == null) {
+            return null;
+        }
+
+        String trimmed = location.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+
+        char[] chars = trimmed.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,147 @@
+package org.godsendjoseph.pet_app.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.core.util.AtomicFile;
+
+import org.godsendjoseph.pet_app.models.Expense;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File journal of expense mutations that ExpenseWriteQueue has accepted but not
+ * yet committed. Written when the app goes to the background and whenever a
+ * commit fails, and read back when the queue starts, so accepted expenses
+ * survive the process being killed and failed ones are retried rather than lost.
+ *
+ * The file is replaced atomically, so a crash while writing leaves the previous
+ * journal intact. Only used on the queue's own thread.
+ */
+final class ExpenseWriteJournal {
+    private static final String TAG = "ExpenseWriteJournal";
+
+    private static final String FILE_NAME = "expense_write_journal.json";
+
+    private final AtomicFile file;
+
+    /**
+     * A journalled mutation, as written by the queue
+     */
+    static final class Entry {
+        final int type;
+        final int expenseId;
+        final Expense expense; // Null for deletes
+        final int attempts;
+
+        Entry(int type, int expenseId, Expense expense, int attempts) {
+            this.type = type;
+            this.expenseId = expenseId;
+            this.expense = expense;
+            this.attempts = attempts;
+        }
+    }
+
+    ExpenseWriteJournal(Context context) {
+        file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    /**
+     * Read the journalled mutations, oldest first
+     * @return The entries, empty if there is no journal or it cannot be read
+     */
+    List<Entry> read() {
+        List<Entry> entries = new ArrayList<>();
+
+        try {
+            byte[] bytes = file.readFully();
+            JSONArray array = new JSONArray(new String(bytes, StandardCharsets.UTF_8));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject json = array.getJSONObject(i);
+                JSONObject expenseJson = json.optJSONObject("expense");
+                entries.add(new Entry(json.getInt("type"), json.getInt("expenseId"),
+                        expenseJson != null ? toExpense(json.getInt("expenseId"), expenseJson) : null,
+                        json.optInt("attempts")));
+            }
+        } catch (FileNotFoundException e) {
+            // Nothing was journalled
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Error reading expense journal: " + e.getMessage());
+        }
+
+        return entries;
+    }
+
+    /**
+     * Replace the journal with these mutations, or remove it if there are none
+     * @param entries Mutations not yet committed, oldest first
+     */
+    void write(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            file.delete();
+            return;
+        }
+
+        FileOutputStream out = null;
+        try {
+            JSONArray array = new JSONArray();
+            for (Entry entry : entries) {
+                JSONObject json = new JSONObject();
+                json.put("type", entry.type);
+                json.put("expenseId", entry.expenseId);
+                json.put("attempts", entry.attempts);
+                if (entry.expense != null) {
+                    json.put("expense", toJson(entry.expense));
+                }
+                array.put(json);
+            }
+
+            out = file.startWrite();
+            out.write(array.toString().getBytes(StandardCharsets.UTF_8));
+            file.finishWrite(out);
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Error writing expense journal: " + e.getMessage());
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+
+    /**
+     * Remove the journal, e.g. when the database is deleted
+     */
+    void delete() {
+        file.delete();
+    }
+
+    private static JSONObject toJson(Expense expense) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("userId", expense.getUserId());
+        json.put("title", expense.getTitle());
+        json.put("amount", expense.getAmount());
+        json.put("date", expense.getDate());
+        json.put("time", expense.getTime());
+        json.put("location", expense.getLocation());
+        json.put("categoryId", expense.getCategoryId());
+        json.put("notes", expense.getNotes());
+        return json;
+    }
+
+    private static Expense toExpense(int expenseId, JSONObject json) throws JSONException {
+        Expense expense = new Expense(json.getInt("userId"), json.optString("title", null),
+                json.getDouble("amount"), json.optString("date", null), json.optString("time", null),
+                json.optString("location", null), json.getInt("categoryId"), json.optString("notes", null));
+        expense.setId(expenseId);
+        return expense;
+    }
+}
@@ -0,0 +1,790 @@
+package org.godsendjoseph.pet_app.database;
+
+import android.content.ComponentCallbacks2;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.Expense;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for expense mutations.
+ * Inserts, updates and deletes are accepted immediately and committed to the
+ * database in groups, so entering many expenses in a row pays for one transaction
+ * per batch instead of one per expense.
+ *
+ * A batch is committed on the queue's own thread when it reaches MAX_BATCH_SIZE,
+ * or MAX_DELAY_MS after the first queued mutation. Reads do not commit: a single
+ * expense is looked up in the queue first (see getQueuedChange), and screens that
+ * list expenses wait for the queue with flushAsync or flushAndWait.
+ *
+ * When the app goes to the background the queue is flushed on its thread and
+ * whatever is still uncommitted is written to an ExpenseWriteJournal, which is
+ * replayed when the queue next starts. A mutation that cannot be written is kept,
+ * journalled and retried with a growing delay until it succeeds; after
+ * NOTIFY_AFTER_ATTEMPTS the user is told with a toast, since the form that queued
+ * it has usually closed. Mutations are only dropped by deleteDatabase.
+ *
+ * Listeners are told about each change as soon as it is queued, so screens can
+ * show it straight away, and again once it is committed (or dropped by
+ * deleteDatabase).
+ * Transaction hooks write their own rows in the same transaction as the change.
+ */
+public class ExpenseWriteQueue {
+    private static final String TAG = "ExpenseWriteQueue";
+
+    // Flush thresholds
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final long MAX_DELAY_MS = 300;
+
+    // Retries of a mutation that failed to commit: the delay doubles up to a limit
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+
+    // Failed attempts after which the user is told the expense is not saved yet
+    private static final int NOTIFY_AFTER_ATTEMPTS = 3;
+
+    /**
+     * Interface for following expense changes through the queue
+     */
+    public interface OnExpenseWriteListener {
+        // Called on the enqueuing thread as soon as the change is accepted
+        void onExpenseQueued(ExpenseChange change);
+
+        // Called on the committing thread once the change is in the database
+        void onExpenseCommitted(ExpenseChange change);
+
+        // Called if the change was dropped without being written, see deleteDatabase
+        void onExpenseWriteFailed(ExpenseChange change);
+    }
+
+    /**
+     * Interface for keeping derived tables in step with the expenses table.
+     * Called on the committing thread inside the commit transaction, after the
+     * change has been applied, so derived rows commit or roll back with it.
+     */
+    public interface TransactionHook {
+        void onExpenseApplied(SQLiteDatabase database, ExpenseChange change);
+    }
+
+    // Singleton instance
+    private static ExpenseWriteQueue instance;
+
+    private final Context context;
+    private final DatabaseHelper dbHelper;
+    private final ExpenseWriteJournal journal;
+    private final ScheduledExecutorService executor;
+    private volatile Thread queueThread;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DatabaseChangeNotifier changeNotifier;
+    private final List<OnExpenseWriteListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<TransactionHook> transactionHooks = new CopyOnWriteArrayList<>();
+
+    // Held while a batch is being committed so batches are applied in order
+    private final Object commitLock = new Object();
+
+    // Guarded by this
+    private List<Mutation> pending = new ArrayList<>();
+    private List<Mutation> committing = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long nextSequence = 0;
+
+    // First free expense ID, read from the database on the queue's thread; guarded by this
+    private Future<Long> expenseIdSeed;
+    private long nextExpenseId = -1;
+
+    // Whether the journal holds mutations; only used on the queue's thread
+    private boolean journalWritten = false;
+
+    // Transactions committed so far. commitsStarted is counted before a transaction
+    // ends and commitsFinished once its listeners have been told; written on the
+    // queue's thread only
+    private volatile long commitsStarted = 0;
+    private volatile long commitsFinished = 0;
+
+    /**
+     * Get the singleton instance of ExpenseWriteQueue
+     * @param context Application context
+     * @return ExpenseWriteQueue instance
+     */
+    public static synchronized ExpenseWriteQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new ExpenseWriteQueue(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Private constructor to enforce singleton pattern
+    private ExpenseWriteQueue(Context context) {
+        this.context = context;
+        dbHelper = DatabaseHelper.getInstance(context);
+        journal = new ExpenseWriteJournal(context);
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                queueThread = new Thread(runnable, TAG);
+                return queueThread;
+            }
+        });
+        changeNotifier = DatabaseChangeNotifier.getInstance();
+
+        // Seeded in the background, long before the first expense form is submitted.
+        // Mutations journalled by an earlier run are queued again first.
+        expenseIdSeed = executor.submit(new Callable<Long>() {
+            @Override
+            public Long call() {
+                return Math.max(readExpenseIdSeed(), restoreJournal());
+            }
+        });
+
+        // Forecast state and amount statistics are updated with every change,
+        // so they never have to be rebuilt from history
+        addTransactionHook(new TransactionHook() {
+            @Override
+            public void onExpenseApplied(SQLiteDatabase database, ExpenseChange change) {
+                SpendForecastDAO.applyChange(database, change);
+                ExpenseStatsDAO.applyChange(database, change);
+            }
+        });
+
+        // Commit early under memory pressure, without blocking the main thread
+        context.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                    executor.execute(flushTask);
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                executor.execute(flushTask);
+            }
+        });
+
+        // Observers must be added on the main thread
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+                    @Override
+                    public void onStop(@NonNull LifecycleOwner owner) {
+                        // The app may now be killed: commit, and journal whatever is left
+                        executor.execute(backgroundTask);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Queue a new expense for insertion.
+     * The expense is assigned its row ID straight away, so it can be updated or
+     * deleted through the queue before the batch is committed.
+     * @param expense Expense object to insert
+     * @return Provisional ID of the expense
+     */
+    public long enqueueInsert(Expense expense) {
+        long expenseId = allocateExpenseId();
+        expense.setId((int) expenseId);
+
+        Mutation mutation;
+        synchronized (this) {
+            mutation = newMutation(ExpenseChange.TYPE_INSERT, (int) expenseId, expense);
+            enqueue(mutation);
+        }
+
+        // Outside the lock, so listeners may use the queue or take their own locks
+        notifyQueued(mutation);
+        return expenseId;
+    }
+
+    /**
+     * Queue an update of an existing expense
+     * @param expense Expense object with updated values
+     */
+    public void enqueueUpdate(Expense expense) {
+        Mutation mutation;
+        synchronized (this) {
+            mutation = newMutation(ExpenseChange.TYPE_UPDATE, expense.getId(), expense);
+            enqueue(mutation);
+        }
+        notifyQueued(mutation);
+    }
+
+    /**
+     * Queue the deletion of an expense
+     * @param expenseId ID of the expense to delete
+     */
+    public void enqueueDelete(int expenseId) {
+        Mutation mutation;
+        synchronized (this) {
+            mutation = newMutation(ExpenseChange.TYPE_DELETE, expenseId, null);
+            enqueue(mutation);
+        }
+        notifyQueued(mutation);
+    }
+
+    /**
+     * Get the latest change queued for an expense that is not yet committed, so
+     * reads can see queued writes without committing them
+     * @param expenseId ID of the expense
+     * @return The change, or null if none is waiting for the expense
+     */
+    public synchronized ExpenseChange getQueuedChange(int expenseId) {
+        ExpenseChange change = findChange(pending, expenseId);
+        return change != null ? change : findChange(committing, expenseId);
+    }
+
+    /**
+     * Commit all queued mutations on the queue's own thread, then run a task there.
+     * Lets the main thread wait for queued writes without committing them itself.
+     * @param afterFlush Task to run once the queue has been flushed, or null
+     */
+    public void flushAsync(@Nullable final Runnable afterFlush) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+                if (afterFlush != null) {
+                    afterFlush.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Commit all queued mutations on the queue's own thread and wait for it.
+     * For background readers that must see every accepted write; never call on
+     * the main thread.
+     */
+    public void flushAndWait() {
+        if (Thread.currentThread() == queueThread) {
+            flush();
+            return;
+        }
+
+        try {
+            executor.submit(flushTask).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Error flushing expenses: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the number of transactions committed so far, unless one is in progress.
+     * A reader that gets the same number before and after reading the database saw
+     * exactly the changes whose commit sequence is at most that number, and every
+     * listener has already been told about them.
+     * @return The number of commits, or -1 while a commit is in progress
+     */
+    public long getStableCommitSequence() {
+        long finished = commitsFinished;
+        return commitsStarted == finished ? finished : -1;
+    }
+
+    /**
+     * Delete the database file with nothing queued or open on it, e.g. when all
+     * data is cleared. Queued mutations are dropped and reported as failed, the
+     * connection is closed before the file goes, and the ID seed is read again
+     * from the new database. Blocks, so must not be called on the main thread.
+     */
+    public void deleteDatabase() {
+        Future<List<Mutation>> dropped = executor.submit(new Callable<List<Mutation>>() {
+            @Override
+            public List<Mutation> call() {
+                List<Mutation> mutations;
+                synchronized (ExpenseWriteQueue.this) {
+                    mutations = pending;
+                    pending = new ArrayList<>();
+                    if (scheduledFlush != null) {
+                        scheduledFlush.cancel(false);
+                        scheduledFlush = null;
+                    }
+                }
+
+                dbHelper.close();
+                context.deleteDatabase(DatabaseHelper.DATABASE_NAME);
+                journal.delete();
+                journalWritten = false;
+
+                synchronized (ExpenseWriteQueue.this) {
+                    nextSequence = 0;
+                    nextExpenseId = -1;
+                    expenseIdSeed = executor.submit(new Callable<Long>() {
+                        @Override
+                        public Long call() {
+                            return readExpenseIdSeed();
+                        }
+                    });
+                }
+                return mutations;
+            }
+        });
+
+        try {
+            for (Mutation mutation : dropped.get()) {
+                notifyCommitted(mutation, false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error deleting the database: " + e.getMessage(), e);
+        }
+
+        changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_EXPENSES);
+        changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_CATEGORIES);
+    }
+
+    /**
+     * Commit all queued mutations. Runs on the queue's own thread; other threads
+     * use flushAsync or flushAndWait.
+     * @return true if every queued mutation was committed
+     */
+    private boolean flush() {
+        synchronized (commitLock) {
+            List<Mutation> batch;
+
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return true;
+                }
+
+                batch = pending;
+                pending = new ArrayList<>();
+                committing = batch;
+
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+            }
+
+            List<Mutation> failed;
+            try {
+                failed = commit(batch);
+            } finally {
+                // Listeners have been told about everything committed
+                commitsFinished = commitsStarted;
+            }
+            synchronized (this) {
+                committing = new ArrayList<>();
+                if (!failed.isEmpty()) {
+                    retryLater(failed);
+                }
+            }
+            changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_EXPENSES, this);
+
+            if (failed.isEmpty()) {
+                if (journalWritten) {
+                    // Journalled mutations are in the database now
+                    writeJournal();
+                }
+                return true;
+            }
+
+            // Kept on disk until they are written, however long that takes
+            writeJournal();
+            for (Mutation mutation : failed) {
+                if (mutation.attempts == NOTIFY_AFTER_ATTEMPTS) {
+                    showWriteFailed(mutation.change);
+                }
+            }
+            return false;
+        }
+    }
+
+    public void addListener(OnExpenseWriteListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OnExpenseWriteListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addTransactionHook(TransactionHook hook) {
+        transactionHooks.add(hook);
+    }
+
+    // Must be called while holding the lock
+    private Mutation newMutation(int type, int expenseId, Expense expense) {
+        ContentValues values = null;
+        if (type == ExpenseChange.TYPE_INSERT) {
+            values = ExpenseDAO.toContentValues(expense);
+            values.put(DatabaseHelper.COLUMN_ID, expenseId);
+            values.put(DatabaseHelper.COLUMN_USER_ID, expense.getUserId());
+        } else if (type == ExpenseChange.TYPE_UPDATE) {
+            values = ExpenseDAO.toContentValues(expense);
+        }
+        return new Mutation(new ExpenseChange(nextSequence++, type, expenseId, expense), values);
+    }
+
+    private static ExpenseChange findChange(List<Mutation> mutations, int expenseId) {
+        for (int i = mutations.size() - 1; i >= 0; i--) {
+            if (mutations.get(i).change.getExpenseId() == expenseId) {
+                return mutations.get(i).change;
+            }
+        }
+        return null;
+    }
+
+    private void notifyQueued(Mutation mutation) {
+        for (OnExpenseWriteListener listener : listeners) {
+            listener.onExpenseQueued(mutation.change);
+        }
+    }
+
+    // Must be called while holding the lock
+    private void enqueue(Mutation mutation) {
+        pending.add(mutation);
+
+        if (pending.size() >= MAX_BATCH_SIZE) {
+            executor.execute(flushTask);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = executor.schedule(flushTask, MAX_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private final Runnable backgroundTask = new Runnable() {
+        @Override
+        public void run() {
+            if (!flush()) {
+                // Failed mutations are journalled by flush; later ones may have been queued since
+                writeJournal();
+            }
+        }
+    };
+
+    /**
+     * Put mutations that failed back at the head of the queue and schedule a retry.
+     * Must be called while holding the lock.
+     */
+    private void retryLater(List<Mutation> failed) {
+        int attempts = 0;
+        for (Mutation mutation : failed) {
+            mutation.attempts++;
+            attempts = Math.max(attempts, mutation.attempts);
+            Log.e(TAG, "Expense " + mutation.change.getExpenseId() + " not written after "
+                    + mutation.attempts + " attempts, retrying");
+        }
+
+        // Ahead of anything queued meanwhile, so changes still apply in order
+        List<Mutation> retries = new ArrayList<>(failed);
+        retries.addAll(pending);
+        pending = retries;
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        long delay = RETRY_DELAY_MS << Math.min(attempts - 1, 6);
+        scheduledFlush = executor.schedule(flushTask, Math.min(delay, MAX_RETRY_DELAY_MS),
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Journal every mutation not yet committed; on the queue's thread only
+    private void writeJournal() {
+        List<ExpenseWriteJournal.Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            for (Mutation mutation : pending) {
+                entries.add(new ExpenseWriteJournal.Entry(mutation.change.getType(),
+                        mutation.change.getExpenseId(), mutation.change.getExpense(), mutation.attempts));
+            }
+        }
+        journal.write(entries);
+        journalWritten = !entries.isEmpty();
+    }
+
+    /**
+     * Queue the mutations journalled by an earlier run ahead of any new ones
+     * @return The first expense ID not used by a journalled insert
+     */
+    private long restoreJournal() {
+        List<ExpenseWriteJournal.Entry> entries = journal.read();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        journalWritten = true;
+
+        long nextFreeId = 0;
+        List<Mutation> restored = new ArrayList<>();
+        synchronized (this) {
+            for (ExpenseWriteJournal.Entry entry : entries) {
+                Mutation mutation = newMutation(entry.type, entry.expenseId, entry.expense);
+                mutation.attempts = entry.attempts;
+                mutation.replayed = true;
+                restored.add(mutation);
+                if (entry.type == ExpenseChange.TYPE_INSERT) {
+                    nextFreeId = Math.max(nextFreeId, entry.expenseId + 1L);
+                }
+            }
+
+            List<Mutation> queued = new ArrayList<>(restored);
+            queued.addAll(pending);
+            pending = queued;
+            if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(flushTask, MAX_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        for (Mutation mutation : restored) {
+            notifyQueued(mutation);
+        }
+        return nextFreeId;
+    }
+
+    /**
+     * Apply a batch of mutations in a single transaction.
+     * If the group commit fails, each mutation is retried on its own so one bad
+     * row does not take the rest of the batch down with it.
+     * @return The mutations that could not be committed
+     */
+    private List<Mutation> commit(List<Mutation> batch) {
+        SQLiteDatabase database = dbHelper.getWritableDatabase();
+        List<Mutation> written = new ArrayList<>();
+        boolean groupCommitted = false;
+
+        try {
+            database.beginTransaction();
+            try {
+                for (Mutation mutation : batch) {
+                    if (apply(database, mutation)) {
+                        written.add(mutation);
+                    }
+                }
+                database.setTransactionSuccessful();
+                // Counted before the rows become visible, see getStableCommitSequence
+                commitsStarted++;
+            } finally {
+                database.endTransaction();
+            }
+            groupCommitted = true;
+        } catch (Exception e) {
+            Log.e(TAG, "Group commit of " + batch.size() + " expenses failed, retrying individually: " + e.getMessage());
+        }
+
+        List<Mutation> failed = new ArrayList<>();
+        if (groupCommitted) {
+            for (Mutation mutation : written) {
+                mutation.change.setCommitSequence(commitsStarted);
+            }
+            for (Mutation mutation : batch) {
+                notifyCommitted(mutation, true);
+            }
+            return failed;
+        }
+
+        for (Mutation mutation : batch) {
+            try {
+                // Still one transaction per mutation, so hook rows stay with their change
+                boolean applied;
+                database.beginTransaction();
+                try {
+                    applied = apply(database, mutation);
+                    database.setTransactionSuccessful();
+                    commitsStarted++;
+                } finally {
+                    database.endTransaction();
+                }
+                if (applied) {
+                    mutation.change.setCommitSequence(commitsStarted);
+                }
+                notifyCommitted(mutation, true);
+            } catch (Exception e) {
+                Log.e(TAG, "Error committing expense " + mutation.change.getExpenseId() + ": " + e.getMessage());
+                failed.add(mutation);
+            }
+        }
+        return failed;
+    }
+
+    // Shown with the application context, so it outlives the form that queued the change
+    private void showWriteFailed(final ExpenseChange change) {
+        // Still queued and retried, so say it is not saved yet rather than lost
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Expense expense = change.getExpense() != null ? change.getExpense() : change.getPreviousExpense();
+                String title = expense != null && expense.getTitle() != null ? expense.getTitle() : "";
+                Toast.makeText(context, context.getString(R.string.expense_save_failed, title),
+                        Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void notifyCommitted(Mutation mutation, boolean success) {
+        for (OnExpenseWriteListener listener : listeners) {
+            if (success) {
+                listener.onExpenseCommitted(mutation.change);
+            } else {
+                listener.onExpenseWriteFailed(mutation.change);
+            }
+        }
+    }
+
+    /**
+     * Write a mutation and run the transaction hooks on it
+     * @return false if it was a replayed insert that had already been written
+     */
+    private boolean apply(SQLiteDatabase database, Mutation mutation) {
+        String whereClause = DatabaseHelper.COLUMN_ID + " = ?";
+        String[] whereArgs = {String.valueOf(mutation.change.getExpenseId())};
+
+        // Listeners such as ExpenseAggregateStore need the old row to undo its effect
+        if (mutation.change.getType() != ExpenseChange.TYPE_INSERT) {
+            mutation.change.setPreviousExpense(readExpense(database, whereClause, whereArgs));
+        }
+
+        // IDs are never reused, so a replayed insert whose row exists was committed by
+        // an earlier run that was killed before it could rewrite the journal
+        if (mutation.replayed && mutation.change.getType() == ExpenseChange.TYPE_INSERT
+                && readExpense(database, whereClause, whereArgs) != null) {
+            return false;
+        }
+
+        switch (mutation.change.getType()) {
+            case ExpenseChange.TYPE_INSERT:
+                database.insertOrThrow(DatabaseHelper.TABLE_EXPENSES, null, mutation.values);
+                break;
+            case ExpenseChange.TYPE_UPDATE:
+                database.update(DatabaseHelper.TABLE_EXPENSES, mutation.values, whereClause, whereArgs);
+                break;
+            case ExpenseChange.TYPE_DELETE:
+                database.delete(DatabaseHelper.TABLE_EXPENSES, whereClause, whereArgs);
+                break;
+        }
+
+        for (TransactionHook hook : transactionHooks) {
+            hook.onExpenseApplied(database, mutation.change);
+        }
+        return true;
+    }
+
+    /**
+     * Read the current state of a row inside the commit transaction
+     * @return The expense, or null if the row does not exist
+     */
+    private Expense readExpense(SQLiteDatabase database, String whereClause, String[] whereArgs) {
+        Expense expense = null;
+
+        Cursor cursor = database.query(DatabaseHelper.TABLE_EXPENSES, null, whereClause, whereArgs,
+                null, null, null);
+        if (cursor.moveToFirst()) {
+            expense = ExpenseDAO.cursorToExpense(cursor);
+        }
+        cursor.close();
+
+        return expense;
+    }
+
+    /**
+     * Hand out the next expense row ID.
+     * Seeded once from the AUTOINCREMENT sequence so IDs are never reused. The
+     * seed is read on the queue's thread when the queue is created, so this only
+     * waits if an expense is queued right after start-up; it waits without the
+     * lock, which the seed task needs to queue journalled mutations.
+     */
+    private long allocateExpenseId() {
+        while (true) {
+            Future<Long> seed;
+            synchronized (this) {
+                if (nextExpenseId >= 0) {
+                    return nextExpenseId++;
+                }
+                seed = expenseIdSeed;
+            }
+
+            long firstId;
+            try {
+                firstId = seed.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading the expense ID seed", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error reading the expense ID seed: " + e.getMessage(), e);
+            }
+
+            synchronized (this) {
+                // Unless the database was deleted meanwhile, which brings a new seed
+                if (nextExpenseId < 0 && seed == expenseIdSeed) {
+                    nextExpenseId = firstId;
+                }
+            }
+        }
+    }
+
+    // First expense ID that has never been used
+    private long readExpenseIdSeed() {
+        SQLiteDatabase database = dbHelper.getWritableDatabase();
+        long maxId = 0;
+
+        Cursor cursor = database.rawQuery("SELECT MAX(" + DatabaseHelper.COLUMN_ID + ") FROM " +
+                DatabaseHelper.TABLE_EXPENSES, null);
+        if (cursor.moveToFirst()) {
+            maxId = cursor.getLong(0);
+        }
+        cursor.close();
+
+        cursor = database.rawQuery("SELECT seq FROM sqlite_sequence WHERE name = ?",
+                new String[]{DatabaseHelper.TABLE_EXPENSES});
+        if (cursor.moveToFirst()) {
+            maxId = Math.max(maxId, cursor.getLong(0));
+        }
+        cursor.close();
+
+        return maxId + 1;
+    }
+
+    /**
+     * A single queued change to the expenses table
+     */
+    private static class Mutation {
+        final ExpenseChange change;
+        final ContentValues values;
+        int attempts; // Failed commits so far
+        boolean replayed; // Restored from the journal
+
+        Mutation(ExpenseChange change, ContentValues values) {
+            this.change = change;
+            this.values = values;
+        }
+    }
+}
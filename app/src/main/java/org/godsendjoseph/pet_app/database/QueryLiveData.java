@@ -0,0 +1,227 @@
+package org.godsendjoseph.pet_app.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * LiveData backed by a database query.
+ * The query runs on a background thread when the data is first observed, and
+ * afterwards only when one of the tables it depends on has changed (as reported
+ * by DatabaseChangeNotifier). Coming back to a screen whose data did not change
+ * therefore costs no queries at all.
+ *
+ * Owners that apply writes to the value themselves (see setLocalValue) can name
+ * the source of those writes, so committing them does not trigger a re-query.
+ * @param <T> Type of the query result
+ */
+public class QueryLiveData<T> extends LiveData<T> {
+    private static final String TAG = "QueryLiveData";
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final DatabaseChangeNotifier changeNotifier;
+    private final List<String> tables;
+    private final String errorPrefix;
+    private final MutableLiveData<Boolean> isLoadingLiveData;
+    private final MutableLiveData<String> errorMessageLiveData;
+
+    // Guarded by this
+    private String queryKey;
+    private Callable<T> query;
+    private Object ignoredSource;
+    private long loadedVersion = -1; // Version of the last successful load
+    private long loadingVersion = -1; // Version being loaded, so it is not queried twice
+    private int requestCount = 0;
+    private int localChangeCount = 0;
+
+    /**
+     * Constructor for the query LiveData
+     * @param initialValue Value held until the first query completes
+     * @param errorPrefix Prefix for error messages posted when the query fails
+     * @param isLoadingLiveData LiveData updated while the query runs
+     * @param errorMessageLiveData LiveData receiving error messages
+     * @param tables Tables the query reads from
+     */
+    public QueryLiveData(T initialValue, String errorPrefix, MutableLiveData<Boolean> isLoadingLiveData,
+                         MutableLiveData<String> errorMessageLiveData, String... tables) {
+        super(initialValue);
+        this.changeNotifier = DatabaseChangeNotifier.getInstance();
+        this.tables = Arrays.asList(tables);
+        this.errorPrefix = errorPrefix;
+        this.isLoadingLiveData = isLoadingLiveData;
+        this.errorMessageLiveData = errorMessageLiveData;
+    }
+
+    /**
+     * Set the query backing this LiveData.
+     * Setting the same key again keeps the current result, so screens can call
+     * this freely (e.g. from onResume) without triggering a reload.
+     * @param key Identifies the query and its arguments
+     * @param query Query to run on a background thread
+     */
+    public void setQuery(String key, Callable<T> query) {
+        synchronized (this) {
+            if (key.equals(queryKey)) {
+                return;
+            }
+
+            this.queryKey = key;
+            this.query = query;
+            this.loadedVersion = -1;
+            this.loadingVersion = -1;
+        }
+
+        if (hasActiveObservers()) {
+            refreshIfStale();
+        }
+    }
+
+    /**
+     * Leave changes made by a source out of the staleness check.
+     * Use when the owner applies that source's changes via setLocalValue.
+     * @param source Source passed to DatabaseChangeNotifier by the writer
+     */
+    public synchronized void setIgnoredSource(Object source) {
+        this.ignoredSource = source;
+    }
+
+    /**
+     * Replace the value with one derived in memory, without querying.
+     * A query that started before this call would not include the change, so
+     * its result is discarded and the query is run again.
+     * Must be called on the main thread.
+     * @param value New value
+     */
+    public void setLocalValue(T value) {
+        synchronized (this) {
+            localChangeCount++;
+        }
+        setValue(value);
+    }
+
+    @Override
+    protected void onActive() {
+        changeNotifier.addListener(tableChangedListener);
+        refreshIfStale();
+    }
+
+    @Override
+    protected void onInactive() {
+        changeNotifier.removeListener(tableChangedListener);
+    }
+
+    private final DatabaseChangeNotifier.OnTableChangedListener tableChangedListener =
+            new DatabaseChangeNotifier.OnTableChangedListener() {
+                @Override
+                public void onTableChanged(String table) {
+                    if (tables.contains(table)) {
+                        refreshIfStale();
+                    }
+                }
+            };
+
+    /**
+     * Re-run the query if any table it depends on changed since the last
+     * successful run. A query that failed is run again on the next trigger.
+     */
+    private void refreshIfStale() {
+        final Callable<T> currentQuery;
+        final long version;
+        final int request;
+        final int localChangesAtStart;
+
+        synchronized (this) {
+            version = currentVersion();
+            if (query == null || version == loadedVersion || version == loadingVersion) {
+                return;
+            }
+
+            loadingVersion = version;
+            currentQuery = query;
+            request = ++requestCount;
+            localChangesAtStart = localChangeCount;
+        }
+
+        if (isLoadingLiveData != null) {
+            isLoadingLiveData.postValue(true);
+        }
+
+        DatabaseExecutors.getReadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final T result = currentQuery.call();
+
+                    MAIN_HANDLER.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            deliver(request, version, localChangesAtStart, result);
+                        }
+                    });
+                } catch (Exception e) {
+                    loadFailed(request);
+                    Log.e(TAG, errorPrefix + e.getMessage());
+                    if (errorMessageLiveData != null) {
+                        errorMessageLiveData.postValue(errorPrefix + e.getMessage());
+                    }
+                } finally {
+                    if (isLoadingLiveData != null) {
+                        isLoadingLiveData.postValue(false);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Publish a query result on the main thread, unless it was overtaken by a
+     * newer query or by a local change made while it ran
+     */
+    private void deliver(int request, long version, int localChangesAtStart, T result) {
+        boolean rerun = false;
+
+        synchronized (this) {
+            if (request != requestCount) {
+                return;
+            }
+
+            loadingVersion = -1;
+            if (localChangesAtStart != localChangeCount) {
+                loadedVersion = -1;
+                rerun = true;
+            } else {
+                loadedVersion = version;
+            }
+        }
+
+        if (rerun) {
+            refreshIfStale();
+        } else {
+            setValue(result);
+        }
+    }
+
+    // Leave the version unloaded, so the next refresh queries it again
+    private synchronized void loadFailed(int request) {
+        if (request == requestCount) {
+            loadingVersion = -1;
+        }
+    }
+
+    // Must be called while holding the lock
+    private long currentVersion() {
+        String[] tableNames = tables.toArray(new String[0]);
+        if (ignoredSource != null) {
+            return changeNotifier.getVersionIgnoring(ignoredSource, tableNames);
+        }
+        return changeNotifier.getVersion(tableNames);
+    }
+}
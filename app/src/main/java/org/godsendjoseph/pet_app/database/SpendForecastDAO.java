@@ -0,0 +1,204 @@
+package org.godsendjoseph.pet_app.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import org.godsendjoseph.pet_app.analytics.SmoothedDailySpend;
+import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+/**
+ * Data Access Object for the persisted spend forecast state.
+ * Holds one SmoothedDailySpend per user and category, plus one for all of the
+ * user's expenses under TOTAL_KEY. Uncategorized expenses use key 0.
+ */
+public class SpendForecastDAO {
+    private static final String TAG = "SpendForecastDAO";
+
+    // Key of the row that smooths the total of all categories
+    public static final int TOTAL_KEY = -1;
+
+    private static final String KEY_WHERE = DatabaseHelper.COLUMN_USER_ID + " = ? AND "
+            + DatabaseHelper.COLUMN_CATEGORY_ID + " = ?";
+
+    private SQLiteDatabase database;
+    private DatabaseHelper dbHelper;
+
+    // Constructor
+    public SpendForecastDAO(Context context) {
+        dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    // Open database connection
+    public void open() {
+        database = dbHelper.getReadableDatabase();
+    }
+
+    // Close database connection
+    public void close() {
+        // The connection is shared through DatabaseHelper and stays open
+    }
+
+    /**
+     * Get the forecast state of every category of a user
+     * @param userId ID of the user
+     * @return States keyed by category ID, TOTAL_KEY for all categories
+     */
+    public IntObjectMap<SmoothedDailySpend> getForecastStates(int userId) {
+        IntObjectMap<SmoothedDailySpend> states = new IntObjectMap<>();
+
+        try {
+            open();
+
+            Cursor cursor = database.query(DatabaseHelper.TABLE_SPEND_FORECASTS, null,
+                    DatabaseHelper.COLUMN_USER_ID + " = ?", new String[]{String.valueOf(userId)},
+                    null, null, null);
+            int keyIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_CATEGORY_ID);
+            while (cursor.moveToNext()) {
+                states.put(cursor.getInt(keyIndex), cursorToState(cursor));
+            }
+            cursor.close();
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting forecast states: " + e.getMessage());
+        } finally {
+            close();
+        }
+
+        return states;
+    }
+
+    /**
+     * Apply an expense change to the forecast states of its user: the row of its
+     * category and the total row. Called by ExpenseWriteQueue inside the commit
+     * transaction, so the states always match the committed expenses.
+     * @param database Database inside the commit transaction
+     * @param change Change that has just been applied
+     */
+    static void applyChange(SQLiteDatabase database, ExpenseChange change) {
+        Expense previous = change.getPreviousExpense();
+        if (change.getType() != ExpenseChange.TYPE_INSERT && previous == null) {
+            // The row did not exist, so nothing changed
+            return;
+        }
+
+        if (previous != null) {
+            addExpense(database, previous, -1);
+        }
+
+        Expense expense = change.getExpense();
+        if (expense != null) {
+            if (previous != null) {
+                expense.setUserId(previous.getUserId());
+            }
+            addExpense(database, expense, 1);
+        }
+    }
+
+    /**
+     * Move the spend of a category that is being deleted into the uncategorized
+     * state of its user, as its expenses lose their category with it. Called by
+     * CategoryDAO inside the delete transaction, before the category row goes.
+     * @param database Database inside the delete transaction
+     * @param categoryId ID of the category being deleted
+     */
+    static void moveToUncategorized(SQLiteDatabase database, int categoryId) {
+        // One state per user, updated in memory and written once
+        IntObjectMap<SmoothedDailySpend> uncategorized = new IntObjectMap<>();
+
+        Cursor cursor = database.query(DatabaseHelper.TABLE_EXPENSES,
+                new String[]{DatabaseHelper.COLUMN_USER_ID, DatabaseHelper.COLUMN_DATE, DatabaseHelper.COLUMN_AMOUNT},
+                DatabaseHelper.COLUMN_CATEGORY_ID + " = ?", new String[]{String.valueOf(categoryId)},
+                null, null, DatabaseHelper.COLUMN_DATE + " ASC");
+        while (cursor.moveToNext()) {
+            int userId = cursor.getInt(0);
+            SmoothedDailySpend state = uncategorized.get(userId);
+            if (state == null) {
+                state = readState(database, userId, 0);
+                uncategorized.put(userId, state);
+            }
+            state.add(EpochDayUtils.fromDate(cursor.getString(1)), cursor.getDouble(2));
+        }
+        cursor.close();
+
+        for (int slot = 0; slot < uncategorized.slotCount(); slot++) {
+            if (uncategorized.isUsed(slot)) {
+                writeState(database, uncategorized.keyAt(slot), 0, uncategorized.valueAt(slot));
+            }
+        }
+
+        // The total row already includes these expenses
+        database.delete(DatabaseHelper.TABLE_SPEND_FORECASTS, DatabaseHelper.COLUMN_CATEGORY_ID + " = ?",
+                new String[]{String.valueOf(categoryId)});
+    }
+
+    private static void addExpense(SQLiteDatabase database, Expense expense, int sign) {
+        int epochDay = EpochDayUtils.fromDate(expense.getDate());
+        if (epochDay == EpochDayUtils.INVALID) {
+            return;
+        }
+
+        double amount = sign * expense.getAmount();
+        addSpend(database, expense.getUserId(), expense.getCategoryId(), epochDay, amount);
+        addSpend(database, expense.getUserId(), TOTAL_KEY, epochDay, amount);
+    }
+
+    /**
+     * Add an amount to one forecast state, creating it if needed.
+     * Reads and rewrites a single row by primary key, so it is cheap enough to run
+     * inside the transaction that writes the expense.
+     * @param database Database inside the commit transaction
+     * @param userId ID of the user
+     * @param key Category ID, 0 for uncategorized or TOTAL_KEY
+     * @param epochDay Day of the expense
+     * @param amount Amount to add; negative to remove it again
+     */
+    private static void addSpend(SQLiteDatabase database, int userId, int key, int epochDay, double amount) {
+        SmoothedDailySpend state = readState(database, userId, key);
+        state.add(epochDay, amount);
+        writeState(database, userId, key, state);
+    }
+
+    // The stored state of one key, or an empty one if there is none yet
+    private static SmoothedDailySpend readState(SQLiteDatabase database, int userId, int key) {
+        String[] whereArgs = {String.valueOf(userId), String.valueOf(key)};
+
+        SmoothedDailySpend state = null;
+        Cursor cursor = database.query(DatabaseHelper.TABLE_SPEND_FORECASTS, null, KEY_WHERE, whereArgs,
+                null, null, null);
+        if (cursor.moveToFirst()) {
+            state = cursorToState(cursor);
+        }
+        cursor.close();
+
+        return state != null ? state : new SmoothedDailySpend();
+    }
+
+    private static void writeState(SQLiteDatabase database, int userId, int key, SmoothedDailySpend state) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_USER_ID, userId);
+        values.put(DatabaseHelper.COLUMN_CATEGORY_ID, key);
+        values.put(DatabaseHelper.COLUMN_LAST_DAY, state.getLastDay());
+        values.put(DatabaseHelper.COLUMN_DAY_TOTAL, state.getDayTotal());
+        values.put(DatabaseHelper.COLUMN_LEVEL, state.getLevel());
+        values.put(DatabaseHelper.COLUMN_VARIANCE, state.getVariance());
+        values.put(DatabaseHelper.COLUMN_OBSERVATIONS, state.getObservations());
+        database.insertWithOnConflict(DatabaseHelper.TABLE_SPEND_FORECASTS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Helper method to convert a cursor row to a SmoothedDailySpend
+     */
+    private static SmoothedDailySpend cursorToState(Cursor cursor) {
+        return new SmoothedDailySpend(
+                cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_LAST_DAY)),
+                cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DAY_TOTAL)),
+                cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_LEVEL)),
+                cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_VARIANCE)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_OBSERVATIONS)));
+    }
+}
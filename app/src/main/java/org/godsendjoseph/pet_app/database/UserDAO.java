@@ -20,10 +20,12 @@ public class UserDAO {
 
     private SQLiteDatabase database;
     private DatabaseHelper dbHelper;
+    private DatabaseChangeNotifier changeNotifier;
 
     // Constructor
     public UserDAO(Context context) {
         dbHelper = DatabaseHelper.getInstance(context);
+        changeNotifier = DatabaseChangeNotifier.getInstance();
     }
 
     // Open database connection
@@ -33,9 +35,8 @@ public class UserDAO {
 
     // Close database connection
     public void close() {
-        if (database != null && database.isOpen()) {
-            database.close();
-        }
+        // The connection is shared through DatabaseHelper and stays open so the
+        // write-behind queue is never left holding a closed database mid-commit
     }
 
     /**
@@ -110,6 +111,12 @@ public class UserDAO {
             String[] whereArgs = {String.valueOf(userId)};
 
             rowsAffected = database.delete(DatabaseHelper.TABLE_USERS, whereClause, whereArgs);
+            if (rowsAffected > 0) {
+                // The user's expenses and categories are removed by ON DELETE CASCADE
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_USERS);
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_EXPENSES);
+                changeNotifier.notifyTableChanged(DatabaseHelper.TABLE_CATEGORIES);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error deleting user: " + e.getMessage());
         } finally {
@@ -0,0 +1,69 @@
+package org.godsendjoseph.pet_app.models;
+
+/**
+ * Labelled values in display order, as drawn by BarChartView.
+ * Values are kept in a primitive array, and the order is fixed when the data
+ * is built, so the chart never sorts or parses its labels.
+ */
+public class BarChartData {
+    private final float[] values;
+    private final String[] labels;
+    private final float maxValue;
+    private final float total;
+
+    /**
+     * Constructor with all fields
+     * @param values Value of each bar, in display order
+     * @param labels Label of each bar, as many as values
+     */
+    public BarChartData(float[] values, String[] labels) {
+        if (values.length != labels.length) {
+            throw new IllegalArgumentException("Got " + values.length + " values for " + labels.length + " labels");
+        }
+        this.values = values;
+        this.labels = labels;
+
+        float max = 0;
+        float sum = 0;
+        for (float value : values) {
+            if (value > max) {
+                max = value;
+            }
+            sum += value;
+        }
+        this.maxValue = max;
+        this.total = sum;
+    }
+
+    /**
+     * Chart without any bars
+     */
+    public static BarChartData empty() {
+        return new BarChartData(new float[0], new String[0]);
+    }
+
+    public boolean isEmpty() {
+        return maxValue <= 0;
+    }
+
+    // Getters
+    public int size() {
+        return values.length;
+    }
+
+    public float getValue(int index) {
+        return values[index];
+    }
+
+    public String getLabel(int index) {
+        return labels[index];
+    }
+
+    public float getMaxValue() {
+        return maxValue;
+    }
+
+    public float getTotal() {
+        return total;
+    }
+}
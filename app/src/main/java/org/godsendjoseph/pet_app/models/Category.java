@@ -1,5 +1,7 @@
 package org.godsendjoseph.pet_app.models;
 
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+
 /**
  * Model class representing an expense category in the Personal Expense Tracker application.
  */
@@ -8,6 +10,7 @@ public class Category {
     private String name;
     private String description;
     private String color; // Hex color code for UI representation
+    private int colorValue = ColorUtils.NO_COLOR; // Parsed once, for binding rows
     private int userId; // For user-defined categories, null/0 for default categories
 
     // Default constructor
@@ -19,7 +22,7 @@ public class Category {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.color = color;
+        setColor(color);
         this.userId = userId;
     }
 
@@ -27,7 +30,7 @@ public class Category {
     public Category(String name, String description, String color, int userId) {
         this.name = name;
         this.description = description;
-        this.color = color;
+        setColor(color);
         this.userId = userId;
     }
 
@@ -62,6 +65,14 @@ public class Category {
 
     public void setColor(String color) {
         this.color = color;
+        this.colorValue = ColorUtils.parseColor(color, ColorUtils.NO_COLOR);
+    }
+
+    /**
+     * Color as an ARGB int, or ColorUtils.NO_COLOR if it is missing or malformed
+     */
+    public int getColorValue() {
+        return colorValue;
     }
 
     public int getUserId() {
@@ -0,0 +1,85 @@
+package org.godsendjoseph.pet_app.models;
+
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+
+/**
+ * Spend of one category in the current period next to a baseline period,
+ * e.g. this month against last month.
+ */
+public class CategoryComparison {
+    private String label;
+    private String color;
+    private int colorValue; // Parsed once, for binding rows
+    private double currentAmount;
+    private double baselineAmount;
+
+    /**
+     * Constructor with all fields
+     * @param label Category name
+     * @param color Color for UI representation
+     * @param currentAmount Total in the current period
+     * @param baselineAmount Total in the baseline period
+     */
+    public CategoryComparison(String label, String color, double currentAmount, double baselineAmount) {
+        this.label = label;
+        this.color = color;
+        this.colorValue = ColorUtils.parseColor(color, ColorUtils.NO_COLOR);
+        this.currentAmount = currentAmount;
+        this.baselineAmount = baselineAmount;
+    }
+
+    // Getters
+    public String getLabel() {
+        return label;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    /**
+     * Color as an ARGB int, or ColorUtils.NO_COLOR if it is missing or malformed
+     */
+    public int getColorValue() {
+        return colorValue;
+    }
+
+    public double getCurrentAmount() {
+        return currentAmount;
+    }
+
+    public double getBaselineAmount() {
+        return baselineAmount;
+    }
+
+    /**
+     * Change from the baseline, positive when spending went up
+     */
+    public double getDelta() {
+        return currentAmount - baselineAmount;
+    }
+
+    /**
+     * Whether there was any spend in the baseline period to compare against
+     */
+    public boolean hasBaseline() {
+        return baselineAmount > 0;
+    }
+
+    /**
+     * Change from the baseline as a percentage of it
+     * @return Percentage change, or NaN if there is no baseline
+     */
+    public double getPercentChange() {
+        return hasBaseline() ? getDelta() / baselineAmount * 100 : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryComparison{" +
+                "label='" + label + '\'' +
+                ", currentAmount=" + currentAmount +
+                ", baselineAmount=" + baselineAmount +
+                '}';
+    }
+}
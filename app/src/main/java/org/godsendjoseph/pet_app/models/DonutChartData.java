@@ -0,0 +1,63 @@
+package org.godsendjoseph.pet_app.models;
+
+/**
+ * Slices of a donut chart with their geometry already worked out, as drawn by
+ * DonutChartView. Angles are in degrees clockwise from 12 o'clock, and colors
+ * are parsed, so the view only has to scale them to its size.
+ */
+public class DonutChartData {
+    private final float[] startAngles;
+    private final float[] sweepAngles;
+    private final int[] colors;
+    private final String[] labels;
+
+    /**
+     * Constructor with all fields
+     * @param startAngles Start angle of each slice
+     * @param sweepAngles Sweep angle of each slice
+     * @param colors Color of each slice
+     * @param labels Legend text of each slice
+     */
+    public DonutChartData(float[] startAngles, float[] sweepAngles, int[] colors, String[] labels) {
+        if (sweepAngles.length != startAngles.length || colors.length != startAngles.length
+                || labels.length != startAngles.length) {
+            throw new IllegalArgumentException("Slice arrays differ in length");
+        }
+        this.startAngles = startAngles;
+        this.sweepAngles = sweepAngles;
+        this.colors = colors;
+        this.labels = labels;
+    }
+
+    /**
+     * Donut without any slices
+     */
+    public static DonutChartData empty() {
+        return new DonutChartData(new float[0], new float[0], new int[0], new String[0]);
+    }
+
+    public boolean isEmpty() {
+        return startAngles.length == 0;
+    }
+
+    // Getters
+    public int size() {
+        return startAngles.length;
+    }
+
+    public float getStartAngle(int index) {
+        return startAngles[index];
+    }
+
+    public float getSweepAngle(int index) {
+        return sweepAngles[index];
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    public String getLabel(int index) {
+        return labels[index];
+    }
+}
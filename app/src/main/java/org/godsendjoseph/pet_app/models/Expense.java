@@ -4,6 +4,11 @@ package org.godsendjoseph.pet_app.models;
  * Model class representing an expense entry in the Personal Expense Tracker application.
  */
 public class Expense {
+
+    // Anomaly flags, set when an expense is unusually large for its group
+    public static final int FLAG_UNUSUAL_FOR_CATEGORY = 1;
+    public static final int FLAG_UNUSUAL_FOR_LOCATION = 2;
+
     private int id;
     private int userId;
     private String title;
@@ -14,6 +19,7 @@ public class Expense {
     private int categoryId;
     private String notes;
     private String createdAt;
+    private int anomalyFlags;
 
     // Default constructor
     public Expense() {
@@ -128,6 +134,21 @@ public class Expense {
         this.createdAt = createdAt;
     }
 
+    public int getAnomalyFlags() {
+        return anomalyFlags;
+    }
+
+    public void setAnomalyFlags(int anomalyFlags) {
+        this.anomalyFlags = anomalyFlags;
+    }
+
+    /**
+     * Whether the amount was unusually large for its category or location when it was saved
+     */
+    public boolean isUnusual() {
+        return anomalyFlags != 0;
+    }
+
     @Override
     public String toString() {
         return "Expense{" +
@@ -141,6 +162,7 @@ public class Expense {
                 ", categoryId=" + categoryId +
                 ", notes='" + notes + '\'' +
                 ", createdAt='" + createdAt + '\'' +
+                ", anomalyFlags=" + anomalyFlags +
                 '}';
     }
 }
\ No newline at end of file
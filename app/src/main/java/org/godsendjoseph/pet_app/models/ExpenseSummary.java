@@ -1,10 +1,13 @@
 package org.godsendjoseph.pet_app.models;
 
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+
 public class ExpenseSummary {
     private String category;
     private double amount;
     private double percentage;
     private String color;
+    private int colorValue = ColorUtils.NO_COLOR; // Parsed once, for binding rows
     private int count;
 
     /**
@@ -25,7 +28,7 @@ public class ExpenseSummary {
         this.category = category;
         this.amount = amount;
         this.percentage = percentage;
-        this.color = color;
+        setColor(color);
         this.count = count;
     }
 
@@ -36,7 +39,7 @@ public class ExpenseSummary {
         this.category = category;
         this.amount = amount;
         this.percentage = percentage;
-        this.color = color;
+        setColor(color);
         this.count = 0;
     }
 
@@ -71,6 +74,14 @@ public class ExpenseSummary {
 
     public void setColor(String color) {
         this.color = color;
+        this.colorValue = ColorUtils.parseColor(color, ColorUtils.NO_COLOR);
+    }
+
+    /**
+     * Color as an ARGB int, or ColorUtils.NO_COLOR if it is missing or malformed
+     */
+    public int getColorValue() {
+        return colorValue;
     }
 
     public int getCount() {
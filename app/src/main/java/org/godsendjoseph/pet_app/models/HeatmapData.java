@@ -0,0 +1,72 @@
+package org.godsendjoseph.pet_app.models;
+
+/**
+ * Grid of values with row and column labels, as drawn by HeatmapView.
+ * Values are kept row-major in one flat array.
+ */
+public class HeatmapData {
+    private final int rowCount;
+    private final int columnCount;
+    private final float[] values;
+    private final String[] rowLabels;
+    private final String[] columnLabels;
+    private final float maxValue;
+
+    /**
+     * Constructor with all fields
+     * @param values Values, row-major, rowLabels.length * columnLabels.length of them
+     * @param rowLabels Label of each row
+     * @param columnLabels Label of each column
+     */
+    public HeatmapData(float[] values, String[] rowLabels, String[] columnLabels) {
+        this.rowCount = rowLabels.length;
+        this.columnCount = columnLabels.length;
+        this.values = values;
+        this.rowLabels = rowLabels;
+        this.columnLabels = columnLabels;
+
+        float max = 0;
+        for (float value : values) {
+            if (value > max) {
+                max = value;
+            }
+        }
+        this.maxValue = max;
+    }
+
+    /**
+     * Heatmap without any cells
+     */
+    public static HeatmapData empty() {
+        return new HeatmapData(new float[0], new String[0], new String[0]);
+    }
+
+    public boolean isEmpty() {
+        return maxValue <= 0;
+    }
+
+    // Getters
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public float getValue(int row, int column) {
+        return values[row * columnCount + column];
+    }
+
+    public float getMaxValue() {
+        return maxValue;
+    }
+
+    public String getRowLabel(int row) {
+        return rowLabels[row];
+    }
+
+    public String getColumnLabel(int column) {
+        return columnLabels[column];
+    }
+}
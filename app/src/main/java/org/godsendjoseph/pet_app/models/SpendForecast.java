@@ -0,0 +1,69 @@
+package org.godsendjoseph.pet_app.models;
+
+/**
+ * Projected spend at the end of a period, e.g. the current month, with the
+ * range it is likely to fall in.
+ */
+public class SpendForecast {
+    private String label;
+    private String color;
+    private double spentSoFar;
+    private double projectedAmount;
+    private double lowAmount;
+    private double highAmount;
+
+    /**
+     * Constructor with all fields
+     * @param label Category name, or a label for all categories
+     * @param color Color for UI representation
+     * @param spentSoFar Amount already spent in the period
+     * @param projectedAmount Expected total at the end of the period
+     * @param lowAmount Lower end of the confidence band
+     * @param highAmount Upper end of the confidence band
+     */
+    public SpendForecast(String label, String color, double spentSoFar, double projectedAmount,
+                         double lowAmount, double highAmount) {
+        this.label = label;
+        this.color = color;
+        this.spentSoFar = spentSoFar;
+        this.projectedAmount = projectedAmount;
+        this.lowAmount = lowAmount;
+        this.highAmount = highAmount;
+    }
+
+    // Getters
+    public String getLabel() {
+        return label;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public double getSpentSoFar() {
+        return spentSoFar;
+    }
+
+    public double getProjectedAmount() {
+        return projectedAmount;
+    }
+
+    public double getLowAmount() {
+        return lowAmount;
+    }
+
+    public double getHighAmount() {
+        return highAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "SpendForecast{" +
+                "label='" + label + '\'' +
+                ", spentSoFar=" + spentSoFar +
+                ", projectedAmount=" + projectedAmount +
+                ", lowAmount=" + lowAmount +
+                ", highAmount=" + highAmount +
+                '}';
+    }
+}
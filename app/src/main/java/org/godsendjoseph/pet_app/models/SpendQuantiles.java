@@ -0,0 +1,88 @@
+package org.godsendjoseph.pet_app.models;
+
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+
+/**
+ * Distribution of expense amounts within one grouping, e.g. a category or a month.
+ * Values are estimates from a quantile sketch, accurate to about 1% in rank.
+ */
+public class SpendQuantiles {
+    private String label;
+    private String color;
+    private int colorValue; // Parsed once, for binding rows
+    private int count;
+    private double median;
+    private double p75;
+    private double p90;
+    private double p99;
+
+    /**
+     * Constructor with all fields
+     * @param label Category or grouping name
+     * @param color Color for UI representation
+     * @param count Number of expenses in this grouping
+     * @param median Median amount
+     * @param p75 75th percentile amount
+     * @param p90 90th percentile amount
+     * @param p99 99th percentile amount
+     */
+    public SpendQuantiles(String label, String color, int count, double median, double p75,
+                          double p90, double p99) {
+        this.label = label;
+        this.color = color;
+        this.colorValue = ColorUtils.parseColor(color, ColorUtils.NO_COLOR);
+        this.count = count;
+        this.median = median;
+        this.p75 = p75;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    // Getters
+    public String getLabel() {
+        return label;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    /**
+     * Color as an ARGB int, or ColorUtils.NO_COLOR if it is missing or malformed
+     */
+    public int getColorValue() {
+        return colorValue;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getP75() {
+        return p75;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    @Override
+    public String toString() {
+        return "SpendQuantiles{" +
+                "label='" + label + '\'' +
+                ", count=" + count +
+                ", median=" + median +
+                ", p75=" + p75 +
+                ", p90=" + p90 +
+                ", p99=" + p99 +
+                '}';
+    }
+}
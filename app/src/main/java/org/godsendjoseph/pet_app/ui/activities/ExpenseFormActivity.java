@@ -22,7 +22,9 @@ import org.godsendjoseph.pet_app.R;
 import org.godsendjoseph.pet_app.auth.AuthManager;
 import org.godsendjoseph.pet_app.auth.SessionManager;
 import org.godsendjoseph.pet_app.database.CategoryDAO;
+import org.godsendjoseph.pet_app.database.DatabaseExecutors;
 import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.database.ExpenseWriteQueue;
 import org.godsendjoseph.pet_app.models.Category;
 import org.godsendjoseph.pet_app.models.Expense;
 
@@ -47,6 +49,7 @@ public class ExpenseFormActivity extends AppCompatActivity {
     private AuthManager authManager;
     private SessionManager sessionManager;
     private ExpenseDAO expenseDAO;
+    private ExpenseWriteQueue writeQueue;
     private CategoryDAO categoryDAO;
 
     private Calendar calendar;
@@ -62,6 +65,7 @@ public class ExpenseFormActivity extends AppCompatActivity {
         authManager = AuthManager.getInstance(this);
         sessionManager = SessionManager.getInstance(this);
         expenseDAO = new ExpenseDAO(this);
+        writeQueue = ExpenseWriteQueue.getInstance(this);
         categoryDAO = new CategoryDAO(this);
 
         // Check session validity
@@ -212,7 +216,24 @@ public class ExpenseFormActivity extends AppCompatActivity {
     }
 
     private void loadExpenseData() {
-        Expense expense = expenseDAO.getExpenseById(expenseId);
+        // Read in the background, then fill the form on the main thread
+        DatabaseExecutors.getReadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final Expense expense = expenseDAO.getExpenseById(expenseId);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!isFinishing() && !isDestroyed()) {
+                            showExpenseData(expense);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void showExpenseData(Expense expense) {
         if (expense != null) {
             etTitle.setText(expense.getTitle());
             etAmount.setText(String.valueOf(expense.getAmount()));
@@ -273,29 +294,22 @@ public class ExpenseFormActivity extends AppCompatActivity {
 
         int userId = authManager.getCurrentUserId();
 
-        // Create or update expense
+        // Create or update expense through the write-behind queue; the row is
+        // committed with the next batch, so the screen can close straight away
         if (expenseId == -1) {
             // New expense
             Expense expense = new Expense(userId, title, amount, date, time, location, categoryId, notes);
-            long result = expenseDAO.insertExpense(expense);
+            writeQueue.enqueueInsert(expense);
 
-            if (result > 0) {
-                Toast.makeText(this, "Expense added successfully", Toast.LENGTH_SHORT).show();
-                finish();
-            } else {
-                Toast.makeText(this, "Failed to add expense", Toast.LENGTH_SHORT).show();
-            }
+            Toast.makeText(this, "Expense added successfully", Toast.LENGTH_SHORT).show();
+            finish();
         } else {
             // Update existing expense
             Expense expense = new Expense(expenseId, userId, title, amount, date, time, location, categoryId, notes, "");
-            int result = expenseDAO.updateExpense(expense);
+            writeQueue.enqueueUpdate(expense);
 
-            if (result > 0) {
-                Toast.makeText(this, "Expense updated successfully", Toast.LENGTH_SHORT).show();
-                finish();
-            } else {
-                Toast.makeText(this, "Failed to update expense", Toast.LENGTH_SHORT).show();
-            }
+            Toast.makeText(this, "Expense updated successfully", Toast.LENGTH_SHORT).show();
+            finish();
         }
     }
 
@@ -21,7 +21,11 @@ import org.godsendjoseph.pet_app.R;
 import org.godsendjoseph.pet_app.auth.AuthManager;
 import org.godsendjoseph.pet_app.auth.SessionManager;
 import org.godsendjoseph.pet_app.database.CategoryDAO;
+import org.godsendjoseph.pet_app.database.DatabaseChangeNotifier;
+import org.godsendjoseph.pet_app.database.DatabaseExecutors;
+import org.godsendjoseph.pet_app.database.DatabaseHelper;
 import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.database.ExpenseWriteQueue;
 import org.godsendjoseph.pet_app.models.Category;
 import org.godsendjoseph.pet_app.models.Expense;
 import org.godsendjoseph.pet_app.ui.adapters.CategorySpinnerAdapter;
@@ -33,12 +37,12 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
 public class ExpenseListActivity extends AppCompatActivity implements ExpenseAdapter.OnExpenseClickListener {
 
     private RecyclerView recyclerView;
     private ExpenseAdapter adapter;
-    private List<Expense> expenseList;
     private TextView tvNoExpenses;
     private Spinner spinnerCategory;
     private TextView tvStartDate;
@@ -49,12 +53,22 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
     private SessionManager sessionManager;
     private ExpenseDAO expenseDAO;
     private CategoryDAO categoryDAO;
+    private ExpenseWriteQueue writeQueue;
+    private DatabaseChangeNotifier changeNotifier;
+
+    private ExecutorService readExecutor;
+
+    // Version of the expenses table the list was last loaded at
+    private long loadedExpensesVersion = -1;
+    // Incremented for every load, so a slower earlier load cannot overwrite a later one
+    private int loadGeneration = 0;
 
     private List<Category> categories;
     private int selectedCategoryId = -1; // -1 means all categories
     private Calendar startDateCalendar;
     private Calendar endDateCalendar;
     private boolean isDateFilterActive = false;
+    private boolean isUnusualOnly = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -66,6 +80,9 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
         sessionManager = SessionManager.getInstance(this);
         expenseDAO = new ExpenseDAO(this);
         categoryDAO = new CategoryDAO(this);
+        writeQueue = ExpenseWriteQueue.getInstance(this);
+        readExecutor = DatabaseExecutors.getReadExecutor();
+        changeNotifier = DatabaseChangeNotifier.getInstance();
 
         // Check session validity
         if (!sessionManager.checkSessionAndRedirect()) {
@@ -93,10 +110,25 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
     protected void onResume() {
         super.onResume();
 
-        // Refresh expenses list on resume
+        // Refresh expenses list on resume, but only if expenses changed meanwhile
         if (sessionManager.isSessionValid()) {
             sessionManager.refreshSession();
-            loadExpenses();
+
+            // Queued writes are committed on the queue's thread before the versions are compared
+            writeQueue.flushAsync(new Runnable() {
+                @Override
+                public void run() {
+                    final long version = changeNotifier.getVersion(DatabaseHelper.TABLE_EXPENSES);
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!isFinishing() && !isDestroyed() && version != loadedExpensesVersion) {
+                                loadExpenses();
+                            }
+                        }
+                    });
+                }
+            });
         }
     }
 
@@ -110,8 +142,7 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
 
         // Setup RecyclerView
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        expenseList = new ArrayList<>();
-        adapter = new ExpenseAdapter(this, expenseList, this);
+        adapter = new ExpenseAdapter(this, new ArrayList<Expense>(), this);
         recyclerView.setAdapter(adapter);
     }
 
@@ -235,44 +266,93 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
     }
 
     private void loadExpenses() {
-        int userId = authManager.getCurrentUserId();
+        final int userId = authManager.getCurrentUserId();
+        final int generation = ++loadGeneration;
+
+        // Filters are read here, as the user may change them while the query runs
+        final int categoryId = selectedCategoryId;
+        final boolean dateFilterActive = isDateFilterActive;
+        final boolean unusualOnly = isUnusualOnly;
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        final String startDate = dateFormat.format(startDateCalendar.getTime());
+        final String endDate = dateFormat.format(endDateCalendar.getTime());
+
+        // Commit queued writes first so the recorded version matches what is read
+        writeQueue.flushAsync(new Runnable() {
+            @Override
+            public void run() {
+                final long version = changeNotifier.getVersion(DatabaseHelper.TABLE_EXPENSES);
+
+                readExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final List<Expense> expenses = queryExpenses(userId, categoryId, dateFilterActive,
+                                unusualOnly, startDate, endDate);
+
+                        runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (generation != loadGeneration || isFinishing() || isDestroyed()) {
+                                    return;
+                                }
+                                loadedExpensesVersion = version;
+                                showExpenses(expenses);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    // Runs on the read executor
+    private List<Expense> queryExpenses(int userId, int categoryId, boolean dateFilterActive,
+                                        boolean unusualOnly, String startDate, String endDate) {
         List<Expense> expenses;
 
         // Apply filters
-        if (selectedCategoryId != -1 && isDateFilterActive) {
+        if (categoryId != -1 && dateFilterActive) {
             // Filter by category and date range
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            String startDate = dateFormat.format(startDateCalendar.getTime());
-            String endDate = dateFormat.format(endDateCalendar.getTime());
-
-            expenses = filterExpensesByCategoryAndDate(userId, selectedCategoryId, startDate, endDate);
-        } else if (selectedCategoryId != -1) {
+            expenses = filterExpensesByCategoryAndDate(userId, categoryId, startDate, endDate);
+        } else if (categoryId != -1) {
             // Filter by category only
-            expenses = expenseDAO.getExpensesByCategory(userId, selectedCategoryId);
-        } else if (isDateFilterActive) {
+            expenses = expenseDAO.getExpensesByCategory(userId, categoryId);
+        } else if (dateFilterActive) {
             // Filter by date range only
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            String startDate = dateFormat.format(startDateCalendar.getTime());
-            String endDate = dateFormat.format(endDateCalendar.getTime());
-
             expenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
+        } else if (unusualOnly) {
+            // Flagged expenses only, from their partial index
+            expenses = expenseDAO.getUnusualExpenses(userId);
         } else {
             // No filters
             expenses = expenseDAO.getExpensesByUserId(userId);
         }
 
-        // Update the list
-        expenseList.clear();
+        // Combined with other filters, keep only the flagged expenses
+        if (unusualOnly && (categoryId != -1 || dateFilterActive)) {
+            List<Expense> unusualExpenses = new ArrayList<>();
+            for (Expense expense : expenses) {
+                if (expense.isUnusual()) {
+                    unusualExpenses.add(expense);
+                }
+            }
+            expenses = unusualExpenses;
+        }
+
+        return expenses;
+    }
+
+    private void showExpenses(List<Expense> expenses) {
+        // Update the list; only the rows that changed are rebound
         if (expenses != null && !expenses.isEmpty()) {
-            expenseList.addAll(expenses);
+            adapter.updateExpenseList(expenses);
             recyclerView.setVisibility(View.VISIBLE);
             tvNoExpenses.setVisibility(View.GONE);
         } else {
+            adapter.updateExpenseList(new ArrayList<Expense>());
             recyclerView.setVisibility(View.GONE);
             tvNoExpenses.setVisibility(View.VISIBLE);
         }
-
-        adapter.notifyDataSetChanged();
     }
 
     private List<Expense> filterExpensesByCategoryAndDate(int userId, int categoryId, String startDate, String endDate) {
@@ -306,7 +386,7 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
 
     @Override
     public void onExpenseClick(int position) {
-        Expense expense = expenseList.get(position);
+        Expense expense = adapter.getExpense(position);
         Intent intent = new Intent(this, ExpenseFormActivity.class);
         intent.putExtra("expense_id", expense.getId());
         startActivity(intent);
@@ -315,6 +395,7 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.expense_list_menu, menu);
+        menu.findItem(R.id.action_unusual_only).setChecked(isUnusualOnly);
         return true;
     }
 
@@ -329,6 +410,8 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
             // Clear all filters
             selectedCategoryId = -1;
             isDateFilterActive = false;
+            isUnusualOnly = false;
+            invalidateOptionsMenu();
 
             // Reset start date to first day of current month
             startDateCalendar = Calendar.getInstance();
@@ -342,6 +425,12 @@ public class ExpenseListActivity extends AppCompatActivity implements ExpenseAda
             updateDateDisplay();
             loadExpenses();
 
+            return true;
+        } else if (id == R.id.action_unusual_only) {
+            isUnusualOnly = !item.isChecked();
+            item.setChecked(isUnusualOnly);
+            loadExpenses();
+
             return true;
         }
 
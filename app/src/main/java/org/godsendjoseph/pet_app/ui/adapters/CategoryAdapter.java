@@ -9,19 +9,45 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.godsendjoseph.pet_app.R;
 import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying category items in a RecyclerView.
+ * New lists are diffed against the shown one on a background thread, keyed on
+ * category ID, so only the rows that changed are rebound.
  */
 public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
+
+    // Same row when the ID matches; rebound only when a shown field differs
+    private static final DiffUtil.ItemCallback<Category> DIFF_CALLBACK = new DiffUtil.ItemCallback<Category>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem.getUserId() == newItem.getUserId()
+                    && Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                    && Objects.equals(oldItem.getColor(), newItem.getColor());
+        }
+    };
+
     private Context context;
-    private List<Category> categoryList;
+    private final int defaultColor;
+    private final AsyncListDiffer<Category> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnCategoryClickListener listener;
 
     /**
@@ -40,8 +66,10 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
      */
     public CategoryAdapter(Context context, List<Category> categoryList, OnCategoryClickListener listener) {
         this.context = context;
-        this.categoryList = categoryList;
         this.listener = listener;
+        this.defaultColor = ContextCompat.getColor(context, R.color.colorAccent);
+        setHasStableIds(true);
+        differ.submitList(new ArrayList<>(categoryList));
     }
 
     @NonNull
@@ -53,24 +81,15 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        Category category = categoryList.get(position);
+        Category category = differ.getCurrentList().get(position);
 
         holder.tvCategoryName.setText(category.getName());
         holder.tvCategoryDescription.setText(category.getDescription());
 
-        // Set category color
-        if (category.getColor() != null && !category.getColor().isEmpty()) {
-            try {
-                int color = android.graphics.Color.parseColor(category.getColor());
-                holder.viewCategoryColor.setBackgroundColor(color);
-            } catch (IllegalArgumentException e) {
-                // Default color if parsing fails
-                holder.viewCategoryColor.setBackgroundColor(context.getResources().getColor(R.color.colorAccent));
-            }
-        } else {
-            // Default color if none specified
-            holder.viewCategoryColor.setBackgroundColor(context.getResources().getColor(R.color.colorAccent));
-        }
+        // Set category color, parsed when the category was loaded; the strip's
+        // own ColorDrawable is recolored in place
+        int color = category.getColorValue();
+        holder.viewCategoryColor.setBackgroundColor(ColorUtils.hasColor(color) ? color : defaultColor);
 
         // Show delete icon only for user-defined categories (where userId > 0)
         if (category.getUserId() > 0) {
@@ -115,17 +134,29 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     @Override
     public int getItemCount() {
-        return categoryList.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getId();
+    }
+
+    /**
+     * Get the category shown at an adapter position
+     */
+    public Category getCategory(int position) {
+        return differ.getCurrentList().get(position);
     }
 
     /**
-     * Updates the category list and refreshes the adapter
+     * Updates the category list. The difference to the shown list is worked
+     * out in the background, then only the changed rows are refreshed.
      * @param newCategoryList New list of categories
      */
     public void updateCategoryList(List<Category> newCategoryList) {
-        this.categoryList.clear();
-        this.categoryList.addAll(newCategoryList);
-        notifyDataSetChanged();
+        // Copied, since the differ must not see the list change after submission
+        differ.submitList(new ArrayList<>(newCategoryList));
     }
 
     /**
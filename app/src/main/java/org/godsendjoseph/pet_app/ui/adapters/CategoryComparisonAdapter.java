@@ -0,0 +1,135 @@
+package org.godsendjoseph.pet_app.ui.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.CategoryComparison;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+import org.godsendjoseph.pet_app.utils.CurrencyFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Adapter for displaying the change in spend between two periods, per category.
+ * Used for the comparison section of the insights screen.
+ */
+public class CategoryComparisonAdapter extends RecyclerView.Adapter<CategoryComparisonAdapter.ComparisonViewHolder> {
+
+    // Same row when the label matches; rebound only when a shown field differs
+    private static final DiffUtil.ItemCallback<CategoryComparison> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<CategoryComparison>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull CategoryComparison oldItem,
+                                               @NonNull CategoryComparison newItem) {
+                    return Objects.equals(oldItem.getLabel(), newItem.getLabel());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull CategoryComparison oldItem,
+                                                  @NonNull CategoryComparison newItem) {
+                    return oldItem.getCurrentAmount() == newItem.getCurrentAmount()
+                            && oldItem.getBaselineAmount() == newItem.getBaselineAmount()
+                            && Objects.equals(oldItem.getColor(), newItem.getColor());
+                }
+            };
+
+    private Context context;
+    private final int defaultColor;
+    private final CurrencyFormatter currencyFormatter;
+    private final AsyncListDiffer<CategoryComparison> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+
+    /**
+     * Constructor for the adapter
+     * @param context The context
+     * @param comparisonList List of comparisons to display
+     */
+    public CategoryComparisonAdapter(Context context, List<CategoryComparison> comparisonList) {
+        this.context = context;
+        this.defaultColor = ContextCompat.getColor(context, R.color.colorPrimary);
+        this.currencyFormatter = CurrencyFormatter.getInstance(context);
+        differ.submitList(new ArrayList<>(comparisonList));
+    }
+
+    @NonNull
+    @Override
+    public ComparisonViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_category_comparison, parent, false);
+        return new ComparisonViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ComparisonViewHolder holder, int position) {
+        CategoryComparison comparison = differ.getCurrentList().get(position);
+
+        // Change with an explicit sign, and the percentage when there is a baseline
+        double delta = comparison.getDelta();
+        String change = (delta > 0 ? "+" : "") + currencyFormatter.format(delta);
+        if (comparison.hasBaseline()) {
+            double percent = comparison.getPercentChange();
+            change += " (" + (percent > 0 ? "+" : "") + currencyFormatter.formatPercent(percent) + ")";
+        } else if (delta > 0) {
+            change += " (" + context.getString(R.string.comparison_new) + ")";
+        }
+
+        holder.tvLabel.setText(comparison.getLabel());
+        holder.tvCurrent.setText(currencyFormatter.format(comparison.getCurrentAmount()));
+        holder.tvBaseline.setText(context.getString(R.string.comparison_baseline,
+                currencyFormatter.format(comparison.getBaselineAmount())));
+        holder.tvChange.setText(change);
+
+        // Spending more is shown as bad news, spending less as good news
+        int changeColor = delta > 0 ? R.color.colorError : delta < 0 ? R.color.colorSuccess : R.color.textSecondary;
+        holder.tvChange.setTextColor(ContextCompat.getColor(context, changeColor));
+
+        // Category color strip; the overall row has no color
+        int color = comparison.getColorValue();
+        holder.viewColor.setBackgroundColor(ColorUtils.hasColor(color) ? color : defaultColor);
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    /**
+     * Updates the comparison list. The difference to the shown list is worked
+     * out in the background, then only the changed rows are refreshed.
+     * @param newComparisonList New list of comparisons
+     */
+    public void updateComparisonList(List<CategoryComparison> newComparisonList) {
+        // Copied, since the differ must not see the list change after submission
+        differ.submitList(new ArrayList<>(newComparisonList));
+    }
+
+    /**
+     * ViewHolder class for comparison items
+     */
+    public static class ComparisonViewHolder extends RecyclerView.ViewHolder {
+        View viewColor;
+        TextView tvLabel;
+        TextView tvCurrent;
+        TextView tvBaseline;
+        TextView tvChange;
+
+        public ComparisonViewHolder(@NonNull View itemView) {
+            super(itemView);
+            viewColor = itemView.findViewById(R.id.view_comparison_color);
+            tvLabel = itemView.findViewById(R.id.tv_comparison_label);
+            tvCurrent = itemView.findViewById(R.id.tv_comparison_current);
+            tvBaseline = itemView.findViewById(R.id.tv_comparison_baseline);
+            tvChange = itemView.findViewById(R.id.tv_comparison_change);
+        }
+    }
+}
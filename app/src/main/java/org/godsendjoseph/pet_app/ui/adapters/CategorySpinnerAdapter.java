@@ -12,6 +12,7 @@ import androidx.annotation.Nullable;
 
 import org.godsendjoseph.pet_app.R;
 import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
 
 import java.util.List;
 
@@ -76,16 +77,11 @@ public class CategorySpinnerAdapter extends ArrayAdapter<Category> {
         Category category = categories.get(position);
         tvCategoryName.setText(category.getName());
 
-        // Set category color
-        if (category.getColor() != null && !category.getColor().isEmpty()) {
-            try {
-                int color = android.graphics.Color.parseColor(category.getColor());
-                viewCategoryColor.setBackgroundColor(color);
-                viewCategoryColor.setVisibility(View.VISIBLE);
-            } catch (IllegalArgumentException e) {
-                // If color parsing fails, hide the color indicator
-                viewCategoryColor.setVisibility(View.GONE);
-            }
+        // Set category color, hiding the indicator if the category has none
+        int color = category.getColorValue();
+        if (ColorUtils.hasColor(color)) {
+            viewCategoryColor.setBackgroundColor(color);
+            viewCategoryColor.setVisibility(View.VISIBLE);
         } else {
             viewCategoryColor.setVisibility(View.GONE);
         }
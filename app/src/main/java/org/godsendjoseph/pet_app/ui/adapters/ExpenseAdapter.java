@@ -1,6 +1,10 @@
 package org.godsendjoseph.pet_app.ui.adapters;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,26 +12,59 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.godsendjoseph.pet_app.R;
-import org.godsendjoseph.pet_app.database.CategoryDAO;
-import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.database.DatabaseExecutors;
 import org.godsendjoseph.pet_app.models.Expense;
-import org.godsendjoseph.pet_app.utils.CurrencyUtils;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
 
-import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Executor;
 
 /**
  * Adapter for displaying expense items in a RecyclerView.
+ * Rows are prepared on a background thread by ExpenseRowPreparer, with their
+ * texts formatted and laid out ahead of time, then diffed against the shown
+ * rows in the background, keyed on expense ID. Binding only assigns values.
  */
 public class ExpenseAdapter extends RecyclerView.Adapter<ExpenseAdapter.ExpenseViewHolder> {
+    private static final String TAG = "ExpenseAdapter";
+
+    // Same row when the ID matches; rebound only when a shown value differs
+    private static final DiffUtil.ItemCallback<ExpenseRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<ExpenseRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ExpenseRow oldItem, @NonNull ExpenseRow newItem) {
+            return oldItem.expense.getId() == newItem.expense.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ExpenseRow oldItem, @NonNull ExpenseRow newItem) {
+            // The category and currency can change without the expense changing
+            return oldItem.color == newItem.color
+                    && oldItem.unusual == newItem.unusual
+                    && TextUtils.equals(oldItem.title, newItem.title)
+                    && TextUtils.equals(oldItem.amount, newItem.amount)
+                    && TextUtils.equals(oldItem.date, newItem.date)
+                    && TextUtils.equals(oldItem.category, newItem.category)
+                    && TextUtils.equals(oldItem.location, newItem.location);
+        }
+    };
+
     private Context context;
-    private List<Expense> expenseList;
+    private final AsyncListDiffer<ExpenseRow> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnExpenseClickListener listener;
-    private CategoryDAO categoryDAO;
+    private final ExpenseRowPreparer rowPreparer;
+    private final Executor prepareExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Number of the last list submitted, so a slower, older preparation is dropped
+    private int listGeneration;
 
     /**
      * Interface for handling expense item clicks
@@ -44,37 +81,33 @@ public class ExpenseAdapter extends RecyclerView.Adapter<ExpenseAdapter.ExpenseV
      */
     public ExpenseAdapter(Context context, List<Expense> expenseList, OnExpenseClickListener listener) {
         this.context = context;
-        this.expenseList = expenseList;
         this.listener = listener;
-        this.categoryDAO = new CategoryDAO(context);
+        this.rowPreparer = createRowPreparer(context);
+        this.prepareExecutor = DatabaseExecutors.getReadExecutor();
+        setHasStableIds(true);
+        updateExpenseList(expenseList);
+    }
+
+    /**
+     * Create a preparer whose texts match the metrics of the row's TextViews.
+     * A row is inflated once, outside any parent, just to read them.
+     */
+    static ExpenseRowPreparer createRowPreparer(Context context) {
+        View template = LayoutInflater.from(context).inflate(R.layout.item_expense, null, false);
+        ExpenseViewHolder holder = new ExpenseViewHolder(template);
+        return new ExpenseRowPreparer(context,
+                TextViewCompat.getTextMetricsParams(holder.tvExpenseTitle),
+                TextViewCompat.getTextMetricsParams(holder.tvExpenseAmount),
+                TextViewCompat.getTextMetricsParams(holder.tvExpenseCategory));
     }
 
     @NonNull
     @Override
     public ExpenseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.item_expense, parent, false);
-        return new ExpenseViewHolder(view);
-    }
+        final ExpenseViewHolder holder = new ExpenseViewHolder(view);
 
-    @Override
-    public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position) {
-        Expense expense = expenseList.get(position);
-
-        // Format currency amount
-        String formattedAmount = CurrencyUtils.formatCurrency(context, expense.getAmount());
-
-        // Get category for the expense
-        Category category = categoryDAO.getCategoryById(expense.getCategoryId());
-        String categoryName = (category != null) ? category.getName() : "Uncategorized";
-
-        // Set data to views
-        holder.tvExpenseTitle.setText(expense.getTitle());
-        holder.tvExpenseAmount.setText(formattedAmount);
-        holder.tvExpenseDate.setText(expense.getDate());
-        holder.tvExpenseCategory.setText(categoryName);
-        holder.tvExpenseLocation.setText(expense.getLocation());
-
-        // Handle item clicks
+        // Handle item clicks; set once per holder rather than on every bind
         holder.cardView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -85,34 +118,93 @@ public class ExpenseAdapter extends RecyclerView.Adapter<ExpenseAdapter.ExpenseV
             }
         });
 
-        // Set category color indicator
-        if (category != null && category.getColor() != null) {
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position) {
+        bindRow(holder, differ.getCurrentList().get(position));
+    }
+
+    /**
+     * Assign a prepared row to a holder
+     */
+    void bindRow(ExpenseViewHolder holder, ExpenseRow row) {
+        setRowText(holder.tvExpenseTitle, row.title);
+        setRowText(holder.tvExpenseAmount, row.amount);
+        setRowText(holder.tvExpenseDate, row.date);
+        setRowText(holder.tvExpenseCategory, row.category);
+        setRowText(holder.tvExpenseLocation, row.location);
+
+        // Mark expenses that were unusually large for their category or location
+        holder.tvExpenseUnusual.setVisibility(row.unusual ? View.VISIBLE : View.GONE);
+
+        // Set category color indicator, hiding it if the category has none
+        if (ColorUtils.hasColor(row.color)) {
+            holder.viewCategoryColor.setBackgroundColor(row.color);
+            holder.viewCategoryColor.setVisibility(View.VISIBLE);
+        } else {
+            holder.viewCategoryColor.setVisibility(View.GONE);
+        }
+    }
+
+    // Assign a prepared text, falling back to plain text if its metrics do not fit the view
+    private void setRowText(TextView textView, CharSequence text) {
+        if (text instanceof PrecomputedTextCompat) {
             try {
-                int color = android.graphics.Color.parseColor(category.getColor());
-                holder.viewCategoryColor.setBackgroundColor(color);
-                holder.viewCategoryColor.setVisibility(View.VISIBLE);
+                TextViewCompat.setPrecomputedText(textView, (PrecomputedTextCompat) text);
+                return;
             } catch (IllegalArgumentException e) {
-                // If color parsing fails, hide the color indicator
-                holder.viewCategoryColor.setVisibility(View.GONE);
+                // E.g. the view resolved another text direction than the template row
+                Log.e(TAG, "Error setting precomputed text: " + e.getMessage());
+                rowPreparer.setPrecomputeText(false);
+                text = text.toString();
             }
-        } else {
-            holder.viewCategoryColor.setVisibility(View.GONE);
         }
+        textView.setText(text);
     }
 
     @Override
     public int getItemCount() {
-        return expenseList.size();
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).expense.getId();
+    }
+
+    /**
+     * Get the expense shown at an adapter position
+     */
+    public Expense getExpense(int position) {
+        return differ.getCurrentList().get(position).expense;
     }
 
     /**
-     * Updates the expense list and refreshes the adapter
+     * Updates the expense list. Rows are prepared and diffed against the
+     * shown list in the background, then only the changed rows are refreshed.
      * @param newExpenseList New list of expenses
      */
     public void updateExpenseList(List<Expense> newExpenseList) {
-        this.expenseList.clear();
-        this.expenseList.addAll(newExpenseList);
-        notifyDataSetChanged();
+        // Copied, since the list is read on another thread after this returns
+        final List<Expense> expenses = new ArrayList<>(newExpenseList);
+        final int generation = ++listGeneration;
+
+        prepareExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<ExpenseRow> rows = rowPreparer.prepare(expenses);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == listGeneration) {
+                            differ.submitList(rows);
+                        }
+                    }
+                });
+            }
+        });
     }
 
     /**
@@ -125,6 +217,7 @@ public class ExpenseAdapter extends RecyclerView.Adapter<ExpenseAdapter.ExpenseV
         TextView tvExpenseDate;
         TextView tvExpenseCategory;
         TextView tvExpenseLocation;
+        TextView tvExpenseUnusual;
         View viewCategoryColor;
 
         public ExpenseViewHolder(@NonNull View itemView) {
@@ -135,6 +228,7 @@ public class ExpenseAdapter extends RecyclerView.Adapter<ExpenseAdapter.ExpenseV
             tvExpenseDate = itemView.findViewById(R.id.tv_expense_date);
             tvExpenseCategory = itemView.findViewById(R.id.tv_expense_category);
             tvExpenseLocation = itemView.findViewById(R.id.tv_expense_location);
+            tvExpenseUnusual = itemView.findViewById(R.id.tv_expense_unusual);
             viewCategoryColor = itemView.findViewById(R.id.view_category_color);
         }
     }
@@ -0,0 +1,31 @@
+package org.godsendjoseph.pet_app.ui.adapters;
+
+import org.godsendjoseph.pet_app.models.Expense;
+
+/**
+ * Display-ready form of one expense row, as prepared off the main thread by
+ * ExpenseRowPreparer. Texts are PrecomputedTextCompat where the text metrics
+ * were known, otherwise plain strings, so binding a row only assigns them.
+ */
+final class ExpenseRow {
+    final Expense expense;
+    final CharSequence title;
+    final CharSequence amount;
+    final CharSequence date;
+    final CharSequence category;
+    final CharSequence location;
+    final int color; // ColorUtils.NO_COLOR hides the color strip
+    final boolean unusual;
+
+    ExpenseRow(Expense expense, CharSequence title, CharSequence amount, CharSequence date,
+               CharSequence category, CharSequence location, int color, boolean unusual) {
+        this.expense = expense;
+        this.title = title;
+        this.amount = amount;
+        this.date = date;
+        this.category = category;
+        this.location = location;
+        this.color = color;
+        this.unusual = unusual;
+    }
+}
@@ -0,0 +1,102 @@
+package org.godsendjoseph.pet_app.ui.adapters;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.database.CategoryDAO;
+import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+import org.godsendjoseph.pet_app.utils.CurrencyFormatter;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns expenses into ExpenseRows on a background thread.
+ *
+ * Everything a row shows is worked out here: the amount is formatted, the
+ * category resolved from one query per list, and each text laid out with
+ * PrecomputedTextCompat against the metrics of the row's TextViews, so the
+ * main thread neither formats nor measures when rows are bound.
+ */
+final class ExpenseRowPreparer {
+    private final CategoryDAO categoryDAO;
+    private final String uncategorized;
+    private final CurrencyFormatter currencyFormatter;
+    private final PrecomputedTextCompat.Params titleParams;
+    private final PrecomputedTextCompat.Params amountParams;
+    private final PrecomputedTextCompat.Params captionParams;
+
+    // Cleared if a TextView turns out to lay text out differently
+    private volatile boolean precomputeText = true;
+
+    /**
+     * @param titleParams Text metrics of the title
+     * @param amountParams Text metrics of the amount
+     * @param captionParams Text metrics of the category, date and location captions
+     */
+    ExpenseRowPreparer(Context context, PrecomputedTextCompat.Params titleParams,
+                       PrecomputedTextCompat.Params amountParams, PrecomputedTextCompat.Params captionParams) {
+        this.categoryDAO = new CategoryDAO(context);
+        this.uncategorized = context.getString(R.string.uncategorized);
+        this.currencyFormatter = CurrencyFormatter.getInstance(context);
+        this.titleParams = titleParams;
+        this.amountParams = amountParams;
+        this.captionParams = captionParams;
+    }
+
+    /**
+     * Stop precomputing text, so later rows carry plain strings
+     */
+    void setPrecomputeText(boolean precomputeText) {
+        this.precomputeText = precomputeText;
+    }
+
+    /**
+     * Prepare the rows of a list of expenses. Reads the database, so must not
+     * run on the main thread.
+     * @param expenses Expenses of one user
+     * @return One row per expense, in the same order
+     */
+    List<ExpenseRow> prepare(List<Expense> expenses) {
+        List<ExpenseRow> rows = new ArrayList<>(expenses.size());
+        if (expenses.isEmpty()) {
+            return rows;
+        }
+
+        // Categories are looked up per row, so load them all at once
+        IntObjectMap<Category> categories = new IntObjectMap<>();
+        for (Category category : categoryDAO.getAllCategories(expenses.get(0).getUserId())) {
+            categories.put(category.getId(), category);
+        }
+
+        boolean precompute = precomputeText;
+        for (Expense expense : expenses) {
+            Category category = categories.get(expense.getCategoryId());
+            rows.add(new ExpenseRow(expense,
+                    text(expense.getTitle(), titleParams, precompute),
+                    text(currencyFormatter.format(expense.getAmount()), amountParams, precompute),
+                    text(expense.getDate(), captionParams, precompute),
+                    text(category != null ? category.getName() : uncategorized, captionParams, precompute),
+                    text(expense.getLocation(), captionParams, precompute),
+                    category != null ? category.getColorValue() : ColorUtils.NO_COLOR,
+                    expense.isUnusual()));
+        }
+        return rows;
+    }
+
+    // Lay out a text ahead of time, leaving missing or empty texts as they are
+    @Nullable
+    private static CharSequence text(@Nullable String value, PrecomputedTextCompat.Params params,
+                                     boolean precompute) {
+        if (!precompute || value == null || value.isEmpty()) {
+            return value;
+        }
+        return PrecomputedTextCompat.create(value, params);
+    }
+}
@@ -1,6 +1,7 @@
 package org.godsendjoseph.pet_app.ui.adapters;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,22 +9,47 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.godsendjoseph.pet_app.R;
 import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+import org.godsendjoseph.pet_app.utils.CurrencyFormatter;
 
-import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Adapter for displaying expense summaries (by category, day, month, etc.) in a RecyclerView.
  * Used for insights and dashboard sections.
+ * Summaries have no ID, so rows are matched on their label, which is unique
+ * within a summary; new lists are diffed on a background thread.
  */
 public class ExpenseSummaryAdapter extends RecyclerView.Adapter<ExpenseSummaryAdapter.SummaryViewHolder> {
+
+    // Same row when the label matches; rebound only when a shown field differs
+    private static final DiffUtil.ItemCallback<ExpenseSummary> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ExpenseSummary>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ExpenseSummary oldItem, @NonNull ExpenseSummary newItem) {
+                    return Objects.equals(oldItem.getCategory(), newItem.getCategory());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ExpenseSummary oldItem,
+                                                  @NonNull ExpenseSummary newItem) {
+                    return oldItem.getAmount() == newItem.getAmount()
+                            && oldItem.getPercentage() == newItem.getPercentage()
+                            && Objects.equals(oldItem.getColor(), newItem.getColor());
+                }
+            };
+
     private Context context;
-    private List<ExpenseSummary> summaryList;
+    private final CurrencyFormatter currencyFormatter;
+    private final AsyncListDiffer<ExpenseSummary> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private double maxAmount; // For calculating progress bar percentage
 
     /**
@@ -33,7 +59,8 @@ public class ExpenseSummaryAdapter extends RecyclerView.Adapter<ExpenseSummaryAd
      */
     public ExpenseSummaryAdapter(Context context, List<ExpenseSummary> summaryList) {
         this.context = context;
-        this.summaryList = summaryList;
+        this.currencyFormatter = CurrencyFormatter.getInstance(context);
+        differ.submitList(new ArrayList<>(summaryList));
         calculateMaxAmount();
     }
 
@@ -46,17 +73,11 @@ public class ExpenseSummaryAdapter extends RecyclerView.Adapter<ExpenseSummaryAd
 
     @Override
     public void onBindViewHolder(@NonNull SummaryViewHolder holder, int position) {
-        ExpenseSummary summary = summaryList.get(position);
+        ExpenseSummary summary = differ.getCurrentList().get(position);
 
-        // Format currency amount
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.getDefault());
-        String formattedAmount = currencyFormat.format(summary.getAmount());
-
-        // Format percentage
-        NumberFormat percentFormat = NumberFormat.getPercentInstance(Locale.getDefault());
-        percentFormat.setMinimumFractionDigits(1);
-        percentFormat.setMaximumFractionDigits(1);
-        String formattedPercent = percentFormat.format(summary.getPercentage() / 100.0);
+        // Format currency amount and percentage with the cached formatters
+        String formattedAmount = currencyFormatter.format(summary.getAmount());
+        String formattedPercent = currencyFormatter.formatPercent(summary.getPercentage());
 
         // Set data to views
         holder.tvCategory.setText(summary.getCategory());
@@ -70,32 +91,36 @@ public class ExpenseSummaryAdapter extends RecyclerView.Adapter<ExpenseSummaryAd
         }
         holder.progressBar.setProgress(progress);
 
-        // Set progress bar color based on category color
-        if (summary.getColor() != null && !summary.getColor().isEmpty()) {
-            try {
-                int color = android.graphics.Color.parseColor(summary.getColor());
-                holder.progressBar.getProgressDrawable().setColorFilter(
-                        color, android.graphics.PorterDuff.Mode.SRC_IN);
-            } catch (IllegalArgumentException e) {
-                // Use default color if parsing fails
-            }
-        }
+        // Tint the progress bar with the category color. ColorStateList.valueOf
+        // caches one list per color, so rows of the same category share it, and
+        // tinting leaves the progress drawable's shared state untouched
+        int color = summary.getColorValue();
+        holder.progressBar.setProgressTintList(ColorUtils.hasColor(color) ? ColorStateList.valueOf(color) : null);
     }
 
     @Override
     public int getItemCount() {
-        return summaryList.size();
+        return differ.getCurrentList().size();
     }
 
     /**
-     * Updates the summary list and refreshes the adapter
+     * Updates the summary list. The difference to the shown list is worked
+     * out in the background, then only the changed rows are refreshed.
      * @param newSummaryList New list of summaries
      */
     public void updateSummaryList(List<ExpenseSummary> newSummaryList) {
-        this.summaryList.clear();
-        this.summaryList.addAll(newSummaryList);
-        calculateMaxAmount();
-        notifyDataSetChanged();
+        // Copied, since the differ must not see the list change after submission
+        differ.submitList(new ArrayList<>(newSummaryList), new Runnable() {
+            @Override
+            public void run() {
+                // Rescale every bar only if the largest amount moved
+                double previousMax = maxAmount;
+                calculateMaxAmount();
+                if (previousMax != maxAmount) {
+                    notifyItemRangeChanged(0, getItemCount());
+                }
+            }
+        });
     }
 
     /**
@@ -103,7 +128,7 @@ public class ExpenseSummaryAdapter extends RecyclerView.Adapter<ExpenseSummaryAd
      */
     private void calculateMaxAmount() {
         maxAmount = 0;
-        for (ExpenseSummary summary : summaryList) {
+        for (ExpenseSummary summary : differ.getCurrentList()) {
             if (summary.getAmount() > maxAmount) {
                 maxAmount = summary.getAmount();
             }
@@ -0,0 +1,122 @@
+package org.godsendjoseph.pet_app.ui.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.SpendQuantiles;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+import org.godsendjoseph.pet_app.utils.CurrencyFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Adapter for displaying the median, p75, p90 and p99 expense of each category or month.
+ * Used for the typical expense sections of the insights screen.
+ */
+public class SpendQuantilesAdapter extends RecyclerView.Adapter<SpendQuantilesAdapter.QuantilesViewHolder> {
+
+    // Same row when the label matches; rebound only when a shown field differs
+    private static final DiffUtil.ItemCallback<SpendQuantiles> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<SpendQuantiles>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull SpendQuantiles oldItem, @NonNull SpendQuantiles newItem) {
+                    return Objects.equals(oldItem.getLabel(), newItem.getLabel());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull SpendQuantiles oldItem,
+                                                  @NonNull SpendQuantiles newItem) {
+                    return oldItem.getCount() == newItem.getCount()
+                            && oldItem.getMedian() == newItem.getMedian()
+                            && oldItem.getP75() == newItem.getP75()
+                            && oldItem.getP90() == newItem.getP90()
+                            && oldItem.getP99() == newItem.getP99()
+                            && oldItem.getColorValue() == newItem.getColorValue();
+                }
+            };
+
+    private Context context;
+    private final int defaultColor;
+    private final CurrencyFormatter currencyFormatter;
+    private final AsyncListDiffer<SpendQuantiles> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+
+    /**
+     * Constructor for the adapter
+     * @param context The context
+     * @param quantilesList List of quantiles to display
+     */
+    public SpendQuantilesAdapter(Context context, List<SpendQuantiles> quantilesList) {
+        this.context = context;
+        this.defaultColor = ContextCompat.getColor(context, R.color.colorPrimary);
+        this.currencyFormatter = CurrencyFormatter.getInstance(context);
+        differ.submitList(new ArrayList<>(quantilesList));
+    }
+
+    @NonNull
+    @Override
+    public QuantilesViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_spend_quantiles, parent, false);
+        return new QuantilesViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull QuantilesViewHolder holder, int position) {
+        SpendQuantiles quantiles = differ.getCurrentList().get(position);
+
+        holder.tvLabel.setText(quantiles.getLabel());
+        holder.tvCount.setText(context.getString(R.string.quantiles_count, quantiles.getCount()));
+        holder.tvSummary.setText(context.getString(R.string.quantiles_summary,
+                currencyFormatter.format(quantiles.getMedian()),
+                currencyFormatter.format(quantiles.getP75()),
+                currencyFormatter.format(quantiles.getP90()),
+                currencyFormatter.format(quantiles.getP99())));
+
+        int color = quantiles.getColorValue();
+        holder.viewColor.setBackgroundColor(ColorUtils.hasColor(color) ? color : defaultColor);
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    /**
+     * Updates the quantiles list. The difference to the shown list is worked
+     * out in the background, then only the changed rows are refreshed.
+     * @param newQuantilesList New list of quantiles
+     */
+    public void updateQuantilesList(List<SpendQuantiles> newQuantilesList) {
+        // Copied, since the differ must not see the list change after submission
+        differ.submitList(new ArrayList<>(newQuantilesList));
+    }
+
+    /**
+     * ViewHolder class for quantiles items
+     */
+    public static class QuantilesViewHolder extends RecyclerView.ViewHolder {
+        View viewColor;
+        TextView tvLabel;
+        TextView tvCount;
+        TextView tvSummary;
+
+        public QuantilesViewHolder(@NonNull View itemView) {
+            super(itemView);
+            viewColor = itemView.findViewById(R.id.view_quantiles_color);
+            tvLabel = itemView.findViewById(R.id.tv_quantiles_label);
+            tvCount = itemView.findViewById(R.id.tv_quantiles_count);
+            tvSummary = itemView.findViewById(R.id.tv_quantiles_summary);
+        }
+    }
+}
@@ -144,28 +144,18 @@ public class CategoryListFragment extends Fragment implements CategoryAdapter.On
                 : "Add new category", Toast.LENGTH_SHORT).show();
     }
 
-    @Override
-    public void onResume() {
-        super.onResume();
-
-        // Refresh categories when returning to the fragment
-        viewModel.loadAllCategories();
-    }
-
     @Override
     public void onCategoryClick(int position) {
-        List<Category> categories = viewModel.getCategoriesLiveData().getValue();
-        if (categories != null && position < categories.size()) {
-            Category category = categories.get(position);
+        if (position < adapter.getItemCount()) {
+            Category category = adapter.getCategory(position);
             navigateToCategoryForm(category.getId());
         }
     }
 
     @Override
     public void onCategoryLongClick(int position) {
-        List<Category> categories = viewModel.getCategoriesLiveData().getValue();
-        if (categories != null && position < categories.size()) {
-            Category category = categories.get(position);
+        if (position < adapter.getItemCount()) {
+            Category category = adapter.getCategory(position);
 
             // Only allow deletion of user-defined categories
             if (category.getUserId() > 0) {
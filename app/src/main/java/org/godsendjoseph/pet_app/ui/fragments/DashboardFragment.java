@@ -5,13 +5,13 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
@@ -19,27 +19,27 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.analytics.CumulativeSeries;
+import org.godsendjoseph.pet_app.models.BarChartData;
 import org.godsendjoseph.pet_app.models.Expense;
-import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.models.SpendForecast;
 import org.godsendjoseph.pet_app.ui.activities.ExpenseFormActivity;
 import org.godsendjoseph.pet_app.ui.activities.ExpenseListActivity;
 import org.godsendjoseph.pet_app.ui.adapters.ExpenseAdapter;
 import org.godsendjoseph.pet_app.ui.adapters.ExpenseSummaryAdapter;
+import org.godsendjoseph.pet_app.ui.viewmodels.DashboardUiState;
 import org.godsendjoseph.pet_app.ui.viewmodels.DashboardViewModel;
-import org.godsendjoseph.pet_app.utils.CurrencyUtils;
+import org.godsendjoseph.pet_app.ui.views.BarChartView;
+import org.godsendjoseph.pet_app.ui.views.CumulativeChartView;
+import org.godsendjoseph.pet_app.utils.CurrencyFormatter;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 
-import java.util.Collections;
-import java.util.Date;
-
 public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpenseClickListener {
 
     private DashboardViewModel viewModel;
@@ -52,12 +52,22 @@ public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpe
     private RecyclerView rvRecentExpenses;
     private ProgressBar progressBar;
     private View viewChartContainer;
+    private BarChartView chartMonthly;
+    private View cardMonthCumulative;
+    private CumulativeChartView chartMonthCumulative;
+    private TextView tvMonthForecast;
     private TextView tvViewAllExpenses;
 
+    // Formats amounts in the currency chosen in the settings
+    private CurrencyFormatter currencyFormatter;
+
     // Adapters
     private ExpenseSummaryAdapter categorySummaryAdapter;
     private ExpenseAdapter recentExpensesAdapter;
 
+    // Last state applied to the views, used to skip unchanged sections
+    private DashboardUiState renderedState;
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -71,6 +81,8 @@ public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpe
 
         // Initialize views
         initViews(view);
+        renderedState = null;
+        currencyFormatter = CurrencyFormatter.getInstance(requireContext());
 
         // Initialize ViewModel
         viewModel = new ViewModelProvider(this).get(DashboardViewModel.class);
@@ -83,36 +95,14 @@ public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpe
 
         // Observe data
         observeViewModel();
-
-        // Load data
-        // Load data with a slight delay to ensure views are ready
-        view.post(new Runnable() {
-            @Override
-            public void run() {
-                refreshData();
-            }
-        });
     }
 
     @Override
     public void onResume() {
         super.onResume();
 
-        // Refresh data when returning to this fragment
+        // Reloads only if expenses or categories changed while we were away
         refreshData();
-
-        // Force adapter updates
-        if (categorySummaryAdapter != null && viewModel.getCategorySummaryLiveData().getValue() != null) {
-            categorySummaryAdapter.updateSummaryList(viewModel.getCategorySummaryLiveData().getValue());
-        }
-
-        if (recentExpensesAdapter != null && viewModel.getRecentExpensesLiveData().getValue() != null) {
-            recentExpensesAdapter.updateExpenseList(viewModel.getRecentExpensesLiveData().getValue());
-        }
-
-        // Request layout refresh
-        if (rvCategorySummary != null) rvCategorySummary.requestLayout();
-        if (rvRecentExpenses != null) rvRecentExpenses.requestLayout();
     }
 
     /**
@@ -130,6 +120,17 @@ public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpe
         rvRecentExpenses = view.findViewById(R.id.rv_recent_expenses);
         progressBar = view.findViewById(R.id.progress_bar);
         viewChartContainer = view.findViewById(R.id.chart_container);
+        chartMonthly = view.findViewById(R.id.chart_view);
+        chartMonthly.setColors(
+                ContextCompat.getColor(requireContext(), R.color.colorPrimary),
+                ContextCompat.getColor(requireContext(), R.color.colorAccent),
+                ContextCompat.getColor(requireContext(), R.color.colorSuccess),
+                ContextCompat.getColor(requireContext(), R.color.colorWarning),
+                ContextCompat.getColor(requireContext(), R.color.colorInfo),
+                ContextCompat.getColor(requireContext(), R.color.colorError));
+        cardMonthCumulative = view.findViewById(R.id.card_month_cumulative);
+        chartMonthCumulative = view.findViewById(R.id.chart_month_cumulative);
+        tvMonthForecast = view.findViewById(R.id.tv_month_forecast);
         tvViewAllExpenses = view.findViewById(R.id.tv_view_all_expenses);
     }
 
@@ -163,57 +164,11 @@ public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpe
     }
 
     private void observeViewModel() {
-        // Observe total expenses
-        viewModel.getTotalExpensesLiveData().observe(getViewLifecycleOwner(), new Observer<Double>() {
-            @Override
-            public void onChanged(Double total) {
-                // Use CurrencyUtils for consistent currency formatting
-                tvTotalExpenses.setText(CurrencyUtils.formatCurrency(requireContext(), total));
-            }
-        });
-
-        // Observe monthly expenses
-        viewModel.getMonthlyExpensesLiveData().observe(getViewLifecycleOwner(), new Observer<Double>() {
-            @Override
-            public void onChanged(Double monthly) {
-                // Use CurrencyUtils for consistent currency formatting
-                tvMonthlyExpenses.setText(CurrencyUtils.formatCurrency(requireContext(), monthly));
-            }
-        });
-
-        // Observe weekly expenses
-        viewModel.getWeeklyExpensesLiveData().observe(getViewLifecycleOwner(), new Observer<Double>() {
-            @Override
-            public void onChanged(Double weekly) {
-                // Use CurrencyUtils for consistent currency formatting
-                tvWeeklyExpenses.setText(CurrencyUtils.formatCurrency(requireContext(), weekly));
-            }
-        });
-
-        // Observe category summary
-        viewModel.getCategorySummaryLiveData().observe(getViewLifecycleOwner(), new Observer<List<ExpenseSummary>>() {
+        // Observe the screen state; each load publishes a single snapshot
+        viewModel.getUiStateLiveData().observe(getViewLifecycleOwner(), new Observer<DashboardUiState>() {
             @Override
-            public void onChanged(List<ExpenseSummary> summaries) {
-                categorySummaryAdapter.updateSummaryList(summaries);
-
-                // Show/hide chart container based on data availability
-                viewChartContainer.setVisibility(summaries.isEmpty() ? View.GONE : View.VISIBLE);
-            }
-        });
-
-        // Observe recent expenses
-        viewModel.getRecentExpensesLiveData().observe(getViewLifecycleOwner(), new Observer<List<Expense>>() {
-            @Override
-            public void onChanged(List<Expense> expenses) {
-                recentExpensesAdapter.updateExpenseList(expenses);
-            }
-        });
-
-        // Observe loading state
-        viewModel.getIsLoadingLiveData().observe(getViewLifecycleOwner(), new Observer<Boolean>() {
-            @Override
-            public void onChanged(Boolean isLoading) {
-                progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
+            public void onChanged(DashboardUiState state) {
+                render(state);
             }
         });
 
@@ -226,129 +181,118 @@ public class DashboardFragment extends Fragment implements ExpenseAdapter.OnExpe
                 }
             }
         });
-
-        // Observe chart data
-        viewModel.getMonthlyExpenseData(6).observe(getViewLifecycleOwner(), new Observer<Map<String, Double>>() {
-            @Override
-            public void onChanged(Map<String, Double> chartData) {
-                // Update chart with data
-                updateChart(chartData);
-            }
-        });
     }
 
-    private void updateChart(Map<String, Double> chartData) {
-        if (chartData == null || chartData.isEmpty()) {
-            viewChartContainer.setVisibility(View.GONE);
-            return;
+    /**
+     * Apply a state snapshot, touching only the views whose data changed
+     * since the last rendered state
+     */
+    private void render(DashboardUiState state) {
+        DashboardUiState previous = renderedState;
+        renderedState = state;
+
+        if (previous == null || previous.isLoading() != state.isLoading()) {
+            progressBar.setVisibility(state.isLoading() ? View.VISIBLE : View.GONE);
         }
 
-        // Make sure the chart container is visible
-        viewChartContainer.setVisibility(View.VISIBLE);
+        // Use CurrencyUtils for consistent currency formatting
+        if (previous == null || previous.getTotalExpenses() != state.getTotalExpenses()) {
+            tvTotalExpenses.setText(currencyFormatter.format(state.getTotalExpenses()));
+        }
 
-        // Get reference to chart view
-        View chartView = viewChartContainer.findViewById(R.id.chart_view);
-        if (chartView == null) return;
-
-        // Clear any previous content if it's a ViewGroup
-        if (chartView instanceof ViewGroup) {
-            ((ViewGroup) chartView).removeAllViews();
-
-            // Create a linear layout to show bars
-            LinearLayout chartLayout = new LinearLayout(requireContext());
-            chartLayout.setOrientation(LinearLayout.VERTICAL);
-            chartLayout.setLayoutParams(new ViewGroup.LayoutParams(
-                    ViewGroup.LayoutParams.MATCH_PARENT,
-                    ViewGroup.LayoutParams.MATCH_PARENT));
-
-            // Find max value for scaling
-            double maxValue = 0;
-            for (Double value : chartData.values()) {
-                if (value > maxValue) maxValue = value;
-            }
+        if (previous == null || previous.getMonthlyExpenses() != state.getMonthlyExpenses()) {
+            tvMonthlyExpenses.setText(currencyFormatter.format(state.getMonthlyExpenses()));
+        }
 
-            // Create a sorted list of month entries
-            List<Map.Entry<String, Double>> sortedEntries = new ArrayList<>(chartData.entrySet());
+        if (previous == null || previous.getWeeklyExpenses() != state.getWeeklyExpenses()) {
+            tvWeeklyExpenses.setText(currencyFormatter.format(state.getWeeklyExpenses()));
+        }
 
-            // Sort by month (assuming format is "MMM yyyy")
-            Collections.sort(sortedEntries, new Comparator<Map.Entry<String, Double>>() {
-                @Override
-                public int compare(Map.Entry<String, Double> o1, Map.Entry<String, Double> o2) {
-                    try {
-                        SimpleDateFormat format = new SimpleDateFormat("MMM yyyy", Locale.getDefault());
-                        Date date1 = format.parse(o1.getKey());
-                        Date date2 = format.parse(o2.getKey());
-                        return date1.compareTo(date2);
-                    } catch (ParseException e) {
-                        return o1.getKey().compareTo(o2.getKey());
-                    }
-                }
-            });
+        // Lists are shared between snapshots of the same load, so identity is enough
+        if (previous == null || previous.getRecentExpenses() != state.getRecentExpenses()) {
+            recentExpensesAdapter.updateExpenseList(state.getRecentExpenses());
+        }
 
-            // Add a bar for each month
-            int[] colors = new int[]{
-                    getResources().getColor(R.color.colorPrimary, null),
-                    getResources().getColor(R.color.colorAccent, null),
-                    getResources().getColor(R.color.colorSuccess, null),
-                    getResources().getColor(R.color.colorWarning, null),
-                    getResources().getColor(R.color.colorInfo, null),
-                    getResources().getColor(R.color.colorError, null)
-            };
-
-            int colorIndex = 0;
-            for (Map.Entry<String, Double> entry : sortedEntries) {
-                // Create container for each bar
-                LinearLayout barContainer = new LinearLayout(requireContext());
-                barContainer.setOrientation(LinearLayout.HORIZONTAL);
-                barContainer.setLayoutParams(new LinearLayout.LayoutParams(
-                        ViewGroup.LayoutParams.MATCH_PARENT,
-                        ViewGroup.LayoutParams.WRAP_CONTENT));
-                barContainer.setPadding(0, 8, 0, 8);
-
-                // Label for month
-                TextView labelView = new TextView(requireContext());
-                labelView.setText(entry.getKey());
-                labelView.setLayoutParams(new LinearLayout.LayoutParams(
-                        0, ViewGroup.LayoutParams.WRAP_CONTENT, 0.3f));
-
-                // Bar showing amount
-                View barView = new View(requireContext());
-                int width = 0;
-                if (maxValue > 0) {
-                    // Calculate proportional width based on max value
-                    width = (int)(entry.getValue() / maxValue *
-                            (chartView.getWidth() * 0.6));
-                }
-                barView.setLayoutParams(new LinearLayout.LayoutParams(
-                        width > 0 ? width : 10, 30));
-                barView.setBackgroundColor(colors[colorIndex % colors.length]);
+        if (previous == null || previous.getCategorySummary() != state.getCategorySummary()) {
+            categorySummaryAdapter.updateSummaryList(state.getCategorySummary());
+        }
 
-                // Amount text
-                TextView amountView = new TextView(requireContext());
-                amountView.setText(CurrencyUtils.formatCurrency(requireContext(), entry.getValue()));
-                amountView.setPadding(8, 0, 0, 0);
+        if (previous == null || previous.getMonthlyChartData() != state.getMonthlyChartData()
+                || previous.getCategorySummary() != state.getCategorySummary()) {
+            // Show the chart only when there is spending to chart
+            updateChart(state.getCategorySummary().isEmpty() ? null : state.getMonthlyChartData());
+        }
 
-                // Add views to container
-                barContainer.addView(labelView);
-                barContainer.addView(barView);
-                barContainer.addView(amountView);
+        if (previous == null || previous.getMonthCumulative() != state.getMonthCumulative()) {
+            updateCumulativeChart(state.getMonthCumulative());
+        }
 
-                // Add bar container to chart
-                chartLayout.addView(barContainer);
+        if (previous == null || previous.getMonthForecasts() != state.getMonthForecasts()) {
+            updateForecast(state.getMonthForecasts());
+        }
+    }
 
-                colorIndex++;
-            }
+    /**
+     * Show where this month's total is heading, from the forecast of all categories
+     */
+    private void updateForecast(List<SpendForecast> forecasts) {
+        if (forecasts.isEmpty() || forecasts.get(0).getProjectedAmount() <= 0) {
+            tvMonthForecast.setVisibility(View.GONE);
+            return;
+        }
+
+        SpendForecast total = forecasts.get(0);
+        tvMonthForecast.setText(getString(R.string.month_forecast,
+                currencyFormatter.format(total.getProjectedAmount()),
+                currencyFormatter.format(total.getLowAmount()),
+                currencyFormatter.format(total.getHighAmount())));
+        tvMonthForecast.setVisibility(View.VISIBLE);
+    }
 
-            ((ViewGroup) chartView).addView(chartLayout);
+    /**
+     * Plot this month's running total across all days of the month
+     */
+    private void updateCumulativeChart(CumulativeSeries series) {
+        if (series.getTotal() <= 0) {
+            cardMonthCumulative.setVisibility(View.GONE);
+            return;
         }
+        cardMonthCumulative.setVisibility(View.VISIBLE);
+
+        Calendar calendar = Calendar.getInstance();
+        int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+        SimpleDateFormat labelFormat = new SimpleDateFormat("MMM d", Locale.getDefault());
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        String startLabel = labelFormat.format(calendar.getTime());
+        calendar.set(Calendar.DAY_OF_MONTH, daysInMonth);
+        String endLabel = labelFormat.format(calendar.getTime());
+
+        chartMonthCumulative.setData(series, daysInMonth, startLabel, endLabel);
+    }
+
+    /**
+     * Show the month totals, or hide the card when there is nothing to chart
+     */
+    private void updateChart(BarChartData chartData) {
+        if (chartData == null || chartData.isEmpty()) {
+            viewChartContainer.setVisibility(View.GONE);
+            return;
+        }
+
+        viewChartContainer.setVisibility(View.VISIBLE);
+        chartMonthly.setData(chartData, new BarChartView.ValueFormatter() {
+            @Override
+            public String format(float value) {
+                return currencyFormatter.format(value);
+            }
+        });
     }
 
     @Override
     public void onExpenseClick(int position) {
-        // Handle expense click
-        List<Expense> expenses = viewModel.getRecentExpensesLiveData().getValue();
-        if (expenses != null && position < expenses.size()) {
-            Expense expense = expenses.get(position);
+        // Handle expense click; the adapter knows which expense is shown at the position
+        if (position < recentExpensesAdapter.getItemCount()) {
+            Expense expense = recentExpensesAdapter.getExpense(position);
 
             // Navigate to expense form for editing
             Intent intent = new Intent(requireContext(), ExpenseFormActivity.class);
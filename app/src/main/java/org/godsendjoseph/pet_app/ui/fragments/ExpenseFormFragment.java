@@ -26,6 +26,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 
 import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.database.DatabaseExecutors;
 import org.godsendjoseph.pet_app.models.Category;
 import org.godsendjoseph.pet_app.models.Expense;
 import org.godsendjoseph.pet_app.ui.activities.MainActivity;
@@ -241,7 +242,7 @@ public class ExpenseFormFragment extends Fragment {
         // from the parent activity's ViewModel or directly from the DAO
         progressBar.setVisibility(View.VISIBLE);
 
-        new Thread(new Runnable() {
+        DatabaseExecutors.getReadExecutor().execute(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -281,7 +282,7 @@ public class ExpenseFormFragment extends Fragment {
                     });
                 }
             }
-        }).start();
+        });
     }
 
     private void setCategorySpinnerSelection(int categoryId) {
@@ -364,9 +365,6 @@ public class ExpenseFormFragment extends Fragment {
     }
 
     private void saveExpense() {
-        progressBar.setVisibility(View.VISIBLE);
-        btnSave.setEnabled(false);
-
         // Get values from form
         String title = etTitle.getText().toString().trim();
         double amount = Double.parseDouble(etAmount.getText().toString().trim());
@@ -377,70 +375,34 @@ public class ExpenseFormFragment extends Fragment {
 
         int categoryId = categories.get(spinnerCategory.getSelectedItemPosition()).getId();
 
-        // Save in background thread
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    final boolean success;
-
-                    if (expenseId > 0) {
-                        // Update existing expense
-                        Expense expense = new Expense(expenseId, expenseViewModel.getCurrentUserId(),
-                                title, amount, date, time, location, categoryId, notes, "");
-                        int result = expenseViewModel.updateExpense(expense);
-                        success = result > 0;
-                    } else {
-                        // Create new expense
-                        Expense expense = new Expense(expenseViewModel.getCurrentUserId(),
-                                title, amount, date, time, location, categoryId, notes);
-                        long result = expenseViewModel.insertExpense(expense);
-                        success = result > 0;
-                    }
+        // Writes go through the write-behind queue, so saving returns immediately
+        // and the expense is committed with the next batch
+        if (expenseId > 0) {
+            // Update existing expense
+            Expense expense = new Expense(expenseId, expenseViewModel.getCurrentUserId(),
+                    title, amount, date, time, location, categoryId, notes, "");
+            expenseViewModel.updateExpense(expense);
+        } else {
+            // Create new expense
+            Expense expense = new Expense(expenseViewModel.getCurrentUserId(),
+                    title, amount, date, time, location, categoryId, notes);
+            expenseViewModel.insertExpense(expense);
+        }
 
-                    // Update UI on main thread
-                    requireActivity().runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            progressBar.setVisibility(View.GONE);
-                            btnSave.setEnabled(true);
-
-                            if (success) {
-                                Toast.makeText(requireContext(),
-                                        expenseId > 0 ? "Expense updated" : "Expense added",
-                                        Toast.LENGTH_SHORT).show();
-
-                                // Navigate back
-                                if (getActivity() != null) {
-                                    // Check if this is the only activity in the task
-                                    if (getActivity().isTaskRoot()) {
-                                        // If it's the root, start MainActivity instead of closing app
-                                        Intent intent = new Intent(getActivity(), MainActivity.class);
-                                        startActivity(intent);
-                                    }
-                                    // Always finish the current activity
-                                    getActivity().finish();
-                                }
-                            } else {
-                                Toast.makeText(requireContext(),
-                                        "Failed to save expense",
-                                        Toast.LENGTH_SHORT).show();
-                            }
-                        }
-                    });
-                } catch (Exception e) {
-                    requireActivity().runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            progressBar.setVisibility(View.GONE);
-                            btnSave.setEnabled(true);
-                            Toast.makeText(requireContext(),
-                                    "Error: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT).show();
-                        }
-                    });
-                }
+        Toast.makeText(requireContext(),
+                expenseId > 0 ? "Expense updated" : "Expense added",
+                Toast.LENGTH_SHORT).show();
+
+        // Navigate back
+        if (getActivity() != null) {
+            // Check if this is the only activity in the task
+            if (getActivity().isTaskRoot()) {
+                // If it's the root, start MainActivity instead of closing app
+                Intent intent = new Intent(getActivity(), MainActivity.class);
+                startActivity(intent);
             }
-        }).start();
+            // Always finish the current activity
+            getActivity().finish();
+        }
     }
-}
\ No newline at end of file
+}
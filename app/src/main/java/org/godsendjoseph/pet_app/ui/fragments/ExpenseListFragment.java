@@ -351,7 +351,7 @@ public class ExpenseListFragment extends Fragment implements ExpenseAdapter.OnEx
     public void onResume() {
         super.onResume();
 
-        // Refresh data when returning to the fragment
+        // Re-applying the current filter is free; the list only reloads if expenses changed
         if (isDateFilterActive || selectedCategoryId != -1) {
             applyFilters();
         } else {
@@ -361,10 +361,9 @@ public class ExpenseListFragment extends Fragment implements ExpenseAdapter.OnEx
 
     @Override
     public void onExpenseClick(int position) {
-        // Handle expense click
-        List<Expense> expenses = expenseViewModel.getExpenseListLiveData().getValue();
-        if (expenses != null && position < expenses.size()) {
-            Expense expense = expenses.get(position);
+        // Handle expense click; the adapter knows which expense is shown at the position
+        if (position < expenseAdapter.getItemCount()) {
+            Expense expense = expenseAdapter.getExpense(position);
 
             // Navigate to expense form for editing
             Intent intent = new Intent(requireContext(), ExpenseFormActivity.class);
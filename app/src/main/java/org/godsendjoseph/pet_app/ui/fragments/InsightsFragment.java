@@ -8,6 +8,7 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.DatePicker;
 import android.widget.ProgressBar;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -20,17 +21,25 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.BarChartData;
+import org.godsendjoseph.pet_app.models.DonutChartData;
 import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.ui.adapters.CategoryComparisonAdapter;
 import org.godsendjoseph.pet_app.ui.adapters.ExpenseSummaryAdapter;
+import org.godsendjoseph.pet_app.ui.adapters.SpendQuantilesAdapter;
+import org.godsendjoseph.pet_app.ui.viewmodels.InsightsUiState;
 import org.godsendjoseph.pet_app.ui.viewmodels.InsightsViewModel;
+import org.godsendjoseph.pet_app.ui.views.BarChartView;
+import org.godsendjoseph.pet_app.ui.views.DonutChartView;
+import org.godsendjoseph.pet_app.ui.views.HeatmapView;
+import org.godsendjoseph.pet_app.ui.views.HistogramView;
+import org.godsendjoseph.pet_app.utils.CurrencyFormatter;
 
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Fragment for displaying insights and analytics about expenses.
@@ -42,20 +51,44 @@ public class InsightsFragment extends Fragment {
     // Views
     private TextView tvStartDate;
     private TextView tvEndDate;
+    private Spinner spinnerComparison;
     private Button btnApplyDateFilter;
+    private TextView tvComparisonTitle;
+    private RecyclerView rvComparison;
     private RecyclerView rvCategorySummary;
     private RecyclerView rvLocationSummary;
+    private RecyclerView rvTitleSummary;
     private RecyclerView rvMonthSummary;
+    private TextView tvCategoryTrendsTitle;
+    private HeatmapView heatmapCategoryMonth;
+    private TextView tvDayHourTitle;
+    private HeatmapView heatmapDayHour;
+    private TextView tvAmountHistogramTitle;
+    private HistogramView histogramAmounts;
+    private TextView tvCategoryQuantilesTitle;
+    private RecyclerView rvCategoryQuantiles;
+    private TextView tvMonthQuantilesTitle;
+    private RecyclerView rvMonthQuantiles;
     private TextView tvAverageDailyExpense;
     private TextView tvMaxExpense;
     private TextView tvMostExpensiveCategory;
     private ProgressBar progressBar;
     private View viewChartContainer;
+    private DonutChartView pieChartView;
+    private BarChartView barChartMonths;
+    private CurrencyFormatter currencyFormatter;
 
     // Adapters
     private ExpenseSummaryAdapter categorySummaryAdapter;
     private ExpenseSummaryAdapter locationSummaryAdapter;
+    private ExpenseSummaryAdapter titleSummaryAdapter;
     private ExpenseSummaryAdapter monthSummaryAdapter;
+    private CategoryComparisonAdapter comparisonAdapter;
+    private SpendQuantilesAdapter categoryQuantilesAdapter;
+    private SpendQuantilesAdapter monthQuantilesAdapter;
+
+    // Last state applied to the views, used to skip unchanged sections
+    private InsightsUiState renderedState;
 
     // Date filter
     private Calendar startDateCalendar;
@@ -74,6 +107,8 @@ public class InsightsFragment extends Fragment {
 
         // Initialize views
         initViews(view);
+        renderedState = null;
+        currencyFormatter = CurrencyFormatter.getInstance(requireContext());
 
         // Initialize ViewModel
         viewModel = new ViewModelProvider(this).get(InsightsViewModel.class);
@@ -97,15 +132,31 @@ public class InsightsFragment extends Fragment {
     private void initViews(View view) {
         tvStartDate = view.findViewById(R.id.tv_start_date);
         tvEndDate = view.findViewById(R.id.tv_end_date);
+        spinnerComparison = view.findViewById(R.id.spinner_comparison);
         btnApplyDateFilter = view.findViewById(R.id.btn_apply_date_filter);
+        tvComparisonTitle = view.findViewById(R.id.tv_comparison_title);
+        rvComparison = view.findViewById(R.id.rv_comparison);
         rvCategorySummary = view.findViewById(R.id.rv_category_summary);
         rvLocationSummary = view.findViewById(R.id.rv_location_summary);
+        rvTitleSummary = view.findViewById(R.id.rv_title_summary);
         rvMonthSummary = view.findViewById(R.id.rv_month_summary);
+        tvCategoryTrendsTitle = view.findViewById(R.id.tv_category_trends_title);
+        heatmapCategoryMonth = view.findViewById(R.id.heatmap_category_month);
+        tvDayHourTitle = view.findViewById(R.id.tv_day_hour_title);
+        heatmapDayHour = view.findViewById(R.id.heatmap_day_hour);
+        tvAmountHistogramTitle = view.findViewById(R.id.tv_amount_histogram_title);
+        histogramAmounts = view.findViewById(R.id.histogram_amounts);
+        tvCategoryQuantilesTitle = view.findViewById(R.id.tv_category_quantiles_title);
+        rvCategoryQuantiles = view.findViewById(R.id.rv_category_quantiles);
+        tvMonthQuantilesTitle = view.findViewById(R.id.tv_month_quantiles_title);
+        rvMonthQuantiles = view.findViewById(R.id.rv_month_quantiles);
         tvAverageDailyExpense = view.findViewById(R.id.tv_average_daily_expense);
         tvMaxExpense = view.findViewById(R.id.tv_max_expense);
         tvMostExpensiveCategory = view.findViewById(R.id.tv_most_expensive_category);
         progressBar = view.findViewById(R.id.progress_bar);
         viewChartContainer = view.findViewById(R.id.chart_container);
+        pieChartView = view.findViewById(R.id.pie_chart_view);
+        barChartMonths = view.findViewById(R.id.bar_chart_months);
     }
 
     private void setupCalendars() {
@@ -136,10 +187,29 @@ public class InsightsFragment extends Fragment {
         rvLocationSummary.setAdapter(locationSummaryAdapter);
         rvLocationSummary.setLayoutManager(new LinearLayoutManager(requireContext()));
 
+        // Set up title summary adapter
+        titleSummaryAdapter = new ExpenseSummaryAdapter(requireContext(), new ArrayList<>());
+        rvTitleSummary.setAdapter(titleSummaryAdapter);
+        rvTitleSummary.setLayoutManager(new LinearLayoutManager(requireContext()));
+
         // Set up month summary adapter
         monthSummaryAdapter = new ExpenseSummaryAdapter(requireContext(), new ArrayList<>());
         rvMonthSummary.setAdapter(monthSummaryAdapter);
         rvMonthSummary.setLayoutManager(new LinearLayoutManager(requireContext()));
+
+        // Set up period comparison adapter
+        comparisonAdapter = new CategoryComparisonAdapter(requireContext(), new ArrayList<>());
+        rvComparison.setAdapter(comparisonAdapter);
+        rvComparison.setLayoutManager(new LinearLayoutManager(requireContext()));
+
+        // Set up typical expense adapters
+        categoryQuantilesAdapter = new SpendQuantilesAdapter(requireContext(), new ArrayList<>());
+        rvCategoryQuantiles.setAdapter(categoryQuantilesAdapter);
+        rvCategoryQuantiles.setLayoutManager(new LinearLayoutManager(requireContext()));
+
+        monthQuantilesAdapter = new SpendQuantilesAdapter(requireContext(), new ArrayList<>());
+        rvMonthQuantiles.setAdapter(monthQuantilesAdapter);
+        rvMonthQuantiles.setLayoutManager(new LinearLayoutManager(requireContext()));
     }
 
     private void setupListeners() {
@@ -207,61 +277,11 @@ public class InsightsFragment extends Fragment {
     }
 
     private void observeViewModel() {
-        // Observe category summary
-        viewModel.getCategorySummaryLiveData().observe(getViewLifecycleOwner(), new Observer<List<ExpenseSummary>>() {
+        // Observe the screen state; each load publishes a single snapshot
+        viewModel.getUiStateLiveData().observe(getViewLifecycleOwner(), new Observer<InsightsUiState>() {
             @Override
-            public void onChanged(List<ExpenseSummary> summaries) {
-                categorySummaryAdapter.updateSummaryList(summaries);
-            }
-        });
-
-        // Observe location summary
-        viewModel.getLocationSummaryLiveData().observe(getViewLifecycleOwner(), new Observer<List<ExpenseSummary>>() {
-            @Override
-            public void onChanged(List<ExpenseSummary> summaries) {
-                locationSummaryAdapter.updateSummaryList(summaries);
-            }
-        });
-
-        // Observe month summary
-        viewModel.getMonthSummaryLiveData().observe(getViewLifecycleOwner(), new Observer<List<ExpenseSummary>>() {
-            @Override
-            public void onChanged(List<ExpenseSummary> summaries) {
-                monthSummaryAdapter.updateSummaryList(summaries);
-            }
-        });
-
-        // Observe average daily expense
-        viewModel.getAverageDailyExpenseLiveData().observe(getViewLifecycleOwner(), new Observer<Double>() {
-            @Override
-            public void onChanged(Double average) {
-                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.getDefault());
-                tvAverageDailyExpense.setText(currencyFormat.format(average));
-            }
-        });
-
-        // Observe max expense
-        viewModel.getMaxExpenseLiveData().observe(getViewLifecycleOwner(), new Observer<Double>() {
-            @Override
-            public void onChanged(Double max) {
-                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.getDefault());
-                tvMaxExpense.setText(currencyFormat.format(max));
-            }
-        });
-
-        // Observe most expensive category
-        viewModel.getMostExpensiveCategoryLiveData().observe(getViewLifecycleOwner(), new Observer<String>() {
-            @Override
-            public void onChanged(String category) {
-                tvMostExpensiveCategory.setText(category);
-            }
-        });
-
-        // Observe loading state
-        viewModel.getIsLoadingLiveData().observe(getViewLifecycleOwner(), new Observer<Boolean>() {
-            @Override
-            public void onChanged(Boolean isLoading) {
-                progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
+            public void onChanged(InsightsUiState state) {
+                render(state);
             }
         });
 
@@ -274,79 +294,137 @@ public class InsightsFragment extends Fragment {
                 }
             }
         });
+    }
 
-        // Observe pie chart data
-        viewModel.getPieChartData().observe(getViewLifecycleOwner(), new Observer<Map<String, Double>>() {
-            @Override
-            public void onChanged(Map<String, Double> chartData) {
-                // Update pie chart
-                updatePieChart(chartData);
-            }
-        });
+    /**
+     * Apply a state snapshot, touching only the views whose data changed
+     * since the last rendered state
+     */
+    private void render(InsightsUiState state) {
+        InsightsUiState previous = renderedState;
+        renderedState = state;
 
-        // Observe bar chart data
-        viewModel.getBarChartData().observe(getViewLifecycleOwner(), new Observer<Map<String, Double>>() {
-            @Override
-            public void onChanged(Map<String, Double> chartData) {
-                // Update bar chart
-                updateBarChart(chartData);
-            }
-        });
-    }
+        if (previous == null || previous.isLoading() != state.isLoading()) {
+            progressBar.setVisibility(state.isLoading() ? View.VISIBLE : View.GONE);
+        }
 
-    private void loadInsightsWithDateRange() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        String startDate = dateFormat.format(startDateCalendar.getTime());
-        String endDate = dateFormat.format(endDateCalendar.getTime());
+        // Lists are shared between snapshots of the same load, so identity is enough
+        if (previous == null || previous.getCategorySummary() != state.getCategorySummary()) {
+            categorySummaryAdapter.updateSummaryList(state.getCategorySummary());
+        }
 
-        viewModel.loadInsightsData(startDate, endDate);
-    }
+        if (previous == null || previous.getCategoryDonut() != state.getCategoryDonut()) {
+            updatePieChart(state.getCategorySummary(), state.getCategoryDonut());
+        }
 
-    private void updatePieChart(Map<String, Double> chartData) {
-        // In a real app, you would use a charting library like MPAndroidChart
-        // For this prototype, we'll simulate chart display
+        if (previous == null || previous.getLocationSummary() != state.getLocationSummary()) {
+            locationSummaryAdapter.updateSummaryList(state.getLocationSummary());
+        }
 
-        // Example code for when we add a charting library:
-        /*
-        PieChart pieChart = view.findViewById(R.id.pie_chart);
-        List<PieEntry> entries = new ArrayList<>();
+        if (previous == null || previous.getTitleSummary() != state.getTitleSummary()) {
+            titleSummaryAdapter.updateSummaryList(state.getTitleSummary());
+        }
 
-        for (Map.Entry<String, Double> entry : chartData.entrySet()) {
-            entries.add(new PieEntry(entry.getValue().floatValue(), entry.getKey()));
+        if (previous == null || previous.getMonthSummary() != state.getMonthSummary()) {
+            monthSummaryAdapter.updateSummaryList(state.getMonthSummary());
         }
 
-        PieDataSet dataSet = new PieDataSet(entries, "Expenses by Category");
-        dataSet.setColors(ColorTemplate.MATERIAL_COLORS);
+        if (previous == null || previous.getMonthChart() != state.getMonthChart()) {
+            updateBarChart(state.getMonthChart());
+        }
 
-        PieData pieData = new PieData(dataSet);
-        pieChart.setData(pieData);
-        pieChart.invalidate();
-        */
+        if (previous == null || previous.getCategoryMonthHeatmap() != state.getCategoryMonthHeatmap()) {
+            int visibility = state.getCategoryMonthHeatmap().isEmpty() ? View.GONE : View.VISIBLE;
+            tvCategoryTrendsTitle.setVisibility(visibility);
+            heatmapCategoryMonth.setVisibility(visibility);
+            heatmapCategoryMonth.setData(state.getCategoryMonthHeatmap());
+        }
 
-        // Show/hide chart container based on data availability
-        viewChartContainer.setVisibility(chartData.isEmpty() ? View.GONE : View.VISIBLE);
+        if (previous == null || previous.getDayHourHeatmap() != state.getDayHourHeatmap()) {
+            int visibility = state.getDayHourHeatmap().isEmpty() ? View.GONE : View.VISIBLE;
+            tvDayHourTitle.setVisibility(visibility);
+            heatmapDayHour.setVisibility(visibility);
+            heatmapDayHour.setData(state.getDayHourHeatmap());
+        }
+
+        if (previous == null || previous.getAmountHistogram() != state.getAmountHistogram()) {
+            int visibility = state.getAmountHistogram().isEmpty() ? View.GONE : View.VISIBLE;
+            tvAmountHistogramTitle.setVisibility(visibility);
+            histogramAmounts.setVisibility(visibility);
+            histogramAmounts.setData(state.getAmountHistogram());
+        }
+
+        if (previous == null || previous.getCategoryQuantiles() != state.getCategoryQuantiles()) {
+            int visibility = state.getCategoryQuantiles().isEmpty() ? View.GONE : View.VISIBLE;
+            tvCategoryQuantilesTitle.setVisibility(visibility);
+            rvCategoryQuantiles.setVisibility(visibility);
+            categoryQuantilesAdapter.updateQuantilesList(state.getCategoryQuantiles());
+        }
+
+        if (previous == null || previous.getMonthQuantiles() != state.getMonthQuantiles()) {
+            int visibility = state.getMonthQuantiles().isEmpty() ? View.GONE : View.VISIBLE;
+            tvMonthQuantilesTitle.setVisibility(visibility);
+            rvMonthQuantiles.setVisibility(visibility);
+            monthQuantilesAdapter.updateQuantilesList(state.getMonthQuantiles());
+        }
+
+        if (previous == null || previous.getCategoryComparisons() != state.getCategoryComparisons()) {
+            int visibility = state.getCategoryComparisons().isEmpty() ? View.GONE : View.VISIBLE;
+            tvComparisonTitle.setVisibility(visibility);
+            rvComparison.setVisibility(visibility);
+            comparisonAdapter.updateComparisonList(state.getCategoryComparisons());
+        }
+
+        if (previous == null || previous.getAverageDailyExpense() != state.getAverageDailyExpense()
+                || previous.getMaxExpense() != state.getMaxExpense()) {
+            tvAverageDailyExpense.setText(currencyFormatter.format(state.getAverageDailyExpense()));
+            tvMaxExpense.setText(currencyFormatter.format(state.getMaxExpense()));
+        }
+
+        if (previous == null || !previous.getMostExpensiveCategory().equals(state.getMostExpensiveCategory())) {
+            tvMostExpensiveCategory.setText(state.getMostExpensiveCategory());
+        }
     }
 
-    private void updateBarChart(Map<String, Double> chartData) {
-        // In a real app, you would use a charting library like MPAndroidChart
-        // For this prototype, we'll simulate chart display
+    private void loadInsightsWithDateRange() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        String startDate = dateFormat.format(startDateCalendar.getTime());
+        String endDate = dateFormat.format(endDateCalendar.getTime());
+
+        // Spinner positions follow the InsightsViewModel.COMPARE_* constants
+        viewModel.loadInsightsData(startDate, endDate, spinnerComparison.getSelectedItemPosition());
+    }
 
-        // Example code for when we add a charting library:
-        /*
-        BarChart barChart = view.findViewById(R.id.bar_chart);
-        List<BarEntry> entries = new ArrayList<>();
+    /**
+     * Show the category shares as a donut with the total in the middle
+     */
+    private void updatePieChart(List<ExpenseSummary> categorySummary, DonutChartData donut) {
+        viewChartContainer.setVisibility(donut.isEmpty() ? View.GONE : View.VISIBLE);
+        if (donut.isEmpty()) {
+            return;
+        }
 
-        int index = 0;
-        for (Map.Entry<String, Double> entry : chartData.entrySet()) {
-            entries.add(new BarEntry(index++, entry.getValue().floatValue()));
+        double total = 0;
+        for (ExpenseSummary summary : categorySummary) {
+            total += summary.getAmount();
         }
+        pieChartView.setData(donut, currencyFormatter.format(total));
+    }
 
-        BarDataSet dataSet = new BarDataSet(entries, "Monthly Expenses");
-        dataSet.setColors(ColorTemplate.MATERIAL_COLORS);
+    /**
+     * Show the month totals as bars above the month list
+     */
+    private void updateBarChart(BarChartData monthChart) {
+        barChartMonths.setVisibility(monthChart.isEmpty() ? View.GONE : View.VISIBLE);
+        if (monthChart.isEmpty()) {
+            return;
+        }
 
-        BarData barData = new BarData(dataSet);
-        barChart.setData(barData);
-        barChart.invalidate();
-        */
+        barChartMonths.setData(monthChart, new BarChartView.ValueFormatter() {
+            @Override
+            public String format(float value) {
+                return currencyFormatter.formatWhole(value);
+            }
+        });
     }
 }
\ No newline at end of file
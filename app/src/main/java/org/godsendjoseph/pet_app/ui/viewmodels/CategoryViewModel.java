@@ -9,10 +9,13 @@ import androidx.lifecycle.MutableLiveData;
 
 import org.godsendjoseph.pet_app.auth.AuthManager;
 import org.godsendjoseph.pet_app.database.CategoryDAO;
+import org.godsendjoseph.pet_app.database.DatabaseHelper;
+import org.godsendjoseph.pet_app.database.QueryLiveData;
 import org.godsendjoseph.pet_app.models.Category;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * ViewModel for category-related data.
@@ -22,85 +25,57 @@ public class CategoryViewModel extends AndroidViewModel {
     private CategoryDAO categoryDAO;
     private AuthManager authManager;
 
-    private MutableLiveData<List<Category>> categoriesLiveData = new MutableLiveData<>();
     private MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
     private MutableLiveData<String> errorMessageLiveData = new MutableLiveData<>();
+    private QueryLiveData<List<Category>> categoriesLiveData = new QueryLiveData<>(
+            new ArrayList<>(), "Error loading categories: ", isLoadingLiveData, errorMessageLiveData,
+            DatabaseHelper.TABLE_CATEGORIES);
 
     public CategoryViewModel(@NonNull Application application) {
         super(application);
         categoryDAO = new CategoryDAO(application);
         authManager = AuthManager.getInstance(application);
-
-        // Initialize with empty list
-        categoriesLiveData.setValue(new ArrayList<>());
     }
 
     /**
-     * Load all categories (default + user-defined)
+     * Load all categories (default + user-defined).
+     * The list is re-queried only when the categories table changes.
      */
     public void loadAllCategories() {
-        isLoadingLiveData.setValue(true);
+        final int userId = authManager.getCurrentUserId();
 
-        new Thread(new Runnable() {
+        categoriesLiveData.setQuery("all:" + userId, new Callable<List<Category>>() {
             @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Category> categories = categoryDAO.getAllCategories(userId);
-
-                    categoriesLiveData.postValue(categories);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading categories: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Category> call() {
+                return categoryDAO.getAllCategories(userId);
             }
-        }).start();
+        });
     }
 
     /**
      * Load only default categories
      */
     public void loadDefaultCategories() {
-        isLoadingLiveData.setValue(true);
-
-        new Thread(new Runnable() {
+        categoriesLiveData.setQuery("default", new Callable<List<Category>>() {
             @Override
-            public void run() {
-                try {
-                    List<Category> categories = categoryDAO.getDefaultCategories();
-
-                    categoriesLiveData.postValue(categories);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading categories: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Category> call() {
+                return categoryDAO.getDefaultCategories();
             }
-        }).start();
+        });
     }
 
     /**
      * Load only user-defined categories
      */
     public void loadUserCategories() {
-        isLoadingLiveData.setValue(true);
+        final int userId = authManager.getCurrentUserId();
 
-        new Thread(new Runnable() {
+        categoriesLiveData.setQuery("user:" + userId, new Callable<List<Category>>() {
             @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Category> categories = categoryDAO.getUserCategories(userId);
-
-                    categoriesLiveData.postValue(categories);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading categories: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Category> call() {
+                return categoryDAO.getUserCategories(userId);
             }
-        }).start();
+        });
     }
 
     /**
@@ -123,9 +98,7 @@ public class CategoryViewModel extends AndroidViewModel {
                     long categoryId = categoryDAO.insertCategory(category);
                     resultLiveData.postValue(categoryId);
 
-                    if (categoryId > 0) {
-                        loadAllCategories(); // Refresh list
-                    } else {
+                    if (categoryId <= 0) {
                         errorMessageLiveData.postValue("Failed to add category");
                     }
                 } catch (Exception e) {
@@ -153,9 +126,7 @@ public class CategoryViewModel extends AndroidViewModel {
                     int result = categoryDAO.updateCategory(category);
                     resultLiveData.postValue(result);
 
-                    if (result > 0) {
-                        loadAllCategories(); // Refresh list
-                    } else {
+                    if (result <= 0) {
                         errorMessageLiveData.postValue("Failed to update category");
                     }
                 } catch (Exception e) {
@@ -183,9 +154,7 @@ public class CategoryViewModel extends AndroidViewModel {
                     int result = categoryDAO.deleteCategory(categoryId);
                     resultLiveData.postValue(result);
 
-                    if (result > 0) {
-                        loadAllCategories(); // Refresh list
-                    } else {
+                    if (result <= 0) {
                         errorMessageLiveData.postValue("Failed to delete category");
                     }
                 } catch (Exception e) {
@@ -0,0 +1,207 @@
+package org.godsendjoseph.pet_app.ui.viewmodels;
+
+import org.godsendjoseph.pet_app.analytics.CumulativeSeries;
+import org.godsendjoseph.pet_app.models.BarChartData;
+import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.models.SpendForecast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of everything the dashboard shows.
+ * DashboardViewModel publishes a new snapshot as each section finishes loading,
+ * so every update is rendered in a single pass instead of once per field.
+ */
+public final class DashboardUiState {
+    private final boolean isLoading;
+    private final double totalExpenses;
+    private final double monthlyExpenses;
+    private final double weeklyExpenses;
+    private final List<Expense> recentExpenses;
+    private final List<ExpenseSummary> categorySummary;
+    private final BarChartData monthlyChartData;
+    private final CumulativeSeries monthCumulative;
+    private final List<SpendForecast> monthForecasts;
+
+    /**
+     * Constructor with all fields
+     * @param isLoading Whether a load is in progress
+     * @param totalExpenses Total of all expenses
+     * @param monthlyExpenses Total for the current month
+     * @param weeklyExpenses Total for the current week
+     * @param recentExpenses Most recent expenses
+     * @param categorySummary Expense summary by category
+     * @param monthlyChartData Month totals, oldest first
+     * @param monthCumulative Cumulative spend of the current month up to today
+     * @param monthForecasts Month-end forecasts, the total first
+     */
+    public DashboardUiState(boolean isLoading, double totalExpenses, double monthlyExpenses,
+                            double weeklyExpenses, List<Expense> recentExpenses,
+                            List<ExpenseSummary> categorySummary, BarChartData monthlyChartData,
+                            CumulativeSeries monthCumulative, List<SpendForecast> monthForecasts) {
+        this.isLoading = isLoading;
+        this.totalExpenses = totalExpenses;
+        this.monthlyExpenses = monthlyExpenses;
+        this.weeklyExpenses = weeklyExpenses;
+        this.recentExpenses = Collections.unmodifiableList(recentExpenses);
+        this.categorySummary = Collections.unmodifiableList(categorySummary);
+        this.monthlyChartData = monthlyChartData;
+        this.monthCumulative = monthCumulative;
+        this.monthForecasts = Collections.unmodifiableList(monthForecasts);
+    }
+
+    // Takes the fields of a Builder as they are; its lists are already wrapped
+    private DashboardUiState(Builder builder) {
+        this.isLoading = builder.isLoading;
+        this.totalExpenses = builder.totalExpenses;
+        this.monthlyExpenses = builder.monthlyExpenses;
+        this.weeklyExpenses = builder.weeklyExpenses;
+        this.recentExpenses = builder.recentExpenses;
+        this.categorySummary = builder.categorySummary;
+        this.monthlyChartData = builder.monthlyChartData;
+        this.monthCumulative = builder.monthCumulative;
+        this.monthForecasts = builder.monthForecasts;
+    }
+
+    /**
+     * State shown before the first load completes
+     */
+    public static DashboardUiState empty() {
+        return new DashboardUiState(false, 0, 0, 0, new ArrayList<Expense>(),
+                new ArrayList<ExpenseSummary>(), BarChartData.empty(),
+                CumulativeSeries.empty(), new ArrayList<SpendForecast>());
+    }
+
+    /*
+     * Copies of this state with one field changed.
+     * Unchanged lists are shared, so renderers can skip them by identity.
+     */
+
+    public DashboardUiState withLoading(boolean loading) {
+        if (loading == isLoading) {
+            return this;
+        }
+        Builder builder = new Builder(this);
+        builder.isLoading = loading;
+        return builder.build();
+    }
+
+    public DashboardUiState withTotalExpenses(double total) {
+        Builder builder = new Builder(this);
+        builder.totalExpenses = total;
+        return builder.build();
+    }
+
+    public DashboardUiState withMonthlyExpenses(double monthly) {
+        Builder builder = new Builder(this);
+        builder.monthlyExpenses = monthly;
+        return builder.build();
+    }
+
+    public DashboardUiState withWeeklyExpenses(double weekly) {
+        Builder builder = new Builder(this);
+        builder.weeklyExpenses = weekly;
+        return builder.build();
+    }
+
+    public DashboardUiState withRecentExpenses(List<Expense> expenses) {
+        Builder builder = new Builder(this);
+        builder.recentExpenses = Collections.unmodifiableList(expenses);
+        return builder.build();
+    }
+
+    public DashboardUiState withCategorySummary(List<ExpenseSummary> summary) {
+        Builder builder = new Builder(this);
+        builder.categorySummary = Collections.unmodifiableList(summary);
+        return builder.build();
+    }
+
+    public DashboardUiState withMonthlyChartData(BarChartData chartData) {
+        Builder builder = new Builder(this);
+        builder.monthlyChartData = chartData;
+        return builder.build();
+    }
+
+    public DashboardUiState withMonthCumulative(CumulativeSeries series) {
+        Builder builder = new Builder(this);
+        builder.monthCumulative = series;
+        return builder.build();
+    }
+
+    public DashboardUiState withMonthForecasts(List<SpendForecast> forecasts) {
+        Builder builder = new Builder(this);
+        builder.monthForecasts = Collections.unmodifiableList(forecasts);
+        return builder.build();
+    }
+
+    // Getters
+    public boolean isLoading() {
+        return isLoading;
+    }
+
+    public double getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public double getMonthlyExpenses() {
+        return monthlyExpenses;
+    }
+
+    public double getWeeklyExpenses() {
+        return weeklyExpenses;
+    }
+
+    public List<Expense> getRecentExpenses() {
+        return recentExpenses;
+    }
+
+    public List<ExpenseSummary> getCategorySummary() {
+        return categorySummary;
+    }
+
+    public BarChartData getMonthlyChartData() {
+        return monthlyChartData;
+    }
+
+    public CumulativeSeries getMonthCumulative() {
+        return monthCumulative;
+    }
+
+    public List<SpendForecast> getMonthForecasts() {
+        return monthForecasts;
+    }
+
+    /**
+     * Mutable copy of a snapshot, so each wither names the one field it changes
+     */
+    private static final class Builder {
+        private boolean isLoading;
+        private double totalExpenses;
+        private double monthlyExpenses;
+        private double weeklyExpenses;
+        private List<Expense> recentExpenses;
+        private List<ExpenseSummary> categorySummary;
+        private BarChartData monthlyChartData;
+        private CumulativeSeries monthCumulative;
+        private List<SpendForecast> monthForecasts;
+
+        Builder(DashboardUiState source) {
+            isLoading = source.isLoading;
+            totalExpenses = source.totalExpenses;
+            monthlyExpenses = source.monthlyExpenses;
+            weeklyExpenses = source.weeklyExpenses;
+            recentExpenses = source.recentExpenses;
+            categorySummary = source.categorySummary;
+            monthlyChartData = source.monthlyChartData;
+            monthCumulative = source.monthCumulative;
+            monthForecasts = source.monthForecasts;
+        }
+
+        DashboardUiState build() {
+            return new DashboardUiState(this);
+        }
+    }
+}
@@ -1,94 +1,246 @@
 package org.godsendjoseph.pet_app.ui.viewmodels;
 
 import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.analytics.CumulativeSeries;
+import org.godsendjoseph.pet_app.analytics.ExpenseAggregateStore;
+import org.godsendjoseph.pet_app.analytics.ExpenseAggregator;
+import org.godsendjoseph.pet_app.analytics.SpendForecaster;
 import org.godsendjoseph.pet_app.auth.AuthManager;
 import org.godsendjoseph.pet_app.database.CategoryDAO;
+import org.godsendjoseph.pet_app.database.DatabaseChangeNotifier;
+import org.godsendjoseph.pet_app.database.DatabaseExecutors;
+import org.godsendjoseph.pet_app.database.DatabaseHelper;
 import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.database.ExpenseWriteQueue;
+import org.godsendjoseph.pet_app.models.BarChartData;
 import org.godsendjoseph.pet_app.models.Category;
 import org.godsendjoseph.pet_app.models.Expense;
 import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.models.SpendForecast;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ViewModel for dashboard-related data.
  * Handles loading summary and statistics for the dashboard.
+ *
+ * Each dashboard section is loaded by its own task on the database read pool,
+ * and published as soon as it is ready so the cards fill in progressively.
  */
 public class DashboardViewModel extends AndroidViewModel {
+    private static final String TAG = "DashboardViewModel";
+
+    // Number of months shown in the dashboard chart
+    private static final int CHART_MONTHS = 6;
+
+    // Number of recent expenses shown
+    private static final int RECENT_EXPENSES_LIMIT = 5;
+
+    // Trace sections of a load, keyed by its generation, and their budgets in milliseconds
+    private static final String TRACE_FIRST_CARD = "Dashboard time to first card";
+    private static final String TRACE_COMPLETE = "Dashboard time to complete";
+    private static final long FIRST_CARD_TARGET_MS = 200;
+    private static final long COMPLETE_TARGET_MS = 1000;
+
     private ExpenseDAO expenseDAO;
+    private ExpenseAggregateStore aggregateStore;
+    private SpendForecaster spendForecaster;
     private CategoryDAO categoryDAO;
     private AuthManager authManager;
+    private ExpenseWriteQueue writeQueue;
+    private DatabaseChangeNotifier changeNotifier;
+    private Executor readExecutor;
 
-    private MutableLiveData<List<ExpenseSummary>> categorySummaryLiveData = new MutableLiveData<>();
-    private MutableLiveData<Double> totalExpensesLiveData = new MutableLiveData<>(0.0);
-    private MutableLiveData<Double> monthlyExpensesLiveData = new MutableLiveData<>(0.0);
-    private MutableLiveData<Double> weeklyExpensesLiveData = new MutableLiveData<>(0.0);
-    private MutableLiveData<List<Expense>> recentExpensesLiveData = new MutableLiveData<>();
-    private MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
+    // User and table versions the dashboard was last loaded for
+    private volatile String loadedDataKey;
+
+    // Guards currentState and loadGeneration
+    private final Object stateLock = new Object();
+    private DashboardUiState currentState = DashboardUiState.empty();
+    private int loadGeneration = 0;
+
+    // One snapshot per update; errors are one-off events and stay separate
+    private MutableLiveData<DashboardUiState> uiStateLiveData = new MutableLiveData<>(currentState);
     private MutableLiveData<String> errorMessageLiveData = new MutableLiveData<>();
 
     public DashboardViewModel(@NonNull Application application) {
         super(application);
         expenseDAO = new ExpenseDAO(application);
+        aggregateStore = ExpenseAggregateStore.getInstance(application);
+        spendForecaster = new SpendForecaster(application);
         categoryDAO = new CategoryDAO(application);
         authManager = AuthManager.getInstance(application);
-
-        // Initialize with empty data
-        categorySummaryLiveData.setValue(new ArrayList<>());
-        recentExpensesLiveData.setValue(new ArrayList<>());
+        writeQueue = ExpenseWriteQueue.getInstance(application);
+        changeNotifier = DatabaseChangeNotifier.getInstance();
+        readExecutor = DatabaseExecutors.getReadExecutor();
     }
 
     /**
-     * Load all dashboard data
+     * Load all dashboard data.
+     * Skipped when neither expenses nor categories changed since the last load,
+     * so returning to the dashboard without edits runs no queries.
      */
     public void loadDashboardData() {
-        isLoadingLiveData.setValue(true);
-
-        new Thread(new Runnable() {
+        readExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 try {
                     int userId = authManager.getCurrentUserId();
 
-                    // Load total expenses
-                    double totalExpenses = expenseDAO.getTotalExpenses(userId);
-                    totalExpensesLiveData.postValue(totalExpenses);
-
-                    // Load current month expenses
-                    double monthlyExpenses = getMonthlyExpenses(userId);
-                    monthlyExpensesLiveData.postValue(monthlyExpenses);
-
-                    // Load current week expenses
-                    double weeklyExpenses = getWeeklyExpenses(userId);
-                    weeklyExpensesLiveData.postValue(weeklyExpenses);
-
-                    // Load recent expenses (last 5)
-                    List<Expense> recentExpenses = getRecentExpenses(userId, 5);
-                    recentExpensesLiveData.postValue(recentExpenses);
-
-                    // Load category summary
-                    List<ExpenseSummary> categorySummary = getCategorySummary(userId, totalExpenses);
-                    categorySummaryLiveData.postValue(categorySummary);
+                    // Commit queued writes so the version below accounts for them
+                    writeQueue.flushAndWait();
+                    String dataKey = userId + ":" + changeNotifier.getVersion(
+                            DatabaseHelper.TABLE_EXPENSES, DatabaseHelper.TABLE_CATEGORIES);
+                    if (dataKey.equals(loadedDataKey)) {
+                        return;
+                    }
 
-                    isLoadingLiveData.postValue(false);
+                    startLoad(userId, dataKey);
                 } catch (Exception e) {
                     errorMessageLiveData.postValue("Error loading dashboard data: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
                 }
             }
-        }).start();
+        });
+    }
+
+    /**
+     * Fan the dashboard sections out over the read pool
+     */
+    private void startLoad(final int userId, String dataKey) {
+        int generation;
+        synchronized (stateLock) {
+            generation = ++loadGeneration;
+            publish(currentState.withLoading(true));
+        }
+
+        DashboardLoad load = new DashboardLoad(generation, dataKey);
+
+        load.start(
+                // Total expenses
+                new Section<Double>("total") {
+                    @Override
+                    Double query() {
+                        return aggregateStore.aggregateAll(userId).getTotal();
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, Double total) {
+                        return state.withTotalExpenses(total);
+                    }
+                },
+
+                // Current month expenses
+                new Section<Double>("monthly") {
+                    @Override
+                    Double query() {
+                        return getMonthlyExpenses(userId);
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, Double monthly) {
+                        return state.withMonthlyExpenses(monthly);
+                    }
+                },
+
+                // Current week expenses
+                new Section<Double>("weekly") {
+                    @Override
+                    Double query() {
+                        return getWeeklyExpenses(userId);
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, Double weekly) {
+                        return state.withWeeklyExpenses(weekly);
+                    }
+                },
+
+                // Recent expenses
+                new Section<List<Expense>>("recent") {
+                    @Override
+                    List<Expense> query() {
+                        return expenseDAO.getRecentExpenses(userId, RECENT_EXPENSES_LIMIT);
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, List<Expense> expenses) {
+                        return state.withRecentExpenses(expenses);
+                    }
+                },
+
+                // Category summary
+                new Section<List<ExpenseSummary>>("categories") {
+                    @Override
+                    List<ExpenseSummary> query() {
+                        return getCategorySummary(userId);
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, List<ExpenseSummary> summary) {
+                        return state.withCategorySummary(summary);
+                    }
+                },
+
+                // Monthly chart
+                new Section<BarChartData>("chart") {
+                    @Override
+                    BarChartData query() {
+                        return getMonthlyExpenseData(userId, CHART_MONTHS);
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, BarChartData chartData) {
+                        return state.withMonthlyChartData(chartData);
+                    }
+                },
+
+                // Cumulative spend this month
+                new Section<CumulativeSeries>("cumulative") {
+                    @Override
+                    CumulativeSeries query() {
+                        return getMonthCumulative(userId);
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, CumulativeSeries series) {
+                        return state.withMonthCumulative(series);
+                    }
+                },
+
+                // Month-end forecast
+                new Section<List<SpendForecast>>("forecast") {
+                    @Override
+                    List<SpendForecast> query() {
+                        return spendForecaster.forecastMonthEnd(userId, categoryDAO.getAllCategories(userId),
+                                getApplication().getString(R.string.all_categories));
+                    }
+
+                    @Override
+                    DashboardUiState apply(DashboardUiState state, List<SpendForecast> forecasts) {
+                        return state.withMonthForecasts(forecasts);
+                    }
+                });
+    }
+
+    // Must be called while holding stateLock
+    private void publish(DashboardUiState state) {
+        currentState = state;
+        uiStateLiveData.postValue(state);
     }
 
     /**
@@ -97,28 +249,32 @@ public class DashboardViewModel extends AndroidViewModel {
      * @return Total amount for the current month
      */
     private double getMonthlyExpenses(int userId) {
-        try {
-            Calendar calendar = Calendar.getInstance();
-            calendar.set(Calendar.DAY_OF_MONTH, 1); // First day of month
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            String startDate = dateFormat.format(calendar.getTime());
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.DAY_OF_MONTH, 1); // First day of month
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        String startDate = dateFormat.format(calendar.getTime());
 
-            calendar.add(Calendar.MONTH, 1);
-            calendar.add(Calendar.DAY_OF_MONTH, -1); // Last day of month
-            String endDate = dateFormat.format(calendar.getTime());
+        calendar.add(Calendar.MONTH, 1);
+        calendar.add(Calendar.DAY_OF_MONTH, -1); // Last day of month
+        String endDate = dateFormat.format(calendar.getTime());
 
-            List<Expense> expenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
+        return aggregateStore.aggregate(userId, startDate, endDate).getTotal();
+    }
 
-            double total = 0;
-            for (Expense expense : expenses) {
-                total += expense.getAmount();
-            }
+    /**
+     * Get the running total of the current month, from its first day to today
+     * @param userId User ID
+     * @return One point per day so far, from a single query
+     */
+    private CumulativeSeries getMonthCumulative(int userId) {
+        Calendar calendar = Calendar.getInstance();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        String endDate = dateFormat.format(calendar.getTime());
 
-            return total;
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error calculating monthly expenses: " + e.getMessage());
-            return 0;
-        }
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        String startDate = dateFormat.format(calendar.getTime());
+
+        return expenseDAO.getCumulativeSeries(userId, startDate, endDate);
     }
 
     /**
@@ -127,170 +283,183 @@ public class DashboardViewModel extends AndroidViewModel {
      * @return Total amount for the current week
      */
     private double getWeeklyExpenses(int userId) {
-        try {
-            Calendar calendar = Calendar.getInstance();
-            calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek()); // First day of week
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            String startDate = dateFormat.format(calendar.getTime());
-
-            calendar.add(Calendar.WEEK_OF_YEAR, 1);
-            calendar.add(Calendar.DAY_OF_MONTH, -1); // Last day of week
-            String endDate = dateFormat.format(calendar.getTime());
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek()); // First day of week
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        String startDate = dateFormat.format(calendar.getTime());
 
-            List<Expense> expenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
+        calendar.add(Calendar.WEEK_OF_YEAR, 1);
+        calendar.add(Calendar.DAY_OF_MONTH, -1); // Last day of week
+        String endDate = dateFormat.format(calendar.getTime());
 
-            double total = 0;
-            for (Expense expense : expenses) {
-                total += expense.getAmount();
-            }
-
-            return total;
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error calculating weekly expenses: " + e.getMessage());
-            return 0;
-        }
+        return aggregateStore.aggregate(userId, startDate, endDate).getTotal();
     }
 
     /**
-     * Get the most recent expenses
+     * Get expense summary by category.
+     * Percentages are relative to the total of all expenses, uncategorized
+     * expenses included.
      * @param userId User ID
-     * @param limit Maximum number of expenses to return
-     * @return List of recent expenses
+     * @return List of expense summaries by category, largest first
      */
-    private List<Expense> getRecentExpenses(int userId, int limit) {
-        try {
-            List<Expense> allExpenses = expenseDAO.getExpensesByUserId(userId);
-            List<Expense> recentExpenses = new ArrayList<>();
-
-            // Add up to limit expenses to the result list
-            for (int i = 0; i < Math.min(limit, allExpenses.size()); i++) {
-                recentExpenses.add(allExpenses.get(i));
-            }
-
-            return recentExpenses;
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error getting recent expenses: " + e.getMessage());
-            return new ArrayList<>();
-        }
+    private List<ExpenseSummary> getCategorySummary(int userId) {
+        List<Category> categories = categoryDAO.getAllCategories(userId);
+        return aggregateStore.aggregateAll(userId).getCategorySummary(categories);
     }
 
     /**
-     * Get expense summary by category
+     * Get monthly expense data for a chart
      * @param userId User ID
-     * @param totalExpenses Total expense amount for percentage calculation
-     * @return List of expense summaries by category
+     * @param months Number of months to include (e.g., 6 for last 6 months)
+     * @return Month names and totals, oldest month first
      */
-    private List<ExpenseSummary> getCategorySummary(int userId, double totalExpenses) {
-        try {
-            List<Category> categories = categoryDAO.getAllCategories(userId);
-            List<ExpenseSummary> summarList = new ArrayList<>();
+    private BarChartData getMonthlyExpenseData(int userId, int months) {
+        float[] totals = new float[months];
+        String[] labels = new String[months];
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM", Locale.getDefault());
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+
+        // Range runs from the first day of the oldest month to the end of this month
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
+        String endDate = dateFormat.format(calendar.getTime());
+
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        calendar.add(Calendar.MONTH, -(months - 1));
+        String startDate = dateFormat.format(calendar.getTime());
+
+        // Month totals of the whole range from the aggregate store
+        ExpenseAggregator aggregate = aggregateStore.aggregate(userId, startDate, endDate);
+
+        // Filled in calendar order, so the chart never has to sort by label
+        for (int i = 0; i < months; i++) {
+            int monthIndex = calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+            totals[i] = (float) aggregate.getMonthTotal(monthIndex);
+            labels[i] = monthFormat.format(calendar.getTime());
+
+            // Move to next month
+            calendar.add(Calendar.MONTH, 1);
+        }
 
-            for (Category category : categories) {
-                double amount = expenseDAO.getTotalExpensesByCategory(userId, category.getId());
+        return new BarChartData(totals, labels);
+    }
 
-                if (amount > 0) {
-                    double percentage = (totalExpenses > 0) ? (amount / totalExpenses) * 100 : 0;
+    /**
+     * A dashboard section: a query run on the read pool, and how its result is
+     * merged into the screen state
+     * @param <T> Type of the query result
+     */
+    private abstract static class Section<T> {
+        final String name;
 
-                    ExpenseSummary summary = new ExpenseSummary(
-                            category.getName(),
-                            amount,
-                            percentage,
-                            category.getColor()
-                    );
+        Section(String name) {
+            this.name = name;
+        }
 
-                    summarList.add(summary);
-                }
-            }
+        abstract T query();
 
-            return summarList;
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error generating category summary: " + e.getMessage());
-            return new ArrayList<>();
-        }
+        abstract DashboardUiState apply(DashboardUiState state, T result);
     }
 
     /**
-     * Get monthly expense data for a chart
-     * @param months Number of months to include (e.g., 6 for last 6 months)
-     * @return LiveData with a map of month names to expense amounts
+     * One dashboard load fanned out over the read pool.
+     * Tracks the outstanding sections and reports time-to-first-card and
+     * time-to-complete as async trace sections, so they show up in system
+     * traces and macrobenchmarks, and warns when either misses its target.
      */
-    public LiveData<Map<String, Double>> getMonthlyExpenseData(int months) {
-        MutableLiveData<Map<String, Double>> dataLiveData = new MutableLiveData<>();
-
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    Map<String, Double> monthlyData = new HashMap<>();
-                    SimpleDateFormat monthFormat = new SimpleDateFormat("MMM", Locale.getDefault());
-                    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+    private class DashboardLoad {
+        private final int generation;
+        private final String dataKey;
+        private final long startTime = SystemClock.elapsedRealtime();
+        private final AtomicInteger remainingSections = new AtomicInteger();
 
-                    Calendar calendar = Calendar.getInstance();
+        // Set when a section threw, so the data is loaded again next time
+        private volatile boolean sectionFailed = false;
 
-                    // Go back to start with the oldest month
-                    calendar.add(Calendar.MONTH, -(months - 1));
+        // Guarded by stateLock
+        private boolean firstCardPublished = false;
 
-                    for (int i = 0; i < months; i++) {
-                        int year = calendar.get(Calendar.YEAR);
-                        int month = calendar.get(Calendar.MONTH);
-
-                        // Set to first day of month
-                        calendar.set(year, month, 1);
-                        String startDate = dateFormat.format(calendar.getTime());
-
-                        // Set to last day of month
-                        calendar.set(year, month, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
-                        String endDate = dateFormat.format(calendar.getTime());
+        DashboardLoad(int generation, String dataKey) {
+            this.generation = generation;
+            this.dataKey = dataKey;
+        }
 
-                        List<Expense> expenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
+        void start(Section<?>... sections) {
+            TraceCompat.beginAsyncSection(TRACE_FIRST_CARD, generation);
+            TraceCompat.beginAsyncSection(TRACE_COMPLETE, generation);
+            remainingSections.set(sections.length);
+            for (Section<?> section : sections) {
+                run(section);
+            }
+        }
 
-                        double total = 0;
-                        for (Expense expense : expenses) {
-                            total += expense.getAmount();
+        private <T> void run(final Section<T> section) {
+            readExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        T result = section.query();
+
+                        synchronized (stateLock) {
+                            // Drop results of a load that has been superseded
+                            if (generation != loadGeneration) {
+                                return;
+                            }
+
+                            publish(section.apply(currentState, result));
+
+                            if (!firstCardPublished) {
+                                firstCardPublished = true;
+                                TraceCompat.endAsyncSection(TRACE_FIRST_CARD, generation);
+                                checkTarget("first card (" + section.name + ")", FIRST_CARD_TARGET_MS);
+                            }
+                        }
+                    } catch (Exception e) {
+                        sectionFailed = true;
+                        errorMessageLiveData.postValue("Error loading dashboard " + section.name + ": " + e.getMessage());
+                    } finally {
+                        if (remainingSections.decrementAndGet() == 0) {
+                            finish();
                         }
-
-                        String monthName = monthFormat.format(calendar.getTime());
-                        monthlyData.put(monthName, total);
-
-                        // Move to next month
-                        calendar.add(Calendar.MONTH, 1);
                     }
-
-                    dataLiveData.postValue(monthlyData);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error generating monthly chart data: " + e.getMessage());
-                    dataLiveData.postValue(new HashMap<>());
                 }
-            }
-        }).start();
-
-        return dataLiveData;
-    }
-
-    // Getters for LiveData
-    public LiveData<List<ExpenseSummary>> getCategorySummaryLiveData() {
-        return categorySummaryLiveData;
-    }
+            });
+        }
 
-    public LiveData<Double> getTotalExpensesLiveData() {
-        return totalExpensesLiveData;
-    }
+        private void finish() {
+            synchronized (stateLock) {
+                // Close the sections even when superseded or when no card was published
+                if (!firstCardPublished) {
+                    TraceCompat.endAsyncSection(TRACE_FIRST_CARD, generation);
+                }
+                TraceCompat.endAsyncSection(TRACE_COMPLETE, generation);
 
-    public LiveData<Double> getMonthlyExpensesLiveData() {
-        return monthlyExpensesLiveData;
-    }
+                if (generation != loadGeneration) {
+                    return;
+                }
+                publish(currentState.withLoading(false));
+            }
 
-    public LiveData<Double> getWeeklyExpensesLiveData() {
-        return weeklyExpensesLiveData;
-    }
+            // Only a complete load may let the next one be skipped
+            if (!sectionFailed) {
+                loadedDataKey = dataKey;
+            }
+            checkTarget("complete", COMPLETE_TARGET_MS);
+        }
 
-    public LiveData<List<Expense>> getRecentExpensesLiveData() {
-        return recentExpensesLiveData;
+        // Warn when a milestone of this load took longer than its target
+        private void checkTarget(String milestone, long targetMillis) {
+            long elapsed = SystemClock.elapsedRealtime() - startTime;
+            if (elapsed > targetMillis) {
+                Log.w(TAG, "Dashboard time to " + milestone + " was " + elapsed + " ms, target "
+                        + targetMillis + " ms");
+            }
+        }
     }
 
-    public LiveData<Boolean> getIsLoadingLiveData() {
-        return isLoadingLiveData;
+    // Getters for LiveData
+    public LiveData<DashboardUiState> getUiStateLiveData() {
+        return uiStateLiveData;
     }
 
     public LiveData<String> getErrorMessageLiveData() {
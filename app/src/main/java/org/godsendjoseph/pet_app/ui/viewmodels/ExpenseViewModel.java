@@ -1,6 +1,9 @@
 package org.godsendjoseph.pet_app.ui.viewmodels;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -8,56 +11,78 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import org.godsendjoseph.pet_app.auth.AuthManager;
+import org.godsendjoseph.pet_app.database.DatabaseHelper;
+import org.godsendjoseph.pet_app.database.ExpenseChange;
 import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.database.ExpenseWriteQueue;
+import org.godsendjoseph.pet_app.database.QueryLiveData;
 import org.godsendjoseph.pet_app.models.Expense;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * ViewModel for expense-related data.
  * Handles loading, filtering, and operations on expenses.
+ *
+ * Changes made through ExpenseWriteQueue, from this screen or any other, are
+ * applied to the loaded list as soon as they are queued. The list is not
+ * re-queried when they commit; if a write fails, the change is rolled back.
  */
 public class ExpenseViewModel extends AndroidViewModel {
     private ExpenseDAO expenseDAO;
+    private ExpenseWriteQueue writeQueue;
     private AuthManager authManager;
+    private Handler mainHandler;
+
+    // Filter of the loaded list; main thread only
+    private ExpenseFilter currentFilter;
+
+    // Queued changes applied to the list, mapped to the row they replaced (or null);
+    // main thread only
+    private Map<Long, Expense> appliedChanges = new HashMap<>();
 
-    private MutableLiveData<List<Expense>> expenseListLiveData = new MutableLiveData<>();
     private MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
     private MutableLiveData<String> errorMessageLiveData = new MutableLiveData<>();
+    private QueryLiveData<List<Expense>> expenseListLiveData = new QueryLiveData<>(
+            new ArrayList<>(), "Error loading expenses: ", isLoadingLiveData, errorMessageLiveData,
+            DatabaseHelper.TABLE_EXPENSES);
 
     public ExpenseViewModel(@NonNull Application application) {
         super(application);
         expenseDAO = new ExpenseDAO(application);
+        writeQueue = ExpenseWriteQueue.getInstance(application);
         authManager = AuthManager.getInstance(application);
+        mainHandler = new Handler(Looper.getMainLooper());
+
+        // Queued writes are applied in memory, so their commits need no re-query
+        expenseListLiveData.setIgnoredSource(writeQueue);
+        writeQueue.addListener(writeListener);
+    }
 
-        // Initialize with empty list
-        expenseListLiveData.setValue(new ArrayList<>());
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        writeQueue.removeListener(writeListener);
     }
 
     /**
-     * Load all expenses for the current user
+     * Load all expenses for the current user.
+     * The list is re-queried only when the expenses table changes.
      */
     public void loadExpenses() {
-        isLoadingLiveData.setValue(true);
+        final int userId = authManager.getCurrentUserId();
 
-        // Use a background thread for database operations
-        new Thread(new Runnable() {
+        setQuery(new ExpenseFilter(userId, -1, null, null, null), new Callable<List<Expense>>() {
             @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Expense> expenses = expenseDAO.getExpensesByUserId(userId);
-
-                    // Update LiveData on main thread
-                    expenseListLiveData.postValue(expenses);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading expenses: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Expense> call() {
+                return expenseDAO.getExpensesByUserId(userId);
             }
-        }).start();
+        });
     }
 
     /**
@@ -65,23 +90,14 @@ public class ExpenseViewModel extends AndroidViewModel {
      * @param categoryId Category ID to filter by
      */
     public void loadExpensesByCategory(int categoryId) {
-        isLoadingLiveData.setValue(true);
+        final int userId = authManager.getCurrentUserId();
 
-        new Thread(new Runnable() {
+        setQuery(new ExpenseFilter(userId, categoryId, null, null, null), new Callable<List<Expense>>() {
             @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Expense> expenses = expenseDAO.getExpensesByCategory(userId, categoryId);
-
-                    expenseListLiveData.postValue(expenses);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading expenses: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Expense> call() {
+                return expenseDAO.getExpensesByCategory(userId, categoryId);
             }
-        }).start();
+        });
     }
 
     /**
@@ -90,23 +106,14 @@ public class ExpenseViewModel extends AndroidViewModel {
      * @param endDate End date (YYYY-MM-DD)
      */
     public void loadExpensesByDateRange(String startDate, String endDate) {
-        isLoadingLiveData.setValue(true);
+        final int userId = authManager.getCurrentUserId();
 
-        new Thread(new Runnable() {
+        setQuery(new ExpenseFilter(userId, -1, startDate, endDate, null), new Callable<List<Expense>>() {
             @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Expense> expenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
-
-                    expenseListLiveData.postValue(expenses);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading expenses: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Expense> call() {
+                return expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
             }
-        }).start();
+        });
     }
 
     /**
@@ -114,23 +121,14 @@ public class ExpenseViewModel extends AndroidViewModel {
      * @param location Location to filter by
      */
     public void loadExpensesByLocation(String location) {
-        isLoadingLiveData.setValue(true);
+        final int userId = authManager.getCurrentUserId();
 
-        new Thread(new Runnable() {
+        setQuery(new ExpenseFilter(userId, -1, null, null, location), new Callable<List<Expense>>() {
             @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Expense> expenses = expenseDAO.getExpensesByLocation(userId, location);
-
-                    expenseListLiveData.postValue(expenses);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading expenses: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
+            public List<Expense> call() {
+                return expenseDAO.getExpensesByLocation(userId, location);
             }
-        }).start();
+        });
     }
 
     /**
@@ -140,56 +138,35 @@ public class ExpenseViewModel extends AndroidViewModel {
      * @param endDate End date (YYYY-MM-DD)
      */
     public void loadExpensesByCategoryAndDateRange(int categoryId, String startDate, String endDate) {
-        isLoadingLiveData.setValue(true);
-
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    int userId = authManager.getCurrentUserId();
-                    List<Expense> categoryExpenses = expenseDAO.getExpensesByCategory(userId, categoryId);
-                    List<Expense> dateRangeExpenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
-
-                    // Find common expenses (both filters)
-                    List<Expense> filteredExpenses = new ArrayList<>();
-                    for (Expense expense : categoryExpenses) {
-                        if (containsExpense(dateRangeExpenses, expense.getId())) {
-                            filteredExpenses.add(expense);
+        final int userId = authManager.getCurrentUserId();
+
+        setQuery(new ExpenseFilter(userId, categoryId, startDate, endDate, null),
+                new Callable<List<Expense>>() {
+                    @Override
+                    public List<Expense> call() {
+                        List<Expense> categoryExpenses = expenseDAO.getExpensesByCategory(userId, categoryId);
+                        List<Expense> dateRangeExpenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
+
+                        // Find common expenses (both filters)
+                        List<Expense> filteredExpenses = new ArrayList<>();
+                        for (Expense expense : categoryExpenses) {
+                            if (containsExpense(dateRangeExpenses, expense.getId())) {
+                                filteredExpenses.add(expense);
+                            }
                         }
+                        return filteredExpenses;
                     }
-
-                    expenseListLiveData.postValue(filteredExpenses);
-                    isLoadingLiveData.postValue(false);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading expenses: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
-                }
-            }
-        }).start();
+                });
     }
 
     /**
-     * Delete an expense
+     * Delete an expense.
+     * The expense disappears from the list immediately; the delete itself is
+     * queued for a group commit.
      * @param expenseId ID of the expense to delete
      */
     public void deleteExpense(int expenseId) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    int result = expenseDAO.deleteExpense(expenseId);
-
-                    if (result > 0) {
-                        // Refresh the expense list
-                        loadExpenses();
-                    } else {
-                        errorMessageLiveData.postValue("Failed to delete expense");
-                    }
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error deleting expense: " + e.getMessage());
-                }
-            }
-        }).start();
+        writeQueue.enqueueDelete(expenseId);
     }
 
     /**
@@ -212,25 +189,24 @@ public class ExpenseViewModel extends AndroidViewModel {
     }
 
     /**
-     * Update an existing expense
+     * Update an existing expense.
+     * Shown in the list immediately, and committed with the next batch.
      * @param expense The expense object to update
-     * @return Number of rows affected (1 if successful)
+     * @return Number of rows queued for update (1)
      */
     public int updateExpense(Expense expense) {
-        // A proper implementation would use a background thread
-        // but we'll return the value directly since the fragment handles threading
-        return expenseDAO.updateExpense(expense);
+        writeQueue.enqueueUpdate(expense);
+        return 1;
     }
 
     /**
-     * Insert a new expense
+     * Insert a new expense.
+     * Shown in the list immediately, and committed with the next batch.
      * @param expense The expense object to insert
-     * @return The ID of the newly inserted expense, or -1 if failed
+     * @return The provisional ID of the new expense
      */
     public long insertExpense(Expense expense) {
-        // A proper implementation would use a background thread
-        // but we'll return the value directly since the fragment handles threading
-        return expenseDAO.insertExpense(expense);
+        return writeQueue.enqueueInsert(expense);
     }
 
     /**
@@ -256,6 +232,162 @@ public class ExpenseViewModel extends AndroidViewModel {
         return totalLiveData;
     }
 
+    /**
+     * Switch the list to a new filter.
+     * Rollback information belongs to the previous list, so it is dropped when
+     * the filter changes; the new query reads committed data anyway.
+     */
+    private void setQuery(ExpenseFilter filter, Callable<List<Expense>> query) {
+        if (currentFilter == null || !currentFilter.key.equals(filter.key)) {
+            currentFilter = filter;
+            appliedChanges.clear();
+        }
+
+        expenseListLiveData.setQuery(filter.key, query);
+    }
+
+    private final ExpenseWriteQueue.OnExpenseWriteListener writeListener =
+            new ExpenseWriteQueue.OnExpenseWriteListener() {
+                @Override
+                public void onExpenseQueued(final ExpenseChange change) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            applyChange(change);
+                        }
+                    });
+                }
+
+                @Override
+                public void onExpenseCommitted(final ExpenseChange change) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            appliedChanges.remove(change.getSequence());
+                            applyAnomalyFlags(change);
+                        }
+                    });
+                }
+
+                @Override
+                public void onExpenseWriteFailed(final ExpenseChange change) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            rollbackChange(change);
+                        }
+                    });
+                }
+            };
+
+    /**
+     * Apply a queued change to the loaded list
+     */
+    private void applyChange(ExpenseChange change) {
+        if (currentFilter == null) {
+            return;
+        }
+
+        List<Expense> expenses = new ArrayList<>(expenseListLiveData.getValue());
+        Expense previous = removeExpense(expenses, change.getExpenseId());
+
+        Expense expense = change.getExpense();
+        if (expense != null && currentFilter.matches(expense)) {
+            // Form screens do not carry the creation time of an updated expense
+            if (previous != null && TextUtils.isEmpty(expense.getCreatedAt())) {
+                expense.setCreatedAt(previous.getCreatedAt());
+            }
+            insertSorted(expenses, expense);
+        } else if (previous == null) {
+            // The change does not touch this list
+            return;
+        }
+
+        appliedChanges.put(change.getSequence(), previous);
+        expenseListLiveData.setLocalValue(expenses);
+    }
+
+    /**
+     * Show the anomaly flags worked out when a change was committed.
+     * The list is not re-queried on commits, so the row is replaced here.
+     */
+    private void applyAnomalyFlags(ExpenseChange change) {
+        Expense committed = change.getExpense();
+        if (committed == null || currentFilter == null) {
+            return;
+        }
+
+        List<Expense> expenses = expenseListLiveData.getValue();
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense shown = expenses.get(i);
+            if (shown.getId() != change.getExpenseId()) {
+                continue;
+            }
+            if (shown.getAnomalyFlags() == committed.getAnomalyFlags()) {
+                return;
+            }
+
+            if (TextUtils.isEmpty(committed.getCreatedAt())) {
+                committed.setCreatedAt(shown.getCreatedAt());
+            }
+            List<Expense> updated = new ArrayList<>(expenses);
+            updated.set(i, committed);
+            expenseListLiveData.setLocalValue(updated);
+            return;
+        }
+    }
+
+    /**
+     * Undo a change that could not be written
+     */
+    private void rollbackChange(ExpenseChange change) {
+        if (!appliedChanges.containsKey(change.getSequence())) {
+            return;
+        }
+
+        Expense previous = appliedChanges.remove(change.getSequence());
+        List<Expense> expenses = new ArrayList<>(expenseListLiveData.getValue());
+        removeExpense(expenses, change.getExpenseId());
+        if (previous != null) {
+            insertSorted(expenses, previous);
+        }
+
+        expenseListLiveData.setLocalValue(expenses);
+        errorMessageLiveData.setValue("Error saving expense, changes were undone");
+    }
+
+    /**
+     * Remove an expense from a list by ID
+     * @return The removed expense, or null if it was not in the list
+     */
+    private static Expense removeExpense(List<Expense> expenses, int expenseId) {
+        for (int i = 0; i < expenses.size(); i++) {
+            if (expenses.get(i).getId() == expenseId) {
+                return expenses.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert an expense keeping the list's order (date and time, newest first)
+     */
+    private static void insertSorted(List<Expense> expenses, Expense expense) {
+        int position = 0;
+        while (position < expenses.size() && isNewer(expenses.get(position), expense)) {
+            position++;
+        }
+        expenses.add(position, expense);
+    }
+
+    private static boolean isNewer(Expense first, Expense second) {
+        int dateOrder = first.getDate().compareTo(second.getDate());
+        if (dateOrder != 0) {
+            return dateOrder > 0;
+        }
+        return first.getTime().compareTo(second.getTime()) > 0;
+    }
+
     /**
      * Helper method to check if an expense ID exists in a list
      */
@@ -268,6 +400,46 @@ public class ExpenseViewModel extends AndroidViewModel {
         return false;
     }
 
+    /**
+     * Filter of an expense list query, mirroring the ExpenseDAO selections
+     */
+    private static class ExpenseFilter {
+        final int userId;
+        final int categoryId;
+        final String startDate;
+        final String endDate;
+        final String location;
+        final String key;
+
+        ExpenseFilter(int userId, int categoryId, String startDate, String endDate, String location) {
+            this.userId = userId;
+            this.categoryId = categoryId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.location = location;
+            this.key = userId + ":" + categoryId + ":" + startDate + ":" + endDate + ":" + location;
+        }
+
+        boolean matches(Expense expense) {
+            if (expense.getUserId() != userId) {
+                return false;
+            }
+            if (categoryId != -1 && expense.getCategoryId() != categoryId) {
+                return false;
+            }
+            if (startDate != null && (expense.getDate().compareTo(startDate) < 0
+                    || expense.getDate().compareTo(endDate) > 0)) {
+                return false;
+            }
+            // LIKE '%location%' is case-insensitive for ASCII
+            if (location != null && (expense.getLocation() == null
+                    || !expense.getLocation().toLowerCase(Locale.US).contains(location.toLowerCase(Locale.US)))) {
+                return false;
+            }
+            return true;
+        }
+    }
+
     // Getters for LiveData
     public LiveData<List<Expense>> getExpenseListLiveData() {
         return expenseListLiveData;
@@ -0,0 +1,190 @@
+package org.godsendjoseph.pet_app.ui.viewmodels;
+
+import org.godsendjoseph.pet_app.analytics.AmountHistogram;
+import org.godsendjoseph.pet_app.models.BarChartData;
+import org.godsendjoseph.pet_app.models.CategoryComparison;
+import org.godsendjoseph.pet_app.models.DonutChartData;
+import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.models.HeatmapData;
+import org.godsendjoseph.pet_app.models.SpendQuantiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of everything the insights screen shows.
+ * InsightsViewModel publishes one of these per load, so the screen is
+ * rendered in a single pass instead of once per field.
+ */
+public final class InsightsUiState {
+    private final boolean isLoading;
+    private final List<ExpenseSummary> categorySummary;
+    private final List<ExpenseSummary> monthSummary;
+    private final List<ExpenseSummary> locationSummary;
+    private final List<ExpenseSummary> titleSummary;
+    private final List<SpendQuantiles> categoryQuantiles;
+    private final List<SpendQuantiles> monthQuantiles;
+    private final HeatmapData categoryMonthHeatmap;
+    private final HeatmapData dayHourHeatmap;
+    private final List<CategoryComparison> categoryComparisons;
+    private final AmountHistogram amountHistogram;
+    private final DonutChartData categoryDonut;
+    private final BarChartData monthChart;
+    private final double averageDailyExpense;
+    private final double maxExpense;
+    private final String mostExpensiveCategory;
+
+    /**
+     * Constructor with all fields
+     * @param isLoading Whether a load is in progress
+     * @param categorySummary Expense summary by category
+     * @param monthSummary Expense summary by month
+     * @param locationSummary Top locations by amount
+     * @param titleSummary Top titles by amount
+     * @param categoryQuantiles Amount quantiles by category
+     * @param monthQuantiles Amount quantiles by month
+     * @param categoryMonthHeatmap Totals by category and month
+     * @param dayHourHeatmap Totals by day of the week and hour
+     * @param categoryComparisons Overall and per-category change from a baseline
+     *                            period, overall first; empty when not comparing
+     * @param amountHistogram Number of expenses by amount
+     * @param categoryDonut Category shares laid out as donut slices
+     * @param monthChart Month totals as bars
+     * @param averageDailyExpense Average spend per day of the date range
+     * @param maxExpense Largest single expense
+     * @param mostExpensiveCategory Name of the category with the highest total
+     */
+    public InsightsUiState(boolean isLoading, List<ExpenseSummary> categorySummary,
+                           List<ExpenseSummary> monthSummary, List<ExpenseSummary> locationSummary,
+                           List<ExpenseSummary> titleSummary,
+                           List<SpendQuantiles> categoryQuantiles, List<SpendQuantiles> monthQuantiles,
+                           HeatmapData categoryMonthHeatmap, HeatmapData dayHourHeatmap,
+                           List<CategoryComparison> categoryComparisons, AmountHistogram amountHistogram,
+                           DonutChartData categoryDonut, BarChartData monthChart,
+                           double averageDailyExpense, double maxExpense, String mostExpensiveCategory) {
+        this.isLoading = isLoading;
+        this.categorySummary = Collections.unmodifiableList(categorySummary);
+        this.monthSummary = Collections.unmodifiableList(monthSummary);
+        this.locationSummary = Collections.unmodifiableList(locationSummary);
+        this.titleSummary = Collections.unmodifiableList(titleSummary);
+        this.categoryQuantiles = Collections.unmodifiableList(categoryQuantiles);
+        this.monthQuantiles = Collections.unmodifiableList(monthQuantiles);
+        this.categoryMonthHeatmap = categoryMonthHeatmap;
+        this.dayHourHeatmap = dayHourHeatmap;
+        this.categoryComparisons = Collections.unmodifiableList(categoryComparisons);
+        this.amountHistogram = amountHistogram;
+        this.categoryDonut = categoryDonut;
+        this.monthChart = monthChart;
+        this.averageDailyExpense = averageDailyExpense;
+        this.maxExpense = maxExpense;
+        this.mostExpensiveCategory = mostExpensiveCategory;
+    }
+
+    // Copy constructor used by withLoading
+    private InsightsUiState(InsightsUiState source, boolean isLoading) {
+        this.isLoading = isLoading;
+        this.categorySummary = source.categorySummary;
+        this.monthSummary = source.monthSummary;
+        this.locationSummary = source.locationSummary;
+        this.titleSummary = source.titleSummary;
+        this.categoryQuantiles = source.categoryQuantiles;
+        this.monthQuantiles = source.monthQuantiles;
+        this.categoryMonthHeatmap = source.categoryMonthHeatmap;
+        this.dayHourHeatmap = source.dayHourHeatmap;
+        this.categoryComparisons = source.categoryComparisons;
+        this.amountHistogram = source.amountHistogram;
+        this.categoryDonut = source.categoryDonut;
+        this.monthChart = source.monthChart;
+        this.averageDailyExpense = source.averageDailyExpense;
+        this.maxExpense = source.maxExpense;
+        this.mostExpensiveCategory = source.mostExpensiveCategory;
+    }
+
+    /**
+     * State shown before the first load completes
+     */
+    public static InsightsUiState empty() {
+        return new InsightsUiState(false, new ArrayList<ExpenseSummary>(), new ArrayList<ExpenseSummary>(),
+                new ArrayList<ExpenseSummary>(), new ArrayList<ExpenseSummary>(),
+                new ArrayList<SpendQuantiles>(), new ArrayList<SpendQuantiles>(), HeatmapData.empty(),
+                HeatmapData.empty(), new ArrayList<CategoryComparison>(),
+                AmountHistogram.empty(), DonutChartData.empty(), BarChartData.empty(), 0, 0, "");
+    }
+
+    /**
+     * Copy of this state with a different loading flag.
+     * The data lists are shared, so renderers can skip them by identity.
+     */
+    public InsightsUiState withLoading(boolean loading) {
+        if (loading == isLoading) {
+            return this;
+        }
+        return new InsightsUiState(this, loading);
+    }
+
+    // Getters
+    public boolean isLoading() {
+        return isLoading;
+    }
+
+    public List<ExpenseSummary> getCategorySummary() {
+        return categorySummary;
+    }
+
+    public List<ExpenseSummary> getMonthSummary() {
+        return monthSummary;
+    }
+
+    public List<ExpenseSummary> getLocationSummary() {
+        return locationSummary;
+    }
+
+    public List<ExpenseSummary> getTitleSummary() {
+        return titleSummary;
+    }
+
+    public List<SpendQuantiles> getCategoryQuantiles() {
+        return categoryQuantiles;
+    }
+
+    public List<SpendQuantiles> getMonthQuantiles() {
+        return monthQuantiles;
+    }
+
+    public HeatmapData getCategoryMonthHeatmap() {
+        return categoryMonthHeatmap;
+    }
+
+    public HeatmapData getDayHourHeatmap() {
+        return dayHourHeatmap;
+    }
+
+    public List<CategoryComparison> getCategoryComparisons() {
+        return categoryComparisons;
+    }
+
+    public AmountHistogram getAmountHistogram() {
+        return amountHistogram;
+    }
+
+    public DonutChartData getCategoryDonut() {
+        return categoryDonut;
+    }
+
+    public BarChartData getMonthChart() {
+        return monthChart;
+    }
+
+    public double getAverageDailyExpense() {
+        return averageDailyExpense;
+    }
+
+    public double getMaxExpense() {
+        return maxExpense;
+    }
+
+    public String getMostExpensiveCategory() {
+        return mostExpensiveCategory;
+    }
+}
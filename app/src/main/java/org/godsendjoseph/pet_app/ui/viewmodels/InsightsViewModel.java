@@ -7,49 +7,78 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.analytics.AmountHistogram;
+import org.godsendjoseph.pet_app.analytics.CategoryMonthPivot;
+import org.godsendjoseph.pet_app.analytics.DayHourMatrix;
+import org.godsendjoseph.pet_app.analytics.ExpenseAggregateStore;
+import org.godsendjoseph.pet_app.analytics.ExpenseAggregator;
+import org.godsendjoseph.pet_app.analytics.HistogramBuckets;
+import org.godsendjoseph.pet_app.analytics.PeriodComparison;
 import org.godsendjoseph.pet_app.auth.AuthManager;
 import org.godsendjoseph.pet_app.database.CategoryDAO;
+import org.godsendjoseph.pet_app.database.DatabaseExecutors;
 import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.models.BarChartData;
 import org.godsendjoseph.pet_app.models.Category;
-import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.models.CategoryComparison;
+import org.godsendjoseph.pet_app.models.DonutChartData;
 import org.godsendjoseph.pet_app.models.ExpenseSummary;
+import org.godsendjoseph.pet_app.models.HeatmapData;
+import org.godsendjoseph.pet_app.models.SpendQuantiles;
+import org.godsendjoseph.pet_app.utils.ColorUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
 
+import java.text.DateFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * ViewModel for insights and analytics screens.
  * Handles data processing for charts and statistics.
  */
 public class InsightsViewModel extends AndroidViewModel {
+    // Comparison modes
+    public static final int COMPARE_NONE = 0;
+    public static final int COMPARE_PREVIOUS_PERIOD = 1;
+    public static final int COMPARE_PREVIOUS_YEAR = 2;
+
+    // Number of locations and titles listed
+    private static final int TOP_K = 10;
+
+    // Log-scale amount buckets from under 1 up to 10k and over
+    private static final HistogramBuckets AMOUNT_BUCKETS = HistogramBuckets.logScale(1, 10000);
+
+    // Slices in the category donut; smaller categories are merged into "Other"
+    private static final int DONUT_SLICES = 6;
+    private static final int OTHER_COLOR = 0xFF9E9E9E;
+
+    private ExpenseAggregateStore aggregateStore;
     private ExpenseDAO expenseDAO;
     private CategoryDAO categoryDAO;
     private AuthManager authManager;
+    private Executor readExecutor;
 
-    private MutableLiveData<List<ExpenseSummary>> categorySummaryLiveData = new MutableLiveData<>();
-    private MutableLiveData<List<ExpenseSummary>> monthSummaryLiveData = new MutableLiveData<>();
-    private MutableLiveData<List<ExpenseSummary>> locationSummaryLiveData = new MutableLiveData<>();
-    private MutableLiveData<Double> averageDailyExpenseLiveData = new MutableLiveData<>(0.0);
-    private MutableLiveData<Double> maxExpenseLiveData = new MutableLiveData<>(0.0);
-    private MutableLiveData<String> mostExpensiveCategoryLiveData = new MutableLiveData<>("");
-    private MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
+    // Guards currentState and loadGeneration
+    private final Object stateLock = new Object();
+    private InsightsUiState currentState = InsightsUiState.empty();
+    private int loadGeneration = 0;
+
+    // One snapshot per load; errors are one-off events and stay separate
+    private MutableLiveData<InsightsUiState> uiStateLiveData = new MutableLiveData<>(currentState);
     private MutableLiveData<String> errorMessageLiveData = new MutableLiveData<>();
 
     public InsightsViewModel(@NonNull Application application) {
         super(application);
+        aggregateStore = ExpenseAggregateStore.getInstance(application);
         expenseDAO = new ExpenseDAO(application);
         categoryDAO = new CategoryDAO(application);
         authManager = AuthManager.getInstance(application);
-
-        // Initialize with empty lists
-        categorySummaryLiveData.setValue(new ArrayList<>());
-        monthSummaryLiveData.setValue(new ArrayList<>());
-        locationSummaryLiveData.setValue(new ArrayList<>());
+        readExecutor = DatabaseExecutors.getReadExecutor();
     }
 
     /**
@@ -58,360 +87,269 @@ public class InsightsViewModel extends AndroidViewModel {
      * @param endDate End date (YYYY-MM-DD)
      */
     public void loadInsightsData(String startDate, String endDate) {
-        isLoadingLiveData.setValue(true);
+        loadInsightsData(startDate, endDate, COMPARE_NONE);
+    }
 
-        new Thread(new Runnable() {
+    /**
+     * Load all insights data with date range filter, compared against a baseline period
+     * @param startDate Start date (YYYY-MM-DD)
+     * @param endDate End date (YYYY-MM-DD)
+     * @param comparisonMode COMPARE_NONE, COMPARE_PREVIOUS_PERIOD or COMPARE_PREVIOUS_YEAR
+     */
+    public void loadInsightsData(String startDate, String endDate, int comparisonMode) {
+        final int generation;
+        synchronized (stateLock) {
+            generation = ++loadGeneration;
+            publish(currentState.withLoading(true));
+        }
+
+        readExecutor.execute(new Runnable() {
             @Override
             public void run() {
                 try {
                     int userId = authManager.getCurrentUserId();
 
-                    // Get expenses within date range
-                    List<Expense> expenses = expenseDAO.getExpensesByDateRange(userId, startDate, endDate);
-
-                    // Calculate total for percentage calculations
-                    double total = calculateTotal(expenses);
-
-                    // Generate category summary
-                    generateCategorySummary(userId, expenses, total);
-
-                    // Generate month summary
-                    generateMonthSummary(expenses, total);
-
-                    // Generate location summary
-                    generateLocationSummary(expenses, total);
+                    // Merged from the per-day aggregates instead of re-reading every expense
+                    ExpenseAggregator aggregator = aggregateStore.aggregate(userId, startDate, endDate);
+                    List<Category> allCategories = categoryDAO.getAllCategories(userId);
+
+                    // Generate summaries
+                    List<ExpenseSummary> categorySummary = aggregator.getCategorySummary(allCategories);
+                    List<ExpenseSummary> monthSummary = aggregator.getMonthSummary();
+                    List<ExpenseSummary> locationSummary = aggregator.getTopLocations(TOP_K);
+                    List<ExpenseSummary> titleSummary = aggregator.getTopTitles(TOP_K);
+                    List<SpendQuantiles> categoryQuantiles = aggregator.getCategoryQuantiles(allCategories);
+                    List<SpendQuantiles> monthQuantiles = aggregator.getMonthQuantiles();
+
+                    // Chart geometry is worked out here, so the views only scale and draw it
+                    DonutChartData categoryDonut = toDonut(categorySummary);
+                    BarChartData monthChart = toBarChart(monthSummary);
+
+                    // Category trends over the months of the range, from a single GROUP BY
+                    CategoryMonthPivot pivot = expenseDAO.getCategoryMonthPivot(userId, startDate, endDate);
+                    HeatmapData categoryMonthHeatmap = toHeatmap(pivot, allCategories);
+
+                    // When in the week money is spent, from the hourly rollup or a GROUP BY
+                    DayHourMatrix dayHours = aggregateStore.aggregateDayHours(userId, startDate, endDate);
+                    HeatmapData dayHourHeatmap = toHeatmap(dayHours);
+
+                    // Spread of expense sizes, counted by SQLite without loading any expense
+                    AmountHistogram amountHistogram = expenseDAO.getAmountHistogram(userId, startDate, endDate,
+                            AMOUNT_BUCKETS);
+
+                    // Both periods from one query, so comparing costs a single extra GROUP BY
+                    List<CategoryComparison> categoryComparisons = new ArrayList<>();
+                    String[] baseline = getBaselineRange(startDate, endDate, comparisonMode);
+                    if (baseline != null) {
+                        PeriodComparison comparison = expenseDAO.getPeriodComparison(userId, startDate, endDate,
+                                baseline[0], baseline[1]);
+                        categoryComparisons.add(comparison.getTotalComparison(
+                                getApplication().getString(R.string.all_categories)));
+                        categoryComparisons.addAll(comparison.getCategoryComparisons(allCategories));
+                    }
 
                     // Calculate statistics
-                    calculateStatistics(expenses, startDate, endDate);
-
-                    isLoadingLiveData.postValue(false);
+                    double maxExpense = aggregator.getMaxAmount();
+                    String mostExpensiveCategory = aggregator.getMostExpensiveCategory(allCategories);
+                    double averageDailyExpense = calculateAverageDailyExpense(aggregator.getTotal(),
+                            startDate, endDate);
+
+                    InsightsUiState state = new InsightsUiState(false, categorySummary, monthSummary,
+                            locationSummary, titleSummary, categoryQuantiles, monthQuantiles,
+                            categoryMonthHeatmap, dayHourHeatmap, categoryComparisons, amountHistogram,
+                            categoryDonut, monthChart, averageDailyExpense, maxExpense, mostExpensiveCategory);
+
+                    // Publish everything as a single snapshot, unless a newer load has started
+                    synchronized (stateLock) {
+                        if (generation == loadGeneration) {
+                            publish(state);
+                        }
+                    }
                 } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error loading insights: " + e.getMessage());
-                    isLoadingLiveData.postValue(false);
+                    synchronized (stateLock) {
+                        if (generation == loadGeneration) {
+                            errorMessageLiveData.postValue("Error loading insights: " + e.getMessage());
+                            publish(currentState.withLoading(false));
+                        }
+                    }
                 }
             }
-        }).start();
+        });
     }
 
-    /**
-     * Calculate total amount from a list of expenses
-     */
-    private double calculateTotal(List<Expense> expenses) {
-        double total = 0;
-        for (Expense expense : expenses) {
-            total += expense.getAmount();
-        }
-        return total;
+    // Must be called while holding stateLock
+    private void publish(InsightsUiState state) {
+        currentState = state;
+        uiStateLiveData.postValue(state);
     }
 
     /**
-     * Generate summary of expenses by category
+     * Get the baseline range of a comparison mode
+     * @return Start and end date, or null when not comparing
      */
-    private void generateCategorySummary(int userId, List<Expense> expenses, double total) {
-        try {
-            Map<Integer, ExpenseSummary> summaryMap = new HashMap<>();
-            List<Category> allCategories = categoryDAO.getAllCategories(userId);
-            Map<Integer, Category> categoryMap = new HashMap<>();
-
-            // Create map of category ID to Category object
-            for (Category category : allCategories) {
-                categoryMap.put(category.getId(), category);
-            }
-
-            // Group expenses by category
-            for (Expense expense : expenses) {
-                int categoryId = expense.getCategoryId();
-                Category category = categoryMap.get(categoryId);
-
-                if (category != null) {
-                    ExpenseSummary summary = summaryMap.get(categoryId);
-
-                    if (summary == null) {
-                        double percentage = (total > 0) ? (expense.getAmount() / total) * 100 : 0;
-                        summary = new ExpenseSummary(category.getName(), expense.getAmount(),
-                                percentage, category.getColor(), 1);
-                    } else {
-                        double newAmount = summary.getAmount() + expense.getAmount();
-                        double percentage = (total > 0) ? (newAmount / total) * 100 : 0;
-                        summary.setAmount(newAmount);
-                        summary.setPercentage(percentage);
-                        summary.setCount(summary.getCount() + 1);
-                    }
-
-                    summaryMap.put(categoryId, summary);
-                }
-            }
-
-            // Convert map to list
-            List<ExpenseSummary> summaryList = new ArrayList<>(summaryMap.values());
-            categorySummaryLiveData.postValue(summaryList);
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error generating category summary: " + e.getMessage());
+    private String[] getBaselineRange(String startDate, String endDate, int comparisonMode) {
+        switch (comparisonMode) {
+            case COMPARE_PREVIOUS_PERIOD:
+                return PeriodComparison.previousPeriod(startDate, endDate);
+            case COMPARE_PREVIOUS_YEAR:
+                return PeriodComparison.sameRangeLastYear(startDate, endDate);
+            default:
+                return null;
         }
     }
 
     /**
-     * Generate summary of expenses by month
+     * Lay out a donut of the category shares, largest first, merging the
+     * categories past the last slice into "Other"
      */
-    private void generateMonthSummary(List<Expense> expenses, double total) {
-        try {
-            Map<String, ExpenseSummary> summaryMap = new HashMap<>();
-            SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yyyy", Locale.getDefault());
-
-            // Group expenses by month
-            for (Expense expense : expenses) {
-                try {
-                    // Parse date to get month
-                    String[] dateParts = expense.getDate().split("-");
-                    int year = Integer.parseInt(dateParts[0]);
-                    int month = Integer.parseInt(dateParts[1]) - 1; // Calendar months are 0-based
-
-                    Calendar calendar = Calendar.getInstance();
-                    calendar.set(Calendar.YEAR, year);
-                    calendar.set(Calendar.MONTH, month);
-
-                    String monthKey = monthFormat.format(calendar.getTime());
-
-                    ExpenseSummary summary = summaryMap.get(monthKey);
-
-                    if (summary == null) {
-                        double percentage = (total > 0) ? (expense.getAmount() / total) * 100 : 0;
-                        summary = new ExpenseSummary(monthKey, expense.getAmount(),
-                                percentage, "#3F51B5", 1);
-                    } else {
-                        double newAmount = summary.getAmount() + expense.getAmount();
-                        double percentage = (total > 0) ? (newAmount / total) * 100 : 0;
-                        summary.setAmount(newAmount);
-                        summary.setPercentage(percentage);
-                        summary.setCount(summary.getCount() + 1);
-                    }
-
-                    summaryMap.put(monthKey, summary);
-                } catch (Exception e) {
-                    // Skip this expense if date parsing fails
-                    continue;
-                }
-            }
+    private DonutChartData toDonut(List<ExpenseSummary> summary) {
+        String otherLabel = getApplication().getString(R.string.chart_other);
+        double total = 0;
+        for (ExpenseSummary item : summary) {
+            total += Math.max(0, item.getAmount());
+        }
+        if (total <= 0) {
+            return DonutChartData.empty();
+        }
 
-            // Convert map to list
-            List<ExpenseSummary> summaryList = new ArrayList<>(summaryMap.values());
-            monthSummaryLiveData.postValue(summaryList);
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error generating month summary: " + e.getMessage());
+        int slices = Math.min(summary.size(), DONUT_SLICES);
+        float[] startAngles = new float[slices];
+        float[] sweepAngles = new float[slices];
+        int[] colors = new int[slices];
+        String[] labels = new String[slices];
+
+        float angle = 0;
+        double remaining = total;
+        for (int i = 0; i < slices; i++) {
+            boolean other = i == DONUT_SLICES - 1 && summary.size() > DONUT_SLICES;
+            ExpenseSummary item = summary.get(i);
+            double amount = other ? remaining : Math.max(0, item.getAmount());
+            remaining -= amount;
+
+            // The last slice closes the ring, so rounding never leaves a gap
+            float sweep = i == slices - 1 ? 360f - angle : (float) (amount / total * 360);
+            startAngles[i] = angle;
+            sweepAngles[i] = sweep;
+            colors[i] = other ? OTHER_COLOR : colorOf(item);
+            labels[i] = String.format(Locale.getDefault(), "%s %.0f%%",
+                    other ? otherLabel : item.getCategory(), amount / total * 100);
+            angle += sweep;
         }
+
+        return new DonutChartData(startAngles, sweepAngles, colors, labels);
     }
 
     /**
-     * Generate summary of expenses by location
+     * Turn the month summary into bars in calendar order
      */
-    private void generateLocationSummary(List<Expense> expenses, double total) {
-        try {
-            Map<String, ExpenseSummary> summaryMap = new HashMap<>();
-
-            // Group expenses by location
-            for (Expense expense : expenses) {
-                String location = expense.getLocation();
-
-                if (location != null && !location.isEmpty()) {
-                    ExpenseSummary summary = summaryMap.get(location);
-
-                    if (summary == null) {
-                        double percentage = (total > 0) ? (expense.getAmount() / total) * 100 : 0;
-                        summary = new ExpenseSummary(location, expense.getAmount(),
-                                percentage, "#FF9800", 1);
-                    } else {
-                        double newAmount = summary.getAmount() + expense.getAmount();
-                        double percentage = (total > 0) ? (newAmount / total) * 100 : 0;
-                        summary.setAmount(newAmount);
-                        summary.setPercentage(percentage);
-                        summary.setCount(summary.getCount() + 1);
-                    }
-
-                    summaryMap.put(location, summary);
-                }
-            }
-
-            // Convert map to list
-            List<ExpenseSummary> summaryList = new ArrayList<>(summaryMap.values());
-            locationSummaryLiveData.postValue(summaryList);
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error generating location summary: " + e.getMessage());
+    private BarChartData toBarChart(List<ExpenseSummary> summary) {
+        float[] values = new float[summary.size()];
+        String[] labels = new String[summary.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) summary.get(i).getAmount();
+            labels[i] = summary.get(i).getCategory();
         }
+        return new BarChartData(values, labels);
+    }
+
+    // Color the summary parsed when it was built, falling back to grey if it had none
+    private static int colorOf(ExpenseSummary item) {
+        int color = item.getColorValue();
+        return ColorUtils.hasColor(color) ? color : OTHER_COLOR;
     }
 
     /**
-     * Calculate various statistics from expenses
+     * Label a category x month pivot with category names and "MMM yy" months
      */
-    private void calculateStatistics(List<Expense> expenses, String startDate, String endDate) {
-        try {
-            // Calculate max expense
-            double maxExpense = 0;
-
-            // Find most expensive category
-            Map<Integer, Double> categoryTotalMap = new HashMap<>();
-            int userId = authManager.getCurrentUserId();
-            List<Category> allCategories = categoryDAO.getAllCategories(userId);
-            Map<Integer, Category> categoryMap = new HashMap<>();
-
-            // Create map of category ID to Category object
-            for (Category category : allCategories) {
-                categoryMap.put(category.getId(), category);
-            }
-
-            for (Expense expense : expenses) {
-                // Update max expense
-                if (expense.getAmount() > maxExpense) {
-                    maxExpense = expense.getAmount();
-                }
-
-                // Update category totals
-                int categoryId = expense.getCategoryId();
-                Double categoryTotal = categoryTotalMap.get(categoryId);
-                if (categoryTotal == null) {
-                    categoryTotalMap.put(categoryId, expense.getAmount());
-                } else {
-                    categoryTotalMap.put(categoryId, categoryTotal + expense.getAmount());
-                }
-            }
-
-            // Find most expensive category
-            int mostExpensiveCategoryId = -1;
-            double highestCategoryTotal = 0;
-
-            for (Map.Entry<Integer, Double> entry : categoryTotalMap.entrySet()) {
-                if (entry.getValue() > highestCategoryTotal) {
-                    highestCategoryTotal = entry.getValue();
-                    mostExpensiveCategoryId = entry.getKey();
-                }
-            }
-
-            // Get category name
-            String mostExpensiveCategory = "";
-            if (mostExpensiveCategoryId != -1) {
-                Category category = categoryMap.get(mostExpensiveCategoryId);
-                if (category != null) {
-                    mostExpensiveCategory = category.getName();
-                }
-            }
+    private HeatmapData toHeatmap(CategoryMonthPivot pivot, List<Category> categories) {
+        IntObjectMap<String> categoryNames = new IntObjectMap<>();
+        for (Category category : categories) {
+            categoryNames.put(category.getId(), category.getName());
+        }
 
-            // Calculate average daily expense
-            double averageDailyExpense = 0;
-            try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                Calendar startCal = Calendar.getInstance();
-                startCal.setTime(dateFormat.parse(startDate));
+        int rows = pivot.getCategoryCount();
+        int columns = pivot.getMonthCount();
 
-                Calendar endCal = Calendar.getInstance();
-                endCal.setTime(dateFormat.parse(endDate));
+        String uncategorized = getApplication().getString(R.string.uncategorized);
+        String[] rowLabels = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            String name = categoryNames.get(pivot.getCategoryId(row));
+            rowLabels[row] = name != null ? name : uncategorized;
+        }
 
-                // Calculate days between start and end dates
-                long diffMillis = endCal.getTimeInMillis() - startCal.getTimeInMillis();
-                int diffDays = (int) (diffMillis / (24 * 60 * 60 * 1000)) + 1; // +1 to include both start and end dates
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yy", Locale.getDefault());
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        String[] columnLabels = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            int monthIndex = pivot.getMonthIndex(column);
+            calendar.set(monthIndex / 12, monthIndex % 12, 1);
+            columnLabels[column] = monthFormat.format(calendar.getTime());
+        }
 
-                if (diffDays > 0) {
-                    double total = calculateTotal(expenses);
-                    averageDailyExpense = total / diffDays;
-                }
-            } catch (Exception e) {
-                errorMessageLiveData.postValue("Error calculating date range: " + e.getMessage());
+        float[] values = new float[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                values[row * columns + column] = (float) pivot.getTotal(row, column);
             }
-
-            // Update LiveData
-            maxExpenseLiveData.postValue(maxExpense);
-            mostExpensiveCategoryLiveData.postValue(mostExpensiveCategory);
-            averageDailyExpenseLiveData.postValue(averageDailyExpense);
-        } catch (Exception e) {
-            errorMessageLiveData.postValue("Error calculating statistics: " + e.getMessage());
         }
+        return new HeatmapData(values, rowLabels, columnLabels);
     }
 
     /**
-     * Get data for pie chart (by category)
+     * Label a day of week x hour matrix with Monday to Sunday rows, in the
+     * locale's short weekday names, and hour columns
      */
-    public LiveData<Map<String, Double>> getPieChartData() {
-        MutableLiveData<Map<String, Double>> chartDataLiveData = new MutableLiveData<>();
-
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    List<ExpenseSummary> categorySummary = categorySummaryLiveData.getValue();
-                    Map<String, Double> chartData = new HashMap<>();
+    private HeatmapData toHeatmap(DayHourMatrix matrix) {
+        // Short weekdays are indexed from Calendar.SUNDAY (1); the rows start on Monday
+        String[] weekdays = DateFormatSymbols.getInstance(Locale.getDefault()).getShortWeekdays();
+        String[] rowLabels = new String[DayHourMatrix.DAYS];
+        for (int day = 0; day < DayHourMatrix.DAYS; day++) {
+            rowLabels[day] = weekdays[(day + 1) % 7 + Calendar.SUNDAY];
+        }
 
-                    if (categorySummary != null) {
-                        for (ExpenseSummary summary : categorySummary) {
-                            chartData.put(summary.getCategory(), summary.getAmount());
-                        }
-                    }
+        String[] columnLabels = new String[DayHourMatrix.HOURS];
+        for (int hour = 0; hour < DayHourMatrix.HOURS; hour++) {
+            columnLabels[hour] = String.valueOf(hour);
+        }
 
-                    chartDataLiveData.postValue(chartData);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error generating pie chart data: " + e.getMessage());
-                    chartDataLiveData.postValue(new HashMap<>());
-                }
+        float[] values = new float[DayHourMatrix.DAYS * DayHourMatrix.HOURS];
+        for (int day = 0; day < DayHourMatrix.DAYS; day++) {
+            for (int hour = 0; hour < DayHourMatrix.HOURS; hour++) {
+                values[day * DayHourMatrix.HOURS + hour] = (float) matrix.getTotal(day, hour);
             }
-        }).start();
-
-        return chartDataLiveData;
+        }
+        return new HeatmapData(values, rowLabels, columnLabels);
     }
 
     /**
-     * Get data for bar chart (by month)
+     * Calculate the average spend per day of the date range
      */
-    public LiveData<Map<String, Double>> getBarChartData() {
-        MutableLiveData<Map<String, Double>> chartDataLiveData = new MutableLiveData<>();
+    private double calculateAverageDailyExpense(double total, String startDate, String endDate) {
+        try {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+            Calendar startCal = Calendar.getInstance();
+            startCal.setTime(dateFormat.parse(startDate));
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    List<ExpenseSummary> monthSummary = monthSummaryLiveData.getValue();
-                    Map<String, Double> chartData = new HashMap<>();
+            Calendar endCal = Calendar.getInstance();
+            endCal.setTime(dateFormat.parse(endDate));
 
-                    if (monthSummary != null) {
-                        for (ExpenseSummary summary : monthSummary) {
-                            chartData.put(summary.getCategory(), summary.getAmount());
-                        }
-                    }
+            // Calculate days between start and end dates
+            long diffMillis = endCal.getTimeInMillis() - startCal.getTimeInMillis();
+            int diffDays = (int) (diffMillis / (24 * 60 * 60 * 1000)) + 1; // +1 to include both start and end dates
 
-                    chartDataLiveData.postValue(chartData);
-                } catch (Exception e) {
-                    errorMessageLiveData.postValue("Error generating bar chart data: " + e.getMessage());
-                    chartDataLiveData.postValue(new HashMap<>());
-                }
+            if (diffDays > 0) {
+                return total / diffDays;
             }
-        }).start();
-
-        return chartDataLiveData;
+        } catch (Exception e) {
+            errorMessageLiveData.postValue("Error calculating date range: " + e.getMessage());
+        }
+        return 0;
     }
 
     // Getters for LiveData
-    public LiveData<List<ExpenseSummary>> getCategorySummaryLiveData() {
-        return categorySummaryLiveData;
-    }
-
-    public LiveData<List<ExpenseSummary>> getMonthSummaryLiveData() {
-        return monthSummaryLiveData;
-    }
-
-    public LiveData<List<ExpenseSummary>> getLocationSummaryLiveData() {
-        return locationSummaryLiveData;
-    }
-
-    public LiveData<Double> getAverageDailyExpenseLiveData() {
-        return averageDailyExpenseLiveData;
-    }
-
-    public LiveData<Double> getMaxExpenseLiveData() {
-        return maxExpenseLiveData;
-    }
-
-    public LiveData<String> getMostExpensiveCategoryLiveData() {
-        return mostExpensiveCategoryLiveData;
-    }
-
-    public LiveData<Boolean> getIsLoadingLiveData() {
-        return isLoadingLiveData;
+    public LiveData<InsightsUiState> getUiStateLiveData() {
+        return uiStateLiveData;
     }
 
     public LiveData<String> getErrorMessageLiveData() {
@@ -10,10 +10,12 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
 
+import org.godsendjoseph.pet_app.analytics.ExpenseAggregateStore;
 import org.godsendjoseph.pet_app.auth.AuthManager;
 import org.godsendjoseph.pet_app.auth.SessionManager;
 import org.godsendjoseph.pet_app.database.CategoryDAO;
 import org.godsendjoseph.pet_app.database.ExpenseDAO;
+import org.godsendjoseph.pet_app.database.ExpenseWriteQueue;
 import org.godsendjoseph.pet_app.database.UserDAO;
 import org.godsendjoseph.pet_app.models.User;
 
@@ -276,6 +278,7 @@ public class SettingsViewModel extends AndroidViewModel {
     public void setCurrency(String currency) {
         SharedPreferences.Editor editor = sharedPreferences.edit();
         editor.putString(PREF_CURRENCY, currency);
+        // CurrencyFormatter picks the change up through its preference listener
         editor.apply();
 
         currencyLiveData.setValue(currency);
@@ -305,7 +308,9 @@ public class SettingsViewModel extends AndroidViewModel {
             public void run() {
                 try {
                     Context context = getApplication().getApplicationContext();
-                    context.deleteDatabase("expense_tracker.db");
+                    // Drops queued writes and closes the connection before the file goes
+                    ExpenseWriteQueue.getInstance(context).deleteDatabase();
+                    ExpenseAggregateStore.getInstance(context).invalidateAll();
 
                     // End session
                     sessionManager.endSession();
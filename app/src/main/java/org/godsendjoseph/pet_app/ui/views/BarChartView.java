@@ -0,0 +1,233 @@
+package org.godsendjoseph.pet_app.ui.views;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.BarChartData;
+
+/**
+ * Vertical bar chart drawn straight onto the canvas.
+ * Each bar has its label below and its formatted value above. New data
+ * animates from the bars currently on screen, so a refresh grows or shrinks
+ * the bars instead of replacing them. Labels are formatted and measured when
+ * the data or size changes, and bar heights are interpolated in place, so
+ * onDraw allocates nothing.
+ */
+public class BarChartView extends View {
+
+    // Length of the update animation in milliseconds
+    private static final long ANIMATION_DURATION = 300;
+
+    /**
+     * Formats a bar's value for the label above it
+     */
+    public interface ValueFormatter {
+        String format(float value);
+    }
+
+    private final Paint barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint labelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF barRect = new RectF();
+    private final ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+
+    private final float barGap;
+    private final float cornerRadius;
+    private final float labelPadding;
+    private final float maxBarWidth;
+
+    private int[] colors;
+
+    // Bars animate from the start values and scale to the end values
+    private float[] startValues = new float[0];
+    private float[] endValues = new float[0];
+    private float startMax;
+    private float endMax;
+    private float progress = 1f;
+
+    private String[] labels = new String[0];
+    private String[] valueLabels = new String[0];
+
+    // Layout, recomputed by layoutLabels()
+    private int labelStep = 1;
+    private boolean showValueLabels;
+
+    public BarChartView(Context context) {
+        this(context, null);
+    }
+
+    public BarChartView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public BarChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        barGap = dp(8);
+        cornerRadius = dp(3);
+        labelPadding = dp(4);
+        maxBarWidth = dp(48);
+
+        colors = new int[]{ContextCompat.getColor(context, R.color.colorPrimary)};
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        labelPaint.setTextSize(getResources().getDimension(R.dimen.text_size_micro));
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+
+        animator.setDuration(ANIMATION_DURATION);
+        animator.setInterpolator(new DecelerateInterpolator());
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                progress = (float) animation.getAnimatedValue();
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Set the bar colors, used in turn from the first bar
+     */
+    public void setColors(int... colors) {
+        if (colors.length > 0) {
+            this.colors = colors;
+            invalidate();
+        }
+    }
+
+    /**
+     * Show new data, animating from the bars currently drawn
+     * @param data Values and labels in display order
+     * @param formatter Formatter of the value labels, or null for none
+     */
+    public void setData(BarChartData data, @Nullable ValueFormatter formatter) {
+        int size = data.size();
+
+        // Start from what is on screen; bars that did not exist start from zero
+        float[] current = new float[size];
+        if (endValues.length == size) {
+            for (int i = 0; i < size; i++) {
+                current[i] = valueAt(i);
+            }
+        }
+        startMax = endValues.length == size ? maxAt() : data.getMaxValue();
+        startValues = current;
+
+        endValues = new float[size];
+        labels = new String[size];
+        valueLabels = new String[size];
+        for (int i = 0; i < size; i++) {
+            endValues[i] = data.getValue(i);
+            labels[i] = data.getLabel(i);
+            valueLabels[i] = formatter != null ? formatter.format(endValues[i]) : "";
+        }
+        endMax = data.getMaxValue();
+
+        layoutLabels();
+        animator.cancel();
+        progress = 0f;
+        animator.start();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = (int) Math.ceil(getPaddingTop() + getPaddingBottom()
+                + 2 * (labelPaint.getFontSpacing() + labelPadding) + dp(96));
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        layoutLabels();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        animator.cancel();
+        progress = 1f;
+        super.onDetachedFromWindow();
+    }
+
+    // Thin out the bar labels when they would overlap, and hide values that do not fit
+    private void layoutLabels() {
+        float slotWidth = slotWidth();
+        if (slotWidth <= 0) {
+            labelStep = 1;
+            showValueLabels = true;
+            return;
+        }
+
+        float widestLabel = 0;
+        float widestValue = 0;
+        for (int i = 0; i < labels.length; i++) {
+            widestLabel = Math.max(widestLabel, labelPaint.measureText(labels[i]));
+            widestValue = Math.max(widestValue, labelPaint.measureText(valueLabels[i]));
+        }
+        labelStep = Math.max(1, (int) Math.ceil((widestLabel + labelPadding) / slotWidth));
+        showValueLabels = widestValue + labelPadding <= slotWidth;
+    }
+
+    // Width of each bar's slot, 0 before layout
+    private float slotWidth() {
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        return endValues.length > 0 && width > 0 ? (float) width / endValues.length : 0;
+    }
+
+    private float valueAt(int index) {
+        return startValues[index] + (endValues[index] - startValues[index]) * progress;
+    }
+
+    private float maxAt() {
+        return startMax + (endMax - startMax) * progress;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int size = endValues.length;
+        float slotWidth = slotWidth();
+        float max = maxAt();
+        if (size == 0 || slotWidth <= 0 || max <= 0) {
+            return;
+        }
+
+        float textHeight = labelPaint.getFontSpacing();
+        float left = getPaddingLeft();
+        float bottom = getHeight() - getPaddingBottom() - textHeight - labelPadding;
+        float available = bottom - getPaddingTop() - textHeight - labelPadding;
+        float barWidth = Math.min(maxBarWidth, slotWidth - barGap);
+
+        for (int i = 0; i < size; i++) {
+            float centre = left + (i + 0.5f) * slotWidth;
+            float barHeight = Math.max(0, Math.min(available, available * valueAt(i) / max));
+            barRect.set(centre - barWidth / 2, bottom - barHeight, centre + barWidth / 2, bottom);
+            barPaint.setColor(colors[i % colors.length]);
+            canvas.drawRoundRect(barRect, cornerRadius, cornerRadius, barPaint);
+
+            if (showValueLabels && endValues[i] > 0) {
+                canvas.drawText(valueLabels[i], centre, barRect.top - labelPadding - labelPaint.descent(),
+                        labelPaint);
+            }
+            if (i % labelStep == 0) {
+                canvas.drawText(labels[i], centre, bottom + labelPadding - labelPaint.ascent(), labelPaint);
+            }
+        }
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
@@ -0,0 +1,160 @@
+package org.godsendjoseph.pet_app.ui.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.analytics.CumulativeSeries;
+
+/**
+ * Line chart of cumulative spend over the days of a period.
+ * The x axis spans the whole period, so a month in progress stops part way
+ * across. The line and the area under it are built as paths when the data or
+ * size changes, so onDraw allocates nothing.
+ */
+public class CumulativeChartView extends View {
+
+    // Alpha of the area under the line
+    private static final int FILL_ALPHA = 48;
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint labelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Path linePath = new Path();
+    private final Path fillPath = new Path();
+
+    private final float pointRadius;
+    private final float labelPadding;
+
+    private float[] values = new float[0];
+    private int dayCount;
+    private String startLabel = "";
+    private String endLabel = "";
+
+    // Position of the last point, recomputed by buildPaths()
+    private float lastX;
+    private float lastY;
+
+    public CumulativeChartView(Context context) {
+        this(context, null);
+    }
+
+    public CumulativeChartView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public CumulativeChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        pointRadius = dp(3);
+        labelPadding = dp(4);
+
+        int color = ContextCompat.getColor(context, R.color.colorPrimary);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(dp(2));
+        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        linePaint.setColor(color);
+        fillPaint.setStyle(Paint.Style.FILL);
+        fillPaint.setColor(Color.argb(FILL_ALPHA, Color.red(color), Color.green(color), Color.blue(color)));
+        pointPaint.setColor(color);
+
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        labelPaint.setTextSize(getResources().getDimension(R.dimen.text_size_micro));
+    }
+
+    /**
+     * Show a series
+     * @param series Cumulative spend, one point per day from the start of the period
+     * @param dayCount Number of days the x axis spans, at least the size of the series
+     * @param startLabel Label under the first day
+     * @param endLabel Label under the last day of the period
+     */
+    public void setData(CumulativeSeries series, int dayCount, String startLabel, String endLabel) {
+        values = new float[series.size()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = (float) series.getCumulativeTotal(index);
+        }
+        this.dayCount = Math.max(dayCount, values.length);
+        this.startLabel = startLabel;
+        this.endLabel = endLabel;
+        buildPaths();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        buildPaths();
+    }
+
+    private void buildPaths() {
+        linePath.reset();
+        fillPath.reset();
+        if (values.length == 0 || getWidth() == 0) {
+            return;
+        }
+
+        float left = getPaddingLeft() + pointRadius;
+        float right = getWidth() - getPaddingRight() - pointRadius;
+        float top = getPaddingTop() + pointRadius;
+        float bottom = chartBottom();
+
+        // The line only rises, so the last value is the largest
+        float max = values[values.length - 1];
+        float step = dayCount > 1 ? (right - left) / (dayCount - 1) : 0;
+
+        for (int index = 0; index < values.length; index++) {
+            float x = left + index * step;
+            float y = max > 0 ? bottom - values[index] / max * (bottom - top) : bottom;
+            if (index == 0) {
+                linePath.moveTo(x, y);
+                fillPath.moveTo(x, bottom);
+            } else {
+                linePath.lineTo(x, y);
+            }
+            fillPath.lineTo(x, y);
+            lastX = x;
+            lastY = y;
+        }
+        fillPath.lineTo(lastX, bottom);
+        fillPath.close();
+    }
+
+    // Bottom of the plot area, above the day labels
+    private float chartBottom() {
+        return getHeight() - getPaddingBottom() - labelPaint.getFontSpacing() - labelPadding;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (values.length == 0) {
+            return;
+        }
+
+        canvas.drawPath(fillPath, fillPaint);
+        canvas.drawPath(linePath, linePaint);
+        canvas.drawCircle(lastX, lastY, pointRadius, pointPaint);
+
+        float baseline = getHeight() - getPaddingBottom() - labelPaint.descent();
+        labelPaint.setTextAlign(Paint.Align.LEFT);
+        canvas.drawText(startLabel, getPaddingLeft(), baseline, labelPaint);
+        labelPaint.setTextAlign(Paint.Align.RIGHT);
+        canvas.drawText(endLabel, getWidth() - getPaddingRight(), baseline, labelPaint);
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
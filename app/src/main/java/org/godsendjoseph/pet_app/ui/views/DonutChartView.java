@@ -0,0 +1,200 @@
+package org.godsendjoseph.pet_app.ui.views;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.DonutChartData;
+
+/**
+ * Donut chart with a legend, drawn straight onto the canvas.
+ * The ring sits on the left with a centre text inside it, and the legend
+ * fills the space to its right. Slice angles arrive precomputed in
+ * DonutChartData; the ring bounds and ellipsized legend are laid out when
+ * the data or size changes. New data sweeps in clockwise, and onDraw
+ * allocates nothing, so the animation stays smooth.
+ */
+public class DonutChartView extends View {
+
+    // Length of the sweep-in animation in milliseconds
+    private static final long ANIMATION_DURATION = 450;
+
+    // Gap left between neighbouring slices, in degrees
+    private static final float SLICE_GAP = 1.5f;
+
+    // Thickness of the ring as a share of its diameter
+    private static final float RING_RATIO = 0.22f;
+
+    private final Paint arcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint swatchPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint legendPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint centrePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF ringBounds = new RectF();
+    private final ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+
+    private final float legendGap;
+    private final float swatchRadius;
+    private final float rowHeight;
+
+    private DonutChartData data = DonutChartData.empty();
+    private String centreText = "";
+    private float progress = 1f;
+
+    // Layout, recomputed by layoutChart()
+    private String[] legendLabels = new String[0];
+    private int legendRows;
+    private float legendLeft;
+    private float legendTop;
+    private float centreX;
+    private float centreY;
+
+    public DonutChartView(Context context) {
+        this(context, null);
+    }
+
+    public DonutChartView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public DonutChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        legendGap = dp(16);
+        swatchRadius = dp(5);
+
+        arcPaint.setStyle(Paint.Style.STROKE);
+        arcPaint.setStrokeCap(Paint.Cap.BUTT);
+        swatchPaint.setStyle(Paint.Style.FILL);
+
+        legendPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        legendPaint.setTextSize(getResources().getDimension(R.dimen.text_size_micro));
+        rowHeight = legendPaint.getFontSpacing() + dp(4);
+
+        centrePaint.setColor(ContextCompat.getColor(context, R.color.textPrimary));
+        centrePaint.setTextSize(getResources().getDimension(R.dimen.text_size_micro));
+        centrePaint.setFakeBoldText(true);
+        centrePaint.setTextAlign(Paint.Align.CENTER);
+
+        animator.setDuration(ANIMATION_DURATION);
+        animator.setInterpolator(new DecelerateInterpolator());
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                progress = (float) animation.getAnimatedValue();
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Show new slices, sweeping them in
+     * @param data Slices with their angles and colors
+     * @param centreText Text inside the ring, e.g. the total
+     */
+    public void setData(DonutChartData data, String centreText) {
+        this.data = data;
+        this.centreText = centreText != null ? centreText : "";
+        layoutChart();
+
+        animator.cancel();
+        progress = 0f;
+        animator.start();
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        layoutChart();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        animator.cancel();
+        progress = 1f;
+        super.onDetachedFromWindow();
+    }
+
+    // Fit the ring to the height, at most half the width, and the legend beside it
+    private void layoutChart() {
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        int height = getHeight() - getPaddingTop() - getPaddingBottom();
+        if (width <= 0 || height <= 0) {
+            legendLabels = new String[0];
+            legendRows = 0;
+            return;
+        }
+
+        float diameter = Math.min(height, width / 2f);
+        float thickness = diameter * RING_RATIO;
+        arcPaint.setStrokeWidth(thickness);
+
+        // The stroke is centred on the oval, so inset it by half the thickness
+        float left = getPaddingLeft();
+        float top = getPaddingTop() + (height - diameter) / 2;
+        ringBounds.set(left + thickness / 2, top + thickness / 2,
+                left + diameter - thickness / 2, top + diameter - thickness / 2);
+        centreX = ringBounds.centerX();
+        centreY = ringBounds.centerY() - (centrePaint.descent() + centrePaint.ascent()) / 2;
+
+        legendLeft = left + diameter + legendGap;
+        float labelWidth = Math.max(0, getWidth() - getPaddingRight() - legendLeft - 3 * swatchRadius);
+        legendRows = Math.min(data.size(), (int) (height / rowHeight));
+        legendTop = getPaddingTop() + (height - legendRows * rowHeight) / 2;
+
+        legendLabels = new String[legendRows];
+        for (int row = 0; row < legendRows; row++) {
+            legendLabels[row] = TextUtils.ellipsize(data.getLabel(row), legendPaint, labelWidth,
+                    TextUtils.TruncateAt.END).toString();
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int slices = data.size();
+        if (slices == 0 || ringBounds.isEmpty()) {
+            return;
+        }
+
+        // Slices appear clockwise as the sweep passes them
+        float sweep = progress * 360f;
+        float gap = slices > 1 ? SLICE_GAP : 0;
+        for (int i = 0; i < slices; i++) {
+            float start = data.getStartAngle(i);
+            float visible = Math.min(data.getSweepAngle(i) - gap, sweep - start);
+            if (visible <= 0) {
+                continue;
+            }
+            arcPaint.setColor(data.getColor(i));
+            canvas.drawArc(ringBounds, start - 90f + gap / 2, visible, false, arcPaint);
+        }
+
+        canvas.drawText(centreText, centreX, centreY, centrePaint);
+
+        float textOffset = (legendPaint.descent() + legendPaint.ascent()) / 2;
+        for (int row = 0; row < legendRows; row++) {
+            float rowCentre = legendTop + (row + 0.5f) * rowHeight;
+            swatchPaint.setColor(data.getColor(row));
+            canvas.drawCircle(legendLeft + swatchRadius, rowCentre, swatchRadius, swatchPaint);
+            canvas.drawText(legendLabels[row], legendLeft + 3 * swatchRadius, rowCentre - textOffset,
+                    legendPaint);
+        }
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
@@ -0,0 +1,183 @@
+package org.godsendjoseph.pet_app.ui.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.models.HeatmapData;
+
+/**
+ * Heatmap drawn straight onto the canvas.
+ * Each cell is shaded from a faint to a full base color by its share of the
+ * largest value. Row labels sit on the left, column labels on top; column
+ * labels are thinned out when they would overlap. Labels are laid out when
+ * the data or size changes, so onDraw allocates nothing.
+ */
+public class HeatmapView extends View {
+
+    // Alpha of an empty cell and of the largest one
+    private static final int MIN_ALPHA = 20;
+    private static final int MAX_ALPHA = 255;
+
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint labelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF cellRect = new RectF();
+
+    private final float cellHeight;
+    private final float cellGap;
+    private final float cornerRadius;
+    private final float labelPadding;
+
+    private HeatmapData data = HeatmapData.empty();
+    private int baseColor;
+
+    // Layout, recomputed by layoutLabels()
+    private String[] rowLabels = new String[0];
+    private float rowLabelWidth;
+    private float headerHeight;
+    private int columnLabelStep = 1;
+
+    public HeatmapView(Context context) {
+        this(context, null);
+    }
+
+    public HeatmapView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public HeatmapView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        cellHeight = dp(20);
+        cellGap = dp(2);
+        cornerRadius = dp(3);
+        labelPadding = dp(6);
+
+        baseColor = ContextCompat.getColor(context, R.color.colorPrimary);
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        labelPaint.setTextSize(getResources().getDimension(R.dimen.text_size_micro));
+    }
+
+    /**
+     * Show new data
+     */
+    public void setData(HeatmapData data) {
+        this.data = data;
+        layoutLabels();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Set the color of the largest cell
+     */
+    public void setBaseColor(int color) {
+        baseColor = color;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        float textHeight = labelPaint.getFontSpacing();
+        int height = (int) Math.ceil(getPaddingTop() + getPaddingBottom() + textHeight + labelPadding
+                + data.getRowCount() * cellHeight);
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        layoutLabels();
+    }
+
+    // Ellipsize the row labels to at most a third of the width and thin out the column labels
+    private void layoutLabels() {
+        int rows = data.getRowCount();
+        int columns = data.getColumnCount();
+        float maxLabelWidth = getWidth() > 0 ? getWidth() / 3f : dp(96);
+
+        rowLabels = new String[rows];
+        rowLabelWidth = 0;
+        for (int row = 0; row < rows; row++) {
+            rowLabels[row] = TextUtils.ellipsize(data.getRowLabel(row), labelPaint, maxLabelWidth,
+                    TextUtils.TruncateAt.END).toString();
+            rowLabelWidth = Math.max(rowLabelWidth, labelPaint.measureText(rowLabels[row]));
+        }
+        rowLabelWidth += labelPadding;
+
+        float widestColumnLabel = 0;
+        for (int column = 0; column < columns; column++) {
+            widestColumnLabel = Math.max(widestColumnLabel, labelPaint.measureText(data.getColumnLabel(column)));
+        }
+        float columnWidth = columns > 0 ? gridWidth() / columns : 0;
+        columnLabelStep = columnWidth > 0
+                ? Math.max(1, (int) Math.ceil((widestColumnLabel + labelPadding) / columnWidth)) : 1;
+
+        headerHeight = labelPaint.getFontSpacing() + labelPadding;
+    }
+
+    private float gridWidth() {
+        return Math.max(0, getWidth() - getPaddingLeft() - getPaddingRight() - rowLabelWidth);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int rows = data.getRowCount();
+        int columns = data.getColumnCount();
+        if (rows == 0 || columns == 0 || rowLabels.length != rows) {
+            return;
+        }
+
+        float left = getPaddingLeft() + rowLabelWidth;
+        float top = getPaddingTop() + headerHeight;
+        float columnWidth = gridWidth() / columns;
+        float maxValue = data.getMaxValue();
+        int red = Color.red(baseColor);
+        int green = Color.green(baseColor);
+        int blue = Color.blue(baseColor);
+
+        // Column labels, centred over every columnLabelStep-th column
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        float headerBaseline = getPaddingTop() + headerHeight - labelPadding - labelPaint.descent();
+        for (int column = 0; column < columns; column += columnLabelStep) {
+            canvas.drawText(data.getColumnLabel(column), left + (column + 0.5f) * columnWidth,
+                    headerBaseline, labelPaint);
+        }
+
+        labelPaint.setTextAlign(Paint.Align.LEFT);
+        float textOffset = (labelPaint.descent() + labelPaint.ascent()) / 2;
+        for (int row = 0; row < rows; row++) {
+            float rowTop = top + row * cellHeight;
+            canvas.drawText(rowLabels[row], getPaddingLeft(), rowTop + cellHeight / 2 - textOffset, labelPaint);
+
+            for (int column = 0; column < columns; column++) {
+                float share = maxValue > 0 ? data.getValue(row, column) / maxValue : 0;
+                int alpha = MIN_ALPHA + Math.round(share * (MAX_ALPHA - MIN_ALPHA));
+                cellPaint.setColor(Color.argb(alpha, red, green, blue));
+
+                float cellLeft = left + column * columnWidth;
+                cellRect.set(cellLeft + cellGap / 2, rowTop + cellGap / 2,
+                        cellLeft + columnWidth - cellGap / 2, rowTop + cellHeight - cellGap / 2);
+                canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, cellPaint);
+            }
+        }
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
@@ -0,0 +1,125 @@
+package org.godsendjoseph.pet_app.ui.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import org.godsendjoseph.pet_app.R;
+import org.godsendjoseph.pet_app.analytics.AmountHistogram;
+import org.godsendjoseph.pet_app.analytics.HistogramBuckets;
+
+/**
+ * Compact histogram drawn straight onto the canvas.
+ * One bar per bucket from the first to the last non-empty one, sized by the
+ * number of expenses, with the bucket's lower bound below it and the count
+ * above. Labels are built when the data changes, so onDraw allocates nothing.
+ */
+public class HistogramView extends View {
+
+    private final Paint barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint labelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF barRect = new RectF();
+
+    private final float chartHeight;
+    private final float barGap;
+    private final float cornerRadius;
+    private final float labelPadding;
+
+    // Visible buckets, rebuilt by setData()
+    private long[] counts = new long[0];
+    private String[] bucketLabels = new String[0];
+    private String[] countLabels = new String[0];
+    private long maxCount;
+
+    public HistogramView(Context context) {
+        this(context, null);
+    }
+
+    public HistogramView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public HistogramView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        chartHeight = dp(96);
+        barGap = dp(4);
+        cornerRadius = dp(3);
+        labelPadding = dp(4);
+
+        barPaint.setColor(ContextCompat.getColor(context, R.color.colorPrimary));
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.textSecondary));
+        labelPaint.setTextSize(getResources().getDimension(R.dimen.text_size_micro));
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * Show a new histogram
+     */
+    public void setData(AmountHistogram histogram) {
+        int first = histogram.getFirstNonEmpty();
+        int size = first < 0 ? 0 : histogram.getLastNonEmpty() - first + 1;
+        HistogramBuckets buckets = histogram.getBuckets();
+
+        counts = new long[size];
+        bucketLabels = new String[size];
+        countLabels = new String[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = histogram.getCount(first + i);
+            bucketLabels[i] = buckets.getLabel(first + i);
+            countLabels[i] = counts[i] > 0 ? String.valueOf(counts[i]) : "";
+        }
+        maxCount = histogram.getMaxCount();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        float textHeight = labelPaint.getFontSpacing();
+        int height = (int) Math.ceil(getPaddingTop() + getPaddingBottom()
+                + 2 * (textHeight + labelPadding) + chartHeight);
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int size = counts.length;
+        if (size == 0 || maxCount <= 0) {
+            return;
+        }
+
+        float textHeight = labelPaint.getFontSpacing();
+        float left = getPaddingLeft();
+        float barWidth = (float) (getWidth() - getPaddingLeft() - getPaddingRight()) / size;
+        float baseline = getHeight() - getPaddingBottom() - textHeight - labelPadding;
+        float available = baseline - getPaddingTop() - textHeight - labelPadding;
+
+        for (int i = 0; i < size; i++) {
+            float centre = left + (i + 0.5f) * barWidth;
+            float barHeight = available * counts[i] / maxCount;
+            barRect.set(left + i * barWidth + barGap / 2, baseline - barHeight,
+                    left + (i + 1) * barWidth - barGap / 2, baseline);
+            canvas.drawRoundRect(barRect, cornerRadius, cornerRadius, barPaint);
+
+            canvas.drawText(countLabels[i], centre, barRect.top - labelPadding - labelPaint.descent(),
+                    labelPaint);
+            canvas.drawText(bucketLabels[i], centre, baseline + labelPadding - labelPaint.ascent(),
+                    labelPaint);
+        }
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
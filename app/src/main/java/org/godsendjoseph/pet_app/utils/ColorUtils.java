@@ -0,0 +1,53 @@
+package org.godsendjoseph.pet_app.utils;
+
+/**
+ * Utility class for the hex color codes stored with categories.
+ *
+ * Parsing never throws, so models can parse their color once when they are
+ * loaded and list rows only ever see ints.
+ */
+public final class ColorUtils {
+
+    /**
+     * Stands in for a missing or malformed color. Fully transparent, so it is
+     * never one of the opaque colors the category picker produces.
+     */
+    public static final int NO_COLOR = 0;
+
+    private ColorUtils() {
+    }
+
+    /**
+     * Parse a "#RRGGBB" or "#AARRGGBB" color
+     * @param color Hex color code
+     * @param fallback Color to return if the code is missing or malformed
+     * @return The color as an ARGB int
+     */
+    public static int parseColor(String color, int fallback) {
+        if (color == null || (color.length() != 7 && color.length() != 9) || color.charAt(0) != '#') {
+            return fallback;
+        }
+
+        long value = 0;
+        for (int i = 1; i < color.length(); i++) {
+            int digit = Character.digit(color.charAt(i), 16);
+            if (digit < 0) {
+                return fallback;
+            }
+            value = (value << 4) | digit;
+        }
+
+        // Six digits carry no alpha, so they are opaque
+        if (color.length() == 7) {
+            value |= 0xFF000000L;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Whether a parsed color is an actual color rather than NO_COLOR
+     */
+    public static boolean hasColor(int color) {
+        return color != NO_COLOR;
+    }
+}
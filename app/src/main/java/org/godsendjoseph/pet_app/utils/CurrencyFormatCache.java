@@ -0,0 +1,125 @@
+package org.godsendjoseph.pet_app.utils;
+
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Currency and percent formatters cached per locale and currency.
+ *
+ * NumberFormat.getCurrencyInstance() clones locale data on every call, so
+ * building one per formatted amount dominates the cost of formatting. This
+ * keeps one formatter per (locale, currency) and formats into a reused
+ * buffer, so a call allocates only the returned string. NumberFormat is not
+ * thread-safe, so calls are synchronized.
+ */
+public final class CurrencyFormatCache {
+
+    private final Map<String, NumberFormat> formats = new HashMap<>();
+    private final Map<String, NumberFormat> wholeFormats = new HashMap<>();
+    private final Map<Locale, NumberFormat> percentFormats = new HashMap<>();
+    private final StringBuffer buffer = new StringBuffer(32);
+    private final FieldPosition fieldPosition = new FieldPosition(0);
+
+    // Formatter of the last locale and currency used
+    private Locale currentLocale;
+    private String currentCurrencyCode;
+    private NumberFormat currentFormat;
+
+    /**
+     * Format an amount
+     * @param locale Locale of the digits and symbol placement
+     * @param currencyCode ISO 4217 code, e.g. "GBP"
+     * @param amount Amount to format
+     */
+    public synchronized String format(Locale locale, String currencyCode, double amount) {
+        buffer.setLength(0);
+        select(locale, currencyCode).format(amount, buffer, fieldPosition);
+        return buffer.toString();
+    }
+
+    /**
+     * Format an amount onto the end of a buffer, without allocating
+     */
+    public synchronized void formatTo(Locale locale, String currencyCode, double amount, StringBuffer out) {
+        select(locale, currencyCode).format(amount, out, fieldPosition);
+    }
+
+    /**
+     * Format an amount rounded to whole units, e.g. for chart labels
+     */
+    public synchronized String formatWhole(Locale locale, String currencyCode, double amount) {
+        String key = locale.toString() + '|' + currencyCode;
+        NumberFormat format = wholeFormats.get(key);
+        if (format == null) {
+            format = newCurrencyFormat(locale, currencyCode);
+            format.setMaximumFractionDigits(0);
+            wholeFormats.put(key, format);
+        }
+
+        buffer.setLength(0);
+        format.format(amount, buffer, fieldPosition);
+        return buffer.toString();
+    }
+
+    /**
+     * Format a fraction as a percentage with one decimal, e.g. 0.125 as "12.5%"
+     */
+    public synchronized String formatPercent(Locale locale, double fraction) {
+        NumberFormat format = percentFormats.get(locale);
+        if (format == null) {
+            format = NumberFormat.getPercentInstance(locale);
+            format.setMinimumFractionDigits(1);
+            format.setMaximumFractionDigits(1);
+            percentFormats.put(locale, format);
+        }
+
+        buffer.setLength(0);
+        format.format(fraction, buffer, fieldPosition);
+        return buffer.toString();
+    }
+
+    /**
+     * Drop all cached formatters
+     */
+    public synchronized void clear() {
+        formats.clear();
+        wholeFormats.clear();
+        percentFormats.clear();
+        currentLocale = null;
+        currentCurrencyCode = null;
+        currentFormat = null;
+    }
+
+    // Look up the formatter only when the locale or currency changed since the last call
+    private NumberFormat select(Locale locale, String currencyCode) {
+        if (currentFormat != null && locale.equals(currentLocale) && currencyCode.equals(currentCurrencyCode)) {
+            return currentFormat;
+        }
+
+        String key = locale.toString() + '|' + currencyCode;
+        NumberFormat format = formats.get(key);
+        if (format == null) {
+            format = newCurrencyFormat(locale, currencyCode);
+            formats.put(key, format);
+        }
+
+        currentLocale = locale;
+        currentCurrencyCode = currencyCode;
+        currentFormat = format;
+        return format;
+    }
+
+    private static NumberFormat newCurrencyFormat(Locale locale, String currencyCode) {
+        NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        try {
+            format.setCurrency(Currency.getInstance(currencyCode));
+        } catch (IllegalArgumentException e) {
+            // Unknown code: keep the locale's own currency
+        }
+        return format;
+    }
+}
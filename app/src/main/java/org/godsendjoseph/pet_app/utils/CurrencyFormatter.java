@@ -0,0 +1,112 @@
+package org.godsendjoseph.pet_app.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.preference.PreferenceManager;
+
+import java.util.Locale;
+
+/**
+ * Formats amounts in the currency chosen in the settings, and percentages.
+ *
+ * The currency preference is read once and then kept up to date by a
+ * preference listener, so formatting never touches SharedPreferences, and
+ * formatters come from a CurrencyFormatCache instead of being built per call.
+ */
+public class CurrencyFormatter {
+    private static final String PREF_CURRENCY = "currency";
+    private static final String DEFAULT_CURRENCY = "$";
+
+    // Singleton instance
+    private static CurrencyFormatter instance;
+
+    private final SharedPreferences preferences;
+    private final CurrencyFormatCache cache = new CurrencyFormatCache();
+    private volatile String currencyCode;
+
+    // Kept in a field, since SharedPreferences only holds listeners weakly
+    private final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+                    // A null key means the preferences were cleared
+                    if (key == null || PREF_CURRENCY.equals(key)) {
+                        loadCurrency();
+                    }
+                }
+            };
+
+    // Private constructor to enforce singleton pattern
+    private CurrencyFormatter(Context context) {
+        preferences = PreferenceManager.getDefaultSharedPreferences(context);
+        loadCurrency();
+        preferences.registerOnSharedPreferenceChangeListener(preferenceListener);
+    }
+
+    /**
+     * Get the singleton instance of CurrencyFormatter
+     * @param context Application context
+     * @return CurrencyFormatter instance
+     */
+    public static synchronized CurrencyFormatter getInstance(Context context) {
+        if (instance == null) {
+            instance = new CurrencyFormatter(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Format an amount in the chosen currency and the default locale
+     */
+    public String format(double amount) {
+        return cache.format(Locale.getDefault(), currencyCode, amount);
+    }
+
+    /**
+     * Format an amount onto the end of a buffer, without allocating
+     */
+    public void formatTo(double amount, StringBuffer out) {
+        cache.formatTo(Locale.getDefault(), currencyCode, amount, out);
+    }
+
+    /**
+     * Format an amount in the chosen currency, rounded to whole units
+     */
+    public String formatWhole(double amount) {
+        return cache.formatWhole(Locale.getDefault(), currencyCode, amount);
+    }
+
+    /**
+     * Format a percentage with one decimal in the default locale
+     * @param percentage Percentage, e.g. 12.5 for "12.5%"
+     */
+    public String formatPercent(double percentage) {
+        return cache.formatPercent(Locale.getDefault(), percentage / 100.0);
+    }
+
+    private void loadCurrency() {
+        currencyCode = currencyCodeFor(preferences.getString(PREF_CURRENCY, DEFAULT_CURRENCY));
+    }
+
+    /**
+     * Map a currency symbol from the settings to its ISO 4217 code
+     */
+    static String currencyCodeFor(String symbol) {
+        if (symbol == null) {
+            return "USD";
+        }
+        switch (symbol) {
+            case "\u00A3":
+                return "GBP";
+            case "\u20AC":
+                return "EUR";
+            case "\u00A5":
+                return "JPY";
+            case "\u20B9":
+                return "INR";
+            default:
+                return "USD";
+        }
+    }
+}
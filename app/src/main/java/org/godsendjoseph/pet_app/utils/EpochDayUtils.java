@@ -0,0 +1,160 @@
+package org.godsendjoseph.pet_app.utils;
+
+import java.util.Calendar;
+
+/**
+ * Utility class for dates stored as epoch days (days since 1970-01-01).
+ * Works on the proleptic Gregorian calendar with plain integer arithmetic, so
+ * it needs neither java.time (API 26) nor a Calendar per conversion.
+ */
+public class EpochDayUtils {
+
+    // Marks a missing or malformed date or time
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    /**
+     * Convert a calendar date to an epoch day
+     * @param year Year, e.g. 2024
+     * @param month Month, 1-12
+     * @param day Day of month, 1-31
+     */
+    public static int fromCivil(int year, int month, int day) {
+        // Count years from March, so the leap day is the last day of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Parse a "yyyy-MM-dd" date without allocating
+     * @return Epoch day, or INVALID if the date is malformed
+     */
+    public static int fromDate(String date) {
+        if (date == null || date.length() < 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return INVALID;
+        }
+
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return INVALID;
+        }
+
+        return fromCivil(year, month, day);
+    }
+
+    /**
+     * Format an epoch day as "yyyy-MM-dd"
+     */
+    public static String toDate(int epochDay) {
+        int[] civil = toCivil(epochDay);
+        char[] chars = new char[10];
+        writeDigits(chars, 0, 4, civil[0]);
+        chars[4] = '-';
+        writeDigits(chars, 5, 7, civil[1]);
+        chars[7] = '-';
+        writeDigits(chars, 8, 10, civil[2]);
+        return new String(chars);
+    }
+
+    /**
+     * Convert an epoch day to year, month (1-12) and day of month
+     * @return Array of {year, month, day}
+     */
+    public static int[] toCivil(int epochDay) {
+        int days = epochDay + 719468;
+        int era = Math.floorDiv(days, 146097);
+        int dayOfEra = days - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new int[]{year, month, day};
+    }
+
+    /**
+     * Get today's epoch day in the default time zone
+     */
+    public static int today() {
+        Calendar calendar = Calendar.getInstance();
+        return fromCivil(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DAY_OF_MONTH));
+    }
+
+    /**
+     * Get the last day of the month an epoch day falls in
+     */
+    public static int lastDayOfMonth(int epochDay) {
+        int[] civil = toCivil(epochDay);
+        return civil[1] == 12
+                ? fromCivil(civil[0], 12, 31)
+                : fromCivil(civil[0], civil[1] + 1, 1) - 1;
+    }
+
+    /**
+     * Get the month of an epoch day as year * 12 + (month - 1) without allocating
+     */
+    public static int monthIndex(int epochDay) {
+        int days = epochDay + 719468;
+        int era = Math.floorDiv(days, 146097);
+        int dayOfEra = days - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * Get the day of the week of an epoch day
+     * @return 0 for Monday through 6 for Sunday
+     */
+    public static int dayOfWeek(int epochDay) {
+        // 1970-01-01 was a Thursday
+        return Math.floorMod(epochDay + 3, 7);
+    }
+
+    /**
+     * Parse a "HH:mm" time to minutes since midnight without allocating
+     * @return Minute of the day, or INVALID if the time is malformed
+     */
+    public static int minuteOfDay(String time) {
+        if (time == null || time.length() < 5 || time.charAt(2) != ':') {
+            return INVALID;
+        }
+
+        int hour = digits(time, 0, 2);
+        int minute = digits(time, 3, 5);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return INVALID;
+        }
+        return hour * 60 + minute;
+    }
+
+    // Parse the decimal digits in [start, end), or -1 if any is not a digit
+    private static int digits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] chars, int start, int end, int value) {
+        for (int i = end - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
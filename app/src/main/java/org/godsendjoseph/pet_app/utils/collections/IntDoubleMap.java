@@ -0,0 +1,70 @@
+package org.godsendjoseph.pet_app.utils.collections;
+
+/**
+ * Map from int keys to double values, without boxing.
+ * Missing keys read as 0.
+ */
+public final class IntDoubleMap extends IntHashTable {
+    private double[] values;
+
+    public IntDoubleMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize Number of entries to hold without resizing
+     */
+    public IntDoubleMap(int expectedSize) {
+        super(expectedSize);
+        values = new double[keys.length];
+    }
+
+    /**
+     * Get the value of a key
+     * @return The value, or 0 if the key is not present
+     */
+    public double get(int key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public void put(int key, double value) {
+        // Claim first: growing replaces the values array
+        int slot = claimSlot(key);
+        values[slot] = value;
+    }
+
+    /**
+     * Add to the value of a key, starting from 0 if it is not present
+     * @return The new value
+     */
+    public double addTo(int key, double delta) {
+        int slot = claimSlot(key);
+        return values[slot] += delta;
+    }
+
+    public double valueAt(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    void resizeValues(int capacity, int[] newSlots) {
+        double[] newValues = new double[capacity];
+        for (int oldSlot = 0; oldSlot < newSlots.length; oldSlot++) {
+            if (newSlots[oldSlot] >= 0) {
+                newValues[newSlots[oldSlot]] = values[oldSlot];
+            }
+        }
+        values = newValues;
+    }
+
+    @Override
+    void moveValue(int fromSlot, int toSlot) {
+        values[toSlot] = values[fromSlot];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+}
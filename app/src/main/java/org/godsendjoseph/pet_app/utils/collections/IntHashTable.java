@@ -0,0 +1,194 @@
+package org.godsendjoseph.pet_app.utils.collections;
+
+/**
+ * Open-addressing hash table of int keys with linear probing.
+ * Holds the keys and slot bookkeeping; subclasses keep their values in a
+ * parallel primitive array, so neither keys nor values are boxed and lookups
+ * and updates of existing keys never allocate.
+ *
+ * Removal shifts later entries back instead of leaving tombstones, so slots
+ * must not be iterated while entries are removed.
+ */
+abstract class IntHashTable {
+    private static final int MIN_CAPACITY = 8;
+
+    int[] keys;
+    boolean[] used;
+    private int size;
+    private int mask;
+
+    IntHashTable(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        // Keep the load factor at or below 3/4
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    // Allocate the value array for a new capacity, copying entries to their new slots
+    abstract void resizeValues(int capacity, int[] newSlots);
+
+    // Move a value from one slot to another during removal
+    abstract void moveValue(int fromSlot, int toSlot);
+
+    // Clear the value of a slot that became free
+    abstract void clearValue(int slot);
+
+    /**
+     * Find the slot holding a key
+     * @return Slot index, or -1 if the key is not present
+     */
+    final int slotOf(int key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the slot of a key, claiming a free one if it is not present.
+     * A newly claimed slot holds the default value of the subclass.
+     */
+    final int claimSlot(int key) {
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if ((size + 1) * 4 > keys.length * 3) {
+            grow();
+            return claimSlot(key);
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Remove a key
+     * @return true if the key was present
+     */
+    public final boolean remove(int key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return false;
+        }
+
+        // Shift back later entries of the probe sequence into the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int ideal = hash(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                moveValue(next, gap);
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        used[gap] = false;
+        clearValue(gap);
+        size--;
+        return true;
+    }
+
+    public final boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    public final int size() {
+        return size;
+    }
+
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot]) {
+                used[slot] = false;
+                clearValue(slot);
+            }
+        }
+        size = 0;
+    }
+
+    /*
+     * Slot-based iteration without allocation:
+     * for (int slot = 0; slot < map.slotCount(); slot++) if (map.isUsed(slot)) ...
+     */
+
+    public final int slotCount() {
+        return keys.length;
+    }
+
+    public final boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    public final int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Copy the keys into a new array, in no particular order
+     */
+    public final int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                result[index++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        int capacity = oldKeys.length << 1;
+
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+
+        int[] newSlots = new int[oldKeys.length];
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (!oldUsed[oldSlot]) {
+                newSlots[oldSlot] = -1;
+                continue;
+            }
+
+            int slot = hash(oldKeys[oldSlot]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = oldKeys[oldSlot];
+            newSlots[oldSlot] = slot;
+        }
+
+        resizeValues(capacity, newSlots);
+    }
+
+    // Spread sequential keys such as IDs and month indexes over the table
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package org.godsendjoseph.pet_app.utils.collections;
+
+/**
+ * Map from int keys to long values, without boxing.
+ * Missing keys read as 0.
+ */
+public final class IntLongMap extends IntHashTable {
+    private long[] values;
+
+    public IntLongMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize Number of entries to hold without resizing
+     */
+    public IntLongMap(int expectedSize) {
+        super(expectedSize);
+        values = new long[keys.length];
+    }
+
+    /**
+     * Get the value of a key
+     * @return The value, or 0 if the key is not present
+     */
+    public long get(int key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public void put(int key, long value) {
+        // Claim first: growing replaces the values array
+        int slot = claimSlot(key);
+        values[slot] = value;
+    }
+
+    /**
+     * Add to the value of a key, starting from 0 if it is not present
+     * @return The new value
+     */
+    public long addTo(int key, long delta) {
+        int slot = claimSlot(key);
+        return values[slot] += delta;
+    }
+
+    public long valueAt(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    void resizeValues(int capacity, int[] newSlots) {
+        long[] newValues = new long[capacity];
+        for (int oldSlot = 0; oldSlot < newSlots.length; oldSlot++) {
+            if (newSlots[oldSlot] >= 0) {
+                newValues[newSlots[oldSlot]] = values[oldSlot];
+            }
+        }
+        values = newValues;
+    }
+
+    @Override
+    void moveValue(int fromSlot, int toSlot) {
+        values[toSlot] = values[fromSlot];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+}
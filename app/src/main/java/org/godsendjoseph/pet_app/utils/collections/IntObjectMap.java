@@ -0,0 +1,72 @@
+package org.godsendjoseph.pet_app.utils.collections;
+
+import java.util.Arrays;
+
+/**
+ * Map from int keys to objects, without boxing the keys.
+ * Missing keys read as null.
+ * @param <V> Type of the values
+ */
+public final class IntObjectMap<V> extends IntHashTable {
+    private Object[] values;
+
+    public IntObjectMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize Number of entries to hold without resizing
+     */
+    public IntObjectMap(int expectedSize) {
+        super(expectedSize);
+        values = new Object[keys.length];
+    }
+
+    /**
+     * Get the value of a key
+     * @return The value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    public void put(int key, V value) {
+        // Claim first: growing replaces the values array
+        int slot = claimSlot(key);
+        values[slot] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(values, null);
+    }
+
+    @Override
+    void resizeValues(int capacity, int[] newSlots) {
+        Object[] newValues = new Object[capacity];
+        for (int oldSlot = 0; oldSlot < newSlots.length; oldSlot++) {
+            if (newSlots[oldSlot] >= 0) {
+                newValues[newSlots[oldSlot]] = values[oldSlot];
+            }
+        }
+        values = newValues;
+    }
+
+    @Override
+    void moveValue(int fromSlot, int toSlot) {
+        values[toSlot] = values[fromSlot];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+}
@@ -0,0 +1,96 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the aggregation loops allocate nothing per row once their groups exist.
+ */
+public class AggregationAllocationTest {
+
+    private static final int ROWS = 100000;
+
+    @Test
+    public void expenseAggregator_addAllocatesNothingPerRow() {
+        Random random = new Random(7);
+        int[] categoryIds = new int[ROWS];
+        double[] amounts = new double[ROWS];
+        int[] monthIndexes = new int[ROWS];
+        String[] locations = new String[ROWS];
+        String[] titles = new String[ROWS];
+        String[] locationNames = {"Tesco", "Asda", "Lidl", "Boots", null};
+        String[] titleNames = {"Groceries", "Coffee", "Lunch", "Fuel", "Pharmacy", ""};
+        for (int row = 0; row < ROWS; row++) {
+            categoryIds[row] = random.nextInt(12);
+            amounts[row] = random.nextDouble() * 100;
+            // Month indexes are far outside the Integer cache, so boxed keys would allocate
+            monthIndexes[row] = 2024 * 12 + random.nextInt(36);
+            locations[row] = locationNames[random.nextInt(locationNames.length)];
+            titles[row] = titleNames[random.nextInt(titleNames.length)];
+        }
+
+        ExpenseAggregator aggregator = new ExpenseAggregator();
+        // First pass creates every group
+        for (int row = 0; row < ROWS; row++) {
+            aggregator.add(categoryIds[row], amounts[row], monthIndexes[row], locations[row], titles[row]);
+        }
+
+        long allocated = measureAllocation(new Runnable() {
+            @Override
+            public void run() {
+                for (int row = 0; row < ROWS; row++) {
+                    aggregator.add(categoryIds[row], amounts[row], monthIndexes[row], locations[row], titles[row]);
+                }
+            }
+        });
+
+        assertTrue("Allocated " + allocated + " bytes for " + ROWS + " rows", allocated < ROWS);
+        assertEquals(2 * ROWS, aggregator.getCount());
+    }
+
+    @Test
+    public void dailyAggregates_accumulateAllocatesNothingPerRow() {
+        // One month, so each day holds enough rows for its quantile sketches to
+        // reach their working size; smaller sketches still grow their buffers
+        ExpenseColumns columns = ParallelAggregationTest.generateColumns(ROWS, 31);
+        final ParallelAggregation.RangeAccumulator<DailyAggregates> rangeAccumulator = DailyAggregates.over(columns);
+        final DailyAggregates daily = rangeAccumulator.create();
+
+        // First passes create every day and group and fill the sketches
+        rangeAccumulator.accumulate(daily, 0, columns.size());
+        rangeAccumulator.accumulate(daily, 0, columns.size());
+
+        long allocated = measureAllocation(new Runnable() {
+            @Override
+            public void run() {
+                rangeAccumulator.accumulate(daily, 0, columns.size());
+            }
+        });
+
+        assertTrue("Allocated " + allocated + " bytes for " + ROWS + " rows", allocated < ROWS);
+    }
+
+    // Bytes allocated by the current thread while running the task
+    private static long measureAllocation(Runnable task) {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().getId();
+
+        // Cost of the measurement itself
+        long calibrationStart = allocationBean.getThreadAllocatedBytes(threadId);
+        long calibration = allocationBean.getThreadAllocatedBytes(threadId) - calibrationStart;
+
+        long start = allocationBean.getThreadAllocatedBytes(threadId);
+        task.run();
+        return allocationBean.getThreadAllocatedBytes(threadId) - start - calibration;
+    }
+}
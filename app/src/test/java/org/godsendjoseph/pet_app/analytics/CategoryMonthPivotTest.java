@@ -0,0 +1,60 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for CategoryMonthPivot.
+ */
+public class CategoryMonthPivotTest {
+
+    private static final int FIRST_MONTH = 2023 * 12;
+
+    @Test
+    public void groupRows_fillDenseMatrix() {
+        CategoryMonthPivot pivot = new CategoryMonthPivot.Builder(FIRST_MONTH, FIRST_MONTH + 2)
+                .add(7, FIRST_MONTH, 10)
+                .add(3, FIRST_MONTH + 2, 4.5)
+                .add(7, FIRST_MONTH + 1, 2)
+                // Outside the range
+                .add(3, FIRST_MONTH + 3, 100)
+                .build();
+
+        assertEquals(2, pivot.getCategoryCount());
+        assertEquals(3, pivot.getMonthCount());
+        assertEquals(3, pivot.getCategoryId(0));
+        assertEquals(7, pivot.getCategoryId(1));
+        assertEquals(FIRST_MONTH + 2, pivot.getMonthIndex(2));
+
+        int row = pivot.getRowOf(7);
+        assertEquals(10, pivot.getTotal(row, 0), 0);
+        assertEquals(2, pivot.getTotal(row, 1), 0);
+        assertEquals(0, pivot.getTotal(row, 2), 0);
+        assertEquals(4.5, pivot.getTotal(pivot.getRowOf(3), 2), 0);
+        assertEquals(-1, pivot.getRowOf(99));
+        assertEquals(10, pivot.getMaxTotal(), 0);
+    }
+
+    @Test
+    public void thirtyCategoriesByTwentyFourMonths() {
+        CategoryMonthPivot.Builder builder = new CategoryMonthPivot.Builder(FIRST_MONTH, FIRST_MONTH + 23);
+        for (int category = 1; category <= 30; category++) {
+            for (int month = 0; month < 24; month++) {
+                builder.add(category, FIRST_MONTH + month, category * 100 + month);
+            }
+        }
+        CategoryMonthPivot pivot = builder.build();
+
+        assertEquals(30, pivot.getCategoryCount());
+        assertEquals(24, pivot.getMonthCount());
+        assertEquals(1523, pivot.getTotal(pivot.getRowOf(15), 23), 0);
+    }
+
+    @Test
+    public void invalidRange_isEmpty() {
+        CategoryMonthPivot pivot = new CategoryMonthPivot.Builder(-1, -1).add(1, FIRST_MONTH, 5).build();
+        assertEquals(0, pivot.getCategoryCount());
+        assertEquals(0, pivot.getMonthCount());
+    }
+}
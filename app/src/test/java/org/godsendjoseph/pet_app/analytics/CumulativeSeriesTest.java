@@ -0,0 +1,52 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for CumulativeSeries.
+ */
+public class CumulativeSeriesTest {
+
+    private static final int FIRST_DAY = 19723;
+
+    @Test
+    public void missingDays_carryTheRunningTotal() {
+        CumulativeSeries series = new CumulativeSeries.Builder(FIRST_DAY, FIRST_DAY + 6)
+                .add(FIRST_DAY + 1, 10, 10)
+                .add(FIRST_DAY + 4, 5, 15)
+                .build();
+
+        assertEquals(7, series.size());
+        assertEquals(FIRST_DAY + 6, series.getEpochDay(6));
+        double[] expected = {0, 10, 10, 10, 15, 15, 15};
+        for (int index = 0; index < expected.length; index++) {
+            assertEquals(expected[index], series.getCumulativeTotal(index), 0);
+        }
+        assertEquals(0, series.getDailyTotal(2), 0);
+        assertEquals(5, series.getDailyTotal(4), 0);
+        assertEquals(15, series.getTotal(), 0);
+    }
+
+    @Test
+    public void daysOutOfRangeOrOrder_areIgnored() {
+        CumulativeSeries series = new CumulativeSeries.Builder(FIRST_DAY, FIRST_DAY + 2)
+                .add(FIRST_DAY - 1, 99, 99)
+                .add(FIRST_DAY + 1, 4, 4)
+                .add(FIRST_DAY, 7, 11)
+                .add(FIRST_DAY + 3, 99, 99)
+                .build();
+
+        assertEquals(3, series.size());
+        assertEquals(0, series.getCumulativeTotal(0), 0);
+        assertEquals(4, series.getTotal(), 0);
+    }
+
+    @Test
+    public void emptyAndReversedRanges() {
+        assertEquals(0, CumulativeSeries.empty().size());
+        assertEquals(0, CumulativeSeries.empty().getTotal(), 0);
+        assertEquals(0, new CumulativeSeries.Builder(FIRST_DAY, FIRST_DAY - 1).build().size());
+    }
+}
@@ -0,0 +1,108 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for DayHourRollup and DayHourMatrix, checked against a
+ * straight pass over the rows.
+ */
+public class DayHourRollupTest {
+
+    private static final int ROWS = 20000;
+    private static final int DAYS = 3 * 365;
+    private static final int FIRST_DAY = EpochDayUtils.fromCivil(2023, 1, 1);
+
+    @Test
+    public void singleExpense_landsInItsCell() {
+        // 2024-01-01 was a Monday
+        DayHourRollup rollup = new DayHourRollup();
+        int monday = EpochDayUtils.fromCivil(2024, 1, 1);
+        rollup.add(monday, EpochDayUtils.minuteOfDay("13:45"), 12.5);
+        rollup.add(monday + 6, EpochDayUtils.minuteOfDay("00:05"), 3);
+        // Malformed time
+        rollup.add(monday, EpochDayUtils.INVALID, 99);
+
+        DayHourMatrix matrix = new DayHourMatrix();
+        rollup.query(monday, monday + 6, matrix);
+        assertEquals(12.5, matrix.getTotal(0, 13), 0);
+        assertEquals(3, matrix.getTotal(6, 0), 0);
+        assertEquals(12.5, matrix.getMaxTotal(), 0);
+
+        DayHourMatrix sundayOnly = new DayHourMatrix();
+        rollup.query(monday + 6, monday + 6, sundayOnly);
+        assertEquals(0, sundayOnly.getTotal(0, 13), 0);
+        assertEquals(3, sundayOnly.getTotal(6, 0), 0);
+    }
+
+    @Test
+    public void anyRange_matchesStraightPass() {
+        Random random = new Random(39);
+        int[] days = new int[ROWS];
+        int[] minutes = new int[ROWS];
+        double[] amounts = new double[ROWS];
+
+        DayHourRollup rollup = new DayHourRollup();
+        for (int row = 0; row < ROWS; row++) {
+            days[row] = FIRST_DAY + random.nextInt(DAYS);
+            minutes[row] = random.nextInt(24 * 60);
+            amounts[row] = Math.round(random.nextDouble() * 10000) / 100.0;
+            rollup.add(days[row], minutes[row], amounts[row]);
+        }
+
+        // Remove every tenth expense again, as the store does for deletes
+        for (int row = 0; row < ROWS; row += 10) {
+            rollup.add(days[row], minutes[row], -amounts[row]);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            int start = FIRST_DAY - 10 + random.nextInt(DAYS + 20);
+            int end = start + random.nextInt(400);
+
+            DayHourMatrix expected = new DayHourMatrix();
+            for (int row = 0; row < ROWS; row++) {
+                if (row % 10 != 0 && days[row] >= start && days[row] <= end) {
+                    expected.add(EpochDayUtils.dayOfWeek(days[row]), minutes[row] / 60, amounts[row]);
+                }
+            }
+
+            DayHourMatrix actual = new DayHourMatrix();
+            rollup.query(start, end, actual);
+            for (int day = 0; day < DayHourMatrix.DAYS; day++) {
+                for (int hour = 0; hour < DayHourMatrix.HOURS; hour++) {
+                    assertEquals(expected.getTotal(day, hour), actual.getTotal(day, hour), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void emptyOrReversedRange_addsNothing() {
+        DayHourRollup rollup = new DayHourRollup();
+        rollup.add(FIRST_DAY, 600, 10);
+
+        DayHourMatrix matrix = new DayHourMatrix();
+        rollup.query(FIRST_DAY + 1, FIRST_DAY, matrix);
+        rollup.query(FIRST_DAY + 1, FIRST_DAY + 30, matrix);
+        assertEquals(0, matrix.getMaxTotal(), 0);
+    }
+
+    @Test
+    public void matrix_ignoresCellsOutOfRangeAndMerges() {
+        DayHourMatrix first = new DayHourMatrix();
+        first.add(7, 0, 5);
+        first.add(0, 24, 5);
+        first.add(2, 8, 4);
+
+        DayHourMatrix second = new DayHourMatrix();
+        second.add(2, 8, 1);
+        first.merge(second);
+
+        assertEquals(5, first.getTotal(2, 8), 0);
+        assertEquals(5, first.getMaxTotal(), 0);
+    }
+}
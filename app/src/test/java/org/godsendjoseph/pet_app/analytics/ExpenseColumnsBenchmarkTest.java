@@ -0,0 +1,155 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.models.Expense;
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Benchmarks the columnar snapshot against a List of Expense objects:
+ * retained heap and the speed of a category and month aggregation pass.
+ * The benchmark only runs with ./gradlew test -Pbenchmark; by default only
+ * the two scans are checked against each other.
+ */
+public class ExpenseColumnsBenchmarkTest {
+
+    private static final int ROWS = 100000;
+    private static final int CATEGORIES = 16;
+    private static final int FIRST_DAY = EpochDayUtils.fromCivil(2022, 1, 1);
+    private static final int DAYS = 3 * 365;
+
+    @Test
+    public void columnScan_matchesListScan() {
+        List<Expense> expenses = generateExpenses(ROWS / 10);
+        double[] listTotals = new double[CATEGORIES];
+        double[] columnTotals = new double[CATEGORIES];
+
+        scanList(expenses, listTotals);
+        scanColumns(toColumns(expenses), columnTotals);
+
+        assertArrayEquals(listTotals, columnTotals, 1e-6);
+    }
+
+    @Test
+    public void benchmark_footprintAndScanSpeed() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+
+        long before = usedHeap();
+        List<Expense> expenses = generateExpenses(ROWS);
+        long listBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ExpenseColumns columns = toColumns(expenses);
+        long columnBytes = usedHeap() - before;
+
+        double[] listTotals = new double[CATEGORIES];
+        double[] columnTotals = new double[CATEGORIES];
+        double listMillis = bestOf(new Runnable() {
+            @Override
+            public void run() {
+                scanList(expenses, listTotals);
+            }
+        });
+        double columnMillis = bestOf(new Runnable() {
+            @Override
+            public void run() {
+                scanColumns(columns, columnTotals);
+            }
+        });
+
+        assertArrayEquals(listTotals, columnTotals, 1e-6);
+
+        System.out.println(String.format("ExpenseColumns: %d rows, List<Expense> %d KB, columns %d KB (estimate %d KB)",
+                ROWS, listBytes / 1024, columnBytes / 1024, columns.estimateSizeBytes() / 1024));
+        System.out.println(String.format("ExpenseColumns: scan List<Expense> %.2f ms, columns %.2f ms, %.1fx faster",
+                listMillis, columnMillis, listMillis / columnMillis));
+    }
+
+    // Category totals plus a month lookup per row, as the insights aggregation does
+    private static void scanList(List<Expense> expenses, double[] totals) {
+        Arrays.fill(totals, 0);
+        long monthChecksum = 0;
+        for (Expense expense : expenses) {
+            totals[expense.getCategoryId()] += expense.getAmount();
+            monthChecksum += ExpenseAggregator.monthIndex(expense.getDate());
+        }
+        assertTrue(monthChecksum > 0);
+    }
+
+    private static void scanColumns(ExpenseColumns columns, double[] totals) {
+        Arrays.fill(totals, 0);
+        double[] amounts = columns.amounts;
+        int[] categoryIds = columns.categoryIds;
+        int[] epochDays = columns.epochDays;
+
+        long monthChecksum = 0;
+        int currentDay = EpochDayUtils.INVALID;
+        int monthIndex = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            totals[categoryIds[row]] += amounts[row];
+            if (epochDays[row] != currentDay) {
+                currentDay = epochDays[row];
+                monthIndex = EpochDayUtils.monthIndex(currentDay);
+            }
+            monthChecksum += monthIndex;
+        }
+        assertTrue(monthChecksum > 0);
+    }
+
+    // Rows ordered by date, with a fresh String per field as a cursor would return them
+    private static List<Expense> generateExpenses(int rows) {
+        Random random = new Random(3);
+        String[] locations = {"Tesco", "Asda", "Lidl", "Aldi", "Boots", "Shell", ""};
+        String[] titles = {"Groceries", "Coffee", "Lunch", "Fuel", "Pharmacy", "Train ticket"};
+
+        List<Expense> expenses = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            int epochDay = FIRST_DAY + (int) ((long) row * DAYS / rows);
+            int minute = random.nextInt(24 * 60);
+            expenses.add(new Expense(row + 1, 1, new String(titles[random.nextInt(titles.length)]),
+                    Math.round(random.nextDouble() * 10000) / 100.0,
+                    EpochDayUtils.toDate(epochDay), String.format("%02d:%02d", minute / 60, minute % 60),
+                    new String(locations[random.nextInt(locations.length)]), random.nextInt(CATEGORIES),
+                    "Notes for expense " + row, EpochDayUtils.toDate(epochDay) + " 12:00:00"));
+        }
+        return expenses;
+    }
+
+    private static ExpenseColumns toColumns(List<Expense> expenses) {
+        ExpenseColumns.Builder builder = new ExpenseColumns.Builder(expenses.size());
+        for (Expense expense : expenses) {
+            builder.add(expense.getCategoryId(), expense.getAmount(), EpochDayUtils.fromDate(expense.getDate()),
+                    EpochDayUtils.minuteOfDay(expense.getTime()), expense.getLocation(), expense.getTitle());
+        }
+        return builder.build();
+    }
+
+    // Best of several runs after warming up
+    private static double bestOf(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 20; run++) {
+            long start = System.nanoTime();
+            task.run();
+            long elapsed = System.nanoTime() - start;
+            if (run >= 5) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1e6;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,104 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for HeavyHitters, checked against exact totals.
+ */
+public class HeavyHittersTest {
+
+    private static final int ROWS = 200000;
+    private static final int DISTINCT_KEYS = 5000;
+    private static final int TOP = 10;
+
+    @Test
+    public void fewKeys_areExact() {
+        HeavyHitters hitters = new HeavyHitters();
+        hitters.add("Tesco", 10);
+        hitters.add("Asda", 5);
+        hitters.add("Tesco", 2.5);
+
+        List<HeavyHitters.Entry> top = hitters.getTop(TOP);
+        assertTrue(hitters.isExact());
+        assertEquals(2, top.size());
+        assertEquals("Tesco", top.get(0).getKey());
+        assertEquals(12.5, top.get(0).getAmount(), 0);
+        assertEquals(2, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError(), 0);
+    }
+
+    @Test
+    public void manyKeys_keepBoundedCountersAndFindTheTop() {
+        Map<String, Double> exact = new HashMap<>();
+        HeavyHitters hitters = new HeavyHitters();
+        for (String key : skewedKeys(ROWS, 1)) {
+            hitters.add(key, 1);
+            add(exact, key, 1);
+        }
+
+        assertFalse(hitters.isExact());
+        assertTopWithinBounds(exact, hitters.getTop(TOP));
+    }
+
+    @Test
+    public void mergedPartitions_findTheTop() {
+        Map<String, Double> exact = new HashMap<>();
+        HeavyHitters merged = new HeavyHitters();
+
+        // One sketch per partition, like one per day, merged into a fresh result
+        String[] keys = skewedKeys(ROWS, 2);
+        int partitions = 365;
+        for (int partition = 0; partition < partitions; partition++) {
+            HeavyHitters hitters = new HeavyHitters();
+            for (int i = partition; i < keys.length; i += partitions) {
+                hitters.add(keys[i], 1);
+                add(exact, keys[i], 1);
+            }
+            merged.merge(hitters);
+        }
+
+        assertEquals(ROWS, merged.getTotal(), 1e-6);
+        assertTopWithinBounds(exact, merged.getTop(TOP));
+    }
+
+    // Every estimate bounds the true total, and the top keys are among the true top keys
+    private static void assertTopWithinBounds(Map<String, Double> exact, List<HeavyHitters.Entry> top) {
+        List<Double> sortedTotals = new ArrayList<>(exact.values());
+        Collections.sort(sortedTotals, Collections.<Double>reverseOrder());
+
+        assertEquals(TOP, top.size());
+        assertEquals(sortedTotals.get(0), exact.get(top.get(0).getKey()));
+        for (HeavyHitters.Entry entry : top) {
+            double actual = exact.get(entry.getKey());
+            assertTrue(entry.getKey() + " underestimated", entry.getAmount() >= actual);
+            assertTrue(entry.getKey() + " beyond its error", entry.getAmount() - entry.getError() <= actual);
+            // Neighbouring ranks of the tail are close, so allow some slack in the order
+            assertTrue(entry.getKey() + " not a top key", actual >= sortedTotals.get(2 * TOP));
+        }
+    }
+
+    // Zipf-like keys, so a few merchants dominate a long tail
+    private static String[] skewedKeys(int count, long seed) {
+        Random random = new Random(seed);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            int rank = (int) Math.floor(Math.pow(DISTINCT_KEYS, random.nextDouble())) - 1;
+            keys[i] = "key" + rank;
+        }
+        return keys;
+    }
+
+    private static void add(Map<String, Double> totals, String key, double amount) {
+        Double total = totals.get(key);
+        totals.put(key, total == null ? amount : total + amount);
+    }
+}
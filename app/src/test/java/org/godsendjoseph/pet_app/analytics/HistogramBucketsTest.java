@@ -0,0 +1,83 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for HistogramBuckets and AmountHistogram.
+ */
+public class HistogramBucketsTest {
+
+    @Test
+    public void logScale_followsOneTwoFiveSeries() {
+        HistogramBuckets buckets = HistogramBuckets.logScale(1, 1000);
+
+        // <1, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000+
+        assertEquals(11, buckets.size());
+        assertEquals(1, buckets.getUpperBound(0), 0);
+        assertEquals(5, buckets.getLowerBound(3), 0);
+        assertEquals(1000, buckets.getLowerBound(10), 0);
+        assertEquals(Double.POSITIVE_INFINITY, buckets.getUpperBound(10), 0);
+    }
+
+    @Test
+    public void logScale_bucketOfUsesInclusiveLowerBounds() {
+        HistogramBuckets buckets = HistogramBuckets.logScale(1, 1000);
+
+        assertEquals(0, buckets.bucketOf(-3));
+        assertEquals(0, buckets.bucketOf(0.99));
+        assertEquals(1, buckets.bucketOf(1));
+        assertEquals(3, buckets.bucketOf(9.99));
+        assertEquals(4, buckets.bucketOf(10));
+        assertEquals(10, buckets.bucketOf(250000));
+    }
+
+    @Test
+    public void fixedWidth_clampsToFirstAndLastBucket() {
+        HistogramBuckets buckets = HistogramBuckets.fixedWidth(25, 4);
+
+        assertEquals(4, buckets.size());
+        assertEquals(0, buckets.bucketOf(-1));
+        assertEquals(0, buckets.bucketOf(24.99));
+        assertEquals(1, buckets.bucketOf(25));
+        assertEquals(3, buckets.bucketOf(75));
+        assertEquals(3, buckets.bucketOf(1e12));
+    }
+
+    @Test
+    public void labels_areCompact() {
+        HistogramBuckets buckets = HistogramBuckets.logScale(1, 5000);
+
+        assertEquals("<1", buckets.getLabel(0));
+        assertEquals("20", buckets.getLabel(5));
+        assertEquals("1k", buckets.getLabel(10));
+        assertEquals("5k+", buckets.getLabel(buckets.size() - 1));
+    }
+
+    @Test
+    public void bucketExpression_listsEveryBoundary() {
+        String expression = HistogramBuckets.logScale(1, 10).bucketExpression("amount");
+
+        assertEquals("CASE WHEN amount < 1.0 THEN 0 WHEN amount < 2.0 THEN 1"
+                + " WHEN amount < 5.0 THEN 2 WHEN amount < 10.0 THEN 3 ELSE 4 END", expression);
+    }
+
+    @Test
+    public void histogram_tracksNonEmptyRange() {
+        AmountHistogram histogram = new AmountHistogram(HistogramBuckets.logScale(1, 1000));
+        assertTrue(histogram.isEmpty());
+
+        histogram.addAmount(3);
+        histogram.addAmount(4.5);
+        histogram.addAmount(120);
+        histogram.add(99, 1, 1);
+
+        assertEquals(3, histogram.getTotalCount());
+        assertEquals(2, histogram.getCount(2));
+        assertEquals(7.5, histogram.getSum(2), 1e-9);
+        assertEquals(2, histogram.getFirstNonEmpty());
+        assertEquals(7, histogram.getLastNonEmpty());
+        assertEquals(2, histogram.getMaxCount());
+    }
+}
@@ -0,0 +1,142 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.utils.EpochDayUtils;
+import org.godsendjoseph.pet_app.utils.collections.IntObjectMap;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit tests for ParallelAggregation, including a speedup benchmark
+ * that only runs with ./gradlew test -Pbenchmark.
+ */
+public class ParallelAggregationTest {
+
+    private static final int ROWS = 400000;
+    private static final int DAYS = 3 * 365;
+    private static final int THRESHOLD = 16384;
+
+    @Test
+    public void parallelResult_matchesSequential() {
+        ExpenseColumns columns = generateColumns(ROWS);
+
+        DailyAggregates sequential = ParallelAggregation.aggregate(columns.size(),
+                DailyAggregates.over(columns), new ForkJoinPool(1), THRESHOLD);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        DailyAggregates parallel = ParallelAggregation.aggregate(columns.size(),
+                DailyAggregates.over(columns), pool, THRESHOLD);
+        pool.shutdown();
+
+        IntObjectMap<ExpenseAggregator> expectedDays = sequential.getDays();
+        assertEquals(expectedDays.size(), parallel.getDays().size());
+        for (int slot = 0; slot < expectedDays.slotCount(); slot++) {
+            if (!expectedDays.isUsed(slot)) {
+                continue;
+            }
+            ExpenseAggregator expected = expectedDays.valueAt(slot);
+            ExpenseAggregator actual = parallel.getDays().get(expectedDays.keyAt(slot));
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getTotal(), actual.getTotal(), 1e-6);
+            assertEquals(expected.getMaxAmount(), actual.getMaxAmount(), 0);
+            assertEquals(expected.getTopLocations(10).size(), actual.getTopLocations(10).size());
+            assertEquals(expected.getTopTitles(10).size(), actual.getTopTitles(10).size());
+        }
+    }
+
+    @Test
+    public void smallInput_runsSequentially() {
+        ExpenseColumns columns = generateColumns(100);
+
+        DailyAggregates daily = DailyAggregates.of(columns);
+
+        IntObjectMap<ExpenseAggregator> days = daily.getDays();
+        int count = 0;
+        for (int slot = 0; slot < days.slotCount(); slot++) {
+            if (days.isUsed(slot)) {
+                count += days.valueAt(slot).getCount();
+            }
+        }
+        assertEquals(100, count);
+    }
+
+    @Test
+    public void merge_leavesArgumentUnchanged() {
+        ExpenseColumns columns = generateColumns(1000, 10);
+        DailyAggregates left = new DailyAggregates();
+        DailyAggregates right = new DailyAggregates();
+        DailyAggregates.over(columns).accumulate(right, 0, 500);
+        DailyAggregates.over(columns).accumulate(left, 500, 1000);
+        DailyAggregates more = new DailyAggregates();
+        DailyAggregates.over(columns).accumulate(more, 0, 500);
+
+        int firstDay = columns.epochDays[0];
+        long rightCount = right.getDays().get(firstDay).getCount();
+        left.merge(right);
+        left.merge(more);
+
+        assertEquals(rightCount, right.getDays().get(firstDay).getCount());
+        assertEquals(2 * rightCount, left.getDays().get(firstDay).getCount());
+    }
+
+    @Test
+    public void benchmark_speedupByCoreCount() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+
+        ExpenseColumns columns = generateColumns(ROWS);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        double baseline = 0;
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            double millis = time(columns, pool);
+            pool.shutdown();
+
+            if (parallelism == 1) {
+                baseline = millis;
+            }
+            System.out.println(String.format("ParallelAggregation: %d rows, parallelism %d: %.1f ms, speedup %.2fx",
+                    ROWS, parallelism, millis, baseline / millis));
+        }
+    }
+
+    // Best of several runs after warming up
+    private static double time(ExpenseColumns columns, ForkJoinPool pool) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 8; run++) {
+            long start = System.nanoTime();
+            DailyAggregates daily = ParallelAggregation.aggregate(columns.size(),
+                    DailyAggregates.over(columns), pool, THRESHOLD);
+            long elapsed = System.nanoTime() - start;
+            assertNotNull(daily);
+            if (run >= 3) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1e6;
+    }
+
+    // Rows ordered by date, as ExpenseDAO reads them
+    static ExpenseColumns generateColumns(int rows) {
+        return generateColumns(rows, DAYS);
+    }
+
+    static ExpenseColumns generateColumns(int rows, int days) {
+        Random random = new Random(42);
+        int firstDay = EpochDayUtils.fromCivil(2022, 1, 1);
+        String[] locations = {"Tesco", "Asda", "Lidl", "Aldi", "Boots", "Shell", null};
+        String[] titles = {"Groceries", "Coffee", "Lunch", "Fuel", "Pharmacy", "Train ticket", null};
+
+        ExpenseColumns.Builder builder = new ExpenseColumns.Builder();
+        for (int row = 0; row < rows; row++) {
+            builder.add(1 + random.nextInt(8), Math.round(random.nextDouble() * 10000) / 100.0,
+                    firstDay + (int) ((long) row * days / rows), random.nextInt(24 * 60),
+                    locations[random.nextInt(locations.length)], titles[random.nextInt(titles.length)]);
+        }
+        return builder.build();
+    }
+}
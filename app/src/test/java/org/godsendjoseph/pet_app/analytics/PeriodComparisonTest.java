@@ -0,0 +1,65 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.models.CategoryComparison;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for PeriodComparison.
+ */
+public class PeriodComparisonTest {
+
+    @Test
+    public void previousPeriod_hasTheSameLength() {
+        assertArrayEquals(new String[]{"2024-02-01", "2024-02-29"},
+                PeriodComparison.previousPeriod("2024-03-01", "2024-03-29"));
+        assertArrayEquals(new String[]{"2023-12-31", "2023-12-31"},
+                PeriodComparison.previousPeriod("2024-01-01", "2024-01-01"));
+        assertNull(PeriodComparison.previousPeriod("2024-03-02", "2024-03-01"));
+        assertNull(PeriodComparison.previousPeriod("bad", "2024-03-01"));
+    }
+
+    @Test
+    public void sameRangeLastYear_clampsLeapDay() {
+        assertArrayEquals(new String[]{"2023-02-01", "2023-02-28"},
+                PeriodComparison.sameRangeLastYear("2024-02-01", "2024-02-29"));
+        assertArrayEquals(new String[]{"2022-12-15", "2023-01-14"},
+                PeriodComparison.sameRangeLastYear("2023-12-15", "2024-01-14"));
+    }
+
+    @Test
+    public void categories_sortedByLargestChange() {
+        PeriodComparison comparison = new PeriodComparison();
+        comparison.add(1, 120, 100);
+        comparison.add(2, 10, 90);
+        comparison.add(3, 50, 0);
+        // Not in the category list, but part of the totals
+        comparison.add(0, 5, 5);
+
+        List<Category> categories = Arrays.asList(
+                new Category(1, "Food", null, "#4CAF50", 1),
+                new Category(2, "Travel", null, "#2196F3", 1),
+                new Category(3, "Health", null, "#F44336", 1),
+                new Category(4, "Unused", null, "#795548", 1));
+
+        List<CategoryComparison> rows = comparison.getCategoryComparisons(categories);
+        assertEquals(3, rows.size());
+        assertEquals("Travel", rows.get(0).getLabel());
+        assertEquals(-80, rows.get(0).getDelta(), 1e-9);
+        assertEquals(-88.888, rows.get(0).getPercentChange(), 1e-3);
+        assertEquals("Health", rows.get(1).getLabel());
+        assertFalse(rows.get(1).hasBaseline());
+        assertTrue(Double.isNaN(rows.get(1).getPercentChange()));
+        assertEquals("Food", rows.get(2).getLabel());
+        assertEquals(20, rows.get(2).getPercentChange(), 1e-9);
+
+        CategoryComparison total = comparison.getTotalComparison("All categories");
+        assertEquals(185, total.getCurrentAmount(), 1e-9);
+        assertEquals(195, total.getBaselineAmount(), 1e-9);
+    }
+}
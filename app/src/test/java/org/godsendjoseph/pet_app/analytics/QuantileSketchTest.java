@@ -0,0 +1,117 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for QuantileSketch, checked against exact sorted quantiles.
+ */
+public class QuantileSketchTest {
+
+    private static final int VALUES = 200000;
+    private static final double[] FRACTIONS = {0.5, 0.75, 0.9, 0.99};
+
+    // Allowed rank error; the sketch targets about 1% with the default k
+    private static final double RANK_ERROR = 0.02;
+
+    @Test
+    public void empty_returnsNaN() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+    }
+
+    @Test
+    public void smallInput_isExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+        assertEquals(50, sketch.getQuantile(0.5), 0);
+        assertEquals(90, sketch.getQuantile(0.9), 0);
+        assertEquals(1, sketch.getQuantile(0), 0);
+        assertEquals(100, sketch.getQuantile(1), 0);
+    }
+
+    @Test
+    public void largeInput_withinRankError() {
+        double[] values = skewedAmounts(VALUES, 1);
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+
+        assertEquals(VALUES, sketch.getCount());
+        assertWithinRankError(values, sketch.getQuantiles(FRACTIONS));
+    }
+
+    @Test
+    public void mergedPartitions_withinRankError() {
+        double[] values = skewedAmounts(VALUES, 2);
+
+        // One sketch per partition, like one per day, merged into a fresh result
+        QuantileSketch merged = new QuantileSketch();
+        int partitions = 365;
+        for (int partition = 0; partition < partitions; partition++) {
+            QuantileSketch sketch = new QuantileSketch();
+            for (int i = partition; i < values.length; i += partitions) {
+                sketch.add(values[i]);
+            }
+            merged.merge(sketch);
+        }
+
+        assertEquals(VALUES, merged.getCount());
+        assertWithinRankError(values, merged.getQuantiles(FRACTIONS));
+    }
+
+    @Test
+    public void aggregator_tracksQuantilesAndMarksRemovalInexact() {
+        ExpenseAggregator aggregator = new ExpenseAggregator();
+        for (int i = 1; i <= 100; i++) {
+            aggregator.add(1, i, 24000, null, null);
+        }
+        assertTrue(aggregator.isExact());
+        assertEquals(1, aggregator.getMonthQuantiles().size());
+        assertEquals(50, aggregator.getMonthQuantiles().get(0).getMedian(), 0);
+
+        aggregator.remove(1, 100, 24000);
+        assertFalse(aggregator.isExact());
+    }
+
+    private static void assertWithinRankError(double[] values, double[] estimates) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int q = 0; q < FRACTIONS.length; q++) {
+            double rank = rankOf(sorted, estimates[q]);
+            assertEquals("p" + (int) (FRACTIONS[q] * 100), FRACTIONS[q], rank, RANK_ERROR);
+        }
+    }
+
+    // Fraction of values at or below the given value
+    private static double rankOf(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            while (index + 1 < sorted.length && sorted[index + 1] == value) {
+                index++;
+            }
+            index++;
+        }
+        return index / (double) sorted.length;
+    }
+
+    // Log-normal amounts, skewed like real spending
+    private static double[] skewedAmounts(int count, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.round(Math.exp(3 + random.nextGaussian()) * 100) / 100.0;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,102 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for RunningStats.
+ */
+public class RunningStatsTest {
+
+    private static final double[] AMOUNTS = {12.5, 40, 18, 22.75, 31, 9.99, 27};
+
+    @Test
+    public void meanAndVariance_matchTwoPassValues() {
+        RunningStats stats = new RunningStats();
+        for (double amount : AMOUNTS) {
+            stats.add(amount);
+        }
+
+        double mean = 0;
+        for (double amount : AMOUNTS) {
+            mean += amount / AMOUNTS.length;
+        }
+        double variance = 0;
+        for (double amount : AMOUNTS) {
+            variance += (amount - mean) * (amount - mean) / (AMOUNTS.length - 1);
+        }
+
+        assertEquals(AMOUNTS.length, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-9);
+        assertEquals(variance, stats.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void remove_undoesAdd() {
+        RunningStats stats = new RunningStats();
+        for (double amount : AMOUNTS) {
+            stats.add(amount);
+        }
+        RunningStats without = new RunningStats(stats.getCount(), stats.getMean(), stats.getM2());
+        without.add(500);
+        without.remove(500);
+
+        assertEquals(stats.getCount(), without.getCount());
+        assertEquals(stats.getMean(), without.getMean(), 1e-9);
+        assertEquals(stats.getVariance(), without.getVariance(), 1e-9);
+
+        RunningStats single = new RunningStats();
+        single.add(10);
+        single.remove(10);
+        assertEquals(0, single.getCount());
+        assertEquals(0, single.getMean(), 0);
+    }
+
+    @Test
+    public void merge_matchesAddingOneByOne() {
+        RunningStats all = new RunningStats();
+        RunningStats first = new RunningStats();
+        RunningStats second = new RunningStats();
+        for (int i = 0; i < AMOUNTS.length; i++) {
+            all.add(AMOUNTS[i]);
+            (i < 3 ? first : second).add(AMOUNTS[i]);
+        }
+
+        first.merge(second);
+        first.merge(new RunningStats());
+
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMean(), first.getMean(), 1e-9);
+        assertEquals(all.getVariance(), first.getVariance(), 1e-9);
+
+        RunningStats empty = new RunningStats();
+        empty.merge(all);
+        assertEquals(all.getMean(), empty.getMean(), 1e-9);
+        assertEquals(all.getVariance(), empty.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void unusuallyLarge_needsEnoughHistoryAndAClearJump() {
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < RunningStats.MIN_SAMPLES - 1; i++) {
+            stats.add(20 + i);
+        }
+        assertFalse(stats.isUnusuallyLarge(1000));
+
+        stats.add(20);
+        assertTrue(stats.isUnusuallyLarge(1000));
+        assertFalse(stats.isUnusuallyLarge(25));
+    }
+
+    @Test
+    public void steadyAmounts_flagOnlyLargeChanges() {
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < 10; i++) {
+            stats.add(50);
+        }
+
+        assertFalse(stats.isUnusuallyLarge(55));
+        assertTrue(stats.isUnusuallyLarge(80));
+    }
+}
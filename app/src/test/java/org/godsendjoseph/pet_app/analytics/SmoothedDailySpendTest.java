@@ -0,0 +1,107 @@
+package org.godsendjoseph.pet_app.analytics;
+
+import org.godsendjoseph.pet_app.models.SpendForecast;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for SmoothedDailySpend.
+ */
+public class SmoothedDailySpendTest {
+
+    private static final int FIRST_DAY = 19723;
+
+    @Test
+    public void emptyDays_closedInOneStep_matchDayByDay() {
+        SmoothedDailySpend jumped = new SmoothedDailySpend();
+        SmoothedDailySpend stepped = new SmoothedDailySpend();
+        double[] spend = {12, 30, 7};
+        for (int index = 0; index < spend.length; index++) {
+            jumped.add(FIRST_DAY + index, spend[index]);
+            stepped.add(FIRST_DAY + index, spend[index]);
+        }
+
+        jumped.add(FIRST_DAY + 9, 4);
+        for (int day = FIRST_DAY + 3; day < FIRST_DAY + 9; day++) {
+            stepped.add(day, 0);
+        }
+        stepped.add(FIRST_DAY + 9, 4);
+
+        assertEquals(stepped.getObservations(), jumped.getObservations());
+        assertEquals(stepped.getLevel(), jumped.getLevel(), 1e-9);
+        assertEquals(stepped.getVariance(), jumped.getVariance(), 1e-9);
+        assertEquals(4, jumped.getDayTotal(), 0);
+    }
+
+    @Test
+    public void backdatedAmount_shiftsLevelAsIfAddedInOrder() {
+        SmoothedDailySpend late = new SmoothedDailySpend();
+        late.add(FIRST_DAY, 10);
+        late.add(FIRST_DAY + 1, 20);
+        late.add(FIRST_DAY + 2, 5);
+        late.add(FIRST_DAY + 3, 8);
+        late.add(FIRST_DAY + 1, 6);
+
+        SmoothedDailySpend inOrder = new SmoothedDailySpend();
+        inOrder.add(FIRST_DAY, 10);
+        inOrder.add(FIRST_DAY + 1, 26);
+        inOrder.add(FIRST_DAY + 2, 5);
+        inOrder.add(FIRST_DAY + 3, 8);
+
+        assertEquals(inOrder.getLevel(), late.getLevel(), 1e-9);
+    }
+
+    @Test
+    public void removal_undoesAnAddition() {
+        SmoothedDailySpend state = new SmoothedDailySpend(FIRST_DAY, 15, 9, 4, 20);
+        state.add(FIRST_DAY, 5);
+        state.add(FIRST_DAY - 3, 7);
+        state.add(FIRST_DAY - 3, -7);
+        state.add(FIRST_DAY, -5);
+
+        assertEquals(15, state.getDayTotal(), 1e-9);
+        assertEquals(9, state.getLevel(), 1e-9);
+        assertEquals(FIRST_DAY, state.getLastDay());
+    }
+
+    @Test
+    public void steadySpend_projectsTheRestOfThePeriod() {
+        SmoothedDailySpend state = new SmoothedDailySpend();
+        for (int day = FIRST_DAY; day < FIRST_DAY + 60; day++) {
+            state.add(day, 10);
+        }
+
+        // Today's 10 is already spent, 5 more days to go
+        int today = FIRST_DAY + 59;
+        SpendForecast forecast = state.forecast("All", null, today, today + 5, 100);
+        assertEquals(150, forecast.getProjectedAmount(), 1e-6);
+        assertEquals(150, forecast.getLowAmount(), 1e-6);
+        assertEquals(150, forecast.getHighAmount(), 1e-6);
+
+        // Reading does not change the state
+        state.forecast("All", null, today + 3, today + 5, 100);
+        assertEquals(today, state.getLastDay());
+    }
+
+    @Test
+    public void noisySpend_bandStaysAboveWhatWasSpent() {
+        SmoothedDailySpend state = new SmoothedDailySpend();
+        for (int day = FIRST_DAY; day < FIRST_DAY + 30; day++) {
+            state.add(day, day % 3 == 0 ? 60 : 0);
+        }
+
+        SpendForecast forecast = state.forecast("All", null, FIRST_DAY + 31, FIRST_DAY + 40, 250);
+        assertTrue(forecast.getLowAmount() >= 250);
+        assertTrue(forecast.getLowAmount() < forecast.getProjectedAmount());
+        assertTrue(forecast.getHighAmount() > forecast.getProjectedAmount());
+    }
+
+    @Test
+    public void withoutHistory_projectsOnlyWhatWasSpent() {
+        SpendForecast forecast = new SmoothedDailySpend().forecast("All", null, FIRST_DAY, FIRST_DAY + 10, 42);
+        assertEquals(42, forecast.getProjectedAmount(), 0);
+        assertEquals(42, forecast.getLowAmount(), 0);
+        assertEquals(42, forecast.getHighAmount(), 0);
+    }
+}
@@ -0,0 +1,50 @@
+package org.godsendjoseph.pet_app.utils;
+
+import org.godsendjoseph.pet_app.models.Category;
+import org.godsendjoseph.pet_app.models.ExpenseSummary;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for ColorUtils and the colors models parse with it.
+ */
+public class ColorUtilsTest {
+
+    private static final int FALLBACK = 0xFF9E9E9E;
+
+    @Test
+    public void parseColor_readsRgbAsOpaque() {
+        assertEquals(0xFF4CAF50, ColorUtils.parseColor("#4CAF50", FALLBACK));
+        assertEquals(0xFFF44336, ColorUtils.parseColor("#f44336", FALLBACK));
+        assertEquals(0xFF000000, ColorUtils.parseColor("#000000", FALLBACK));
+    }
+
+    @Test
+    public void parseColor_readsArgb() {
+        assertEquals(0x804CAF50, ColorUtils.parseColor("#804CAF50", FALLBACK));
+        assertEquals(0xFFFFFFFF, ColorUtils.parseColor("#FFFFFFFF", FALLBACK));
+    }
+
+    @Test
+    public void parseColor_fallsBackOnMalformedCodes() {
+        String[] malformed = {null, "", "#", "4CAF50", "#4CAF5", "#4CAF500", "#4CAG50", "red", " #4CAF50"};
+        for (String color : malformed) {
+            assertEquals(FALLBACK, ColorUtils.parseColor(color, FALLBACK));
+        }
+    }
+
+    @Test
+    public void models_parseColorOnceWhenSet() {
+        Category category = new Category("Food", "Meals", "#FF9800", 0);
+        assertEquals(0xFFFF9800, category.getColorValue());
+
+        category.setColor("not a color");
+        assertFalse(ColorUtils.hasColor(category.getColorValue()));
+
+        ExpenseSummary summary = new ExpenseSummary("Food", 10, 50, "#2196F3");
+        assertEquals(0xFF2196F3, summary.getColorValue());
+        assertFalse(ColorUtils.hasColor(new ExpenseSummary().getColorValue()));
+    }
+}
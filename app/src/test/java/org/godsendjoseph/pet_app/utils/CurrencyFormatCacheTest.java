@@ -0,0 +1,123 @@
+package org.godsendjoseph.pet_app.utils;
+
+import org.junit.Test;
+
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit tests for CurrencyFormatCache, with a throughput benchmark
+ * against building a NumberFormat per call as CurrencyUtils used to. The
+ * benchmark only runs with ./gradlew test -Pbenchmark.
+ */
+public class CurrencyFormatCacheTest {
+
+    private static final int CALLS = 200000;
+
+    @Test
+    public void format_matchesFreshNumberFormat() {
+        CurrencyFormatCache cache = new CurrencyFormatCache();
+        double[] amounts = {0, 1.5, -42.25, 1234567.891};
+
+        for (double amount : amounts) {
+            assertEquals(freshFormat(Locale.UK, "GBP", amount), cache.format(Locale.UK, "GBP", amount));
+            assertEquals(freshFormat(Locale.US, "EUR", amount), cache.format(Locale.US, "EUR", amount));
+            assertEquals(freshFormat(Locale.JAPAN, "JPY", amount), cache.format(Locale.JAPAN, "JPY", amount));
+        }
+    }
+
+    @Test
+    public void format_switchesWithLocaleAndCurrency() {
+        CurrencyFormatCache cache = new CurrencyFormatCache();
+
+        String dollars = cache.format(Locale.US, "USD", 10);
+        String pounds = cache.format(Locale.US, "GBP", 10);
+        assertNotEquals(dollars, pounds);
+        assertEquals(dollars, cache.format(Locale.US, "USD", 10));
+
+        cache.clear();
+        assertEquals(pounds, cache.format(Locale.US, "GBP", 10));
+    }
+
+    @Test
+    public void formatTo_appendsToBuffer() {
+        CurrencyFormatCache cache = new CurrencyFormatCache();
+        StringBuffer out = new StringBuffer("Total: ");
+
+        cache.formatTo(Locale.US, "USD", 12.5, out);
+
+        assertEquals("Total: " + freshFormat(Locale.US, "USD", 12.5), out.toString());
+    }
+
+    @Test
+    public void formatWholeAndPercent_matchFreshNumberFormat() {
+        CurrencyFormatCache cache = new CurrencyFormatCache();
+
+        NumberFormat whole = NumberFormat.getCurrencyInstance(Locale.UK);
+        whole.setCurrency(Currency.getInstance("GBP"));
+        whole.setMaximumFractionDigits(0);
+        assertEquals(whole.format(1234.56), cache.formatWhole(Locale.UK, "GBP", 1234.56));
+        // The whole-unit formatter does not change the regular one
+        assertEquals(freshFormat(Locale.UK, "GBP", 1234.56), cache.format(Locale.UK, "GBP", 1234.56));
+
+        NumberFormat percent = NumberFormat.getPercentInstance(Locale.GERMANY);
+        percent.setMinimumFractionDigits(1);
+        percent.setMaximumFractionDigits(1);
+        assertEquals(percent.format(0.125), cache.formatPercent(Locale.GERMANY, 0.125));
+    }
+
+    @Test
+    public void benchmark_cachedAgainstPerCallFormat() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+
+        CurrencyFormatCache cache = new CurrencyFormatCache();
+        final long[] checksum = new long[2];
+
+        double perCallMillis = bestOf(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < CALLS; i++) {
+                    checksum[0] += freshFormat(Locale.UK, "GBP", i * 0.37).length();
+                }
+            }
+        });
+        double cachedMillis = bestOf(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < CALLS; i++) {
+                    checksum[1] += cache.format(Locale.UK, "GBP", i * 0.37).length();
+                }
+            }
+        });
+
+        assertEquals(checksum[0], checksum[1]);
+        System.out.println(String.format("CurrencyFormatCache: %d calls, per-call NumberFormat %.1f ms, "
+                        + "cached %.1f ms, %.1fx faster (%.0f ns per call)",
+                CALLS, perCallMillis, cachedMillis, perCallMillis / cachedMillis, cachedMillis * 1e6 / CALLS));
+    }
+
+    // What CurrencyUtils.formatCurrency used to do on every call
+    private static String freshFormat(Locale locale, String currencyCode, double amount) {
+        NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        format.setCurrency(Currency.getInstance(currencyCode));
+        return format.format(amount);
+    }
+
+    // Best of several runs after warming up
+    private static double bestOf(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 8; run++) {
+            long start = System.nanoTime();
+            task.run();
+            long elapsed = System.nanoTime() - start;
+            if (run >= 3) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best / 1e6;
+    }
+}
@@ -0,0 +1,36 @@
+package org.godsendjoseph.pet_app.utils;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for EpochDayUtils, checked against java.time on the host JVM.
+ */
+public class EpochDayUtilsTest {
+
+    @Test
+    public void conversions_matchJavaTime() {
+        LocalDate end = LocalDate.of(2101, 1, 1);
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(end); date = date.plusDays(1)) {
+            int epochDay = (int) date.toEpochDay();
+
+            assertEquals(epochDay, EpochDayUtils.fromDate(date.toString()));
+            assertEquals(date.toString(), EpochDayUtils.toDate(epochDay));
+            assertEquals(date.getYear() * 12 + date.getMonthValue() - 1, EpochDayUtils.monthIndex(epochDay));
+            assertEquals(date.getDayOfWeek().getValue() - 1, EpochDayUtils.dayOfWeek(epochDay));
+        }
+    }
+
+    @Test
+    public void malformedInput_isInvalid() {
+        assertEquals(EpochDayUtils.INVALID, EpochDayUtils.fromDate(null));
+        assertEquals(EpochDayUtils.INVALID, EpochDayUtils.fromDate("2024/01/01"));
+        assertEquals(EpochDayUtils.INVALID, EpochDayUtils.fromDate("2024-13-01"));
+        assertEquals(EpochDayUtils.INVALID, EpochDayUtils.minuteOfDay("24:00"));
+        assertEquals(EpochDayUtils.INVALID, EpochDayUtils.minuteOfDay("9:30"));
+        assertEquals(9 * 60 + 30, EpochDayUtils.minuteOfDay("09:30"));
+    }
+}
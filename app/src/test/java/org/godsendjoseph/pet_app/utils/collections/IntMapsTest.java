@@ -0,0 +1,104 @@
+package org.godsendjoseph.pet_app.utils.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the primitive int-keyed maps.
+ */
+public class IntMapsTest {
+
+    @Test
+    public void intDoubleMap_matchesHashMapUnderRandomOperations() {
+        Random random = new Random(1);
+        IntDoubleMap map = new IntDoubleMap();
+        Map<Integer, Double> expected = new HashMap<>();
+
+        for (int operation = 0; operation < 200000; operation++) {
+            // Small key range so removals shift colliding entries often
+            int key = random.nextInt(500) * 64;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                double delta = random.nextInt(100);
+                Double previous = expected.get(key);
+                expected.put(key, (previous != null ? previous : 0) + delta);
+                map.addTo(key, delta);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Double> entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), map.get(entry.getKey()), 0);
+        }
+    }
+
+    @Test
+    public void intLongMap_slotIterationVisitsEveryKey() {
+        IntLongMap map = new IntLongMap();
+        for (int key = -1000; key < 1000; key++) {
+            map.addTo(key, key * 2L);
+        }
+
+        long keySum = 0;
+        long valueSum = 0;
+        int visited = 0;
+        for (int slot = 0; slot < map.slotCount(); slot++) {
+            if (map.isUsed(slot)) {
+                keySum += map.keyAt(slot);
+                valueSum += map.valueAt(slot);
+                visited++;
+            }
+        }
+
+        assertEquals(2000, visited);
+        assertEquals(-1000, keySum);
+        assertEquals(-2000, valueSum);
+    }
+
+    @Test
+    public void put_survivesGrowth() {
+        IntObjectMap<Integer> objects = new IntObjectMap<>();
+        IntDoubleMap doubles = new IntDoubleMap();
+        IntLongMap longs = new IntLongMap();
+        for (int key = 0; key < 1000; key++) {
+            objects.put(key, key);
+            doubles.put(key, key);
+            longs.put(key, key);
+        }
+
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(Integer.valueOf(key), objects.get(key));
+            assertEquals(key, doubles.get(key), 0);
+            assertEquals(key, longs.get(key));
+        }
+    }
+
+    @Test
+    public void intObjectMap_putGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(0, "zero");
+        map.put(Integer.MIN_VALUE, "min");
+        map.put(Integer.MAX_VALUE, "max");
+
+        assertEquals("zero", map.get(0));
+        assertEquals("min", map.get(Integer.MIN_VALUE));
+        assertEquals("max", map.get(Integer.MAX_VALUE));
+        assertNull(map.get(1));
+
+        assertTrue(map.remove(0));
+        assertFalse(map.remove(0));
+        assertNull(map.get(0));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(Integer.MAX_VALUE));
+    }
+}